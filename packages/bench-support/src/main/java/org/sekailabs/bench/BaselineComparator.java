@@ -0,0 +1,84 @@
+package org.sekailabs.bench;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files: a benchmark regresses when its throughput drops, or its
+ * normalized allocation ({@code gc.alloc.rate.norm}, bytes per operation) grows, by more than the
+ * tolerance.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar org.sekailabs.bench.BaselineComparator <result.json> <baseline.json> [tolerance-percent]}
+ */
+public final class BaselineComparator {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BaselineComparator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <result.json> <baseline.json> [tolerance-percent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        int regressions = compare(Path.of(args[0]), Path.of(args[1]), tolerance, System.out);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    public static int compare(Path result, Path baseline, double tolerance, PrintStream out) throws IOException {
+        Map<String, JsonNode> current = read(result);
+        Map<String, JsonNode> expected = read(baseline);
+        int regressions = 0;
+
+        out.printf("%-80s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "ops/ms", "baseline", "delta", "B/op", "baseline", "delta");
+        for (Map.Entry<String, JsonNode> entry : new TreeMap<>(current).entrySet()) {
+            JsonNode base = expected.get(entry.getKey());
+            double score = entry.getValue().path("primaryMetric").path("score").asDouble();
+            double allocation = allocation(entry.getValue());
+            if (base == null) {
+                out.printf("%-80s %14.3f %14s %8s %12.1f %12s %8s%n", entry.getKey(), score, "-", "new", allocation, "-", "new");
+                continue;
+            }
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double baseAllocation = allocation(base);
+            double scoreDelta = percent(score, baseScore);
+            double allocationDelta = percent(allocation, baseAllocation);
+            boolean regressed = scoreDelta < -tolerance || allocationDelta > tolerance;
+            if (regressed) regressions++;
+            out.printf("%-80s %14.3f %14.3f %7.1f%% %12.1f %12.1f %7.1f%%%s%n",
+                    entry.getKey(), score, baseScore, scoreDelta, allocation, baseAllocation, allocationDelta,
+                    regressed ? "  REGRESSION" : "");
+        }
+        out.printf("%d regression(s) at %.1f%% tolerance%n", regressions, tolerance);
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(node.path("benchmark").asText());
+            node.path("params").properties().forEach(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            results.put(key.toString(), node);
+        }
+        return results;
+    }
+
+    private static double allocation(JsonNode node) {
+        JsonNode metric = node.path("secondaryMetrics").path(ALLOCATION);
+        return metric.isMissingNode() ? 0d : metric.path("score").asDouble();
+    }
+
+    private static double percent(double current, double baseline) {
+        if (baseline == 0d) return 0d;
+        return (current - baseline) / baseline * 100d;
+    }
+}
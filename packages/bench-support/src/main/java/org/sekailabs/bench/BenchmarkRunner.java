@@ -0,0 +1,57 @@
+package org.sekailabs.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks with the GC profiler, writes JMH JSON results and compares them with the
+ * baseline file. Shared by the bench modules; each one's uber jar holds only its own benchmarks,
+ * which all run by default.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar org.sekailabs.bench.BenchmarkRunner [include-regex]}
+ * with the system properties {@code result} (default {@code target/jmh-result.json}),
+ * {@code baseline} (default {@code baseline/jmh-baseline.json}), {@code tolerance} (percent, default 10)
+ * and {@code quick} (fewer, shorter iterations for a smoke run).
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 ? args[0] : ".*";
+        Path result = Path.of(System.getProperty("result", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("baseline", "baseline/jmh-baseline.json"));
+        double tolerance = Double.parseDouble(System.getProperty("tolerance", "10"));
+
+        if (result.getParent() != null) {
+            Files.createDirectories(result.getParent());
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        if (Boolean.getBoolean("quick")) {
+            options.warmupIterations(2)
+                    .warmupTime(TimeValue.milliseconds(500))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.milliseconds(500));
+        }
+        new Runner(options.build()).run();
+
+        if (Files.exists(baseline)) {
+            int regressions = BaselineComparator.compare(result, baseline, tolerance, System.out);
+            if (regressions > 0) {
+                System.exit(1);
+            }
+        } else {
+            System.out.println("No baseline at " + baseline + ", skipping comparison");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.sekailabs.jpaq.bench;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "bench_entity")
+public class BenchEntity {
+    @Id
+    @GeneratedValue
+    private Long id;
+    private String name;
+    private String status;
+    private String description;
+    private Integer quantity;
+    private BigDecimal price;
+    private Boolean active;
+    private LocalDate releaseDate;
+    private LocalDateTime createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,27 @@
+package org.sekailabs.jpaq.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+import org.sekailabs.jpaq.repositories.BaseRepository;
+
+public interface BenchRepository extends BaseRepository<BenchEntity, Long> {
+
+    /**
+     * Repository whose default methods run for real and whose Spring Data methods are unavailable,
+     * which is enough to benchmark predicate building without a Spring context.
+     */
+    static BenchRepository defaultMethodsOnly() {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        };
+        return (BenchRepository) Proxy.newProxyInstance(
+                BenchRepository.class.getClassLoader(),
+                new Class<?>[]{BenchRepository.class},
+                handler
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package org.sekailabs.jpaq.bench;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-memory H2 + Hibernate bootstrap, without Spring, used to obtain a real {@code CriteriaBuilder}.
+ */
+final class HibernateFixture implements AutoCloseable {
+    private final SessionFactory sessionFactory;
+    private final EntityManager entityManager;
+
+    HibernateFixture() {
+        this.sessionFactory = new Configuration()
+                .addAnnotatedClass(BenchEntity.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:jpaq-bench;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.show_sql", "false")
+                .buildSessionFactory();
+        this.entityManager = sessionFactory.createEntityManager();
+    }
+
+    EntityManager entityManager() {
+        return entityManager;
+    }
+
+    @Override
+    public void close() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+}
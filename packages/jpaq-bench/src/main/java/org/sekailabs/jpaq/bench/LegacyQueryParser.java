@@ -0,0 +1,91 @@
+package org.sekailabs.jpaq.bench;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Verbatim copy of the jpaq 0.0.2 {@code QueryWrapperBuilder.search} parser, kept as the
+ * reference point for the tokenizer benchmarks.
+ */
+final class LegacyQueryParser {
+    private LegacyQueryParser() {}
+
+    static Map<String, QueryFieldWrapper> search(String queryString) {
+        Map<String, QueryFieldWrapper> search = new HashMap<>();
+        if (queryString == null || queryString.isEmpty()) return search;
+        try {
+            String decodedQuery = URLDecoder.decode(queryString, StandardCharsets.UTF_8);
+            Map<String, String> queryParams = Arrays.stream(decodedQuery.split("&"))
+                    .map(pair -> pair.split("="))
+                    .filter(parts -> parts.length == 2)
+                    .collect(Collectors.toMap(parts -> parts[0], parts -> parts[1]));
+
+            queryParams.forEach((key, value) -> {
+                String camelKey = kebabToCamel(key);
+                QueryOperatorEnum type = QueryOperatorEnum.EQ;
+                Object queryValue = value;
+                if (value.startsWith("~")) {
+                    type = QueryOperatorEnum.LIKE;
+                    queryValue = value.substring(1);
+                } else if (value.startsWith(">=")) {
+                    type = QueryOperatorEnum.GTE;
+                    queryValue = value.substring(2);
+                } else if (value.startsWith("<=")) {
+                    type = QueryOperatorEnum.LTE;
+                    queryValue = value.substring(2);
+                } else if (value.startsWith(">")) {
+                    type = QueryOperatorEnum.GT;
+                    queryValue = value.substring(1);
+                } else if (value.startsWith("<")) {
+                    type = QueryOperatorEnum.LT;
+                    queryValue = value.substring(1);
+                } else if (value.startsWith("!")) {
+                    type = QueryOperatorEnum.NE;
+                    queryValue = value.substring(1);
+                } else if (value.contains(",")) {
+                    type = QueryOperatorEnum.IN;
+                    queryValue = Arrays.asList(value.split(","));
+                } else if (value.contains("..")) {
+                    type = QueryOperatorEnum.BETWEEN;
+                    String[] range = value.split("\\.\\.");
+                    if (range.length == 2) {
+                        queryValue = Arrays.asList(range[0], range[1]);
+                    }
+                }
+                search.put(camelKey, QueryFieldWrapper.builder()
+                        .operator(type)
+                        .value(queryValue)
+                        .build());
+            });
+
+        } catch (Exception e) {
+            throw new ValidationException("The query is not valid", e);
+        }
+        return search;
+    }
+
+    private static String kebabToCamel(String kebabCaseString) {
+        if (kebabCaseString == null || kebabCaseString.isEmpty()) {
+            return kebabCaseString;
+        }
+
+        String[] parts = kebabCaseString.split("-");
+        StringBuilder camelCaseString = new StringBuilder(parts[0]);
+
+        for (int i = 1; i < parts.length; i++) {
+            camelCaseString.append(parts[i].substring(0, 1).toUpperCase());
+            camelCaseString.append(parts[i].substring(1));
+        }
+
+        return camelCaseString.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package org.sekailabs.jpaq.bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * {@code createDefaultPredicate} against a real Hibernate {@code CriteriaBuilder} on in-memory H2.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredicateBenchmark {
+    private HibernateFixture fixture;
+    private CriteriaBuilder criteriaBuilder;
+    private BenchRepository repository;
+    private Map<String, QueryFieldWrapper> search;
+
+    @Setup
+    public void setup() {
+        fixture = new HibernateFixture();
+        criteriaBuilder = fixture.entityManager().getCriteriaBuilder();
+        repository = BenchRepository.defaultMethodsOnly();
+        search = QueryWrapper.builder().search(QueryStrings.entity()).build().search();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Predicate[] createDefaultPredicate() {
+        CriteriaQuery<BenchEntity> query = criteriaBuilder.createQuery(BenchEntity.class);
+        Root<BenchEntity> root = query.from(BenchEntity.class);
+        return repository.createDefaultPredicate(criteriaBuilder, root, search);
+    }
+}
@@ -0,0 +1,40 @@
+package org.sekailabs.jpaq.bench;
+
+import java.util.StringJoiner;
+
+final class QueryStrings {
+    private static final String[] VALUES = {
+            "ACTIVE",
+            "~coffee",
+            ">=10.5",
+            "<2024-06-01",
+            "1,2,3,4,5,6,7,8",
+            "10..20",
+            "!ARCHIVED",
+            "%E2%98%95%20latte",
+            ">100",
+            "<=99.99"
+    };
+
+    private QueryStrings() {}
+
+    /**
+     * Query string with {@code params} kebab case keys cycling through every operator of the grammar.
+     */
+    static String generate(int params) {
+        StringJoiner query = new StringJoiner("&");
+        for (int i = 0; i < params; i++) {
+            query.add("field-" + i + "-value=" + VALUES[i % VALUES.length]);
+        }
+        return query.toString();
+    }
+
+    /**
+     * Query string that only uses attributes of {@link BenchEntity}.
+     */
+    static String entity() {
+        return "name=~coffee&status=ACTIVE&quantity=>=10&price=<99.99&active=true"
+                + "&release-date=>2024-01-01&created-at=<=2024-06-01 12:30:00.000"
+                + "&id=1,2,3,4,5&description=!archived";
+    }
+}
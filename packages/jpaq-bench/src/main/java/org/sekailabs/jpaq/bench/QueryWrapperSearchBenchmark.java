@@ -0,0 +1,60 @@
+package org.sekailabs.jpaq.bench;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.sekailabs.jpaq.plan.QueryPlanCache;
+
+/**
+ * {@code QueryWrapperBuilder.search} through the plan cache, through the tokenizer alone
+ * (cache disabled) and through the original split based parser.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryWrapperSearchBenchmark {
+    @Param({"1", "5", "20", "50"})
+    private int params;
+
+    private String query;
+    private QueryPlanCache cache;
+    private QueryPlanCache noCache;
+
+    @Setup
+    public void setup() {
+        query = QueryStrings.generate(params);
+        cache = QueryPlanCache.builder().build();
+        noCache = QueryPlanCache.builder().maximumSize(0).build();
+    }
+
+    @Benchmark
+    public QueryWrapper searchCached() {
+        return QueryWrapper.builder().search(query, cache).build();
+    }
+
+    @Benchmark
+    public QueryWrapper searchUncached() {
+        return QueryWrapper.builder().search(query, noCache).build();
+    }
+
+    @Benchmark
+    public Map<String, QueryFieldWrapper> searchLegacy() {
+        return LegacyQueryParser.search(query);
+    }
+}
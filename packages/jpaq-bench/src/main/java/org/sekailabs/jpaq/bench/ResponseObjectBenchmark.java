@@ -0,0 +1,61 @@
+package org.sekailabs.jpaq.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.jpaq.models.dto.ResponseObject;
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseObjectBenchmark {
+    @Param({"10", "500"})
+    private int rows;
+
+    private Page<String> page;
+
+    @Setup
+    public void setup() {
+        List<String> content = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            content.add("row-" + i);
+        }
+        page = new PageImpl<>(content, PageRequest.of(2, rows), rows * 10L);
+    }
+
+    @Benchmark
+    public PaginationWrapper<List<String>> paginationWrapper() {
+        return new PaginationWrapper.Builder<List<String>>()
+                .setData(page.getContent())
+                .setPaginationInfo(page)
+                .build();
+    }
+
+    @Benchmark
+    public ResponseObject<List<String>> responseObject() {
+        return new ResponseObject.Builder<List<String>>()
+                .unwrapPaginationWrapper(paginationWrapper())
+                .code("OK")
+                .success(true)
+                .build();
+    }
+}
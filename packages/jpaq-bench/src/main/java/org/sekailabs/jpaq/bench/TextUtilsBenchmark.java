@@ -0,0 +1,41 @@
+package org.sekailabs.jpaq.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.jpaq.utils.TextUtils;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextUtilsBenchmark {
+    private String kebab = "customer-shipping-address-line";
+    private String camel = "customerShippingAddressLine";
+    private String words = "Customer shipping_address line";
+
+    @Benchmark
+    public String kebabToCamel() {
+        return TextUtils.kebabToCamel(kebab);
+    }
+
+    @Benchmark
+    public String camelToKebab() {
+        return TextUtils.camelToKebab(camel);
+    }
+
+    @Benchmark
+    public String toCamelCase() {
+        return TextUtils.toCamelCase(words, true);
+    }
+}
@@ -0,0 +1,71 @@
+package org.sekailabs.jpaq.bench;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.jpaq.converter.ValueConverter;
+import org.sekailabs.jpaq.converter.ValueConverters;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueConverterBenchmark {
+    private final ValueConverter<?> dateTime = ValueConverters.forType(LocalDateTime.class);
+    private final ValueConverter<?> longs = ValueConverters.forType(Long.class);
+    private String millis = "2024-03-15 10:20:30.123";
+    private String iso = "2024-03-15T10:20:30.123456+02:00";
+    private String invalid = "2024-13-45 99:99";
+    private String number = "1234567890";
+
+    @Benchmark
+    public Object dateTimeMillis() {
+        return dateTime.convert(millis);
+    }
+
+    @Benchmark
+    public Object dateTimeIsoOffset() {
+        return dateTime.convert(iso);
+    }
+
+    @Benchmark
+    public Object dateTimeInvalid() {
+        return dateTime.convert(invalid);
+    }
+
+    @Benchmark
+    public Object parseLong() {
+        return longs.convert(number);
+    }
+
+    /**
+     * The original per request path: a new formatter picked by counting fraction digits.
+     */
+    @Benchmark
+    public Object legacyDateTimeMillis() {
+        int dot = millis.indexOf('.');
+        String pattern = dot < 0 ? "yyyy-MM-dd HH:mm:ss" : "yyyy-MM-dd HH:mm:ss." + "S".repeat(millis.substring(dot + 1).length());
+        return LocalDateTime.parse(millis, DateTimeFormatter.ofPattern(pattern));
+    }
+
+    @Benchmark
+    public Object legacyDateTimeInvalid() {
+        try {
+            return LocalDateTime.parse(invalid, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
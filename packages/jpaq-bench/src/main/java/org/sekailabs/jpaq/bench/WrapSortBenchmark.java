@@ -0,0 +1,46 @@
+package org.sekailabs.jpaq.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WrapSortBenchmark {
+    @Param({"1", "3"})
+    private int orders;
+
+    private Pageable pageable;
+
+    @Setup
+    public void setup() {
+        Sort sort = Sort.by(Sort.Order.desc("created-at"));
+        if (orders > 1) {
+            sort = sort.and(Sort.by(Sort.Order.asc("release-date"), Sort.Order.asc("id")));
+        }
+        pageable = PageRequest.of(3, 50, sort);
+    }
+
+    @Benchmark
+    public QueryWrapper wrapSort() {
+        return QueryWrapper.builder().wrapSort(pageable).build();
+    }
+}
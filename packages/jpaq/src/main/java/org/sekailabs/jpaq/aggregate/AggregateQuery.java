@@ -0,0 +1,198 @@
+package org.sekailabs.jpaq.aggregate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.metamodel.FieldPath;
+import org.sekailabs.jpaq.models.constant.AggregateFunctionEnum;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.ClassUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.validation.ValidationException;
+
+/**
+ * Compiles an {@link Aggregation} and a filter specification into one {@code CriteriaQuery<Tuple>}
+ * ({@code select g1, g2, count(*), sum(x) ... where ... group by g1, g2}), so the database reduces
+ * the rows and only one row per group is transferred.
+ * <p>
+ * Group fields and measures may be nested, but not through collections, whose joins would repeat
+ * rows and inflate the measures. For the same reason, filters through collections are applied as
+ * {@code id in (select ...)} instead of joins.
+ */
+public final class AggregateQuery<T> {
+    private final Class<T> domainType;
+    private final Aggregation aggregation;
+    private final AggregateRow.Columns columns;
+
+    private AggregateQuery(Class<T> domainType, Aggregation aggregation) {
+        if (aggregation.getMeasures().isEmpty()) {
+            throw new ValidationException("At least one measure is required");
+        }
+        this.domainType = domainType;
+        this.aggregation = aggregation;
+        this.columns = new AggregateRow.Columns(aggregation.columns());
+    }
+
+    public static <T> AggregateQuery<T> of(Class<T> domainType, Aggregation aggregation) {
+        return new AggregateQuery<>(domainType, aggregation);
+    }
+
+    /**
+     * One page of groups. Sorts may name group fields and measures; unsorted pages are ordered by
+     * the group fields.
+     */
+    public Slice<AggregateRow> fetch(EntityManager entityManager, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = build(criteriaBuilder, spec, pageable.getSort(), false);
+        if (criteriaQuery == null) {
+            criteriaQuery = build(criteriaBuilder, spec, pageable.getSort(), true);
+        }
+        TypedQuery<Tuple> query = entityManager.createQuery(criteriaQuery);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize() + 1);
+        }
+
+        List<Tuple> tuples = query.getResultList();
+        List<AggregateRow> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(new AggregateRow(columns, tuple.toArray()));
+        }
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        if (hasNext) {
+            rows = rows.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(rows, pageable, hasNext);
+    }
+
+    /**
+     * Builds the query, or returns {@code null} when the filters joined a collection and the query
+     * has to be rebuilt with {@code byId}.
+     */
+    private CriteriaQuery<Tuple> build(CriteriaBuilder cb, Specification<T> spec, Sort sort, boolean byId) {
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(domainType);
+        EntityDescriptor descriptor = EntityDescriptorCache.get(root);
+        if (spec != null) {
+            Predicate predicate = byId ? filterById(cb, query, root, descriptor, spec) : spec.toPredicate(root, query, cb);
+            if (query.isDistinct()) {
+                if (byId) throw new IllegalStateException("Aggregate filter subquery made the query distinct");
+                return null;
+            }
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        Map<String, Expression<?>> expressions = new LinkedHashMap<>();
+        List<Expression<?>> groups = new ArrayList<>(aggregation.getGroupBy().size());
+        for (String field : aggregation.getGroupBy()) {
+            Expression<?> group = path(root, descriptor, field, "group by");
+            groups.add(group);
+            expressions.put(field, group);
+        }
+        for (Measure measure : aggregation.getMeasures()) {
+            expressions.put(measure.getName(), measure(cb, root, descriptor, measure));
+        }
+
+        List<Selection<?>> selections = new ArrayList<>(expressions.size());
+        expressions.forEach((name, expression) -> selections.add(expression.alias(name)));
+        query.multiselect(selections);
+        if (!groups.isEmpty()) {
+            query.groupBy(groups);
+        }
+        query.orderBy(orders(cb, sort, expressions, groups));
+        return query;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate filterById(CriteriaBuilder cb, CriteriaQuery<Tuple> query, Root<T> root, EntityDescriptor descriptor, Specification<T> spec) {
+        if (descriptor.getIdField() == null) {
+            throw new ValidationException("Cannot aggregate " + domainType.getSimpleName() + " with a filter through a collection");
+        }
+        Subquery ids = query.subquery(descriptor.getField(descriptor.getIdField()).getJavaType());
+        Root<T> filtered = ids.from(domainType);
+        ids.select(filtered.get(descriptor.getIdField()));
+        Predicate predicate = spec.toPredicate(filtered, query, cb);
+        // the specification marks the outer query distinct; the subquery needs no deduplication
+        query.distinct(false);
+        if (predicate != null) {
+            ids.where(predicate);
+        }
+        return root.get(descriptor.getIdField()).in(ids);
+    }
+
+    private static List<Order> orders(CriteriaBuilder cb, Sort sort, Map<String, Expression<?>> expressions, List<Expression<?>> groups) {
+        List<Order> orders = new ArrayList<>();
+        if (sort.isUnsorted()) {
+            for (Expression<?> group : groups) {
+                orders.add(cb.asc(group));
+            }
+            return orders;
+        }
+        for (Sort.Order order : sort) {
+            Expression<?> expression = expressions.get(order.getProperty());
+            if (expression == null) {
+                throw new ValidationException("Cannot sort aggregates on " + order.getProperty() + ", only on group fields and measures");
+            }
+            orders.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+        }
+        return orders;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Expression<?> measure(CriteriaBuilder cb, Root<?> root, EntityDescriptor descriptor, Measure measure) {
+        if (measure.getField() == null) {
+            return cb.count(root);
+        }
+        Expression path = path(root, descriptor, measure.getField(), measure.getFunction().name().toLowerCase(Locale.ROOT));
+        FieldPath field = descriptor.resolve(measure.getField());
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(field.getField().getJavaType());
+        boolean numeric = Number.class.isAssignableFrom(type);
+        AggregateFunctionEnum function = measure.getFunction();
+        if ((function == AggregateFunctionEnum.SUM || function == AggregateFunctionEnum.AVG) && !numeric) {
+            throw new ValidationException("Cannot " + function.name().toLowerCase(Locale.ROOT) + " " + measure.getField() + ", it is not numeric");
+        }
+        if ((function == AggregateFunctionEnum.MIN || function == AggregateFunctionEnum.MAX) && !field.getField().isComparable()) {
+            throw new ValidationException("Cannot " + function.name().toLowerCase(Locale.ROOT) + " " + measure.getField() + ", it is not comparable");
+        }
+        return switch (function) {
+            case COUNT -> cb.count(path);
+            case SUM -> cb.sum(path);
+            case AVG -> cb.avg(path);
+            case MIN -> numeric ? cb.min(path) : cb.least(path);
+            case MAX -> numeric ? cb.max(path) : cb.greatest(path);
+        };
+    }
+
+    private static Expression<?> path(Root<?> root, EntityDescriptor descriptor, String field, String use) {
+        FieldPath path = descriptor.resolve(field);
+        if (path == null) {
+            throw new ValidationException("Unknown field to " + use + ": " + field);
+        }
+        if (path.isPlural()) {
+            throw new ValidationException("Cannot " + use + " " + field + ", it goes through a collection");
+        }
+        return path.toPath(root);
+    }
+}
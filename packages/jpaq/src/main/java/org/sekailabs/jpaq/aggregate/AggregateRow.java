@@ -0,0 +1,96 @@
+package org.sekailabs.jpaq.aggregate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * One group of an aggregate query: the group values followed by the measures. The rows of a
+ * result share one column index, so a row costs no more than its value array.
+ */
+public final class AggregateRow {
+    private final Columns columns;
+    private final Object[] values;
+
+    AggregateRow(Columns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public List<String> getColumns() {
+        return columns.names;
+    }
+
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public Object get(String column) {
+        return values[columns.index(column)];
+    }
+
+    /**
+     * Value of {@code column} as {@code type}; numbers are converted between the boxed types and
+     * {@code BigDecimal}, since databases differ in the types they return for sums and averages.
+     */
+    public <V> V get(String column, Class<V> type) {
+        Object value = get(column);
+        if (value == null || type.isInstance(value)) return type.cast(value);
+        if (value instanceof Number number) {
+            Object converted = convert(number, type);
+            if (converted != null) return type.cast(converted);
+        }
+        throw new ClassCastException("Column " + column + " is a " + value.getClass().getName() + ", not a " + type.getName());
+    }
+
+    @JsonValue
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(columns.names.get(i), values[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private static Object convert(Number number, Class<?> type) {
+        if (type == Long.class) return number.longValue();
+        if (type == Integer.class) return number.intValue();
+        if (type == Double.class) return number.doubleValue();
+        if (type == Float.class) return number.floatValue();
+        if (type == BigDecimal.class) {
+            return number instanceof BigInteger integer ? new BigDecimal(integer) : new BigDecimal(number.toString());
+        }
+        return null;
+    }
+
+    static final class Columns {
+        private final List<String> names;
+        private final Map<String, Integer> indexes;
+
+        Columns(List<String> names) {
+            this.names = List.copyOf(names);
+            Map<String, Integer> indexes = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                indexes.put(names.get(i), i);
+            }
+            this.indexes = Map.copyOf(indexes);
+        }
+
+        int index(String column) {
+            Integer index = indexes.get(column);
+            if (index == null) {
+                throw new IllegalArgumentException("No aggregate column " + column);
+            }
+            return index;
+        }
+    }
+}
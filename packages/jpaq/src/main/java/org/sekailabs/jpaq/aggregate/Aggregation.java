@@ -0,0 +1,77 @@
+package org.sekailabs.jpaq.aggregate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.sekailabs.jpaq.utils.TextUtils;
+
+import jakarta.validation.ValidationException;
+import lombok.Getter;
+
+/**
+ * Group-by fields and measures of an aggregate query. In a query string they are given as
+ * {@code group-by=status,customer-region&measures=count,sum(price),avg(quantity)} next to the
+ * usual filters.
+ */
+@Getter
+public final class Aggregation {
+    private final List<String> groupBy;
+    private final List<Measure> measures;
+
+    private Aggregation(List<String> groupBy, List<Measure> measures) {
+        this.groupBy = List.copyOf(groupBy);
+        this.measures = List.copyOf(measures);
+    }
+
+    public static Aggregation of(List<String> groupBy, List<Measure> measures) {
+        return new Aggregation(groupBy, measures);
+    }
+
+    /**
+     * Parses the values of the {@code group-by} and {@code measures} parameters; either may be
+     * {@code null}.
+     */
+    public static Aggregation parse(Collection<String> groupBy, Collection<String> measures) {
+        List<String> fields = new ArrayList<>();
+        if (groupBy != null) {
+            for (String field : groupBy) {
+                if (!field.isBlank()) fields.add(TextUtils.kebabToCamel(field.trim()));
+            }
+        }
+        List<Measure> parsed = new ArrayList<>();
+        if (measures != null) {
+            for (String measure : measures) {
+                if (!measure.isBlank()) parsed.add(Measure.parse(measure));
+            }
+        }
+        return new Aggregation(fields, parsed);
+    }
+
+    /**
+     * This aggregation with the group fields and measures of {@code other} appended.
+     */
+    public Aggregation and(Aggregation other) {
+        if (other == null) return this;
+        List<String> fields = new ArrayList<>(groupBy);
+        fields.addAll(other.groupBy);
+        List<Measure> combined = new ArrayList<>(measures);
+        combined.addAll(other.measures);
+        return new Aggregation(fields, combined);
+    }
+
+    /**
+     * Names of the result columns: the group fields, then the measures.
+     */
+    public List<String> columns() {
+        List<String> columns = new ArrayList<>(groupBy.size() + measures.size());
+        columns.addAll(groupBy);
+        for (Measure measure : measures) {
+            if (columns.contains(measure.getName())) {
+                throw new ValidationException("Duplicate aggregate column: " + measure.getName());
+            }
+            columns.add(measure.getName());
+        }
+        return columns;
+    }
+}
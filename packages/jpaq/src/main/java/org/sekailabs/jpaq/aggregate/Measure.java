@@ -0,0 +1,93 @@
+package org.sekailabs.jpaq.aggregate;
+
+import java.util.Locale;
+
+import org.sekailabs.jpaq.models.constant.AggregateFunctionEnum;
+import org.sekailabs.jpaq.utils.TextUtils;
+
+import jakarta.validation.ValidationException;
+import lombok.Getter;
+
+/**
+ * One aggregate column, e.g. {@code sum(price)}, named {@code sumPrice} in the result rows.
+ */
+@Getter
+public final class Measure {
+    private final AggregateFunctionEnum function;
+    private final String field;
+    private final String name;
+
+    private Measure(AggregateFunctionEnum function, String field) {
+        this.function = function;
+        this.field = field;
+        this.name = name(function, field);
+    }
+
+    private static String name(AggregateFunctionEnum function, String field) {
+        StringBuilder name = new StringBuilder(function.name().toLowerCase(Locale.ROOT));
+        if (field == null) return name.toString();
+        boolean upper = true;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '.') {
+                upper = true;
+                continue;
+            }
+            name.append(upper ? Character.toUpperCase(c) : c);
+            upper = false;
+        }
+        return name.toString();
+    }
+
+    /**
+     * @param field attribute to aggregate, dotted or camel case for nested fields; {@code null}
+     *              only for {@code COUNT}, which then counts rows
+     */
+    public static Measure of(AggregateFunctionEnum function, String field) {
+        if (function == null) {
+            throw new IllegalArgumentException("Aggregate function is required");
+        }
+        if (field == null && function != AggregateFunctionEnum.COUNT) {
+            throw new ValidationException("Measure " + function + " needs a field");
+        }
+        return new Measure(function, field);
+    }
+
+    public static Measure count() {
+        return new Measure(AggregateFunctionEnum.COUNT, null);
+    }
+
+    /**
+     * Parses the URL form: {@code count}, {@code count(*)}, {@code sum(price)},
+     * {@code max(created-at)}.
+     */
+    public static Measure parse(String token) {
+        String text = token.trim();
+        int open = text.indexOf('(');
+        String function = open < 0 ? text : text.substring(0, open);
+        String field = null;
+        if (open >= 0) {
+            if (!text.endsWith(")")) {
+                throw new ValidationException("Invalid measure: " + token);
+            }
+            field = text.substring(open + 1, text.length() - 1).trim();
+            if (field.isEmpty() || field.equals("*")) {
+                field = null;
+            } else {
+                field = TextUtils.kebabToCamel(field);
+            }
+        }
+        AggregateFunctionEnum aggregate;
+        try {
+            aggregate = AggregateFunctionEnum.valueOf(function.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown aggregate function: " + function);
+        }
+        return of(aggregate, field);
+    }
+
+    @Override
+    public String toString() {
+        return function.name().toLowerCase(Locale.ROOT) + "(" + (field == null ? "*" : field) + ")";
+    }
+}
@@ -0,0 +1,160 @@
+package org.sekailabs.jpaq.async;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.utils.TransactionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.QueryTimeoutException;
+
+/**
+ * Runs repository reads on {@link JpaqContext#getExecutor()} (a virtual thread per task by default),
+ * each in its own read-only transaction when {@link JpaqContext#getTransactionManager()} is set.
+ * At most {@link JpaqContext#getAsyncPermits()} of them run at once, so a fan-out cannot drain the
+ * connection pool.
+ * <p>
+ * Cancelling the returned future, or reaching the timeout, cancels the running JDBC statement
+ * through {@link Session#cancelQuery()} so the database stops working on it as well. A timeout
+ * completes the future with a {@link QueryTimeoutException} and also becomes the transaction
+ * timeout, rounded up to whole seconds.
+ * <p>
+ * Queries a task starts itself (the count of a page) run inline on the task's thread, see
+ * {@link #isTaskThread()}, so they stay under the task's permit, canceller and timeout.
+ */
+public final class AsyncQuery {
+    /** permit of the task running on the current thread */
+    private static final ThreadLocal<Permit> PERMIT = new ThreadLocal<>();
+
+    private AsyncQuery() {}
+
+    /**
+     * Whether the current thread runs an {@link AsyncQuery} task; such a task must not hand queries
+     * to other threads, which would escape its permit and cancellation.
+     */
+    public static boolean isTaskThread() {
+        return PERMIT.get() != null;
+    }
+
+    /**
+     * Whether the caller may run a query of its own concurrently through {@link #submit}: its
+     * result must not depend on the caller's transaction ({@link TransactionUtils#canQueryOffThread()}),
+     * the caller must not be a task itself, and a transaction manager must be set, without which
+     * the statement of a no longer needed query could not be cancelled.
+     */
+    public static boolean canOffload() {
+        return JpaqContext.getTransactionManager() != null
+                && TransactionUtils.canQueryOffThread()
+                && !isTaskThread();
+    }
+
+    /**
+     * Gives the current task's permit back while it waits for something other than the database,
+     * such as subscriber demand; {@link #reacquirePermit()} takes it again before the next query.
+     */
+    static void releasePermit() {
+        Permit permit = PERMIT.get();
+        if (permit != null && permit.held) {
+            permit.held = false;
+            permit.permits.release();
+        }
+    }
+
+    static void reacquirePermit() throws InterruptedException {
+        Permit permit = PERMIT.get();
+        if (permit != null && !permit.held) {
+            permit.permits.acquire();
+            permit.held = true;
+        }
+    }
+
+    public static <R> CompletableFuture<R> submit(Supplier<R> task, Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        StatementCanceller canceller = new StatementCanceller();
+        CompletableFuture<R> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (error != null) canceller.cancel();
+        });
+        try {
+            JpaqContext.getExecutor().execute(() -> run(task, timeout, canceller, future));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (timeout != null) {
+            CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() ->
+                    future.completeExceptionally(new QueryTimeoutException("Query exceeded its timeout of " + timeout)));
+        }
+        return future;
+    }
+
+    private static <R> void run(Supplier<R> task, Duration timeout, StatementCanceller canceller, CompletableFuture<R> future) {
+        Semaphore permits = JpaqContext.getAsyncPermits();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+        Permit permit = new Permit(permits);
+        PERMIT.set(permit);
+        try {
+            if (future.isDone()) return;
+            future.complete(inTransaction(timeout, () -> {
+                canceller.bind(currentSession());
+                try {
+                    return task.get();
+                } finally {
+                    canceller.unbind();
+                }
+            }));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            PERMIT.remove();
+            if (permit.held) permits.release();
+        }
+    }
+
+    private static <R> R inTransaction(Duration timeout, Supplier<R> action) {
+        PlatformTransactionManager transactionManager = JpaqContext.getTransactionManager();
+        if (transactionManager == null) {
+            return action.get();
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        if (timeout != null) {
+            template.setTimeout((int) Math.clamp((timeout.toMillis() + 999) / 1000, 1, Integer.MAX_VALUE));
+        }
+        return template.execute(status -> action.get());
+    }
+
+    /**
+     * The session of the task's transaction; without a transaction the shared entity manager would
+     * open a throwaway one, so there is nothing to cancel.
+     */
+    private static Session currentSession() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) return null;
+        return JpaqContext.getEntityManager().unwrap(Session.class);
+    }
+
+    private static final class Permit {
+        private final Semaphore permits;
+        private boolean held = true;
+
+        private Permit(Semaphore permits) {
+            this.permits = permits;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.sekailabs.jpaq.async;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.sekailabs.jpaq.repositories.BaseRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Reactor adapter for {@link BaseRepository#streamAny(QueryWrapper)}; requires reactor-core on the
+ * classpath.
+ * <p>
+ * Each subscription reads the rows on a virtual thread through {@link AsyncQuery}, so a transaction
+ * manager must be configured for the server side cursor. Rows are only read as the subscriber
+ * requests them, and cancelling the subscription cancels the running statement. While the
+ * subscriber has no outstanding demand the reading thread gives its
+ * {@link org.sekailabs.jpaq.config.JpaqContext#getAsyncPermits() permit} back, so slow subscribers
+ * do not hold off other asynchronous queries; the transaction and its cursor stay open meanwhile.
+ */
+public final class ReactiveQuery {
+    private ReactiveQuery() {}
+
+    public static <T> Flux<T> stream(BaseRepository<T, ?> repository, QueryWrapper queryWrapper) {
+        return Flux.create(sink -> {
+            Demand demand = new Demand();
+            CompletableFuture<Void> task = AsyncQuery.submit(() -> {
+                try (Stream<T> rows = repository.streamAny(queryWrapper)) {
+                    Iterator<T> iterator = rows.iterator();
+                    while (iterator.hasNext() && demand.take()) {
+                        sink.next(iterator.next());
+                    }
+                }
+                return null;
+            }, null);
+            task.whenComplete((ignored, error) -> {
+                if (error == null) {
+                    sink.complete();
+                } else if (!demand.isCancelled()) {
+                    sink.error(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+            });
+            sink.onRequest(demand::add);
+            sink.onDispose(() -> {
+                if (demand.cancel()) task.cancel(true);
+            });
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    /**
+     * Outstanding subscriber demand; the producer parks on it, which is cheap on a virtual thread.
+     */
+    private static final class Demand {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private long requested;
+        private boolean cancelled;
+
+        void add(long n) {
+            lock.lock();
+            try {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits for demand and consumes one unit; {@code false} once cancelled. The async permit is
+         * released during the wait and taken back, outside the lock, before reading on.
+         */
+        boolean take() {
+            boolean released = false;
+            lock.lock();
+            try {
+                while (requested == 0 && !cancelled) {
+                    if (!released) {
+                        AsyncQuery.releasePermit();
+                        released = true;
+                    }
+                    available.await();
+                }
+                if (cancelled) return false;
+                if (requested != Long.MAX_VALUE) requested--;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+            if (released) {
+                try {
+                    AsyncQuery.reacquirePermit();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return {@code true} if this call cancelled it
+         */
+        boolean cancel() {
+            lock.lock();
+            try {
+                if (cancelled) return false;
+                cancelled = true;
+                available.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isCancelled() {
+            lock.lock();
+            try {
+                return cancelled;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
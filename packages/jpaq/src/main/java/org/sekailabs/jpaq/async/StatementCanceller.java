@@ -0,0 +1,32 @@
+package org.sekailabs.jpaq.async;
+
+import java.util.concurrent.CancellationException;
+
+import org.hibernate.Session;
+
+/**
+ * Holds the session an asynchronous query runs in, so another thread can cancel its running JDBC
+ * statement. Once cancelled, binding a new session fails, which stops the task before its next query.
+ */
+final class StatementCanceller {
+    private Session session;
+    private boolean cancelled;
+
+    synchronized void bind(Session session) {
+        if (cancelled) {
+            throw new CancellationException("Query was cancelled before it started");
+        }
+        this.session = session;
+    }
+
+    synchronized void unbind() {
+        this.session = null;
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        if (session != null && session.isOpen()) {
+            session.cancelQuery();
+        }
+    }
+}
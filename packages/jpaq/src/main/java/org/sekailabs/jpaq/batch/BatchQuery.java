@@ -0,0 +1,175 @@
+package org.sekailabs.jpaq.batch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+import org.sekailabs.jpaq.async.AsyncQuery;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.QueryTimeoutException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Several named page queries against one entity, executed together.
+ * <p>
+ * All totals come from a single statement,
+ * {@code select sum(case when p1 then 1 else 0 end), sum(case when p2 ...) from e where p1 or p2 ...},
+ * so the table is scanned once instead of once per query. When a filter joins a collection, one
+ * entity may appear on several rows, so the totals become
+ * {@code count(distinct case when p1 then e.id end)} instead.
+ * <p>
+ * The page fetches and that count run in parallel as {@link AsyncQuery} tasks under one shared
+ * deadline, and the statements still running when it passes are cancelled. Where queries cannot be
+ * offloaded ({@link AsyncQuery#canOffload()}) they run one after the other on the caller thread.
+ */
+public final class BatchQuery<T> {
+    private static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    private final Class<T> domainType;
+    private final Map<String, Specification<T>> specifications = new LinkedHashMap<>();
+    private final Map<String, Pageable> pageables = new LinkedHashMap<>();
+
+    public BatchQuery(Class<T> domainType) {
+        this.domainType = domainType;
+    }
+
+    public BatchQuery<T> add(String name, Specification<T> specification, Pageable pageable) {
+        specifications.put(name, specification);
+        pageables.put(name, pageable);
+        return this;
+    }
+
+    public Map<String, PaginationWrapper<List<T>>> execute(
+            EntityManager entityManager,
+            BiFunction<Specification<T>, Pageable, Slice<T>> fetcher,
+            Duration deadline
+    ) {
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        if (specifications.isEmpty()) {
+            return Map.of();
+        }
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new QueryTimeoutException("Batch query exceeded its deadline of " + deadline);
+        }
+        if (!AsyncQuery.canOffload()) {
+            Map<String, Long> totals = count(entityManager, deadlineAt);
+            Map<String, Slice<T>> slices = new LinkedHashMap<>();
+            for (String name : specifications.keySet()) {
+                checkDeadline(deadlineAt, deadline);
+                slices.put(name, fetcher.apply(specifications.get(name), pageables.get(name)));
+            }
+            return assemble(slices, totals);
+        }
+
+        // each task also cancels its own statement at the deadline
+        CompletableFuture<Map<String, Long>> totals = AsyncQuery.submit(() -> count(entityManager, deadlineAt), deadline);
+        Map<String, CompletableFuture<Slice<T>>> slices = new LinkedHashMap<>();
+        specifications.forEach((name, specification) -> slices.put(name,
+                AsyncQuery.submit(() -> fetcher.apply(specification, pageables.get(name)), deadline)));
+
+        List<CompletableFuture<?>> all = new ArrayList<>(slices.values());
+        all.add(totals);
+        try {
+            CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadlineAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            all.forEach(future -> future.cancel(true));
+            throw new QueryTimeoutException("Batch query exceeded its deadline of " + deadline);
+        } catch (InterruptedException e) {
+            all.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the batch query", e);
+        } catch (ExecutionException e) {
+            all.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+
+        Map<String, Slice<T>> fetched = new LinkedHashMap<>();
+        slices.forEach((name, future) -> fetched.put(name, future.join()));
+        return assemble(fetched, totals.join());
+    }
+
+    private Map<String, Long> count(EntityManager entityManager, long deadlineAt) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<T> root = criteriaQuery.from(domainType);
+
+        List<Predicate> predicates = new ArrayList<>(specifications.size());
+        for (Specification<T> specification : specifications.values()) {
+            Predicate predicate = specification.toPredicate(root, criteriaQuery, criteriaBuilder);
+            predicates.add(predicate == null ? criteriaBuilder.conjunction() : predicate);
+        }
+        // joins can repeat an entity, whose id then has to be counted once
+        String idField = root.getJoins().isEmpty() && root.getFetches().isEmpty()
+                ? null
+                : EntityDescriptorCache.get(root).getIdField();
+        List<Selection<?>> selections = new ArrayList<>(predicates.size());
+        for (Predicate predicate : predicates) {
+            if (idField == null) {
+                Expression<Long> hit = criteriaBuilder.<Long>selectCase().when(predicate, 1L).otherwise(0L);
+                selections.add(criteriaBuilder.sum(hit));
+            } else {
+                Expression<Object> hit = criteriaBuilder.selectCase().when(predicate, root.get(idField));
+                selections.add(criteriaBuilder.countDistinct(hit));
+            }
+        }
+        criteriaQuery.multiselect(selections).where(criteriaBuilder.or(predicates.toArray(Predicate[]::new)));
+
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineAt - System.nanoTime());
+        Tuple tuple = entityManager.createQuery(criteriaQuery)
+                .setHint(TIMEOUT_HINT, (int) Math.clamp(remainingMillis, 1, Integer.MAX_VALUE))
+                .getSingleResult();
+
+        Map<String, Long> totals = new LinkedHashMap<>();
+        int index = 0;
+        for (String name : specifications.keySet()) {
+            Object value = tuple.get(index++);
+            totals.put(name, value instanceof Number number ? number.longValue() : 0L);
+        }
+        return totals;
+    }
+
+    private Map<String, PaginationWrapper<List<T>>> assemble(Map<String, Slice<T>> slices, Map<String, Long> totals) {
+        Map<String, PaginationWrapper<List<T>>> result = new LinkedHashMap<>();
+        slices.forEach((name, slice) -> {
+            long total = totals.getOrDefault(name, 0L);
+            int size = slice.getSize() > 0 ? slice.getSize() : Math.max(slice.getNumberOfElements(), 1);
+            result.put(name, new PaginationWrapper<>(
+                    slice.getContent(),
+                    slice.getNumber(),
+                    slice.getSize(),
+                    (int) ((total + size - 1) / size),
+                    (int) total,
+                    slice.hasNext(),
+                    false
+            ));
+        });
+        return result;
+    }
+
+    private static void checkDeadline(long deadlineAt, Duration deadline) {
+        if (System.nanoTime() - deadlineAt > 0) {
+            throw new QueryTimeoutException("Batch query exceeded its deadline of " + deadline);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package org.sekailabs.jpaq.bulk;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.sekailabs.jpaq.cache.ResultCacheInvalidator;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.metamodel.FieldDescriptor;
+import org.sekailabs.jpaq.predicate.InListPredicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.validation.ValidationException;
+
+/**
+ * Set based {@code update} or {@code delete} of every row matching a filter specification, compiled
+ * into one {@code CriteriaUpdate} or {@code CriteriaDelete} instead of loading and saving entities one
+ * by one.
+ * <p>
+ * DML statements cannot join, so filters that reach into associations are applied as
+ * {@code id in (select ...)}. The statements bypass the persistence context and the entity listeners:
+ * the managed instances the statement matched are detached afterwards (all managed instances of the
+ * entity when it has no single id), the cached results and counts of the entity are evicted, and
+ * updates increment a numeric {@code @Version} or set a timestamp one to the current time.
+ * <p>
+ * With a chunk size the rows are changed in ascending primary key ranges of at most that many rows.
+ * Outside a transaction every range gets its own transaction, so no lock is held for longer than one
+ * range; inside one the ranges only bound the size of each statement.
+ */
+public final class BulkMutation<T> {
+    private final Class<T> domainType;
+    private final Map<String, Object> values;
+
+    private BulkMutation(Class<T> domainType, Map<String, Object> values) {
+        this.domainType = domainType;
+        this.values = values;
+    }
+
+    /**
+     * Sets the basic attributes named by the keys of {@code values}; values are converted to the
+     * attribute types like filter values, {@code null} clears an attribute.
+     */
+    public static <T> BulkMutation<T> update(Class<T> domainType, Map<String, ?> values) {
+        if (values == null || values.isEmpty()) {
+            throw new ValidationException("An update needs at least one field to set");
+        }
+        // Map.copyOf rejects the null values that clear attributes
+        return new BulkMutation<>(domainType, Collections.unmodifiableMap(new LinkedHashMap<>(values)));
+    }
+
+    public static <T> BulkMutation<T> delete(Class<T> domainType) {
+        return new BulkMutation<>(domainType, null);
+    }
+
+    /**
+     * Changes every matching row with one statement and returns the number of affected rows.
+     */
+    public long execute(EntityManager entityManager, Specification<T> spec) {
+        return run(entityManager, EntityDescriptorCache.get(entityManager.getMetamodel(), domainType), spec, null, null);
+    }
+
+    /**
+     * Changes the matching rows in primary key ranges of at most {@code chunkSize} rows and returns
+     * the total number of affected rows.
+     */
+    public long execute(EntityManager entityManager, Specification<T> spec, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        EntityDescriptor descriptor = EntityDescriptorCache.get(entityManager.getMetamodel(), domainType);
+        String idField = descriptor.getIdField();
+        if (idField == null || !descriptor.getField(idField).isComparable()) {
+            throw new ValidationException("Cannot chunk " + domainType.getSimpleName() + " by primary key, it has no single comparable id");
+        }
+
+        long affected = 0;
+        Object lower = null;
+        while (true) {
+            Object after = lower;
+            Chunk chunk = inChunkTransaction(() -> {
+                List<?> ids = nextIds(entityManager, descriptor, spec, after, chunkSize);
+                if (ids.isEmpty()) return null;
+                Object upper = ids.get(ids.size() - 1);
+                return new Chunk(upper, run(entityManager, descriptor, spec, after, upper), ids.size() < chunkSize);
+            });
+            if (chunk == null) break;
+            affected += chunk.affected;
+            if (chunk.last) break;
+            lower = chunk.upper;
+        }
+        return affected;
+    }
+
+    private long run(EntityManager entityManager, EntityDescriptor descriptor, Specification<T> spec, Object lower, Object upper) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CommonAbstractCriteria statement = build(entityManager, criteriaBuilder, descriptor, spec, lower, upper, false);
+        if (statement == null) {
+            statement = build(entityManager, criteriaBuilder, descriptor, spec, lower, upper, true);
+        }
+        Query query = statement instanceof CriteriaUpdate<?> update
+                ? entityManager.createQuery(update)
+                : entityManager.createQuery((CriteriaDelete<?>) statement);
+        // matched before the statement runs, which may change or remove what matches
+        List<Object> stale = managedMatches(entityManager, descriptor, spec, lower, upper);
+        int affected = query.executeUpdate();
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        stale.forEach(session::detach);
+        ResultCacheInvalidator.evictOnChange(domainType);
+        return affected;
+    }
+
+    /**
+     * Builds the statement, or returns {@code null} when the filters joined an association and the
+     * statement has to be rebuilt with {@code byId}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CommonAbstractCriteria build(
+            EntityManager entityManager,
+            CriteriaBuilder cb,
+            EntityDescriptor descriptor,
+            Specification<T> spec,
+            Object lower,
+            Object upper,
+            boolean byId
+    ) {
+        CriteriaUpdate<T> update = null;
+        CriteriaDelete<T> delete = null;
+        Root<T> root;
+        if (values != null) {
+            update = cb.createCriteriaUpdate(domainType);
+            root = update.from(domainType);
+            set(entityManager, cb, update, root, descriptor);
+        } else {
+            delete = cb.createCriteriaDelete(domainType);
+            root = delete.from(domainType);
+        }
+        CommonAbstractCriteria statement = update != null ? update : delete;
+
+        List<Predicate> predicates = new ArrayList<>(3);
+        if (spec != null) {
+            Predicate predicate;
+            if (byId) {
+                predicate = filterById(cb, statement, root, descriptor, spec);
+            } else {
+                // the specification expects a query to mark distinct; it never runs
+                CriteriaQuery<T> scope = cb.createQuery(domainType);
+                predicate = spec.toPredicate(root, scope, cb);
+                if (scope.isDistinct() || !root.getJoins().isEmpty()) return null;
+            }
+            if (predicate != null) predicates.add(predicate);
+        }
+        if (lower != null) predicates.add(cb.greaterThan(idPath(root, descriptor), (Comparable) lower));
+        if (upper != null) predicates.add(cb.lessThanOrEqualTo(idPath(root, descriptor), (Comparable) upper));
+
+        Predicate where = cb.and(predicates.toArray(Predicate[]::new));
+        if (update != null) {
+            update.where(where);
+        } else {
+            delete.where(where);
+        }
+        return statement;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void set(EntityManager entityManager, CriteriaBuilder cb, CriteriaUpdate<T> update, Root<T> root, EntityDescriptor descriptor) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String name = entry.getKey();
+            FieldDescriptor field = descriptor.getField(name);
+            if (field == null) {
+                throw new ValidationException("Unknown field to update: " + name);
+            }
+            if (name.equals(descriptor.getIdField())) {
+                throw new ValidationException("Cannot update the id " + name);
+            }
+            Object value = field.convert(entry.getValue());
+            if (value == null && entry.getValue() != null) {
+                throw new ValidationException("Cannot convert " + entry.getValue() + " to the type of " + name);
+            }
+            Path<Object> path = root.get(name);
+            update.set(path, value);
+        }
+
+        SingularAttribute<?, ?> version = version(entityManager);
+        if (version != null && !values.containsKey(version.getName())) {
+            FieldDescriptor field = descriptor.getField(version.getName());
+            Object one = field == null ? null : field.convert(1);
+            if (one instanceof Number) {
+                Path<Number> path = root.get(version.getName());
+                update.set(path, cb.sum(path, (Number) one));
+            } else {
+                Object now = now(version.getJavaType());
+                if (now == null) {
+                    throw new ValidationException("Cannot advance the @Version " + version.getName() + " of type " + version.getJavaType().getSimpleName());
+                }
+                Path<Object> path = root.get(version.getName());
+                update.set(path, now);
+            }
+        }
+    }
+
+    /**
+     * The current time as a timestamp {@code @Version} of {@code type}, or {@code null} for other types.
+     */
+    private static Object now(Class<?> type) {
+        Instant now = Instant.now();
+        if (type == Instant.class) return now;
+        if (type == LocalDateTime.class) return LocalDateTime.ofInstant(now, ZoneId.systemDefault());
+        if (type == OffsetDateTime.class) return OffsetDateTime.ofInstant(now, ZoneId.systemDefault());
+        if (type == ZonedDateTime.class) return ZonedDateTime.ofInstant(now, ZoneId.systemDefault());
+        if (type == Timestamp.class) return Timestamp.from(now);
+        if (type == Date.class) return Date.from(now);
+        return null;
+    }
+
+    private SingularAttribute<?, ?> version(EntityManager entityManager) {
+        var entityType = entityManager.getMetamodel().entity(domainType);
+        if (!entityType.hasVersionAttribute()) return null;
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (attribute.isVersion()) return attribute;
+        }
+        return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate filterById(CriteriaBuilder cb, CommonAbstractCriteria statement, Root<T> root, EntityDescriptor descriptor, Specification<T> spec) {
+        if (descriptor.getIdField() == null) {
+            throw new ValidationException("Cannot change " + domainType.getSimpleName() + " with a filter through an association");
+        }
+        Subquery ids = statement.subquery(descriptor.getField(descriptor.getIdField()).getJavaType());
+        Root<T> filtered = ids.from(domainType);
+        ids.select(filtered.get(descriptor.getIdField()));
+        Predicate predicate = spec.toPredicate(filtered, cb.createQuery(domainType), cb);
+        if (predicate != null) {
+            ids.where(predicate);
+        }
+        return idPath(root, descriptor).in(ids);
+    }
+
+    /**
+     * Ids of the next at most {@code limit} matching rows above {@code lower}, in ascending order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<?> nextIds(EntityManager entityManager, EntityDescriptor descriptor, Specification<T> spec, Object lower, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery query = cb.createQuery(descriptor.getField(descriptor.getIdField()).getJavaType());
+        Root<T> root = query.from(domainType);
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) predicates.add(predicate);
+        if (lower != null) predicates.add(cb.greaterThan(idPath(root, descriptor), (Comparable) lower));
+        query.select(idPath(root, descriptor))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(idPath(root, descriptor)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Path<Comparable> idPath(Root<?> root, EntityDescriptor descriptor) {
+        return root.get(descriptor.getIdField());
+    }
+
+    /**
+     * The managed instances of the entity that the statement is about to change or remove behind
+     * the persistence context's back: looked up by id among the matching rows, or all of them when
+     * the entity has no single id. Other managed instances, and their pending changes, stay.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Object> managedMatches(EntityManager entityManager, EntityDescriptor descriptor, Specification<T> spec, Object lower, Object upper) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Map<Object, Object> managed = new HashMap<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (domainType.isAssignableFrom(entry.getValue().getPersister().getMappedClass())) {
+                managed.put(entry.getValue().getId(), entry.getKey());
+            }
+        }
+        if (managed.isEmpty() || descriptor.getIdField() == null) {
+            return new ArrayList<>(managed.values());
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        FieldDescriptor idField = descriptor.getField(descriptor.getIdField());
+        CriteriaQuery query = cb.createQuery(idField.getJavaType());
+        Root<T> root = query.from(domainType);
+        List<Predicate> predicates = new ArrayList<>(4);
+        predicates.add(InListPredicate.in(cb, idPath(root, descriptor), idField, new ArrayList<>(managed.keySet())));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) predicates.add(predicate);
+        if (lower != null) predicates.add(cb.greaterThan(idPath(root, descriptor), (Comparable) lower));
+        if (upper != null) predicates.add(cb.lessThanOrEqualTo(idPath(root, descriptor), (Comparable) upper));
+        query.select(idPath(root, descriptor)).where(predicates.toArray(Predicate[]::new));
+
+        List<Object> matches = new ArrayList<>();
+        for (Object id : entityManager.createQuery(query).getResultList()) {
+            Object entity = managed.get(id);
+            if (entity != null) matches.add(entity);
+        }
+        return matches;
+    }
+
+    private static <R> R inChunkTransaction(Supplier<R> work) {
+        PlatformTransactionManager transactionManager = JpaqContext.getTransactionManager();
+        if (transactionManager == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private record Chunk(Object upper, long affected, boolean last) {}
+}
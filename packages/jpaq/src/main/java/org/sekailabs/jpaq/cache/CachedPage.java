@@ -0,0 +1,40 @@
+package org.sekailabs.jpaq.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+
+/**
+ * What {@code queryAnyCached} keeps in a {@link ResultCache}: the ids of a page's rows in their
+ * order plus its totals, never the entities themselves, so it serializes into any store and a hit
+ * loads the rows into the caller's own persistence context.
+ */
+public record CachedPage(
+        List<Serializable> ids,
+        int page,
+        int size,
+        int totalPages,
+        int totalElements,
+        boolean hasNext,
+        boolean estimated
+) implements Serializable {
+
+    public static CachedPage of(PaginationWrapper<? extends List<?>> wrapper, Function<Object, Object> idOf) {
+        List<Serializable> ids = new ArrayList<>(wrapper.getData().size());
+        for (Object row : wrapper.getData()) {
+            if (!(idOf.apply(row) instanceof Serializable id)) {
+                throw new IllegalArgumentException("Id of " + row.getClass().getName() + " is not serializable");
+            }
+            ids.add(id);
+        }
+        return new CachedPage(List.copyOf(ids), wrapper.getPage(), wrapper.getSize(), wrapper.getTotalPages(),
+                wrapper.getTotalElements(), wrapper.isHasNext(), wrapper.isEstimated());
+    }
+
+    public <T> PaginationWrapper<List<T>> toWrapper(List<T> rows) {
+        return new PaginationWrapper<>(rows, page, size, totalPages, totalElements, hasNext, estimated);
+    }
+}
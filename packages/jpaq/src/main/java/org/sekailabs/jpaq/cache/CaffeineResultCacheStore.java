@@ -0,0 +1,69 @@
+package org.sekailabs.jpaq.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Caffeine backed store with W-TinyLFU eviction and a time to live per entry.
+ */
+public class CaffeineResultCacheStore implements ResultCacheStore {
+    private final Cache<String, Entry> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public CaffeineResultCacheStore(int maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Object get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        cache.put(key, new Entry(value, ttl.toNanos()));
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long generation(String name) {
+        AtomicLong generation = generations.get(name);
+        return generation == null ? 0 : generation.get();
+    }
+
+    @Override
+    public void incrementGeneration(String name) {
+        generations.computeIfAbsent(name, ignored -> new AtomicLong()).incrementAndGet();
+    }
+
+    private record Entry(Object value, long ttlNanos) {}
+}
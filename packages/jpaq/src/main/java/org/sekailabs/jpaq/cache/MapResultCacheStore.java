@@ -0,0 +1,60 @@
+package org.sekailabs.jpaq.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent map with per entry expiry. When full, expired entries are purged and new entries are
+ * dropped until there is room again.
+ */
+public class MapResultCacheStore implements ResultCacheStore {
+    private final int maximumSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public MapResultCacheStore(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        long now = System.nanoTime();
+        if (entries.size() >= maximumSize) {
+            entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+        }
+        if (entries.size() < maximumSize) {
+            entries.put(key, new Entry(value, now + ttl.toNanos()));
+        }
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public long generation(String name) {
+        AtomicLong generation = generations.get(name);
+        return generation == null ? 0 : generation.get();
+    }
+
+    @Override
+    public void incrementGeneration(String name) {
+        generations.computeIfAbsent(name, ignored -> new AtomicLong()).incrementAndGet();
+    }
+
+    private record Entry(Object value, long expiresAt) {}
+}
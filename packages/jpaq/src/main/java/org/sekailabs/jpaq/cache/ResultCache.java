@@ -0,0 +1,134 @@
+package org.sekailabs.jpaq.cache;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in cache of {@code queryAny} results keyed by entity and canonical query (see
+ * {@link org.sekailabs.jpaq.plan.QueryKeys}).
+ * <p>
+ * Every entity has a generation that is part of its keys; {@link #evict(Class)} bumps it, so stale
+ * entries are never read again and simply age out of the store. Generations are kept by the
+ * {@link ResultCacheStore}, so a store shared by several nodes is invalidated on all of them.
+ * Values must be serializable and are shared between callers unless the store copies them.
+ */
+public class ResultCache {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    private static final String ALL = "*";
+
+    private final ResultCacheStore store;
+    private final Duration defaultTtl;
+    private final Map<Class<?>, Duration> ttls;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private ResultCache(Builder builder) {
+        this.store = builder.store != null ? builder.store : ResultCacheStore.inProcess(builder.maximumSize);
+        this.defaultTtl = builder.defaultTtl;
+        this.ttls = Map.copyOf(builder.ttls);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V extends Serializable> V get(Class<?> domainType, String canonicalQuery, Supplier<V> loader) {
+        Duration ttl = ttls.getOrDefault(domainType, defaultTtl);
+        if (ttl.isZero() || ttl.isNegative()) {
+            return loader.get();
+        }
+
+        String key = key(domainType, canonicalQuery);
+        Object cached = store.get(key);
+        if (cached != null) {
+            hits.increment();
+            return (V) cached;
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        V value = loader.get();
+        loads.increment();
+        loadTimeNanos.add(System.nanoTime() - start);
+        // an eviction while loading changed the key; the loaded value may already be stale
+        if (value != null && key.equals(key(domainType, canonicalQuery))) {
+            store.put(key, value, ttl);
+        }
+        return value;
+    }
+
+    /**
+     * Drops every cached result of {@code domainType}.
+     */
+    public void evict(Class<?> domainType) {
+        store.incrementGeneration(domainType.getName());
+        invalidations.increment();
+    }
+
+    public void evictAll() {
+        store.incrementGeneration(ALL);
+        store.clear();
+        invalidations.increment();
+    }
+
+    public ResultCacheStats stats() {
+        return ResultCacheStats.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .loads(loads.sum())
+                .totalLoadTimeNanos(loadTimeNanos.sum())
+                .invalidations(invalidations.sum())
+                .build();
+    }
+
+    private String key(Class<?> domainType, String canonicalQuery) {
+        String name = domainType.getName();
+        return name + '#' + store.generation(ALL) + '.' + store.generation(name) + '#' + canonicalQuery;
+    }
+
+    public static class Builder {
+        private ResultCacheStore store;
+        private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private Duration defaultTtl = DEFAULT_TTL;
+        private final Map<Class<?>, Duration> ttls = new HashMap<>();
+
+        public Builder store(ResultCacheStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Size of the in-process store; ignored when a {@link #store(ResultCacheStore)} is given.
+         */
+        public Builder maximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder defaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+            return this;
+        }
+
+        /**
+         * Time to live for one entity; {@link Duration#ZERO} disables caching for it.
+         */
+        public Builder ttl(Class<?> domainType, Duration ttl) {
+            this.ttls.put(domainType, ttl);
+            return this;
+        }
+
+        public ResultCache build() {
+            return new ResultCache(this);
+        }
+    }
+}
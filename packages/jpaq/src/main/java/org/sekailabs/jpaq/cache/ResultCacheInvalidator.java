@@ -0,0 +1,75 @@
+package org.sekailabs.jpaq.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Entity listener that evicts the cached results and counts of an entity (and its mapped
+ * superclasses) whenever one is saved or deleted. Register it with
+ * {@code @EntityListeners(ResultCacheInvalidator.class)}.
+ * <p>
+ * Inside a transaction the eviction is repeated after commit, so a result cached by a concurrent
+ * reader before the commit does not survive it.
+ */
+public class ResultCacheInvalidator {
+    private static final Object PENDING_KEY = ResultCacheInvalidator.class.getName() + ".pending";
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        evictOnChange(Hibernate.getClass(entity));
+    }
+
+    /**
+     * Evicts {@code domainType} now and, inside a transaction, once more after commit; for writes
+     * that bypass the entity listeners, such as bulk updates and deletes.
+     */
+    public static void evictOnChange(Class<?> domainType) {
+        evict(domainType);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEvictions().add(domainType);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Class<?>> pendingEvictions() {
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (pending == null) {
+            Set<Class<?>> types = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, types);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    types.forEach(ResultCacheInvalidator::evict);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+                }
+            });
+            pending = types;
+        }
+        return pending;
+    }
+
+    public static void evict(Class<?> domainType) {
+        ResultCache resultCache = JpaqContext.getResultCache();
+        for (Class<?> type = domainType; type != null && type != Object.class; type = type.getSuperclass()) {
+            if (resultCache != null) {
+                resultCache.evict(type);
+            }
+            JpaqContext.getCountCache().invalidate(type);
+        }
+    }
+}
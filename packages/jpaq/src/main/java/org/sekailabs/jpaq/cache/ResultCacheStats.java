@@ -0,0 +1,23 @@
+package org.sekailabs.jpaq.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ResultCacheStats {
+    private long hits;
+    private long misses;
+    private long loads;
+    private long totalLoadTimeNanos;
+    private long invalidations;
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    public double averageLoadTimeNanos() {
+        return loads == 0 ? 0d : (double) totalLoadTimeNanos / loads;
+    }
+}
@@ -0,0 +1,43 @@
+package org.sekailabs.jpaq.cache;
+
+import java.time.Duration;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Storage behind a {@link ResultCache}. Keys are plain strings so that out of process stores
+ * (Redis and the like) can use them as they are. Entity invalidation works through generations
+ * that are part of the keys; they live in the store too, so every node sharing it sees an
+ * eviction, and a store only has to honour the time to live of its entries.
+ */
+public interface ResultCacheStore {
+    Object get(String key);
+
+    void put(String key, Object value, Duration ttl);
+
+    /**
+     * Drops every entry; generations are kept.
+     */
+    void clear();
+
+    /**
+     * Current generation of {@code name}, {@code 0} until it is first incremented.
+     */
+    long generation(String name);
+
+    /**
+     * Atomically increments the generation of {@code name} (an {@code INCR} in Redis).
+     */
+    void incrementGeneration(String name);
+
+    /**
+     * Bounded in-process store: Caffeine (W-TinyLFU eviction) when it is on the classpath, a
+     * concurrent map with expiry otherwise.
+     */
+    static ResultCacheStore inProcess(int maximumSize) {
+        if (ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", ResultCacheStore.class.getClassLoader())) {
+            return new CaffeineResultCacheStore(maximumSize);
+        }
+        return new MapResultCacheStore(maximumSize);
+    }
+}
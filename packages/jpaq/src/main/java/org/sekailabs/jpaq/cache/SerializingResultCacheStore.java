@@ -0,0 +1,65 @@
+package org.sekailabs.jpaq.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+
+/**
+ * Keeps values as serialized bytes in a delegate store, the way an out of process store such as
+ * Redis holds them: nothing is shared between callers, and a value that cannot be serialized fails
+ * at {@link #put}. Stands in for such a store in tests, or wraps a byte oriented client.
+ */
+public class SerializingResultCacheStore implements ResultCacheStore {
+    private final ResultCacheStore delegate;
+
+    public SerializingResultCacheStore(ResultCacheStore delegate) {
+        this.delegate = delegate;
+    }
+
+    public SerializingResultCacheStore(int maximumSize) {
+        this(ResultCacheStore.inProcess(maximumSize));
+    }
+
+    @Override
+    public Object get(String key) {
+        Object bytes = delegate.get(key);
+        if (bytes == null) return null;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream((byte[]) bytes))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot deserialize cached result " + key, e);
+        }
+    }
+
+    @Override
+    public void put(String key, Object value, Duration ttl) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (NotSerializableException e) {
+            throw new IllegalArgumentException("Cached result " + key + " is not serializable", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize cached result " + key, e);
+        }
+        delegate.put(key, bytes.toByteArray(), ttl);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public long generation(String name) {
+        return delegate.generation(name);
+    }
+
+    @Override
+    public void incrementGeneration(String name) {
+        delegate.incrementGeneration(name);
+    }
+}
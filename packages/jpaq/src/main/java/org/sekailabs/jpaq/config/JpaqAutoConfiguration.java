@@ -0,0 +1,91 @@
+package org.sekailabs.jpaq.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.sekailabs.jpaq.cache.ResultCache;
+import org.sekailabs.jpaq.metrics.MicrometerJpaqMetrics;
+import org.sekailabs.jpaq.metrics.ResultCacheMetrics;
+import org.sekailabs.jpaq.models.constant.TextSearchModeEnum;
+import org.sekailabs.jpaq.search.TextSearchRegistry;
+import org.sekailabs.jpaq.web.StreamingResponseObjectHttpMessageConverter;
+import org.sekailabs.jpaq.web.StreamingResponseWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@ConditionalOnClass(EntityManagerFactory.class)
+@ConditionalOnBean(EntityManagerFactory.class)
+public class JpaqAutoConfiguration {
+    static final String SLOW_QUERY_THRESHOLD_PROPERTY = "jpaq.slow-query-threshold";
+    static final String NATIVE_FAST_PATH_PROPERTY = "jpaq.native-fast-path";
+    static final String TEXT_SEARCH_MODE_PROPERTY = "jpaq.text-search.default-mode";
+
+    @Bean
+    public InitializingBean jpaqContextInitializer(
+            EntityManagerFactory entityManagerFactory,
+            ObjectProvider<ResultCache> resultCache,
+            ObjectProvider<PlatformTransactionManager> transactionManager,
+            Environment environment
+    ) {
+        return () -> {
+            JpaqContext.setEntityManager(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+            resultCache.ifAvailable(JpaqContext::setResultCache);
+            transactionManager.ifUnique(JpaqContext::setTransactionManager);
+            JpaqContext.setSlowQueryThreshold(environment.getProperty(SLOW_QUERY_THRESHOLD_PROPERTY, Duration.class));
+            JpaqContext.setNativeFastPath(environment.getProperty(NATIVE_FAST_PATH_PROPERTY, Boolean.class, false));
+            TextSearchRegistry.setDefaultMode(environment.getProperty(TEXT_SEARCH_MODE_PROPERTY, TextSearchModeEnum.class));
+        };
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class JpaqMetricsConfiguration {
+
+        @Bean
+        public InitializingBean jpaqMetricsInitializer(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<ResultCache> resultCache) {
+            return () -> meterRegistry.ifAvailable(registry -> {
+                JpaqContext.setMetrics(new MicrometerJpaqMetrics(registry));
+                resultCache.ifAvailable(cache -> new ResultCacheMetrics(cache).bindTo(registry));
+            });
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({WebMvcConfigurer.class, ObjectMapper.class})
+    static class JpaqWebConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public StreamingResponseWriter jpaqStreamingResponseWriter(ObjectProvider<ObjectMapper> objectMapper) {
+            return new StreamingResponseWriter(objectMapper.getIfAvailable(ObjectMapper::new));
+        }
+
+        @Bean
+        public WebMvcConfigurer jpaqStreamingResponseConfigurer(StreamingResponseWriter writer) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                    converters.add(0, new StreamingResponseObjectHttpMessageConverter(writer));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.sekailabs.jpaq.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import org.sekailabs.jpaq.cache.ResultCache;
+import org.sekailabs.jpaq.count.CountCache;
+import org.sekailabs.jpaq.count.CountEstimator;
+import org.sekailabs.jpaq.metrics.JpaqMetrics;
+
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Process wide settings for the {@code BaseRepository} default methods, which cannot hold state of
+ * their own. {@link JpaqAutoConfiguration} fills in the Spring managed parts.
+ */
+public final class JpaqContext {
+    private static volatile ExecutorService executor;
+    private static volatile EntityManager entityManager;
+    private static volatile PlatformTransactionManager transactionManager;
+    private static volatile CountCache countCache = new CountCache();
+    private static volatile CountEstimator countEstimator = CountEstimator.NONE;
+    private static volatile int streamFetchSize = 500;
+    private static volatile ResultCache resultCache;
+    private static volatile JpaqMetrics metrics = JpaqMetrics.NOOP;
+    private static volatile Duration slowQueryThreshold;
+    private static volatile int inListArrayThreshold = 256;
+    private static volatile int inListChunkSize = 1000;
+    private static volatile int maxExpressionDepth = 8;
+    private static volatile Semaphore asyncPermits = new Semaphore(16, true);
+    private static volatile boolean nativeFastPath;
+
+    private JpaqContext() {}
+
+    /**
+     * Executor for work that runs next to the caller, such as concurrent counts. Defaults to one
+     * virtual thread per task.
+     */
+    public static ExecutorService getExecutor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (JpaqContext.class) {
+                current = executor;
+                if (current == null) {
+                    current = Executors.newVirtualThreadPerTaskExecutor();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static void setExecutor(ExecutorService executor) {
+        JpaqContext.executor = executor;
+    }
+
+    /**
+     * Shared (transaction bound) entity manager used by the methods that build their own queries.
+     */
+    public static EntityManager getEntityManager() {
+        EntityManager current = entityManager;
+        if (current == null) {
+            throw new IllegalStateException("No EntityManager configured, call JpaqContext.setEntityManager or enable JpaqAutoConfiguration");
+        }
+        return current;
+    }
+
+    public static boolean hasEntityManager() {
+        return entityManager != null;
+    }
+
+    public static void setEntityManager(EntityManager entityManager) {
+        JpaqContext.entityManager = entityManager;
+    }
+
+    /**
+     * Transaction manager used to give every asynchronous query its own read-only transaction, or
+     * {@code null} to run them without one.
+     */
+    public static PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    public static void setTransactionManager(PlatformTransactionManager transactionManager) {
+        JpaqContext.transactionManager = transactionManager;
+    }
+
+    /**
+     * Bounds the asynchronous queries that hold a connection at the same time; the others wait on
+     * their virtual thread. Counts and other queries a task starts run inline on its connection, so
+     * one permit is one connection (plus one per streaming subscription that is waiting for demand,
+     * which gives its permit back meanwhile).
+     */
+    public static Semaphore getAsyncPermits() {
+        return asyncPermits;
+    }
+
+    public static void setMaxConcurrentAsyncQueries(int maxConcurrentAsyncQueries) {
+        if (maxConcurrentAsyncQueries <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent async queries must be positive");
+        }
+        JpaqContext.asyncPermits = new Semaphore(maxConcurrentAsyncQueries, true);
+    }
+
+    public static CountCache getCountCache() {
+        return countCache;
+    }
+
+    public static void setCountCache(CountCache countCache) {
+        JpaqContext.countCache = countCache;
+    }
+
+    public static CountEstimator getCountEstimator() {
+        return countEstimator;
+    }
+
+    public static void setCountEstimator(CountEstimator countEstimator) {
+        JpaqContext.countEstimator = countEstimator == null ? CountEstimator.NONE : countEstimator;
+    }
+
+    /**
+     * JDBC fetch size of the server side cursor behind {@code streamAny}.
+     */
+    public static int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    public static void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("Stream fetch size must be positive");
+        }
+        JpaqContext.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * Cache behind {@code queryAnyCached}; {@code null} (the default) disables result caching.
+     */
+    public static ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public static void setResultCache(ResultCache resultCache) {
+        JpaqContext.resultCache = resultCache;
+    }
+
+    public static JpaqMetrics getMetrics() {
+        return metrics;
+    }
+
+    public static void setMetrics(JpaqMetrics metrics) {
+        JpaqContext.metrics = metrics == null ? JpaqMetrics.NOOP : metrics;
+    }
+
+    /**
+     * Paged queries slower than this are logged with their normalized query; {@code null} (the
+     * default) disables the slow query log.
+     */
+    public static Duration getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public static void setSlowQueryThreshold(Duration slowQueryThreshold) {
+        JpaqContext.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    /**
+     * IN lists longer than this are bound as a single array parameter where the dialect allows it.
+     */
+    public static int getInListArrayThreshold() {
+        return inListArrayThreshold;
+    }
+
+    public static void setInListArrayThreshold(int inListArrayThreshold) {
+        JpaqContext.inListArrayThreshold = inListArrayThreshold;
+    }
+
+    /**
+     * Largest IN list put into one clause, and the chunk size of {@code queryAnyIn} on dialects
+     * without array parameters.
+     */
+    public static int getInListChunkSize() {
+        return inListChunkSize;
+    }
+
+    public static void setInListChunkSize(int inListChunkSize) {
+        if (inListChunkSize <= 0) {
+            throw new IllegalArgumentException("IN list chunk size must be positive");
+        }
+        JpaqContext.inListChunkSize = inListChunkSize;
+    }
+
+    /**
+     * Deepest nesting of groups and negations accepted in a filter expression.
+     */
+    public static int getMaxExpressionDepth() {
+        return maxExpressionDepth;
+    }
+
+    public static void setMaxExpressionDepth(int maxExpressionDepth) {
+        if (maxExpressionDepth <= 0) {
+            throw new IllegalArgumentException("Maximum expression depth must be positive");
+        }
+        JpaqContext.maxExpressionDepth = maxExpressionDepth;
+    }
+
+    /**
+     * Whether simple filters on plain entities are read with precompiled SQL instead of a Criteria
+     * query; off by default. Only used outside transactions, since it returns detached entities
+     * and does not see unflushed changes.
+     */
+    public static boolean isNativeFastPath() {
+        return nativeFastPath;
+    }
+
+    public static void setNativeFastPath(boolean nativeFastPath) {
+        JpaqContext.nativeFastPath = nativeFastPath;
+    }
+}
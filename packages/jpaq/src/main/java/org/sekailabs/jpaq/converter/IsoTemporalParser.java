@@ -0,0 +1,163 @@
+package org.sekailabs.jpaq.converter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Hand written ISO-8601 parser for query values: {@code yyyy-MM-dd}, optionally followed by
+ * {@code T} or a space, {@code HH:mm[:ss[.f…]]} with one to nine fraction digits, and an offset
+ * ({@code Z}, {@code ±HH}, {@code ±HHmm} or {@code ±HH:mm}). Invalid input yields {@code null}
+ * instead of an exception, and no formatter is involved.
+ */
+final class IsoTemporalParser {
+    private IsoTemporalParser() {}
+
+    private record Parts(LocalDate date, LocalTime time, ZoneOffset offset) {}
+
+    static LocalDate parseLocalDate(CharSequence text) {
+        return text.length() == 10 ? date(text, 0) : null;
+    }
+
+    static LocalTime parseLocalTime(CharSequence text) {
+        int[] end = new int[1];
+        LocalTime time = time(text, 0, end);
+        return time != null && end[0] == text.length() ? time : null;
+    }
+
+    /**
+     * A date without time is the start of that day; an offset converts to the system time zone.
+     */
+    static LocalDateTime parseLocalDateTime(CharSequence text) {
+        Parts parts = parse(text);
+        if (parts == null) return null;
+        LocalDateTime dateTime = LocalDateTime.of(parts.date, parts.time);
+        if (parts.offset == null) return dateTime;
+        return dateTime.atOffset(parts.offset).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    /**
+     * Values without an offset are read as UTC.
+     */
+    static OffsetDateTime parseOffsetDateTime(CharSequence text) {
+        Parts parts = parse(text);
+        if (parts == null) return null;
+        return OffsetDateTime.of(parts.date, parts.time, parts.offset != null ? parts.offset : ZoneOffset.UTC);
+    }
+
+    /**
+     * Values without an offset are read in the system time zone.
+     */
+    static ZonedDateTime parseZonedDateTime(CharSequence text) {
+        Parts parts = parse(text);
+        if (parts == null) return null;
+        return ZonedDateTime.of(parts.date, parts.time, parts.offset != null ? parts.offset : ZoneId.systemDefault());
+    }
+
+    static Instant parseInstant(CharSequence text) {
+        OffsetDateTime dateTime = parseOffsetDateTime(text);
+        return dateTime != null ? dateTime.toInstant() : null;
+    }
+
+    private static Parts parse(CharSequence text) {
+        int length = text.length();
+        if (length < 10) return null;
+        LocalDate date = date(text, 0);
+        if (date == null) return null;
+        if (length == 10) return new Parts(date, LocalTime.MIDNIGHT, null);
+
+        char separator = text.charAt(10);
+        if (separator != 'T' && separator != 't' && separator != ' ') return null;
+        int[] end = new int[1];
+        LocalTime time = time(text, 11, end);
+        if (time == null) return null;
+        if (end[0] == length) return new Parts(date, time, null);
+
+        ZoneOffset offset = offset(text, end[0]);
+        return offset != null ? new Parts(date, time, offset) : null;
+    }
+
+    private static LocalDate date(CharSequence text, int start) {
+        if (text.length() < start + 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') return null;
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1) return null;
+        if (day > 28 && day > lengthOfMonth(year, month)) return null;
+        return LocalDate.of(year, month, day);
+    }
+
+    private static LocalTime time(CharSequence text, int start, int[] end) {
+        int length = text.length();
+        if (length < start + 5 || text.charAt(start + 2) != ':') return null;
+        int hour = digits(text, start, 2);
+        int minute = digits(text, start + 3, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) return null;
+        int second = 0;
+        int nano = 0;
+        int position = start + 5;
+        if (position < length && text.charAt(position) == ':') {
+            second = digits(text, position + 1, 2);
+            if (second < 0 || second > 59) return null;
+            position += 3;
+            if (position < length && (text.charAt(position) == '.' || text.charAt(position) == ',')) {
+                int fractionStart = ++position;
+                while (position < length && position - fractionStart < 9 && isDigit(text.charAt(position))) {
+                    nano = nano * 10 + (text.charAt(position) - '0');
+                    position++;
+                }
+                int fractionDigits = position - fractionStart;
+                if (fractionDigits == 0) return null;
+                for (int i = fractionDigits; i < 9; i++) nano *= 10;
+            }
+        }
+        end[0] = position;
+        return LocalTime.of(hour, minute, second, nano);
+    }
+
+    private static ZoneOffset offset(CharSequence text, int start) {
+        int length = text.length();
+        char sign = text.charAt(start);
+        if ((sign == 'Z' || sign == 'z') && start + 1 == length) return ZoneOffset.UTC;
+        if (sign != '+' && sign != '-') return null;
+        int hours = digits(text, start + 1, 2);
+        int minutes = 0;
+        int position = start + 3;
+        if (position < length) {
+            if (text.charAt(position) == ':') position++;
+            minutes = digits(text, position, 2);
+            position += 2;
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59 || position != length) return null;
+        int seconds = hours * 3600 + minutes * 60;
+        return ZoneOffset.ofTotalSeconds(sign == '-' ? -seconds : seconds);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        if (text.length() < start + count) return -1;
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,111 @@
+package org.sekailabs.jpaq.converter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Number parsing that validates the text itself and returns {@code null} for invalid input, so a
+ * bad filter value never costs an exception.
+ */
+final class NumberParser {
+    private NumberParser() {}
+
+    static Long parseLong(CharSequence text) {
+        int length = text.length();
+        if (length == 0) return null;
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) return null;
+            negative = first == '-';
+            i = 1;
+        }
+        // accumulate negatively so that Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyMin) return null;
+            result *= 10;
+            if (result < limit + digit) return null;
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    static Integer parseInt(CharSequence text) {
+        Long value = parseLong(text);
+        return value != null && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? value.intValue() : null;
+    }
+
+    static Short parseShort(CharSequence text) {
+        Long value = parseLong(text);
+        return value != null && value >= Short.MIN_VALUE && value <= Short.MAX_VALUE ? value.shortValue() : null;
+    }
+
+    static Byte parseByte(CharSequence text) {
+        Long value = parseLong(text);
+        return value != null && value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE ? value.byteValue() : null;
+    }
+
+    static Double parseDouble(CharSequence text) {
+        return isDecimal(text) ? Double.parseDouble(text.toString()) : null;
+    }
+
+    static Float parseFloat(CharSequence text) {
+        return isDecimal(text) ? Float.parseFloat(text.toString()) : null;
+    }
+
+    static BigDecimal parseBigDecimal(CharSequence text) {
+        return isDecimal(text) ? new BigDecimal(text.toString()) : null;
+    }
+
+    static BigInteger parseBigInteger(CharSequence text) {
+        int length = text.length();
+        int i = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        if (i == length) return null;
+        for (; i < length; i++) {
+            if (!isDigit(text.charAt(i))) return null;
+        }
+        return new BigInteger(text.toString());
+    }
+
+    /**
+     * {@code [+-]digits[.digits][(e|E)[+-]digits]}, with at least one mantissa digit.
+     */
+    static boolean isDecimal(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+        int mantissaDigits = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            i++;
+            mantissaDigits++;
+        }
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+                mantissaDigits++;
+            }
+        }
+        if (mantissaDigits == 0) return false;
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+            int exponentDigits = 0;
+            while (i < length && isDigit(text.charAt(i)) && exponentDigits < 10) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) return false;
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,10 @@
+package org.sekailabs.jpaq.converter;
+
+/**
+ * Converts a raw query value to a field type. Implementations return {@code null} for values they
+ * cannot convert rather than throwing; the filter is then dropped.
+ */
+@FunctionalInterface
+public interface ValueConverter<T> {
+    T convert(String value);
+}
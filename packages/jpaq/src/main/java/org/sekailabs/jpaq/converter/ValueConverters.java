@@ -0,0 +1,101 @@
+package org.sekailabs.jpaq.converter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link ValueConverter}s by field type. Numbers, booleans, ISO-8601 temporals, UUIDs
+ * and every enum are built in; other types can be added with {@link #register}, which should
+ * happen at startup, before the entity descriptors that pick up the converters are built.
+ */
+public final class ValueConverters {
+    private static final ValueConverter<String> STRING = value -> value;
+    private static final Map<Class<?>, ValueConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        register(ValueConverters::parseBoolean, Boolean.class, boolean.class);
+        register(NumberParser::parseInt, Integer.class, int.class);
+        register(NumberParser::parseLong, Long.class, long.class);
+        register(NumberParser::parseShort, Short.class, short.class);
+        register(NumberParser::parseByte, Byte.class, byte.class);
+        register(NumberParser::parseFloat, Float.class, float.class);
+        register(NumberParser::parseDouble, Double.class, double.class);
+        register(NumberParser::parseBigDecimal, BigDecimal.class);
+        register(NumberParser::parseBigInteger, BigInteger.class);
+        register(IsoTemporalParser::parseLocalDate, LocalDate.class);
+        register(IsoTemporalParser::parseLocalDateTime, LocalDateTime.class);
+        register(IsoTemporalParser::parseLocalTime, LocalTime.class);
+        register(IsoTemporalParser::parseOffsetDateTime, OffsetDateTime.class);
+        register(IsoTemporalParser::parseZonedDateTime, ZonedDateTime.class);
+        register(IsoTemporalParser::parseInstant, Instant.class);
+        register(ValueConverters::parseUuid, UUID.class);
+        register(STRING, String.class);
+    }
+
+    private ValueConverters() {}
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ValueConverter<?> forType(Class<?> type) {
+        ValueConverter<?> converter = CONVERTERS.get(type);
+        if (converter != null) return converter;
+        if (type.isEnum()) {
+            return CONVERTERS.computeIfAbsent(type, enumType -> enumConverter((Class) enumType));
+        }
+        return STRING;
+    }
+
+    public static <T> void register(Class<T> type, ValueConverter<? extends T> converter) {
+        CONVERTERS.put(type, converter);
+    }
+
+    private static void register(ValueConverter<?> converter, Class<?>... types) {
+        for (Class<?> type : types) {
+            CONVERTERS.put(type, converter);
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true") || value.equals("1")) return Boolean.TRUE;
+        if (value.equalsIgnoreCase("false") || value.equals("0")) return Boolean.FALSE;
+        return null;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36) return null;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (!valid) return null;
+        }
+        return UUID.fromString(value);
+    }
+
+    /**
+     * Matches constant names exactly first, then ignoring case.
+     */
+    private static <E extends Enum<E>> ValueConverter<E> enumConverter(Class<E> type) {
+        Map<String, E> exact = new HashMap<>();
+        Map<String, E> folded = new HashMap<>();
+        for (E constant : type.getEnumConstants()) {
+            exact.put(constant.name(), constant);
+            folded.putIfAbsent(constant.name().toUpperCase(Locale.ROOT), constant);
+        }
+        return value -> {
+            E constant = exact.get(value);
+            return constant != null ? constant : folded.get(value.toUpperCase(Locale.ROOT));
+        };
+    }
+}
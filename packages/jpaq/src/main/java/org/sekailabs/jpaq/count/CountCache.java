@@ -0,0 +1,60 @@
+package org.sekailabs.jpaq.count;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Exact counts memoized per entity and canonical query for a fixed time to live.
+ */
+public class CountCache {
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final long ttlNanos;
+    private final int maximumSize;
+    private final Map<Key, Entry> counts = new ConcurrentHashMap<>();
+
+    public CountCache() {
+        this(DEFAULT_TTL, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public CountCache(Duration ttl, int maximumSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSize = maximumSize;
+    }
+
+    public long get(Class<?> domainType, String canonicalQuery, LongSupplier loader) {
+        Key key = new Key(domainType, canonicalQuery);
+        long now = System.nanoTime();
+        Entry entry = counts.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.count;
+        }
+        long count = loader.getAsLong();
+        if (counts.size() >= maximumSize) {
+            purgeExpired(now);
+        }
+        if (counts.size() < maximumSize) {
+            counts.put(key, new Entry(count, now));
+        }
+        return count;
+    }
+
+    public void invalidate(Class<?> domainType) {
+        counts.keySet().removeIf(key -> key.domainType.equals(domainType));
+    }
+
+    public void invalidateAll() {
+        counts.clear();
+    }
+
+    private void purgeExpired(long now) {
+        counts.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+    }
+
+    private record Key(Class<?> domainType, String query) {}
+
+    private record Entry(long count, long loadedAt) {}
+}
@@ -0,0 +1,17 @@
+package org.sekailabs.jpaq.count;
+
+import java.util.Map;
+import java.util.OptionalLong;
+
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+
+/**
+ * Source of approximate row counts, used by {@code CountStrategyEnum.ESTIMATED}. Returning an empty
+ * result makes the repository fall back to an exact count.
+ */
+@FunctionalInterface
+public interface CountEstimator {
+    CountEstimator NONE = (domainType, search) -> OptionalLong.empty();
+
+    OptionalLong estimate(Class<?> domainType, Map<String, QueryFieldWrapper> search);
+}
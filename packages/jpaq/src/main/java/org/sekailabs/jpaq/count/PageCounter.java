@@ -0,0 +1,142 @@
+package org.sekailabs.jpaq.count;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.sekailabs.jpaq.async.AsyncQuery;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.metrics.QueryTrace;
+import org.sekailabs.jpaq.models.constant.CountStrategyEnum;
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.plan.QueryKeys;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Fetches one page as a slice and attaches a total according to a {@link CountStrategyEnum}.
+ * <p>
+ * Exact and cached counts start as an {@link AsyncQuery} before the slice is read, so they overlap
+ * the data query; when the slice turns out to be the last page the count is cancelled, statement
+ * included. Where that is not possible ({@link AsyncQuery#canOffload()}) the count runs on the
+ * caller thread after the slice, and only when the slice alone does not give the total: inside a
+ * read-write transaction another thread would not see its uncommitted rows, inside an async task
+ * the count must stay under the task's permit and timeout, and without a transaction manager a
+ * running count could not be cancelled.
+ */
+public final class PageCounter {
+    private PageCounter() {}
+
+    public static <T> PaginationWrapper<List<T>> page(
+            CountStrategyEnum strategy,
+            Class<?> domainType,
+            Map<String, QueryFieldWrapper> search,
+            Pageable pageable,
+            Function<Pageable, Slice<T>> fetcher,
+            LongSupplier counter
+    ) {
+        return page(strategy, domainType, search, null, pageable, fetcher, counter);
+    }
+
+    /**
+     * Estimates only cover search maps, so queries with a filter expression always count exactly
+     * under {@link CountStrategyEnum#ESTIMATED}.
+     */
+    public static <T> PaginationWrapper<List<T>> page(
+            CountStrategyEnum strategy,
+            Class<?> domainType,
+            Map<String, QueryFieldWrapper> search,
+            QueryExpression where,
+            Pageable pageable,
+            Function<Pageable, Slice<T>> fetcher,
+            LongSupplier counter
+    ) {
+        QueryTrace trace = QueryTrace.start(domainType, search, where, pageable);
+        Function<Pageable, Slice<T>> timedFetcher = trace.fetcher(fetcher);
+        LongSupplier timedCounter = trace.counter(counter);
+        PaginationWrapper<List<T>> page = switch (strategy) {
+            case SKIP -> slice(timedFetcher.apply(pageable));
+            case EXACT -> counted(pageable, timedFetcher, timedCounter, false);
+            case CACHED -> counted(pageable, timedFetcher,
+                    () -> JpaqContext.getCountCache().get(domainType, QueryKeys.canonical(search, where), timedCounter), false);
+            case ESTIMATED -> {
+                OptionalLong estimate = where == null
+                        ? JpaqContext.getCountEstimator().estimate(domainType, search)
+                        : OptionalLong.empty();
+                yield estimate.isPresent()
+                        ? counted(pageable, timedFetcher, estimate::getAsLong, true)
+                        : counted(pageable, timedFetcher, timedCounter, false);
+            }
+        };
+        trace.finish();
+        return page;
+    }
+
+    private static <T> PaginationWrapper<List<T>> slice(Slice<T> slice) {
+        return new PaginationWrapper.Builder<List<T>>()
+                .setData(slice.getContent())
+                .setPaginationInfo(slice)
+                .build();
+    }
+
+    private static <T> PaginationWrapper<List<T>> counted(
+            Pageable pageable,
+            Function<Pageable, Slice<T>> fetcher,
+            LongSupplier counter,
+            boolean estimated
+    ) {
+        CompletableFuture<Long> pending = estimated || !AsyncQuery.canOffload()
+                ? null
+                : AsyncQuery.submit(counter::getAsLong, null);
+
+        Slice<T> slice;
+        try {
+            slice = fetcher.apply(pageable);
+        } catch (RuntimeException e) {
+            if (pending != null) pending.cancel(true);
+            throw e;
+        }
+
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int fetched = slice.getNumberOfElements();
+        long total;
+        if (!estimated && !slice.hasNext() && (fetched > 0 || offset == 0)) {
+            if (pending != null) pending.cancel(true);
+            total = offset + fetched;
+        } else if (pending != null) {
+            total = join(pending);
+        } else {
+            total = counter.getAsLong();
+        }
+        if (estimated) {
+            total = Math.max(total, offset + fetched + (slice.hasNext() ? 1 : 0));
+        }
+
+        int size = pageable.isPaged() ? pageable.getPageSize() : Math.max(fetched, 1);
+        int totalPages = (int) ((total + size - 1) / size);
+        return new PaginationWrapper<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                totalPages,
+                (int) total,
+                slice.hasNext(),
+                estimated
+        );
+    }
+
+    private static long join(CompletableFuture<Long> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
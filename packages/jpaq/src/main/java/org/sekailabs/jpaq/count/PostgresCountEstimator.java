@@ -0,0 +1,57 @@
+package org.sekailabs.jpaq.count;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Reads the planner's row estimate ({@code pg_class.reltuples}) of the entity table. Only unfiltered
+ * queries are estimated, because the table statistic says nothing about a filtered subset.
+ */
+public class PostgresCountEstimator implements CountEstimator {
+    private static final String ESTIMATE_SQL =
+            "select cast(reltuples as bigint) from pg_class where oid = to_regclass(?1)";
+
+    private final EntityManager entityManager;
+    private final Map<Class<?>, String> tableNames = new ConcurrentHashMap<>();
+
+    public PostgresCountEstimator(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public OptionalLong estimate(Class<?> domainType, Map<String, QueryFieldWrapper> search) {
+        if (search != null && !search.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        String table = tableNames.computeIfAbsent(domainType, this::tableName);
+        if (table.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        Object estimate = entityManager.createNativeQuery(ESTIMATE_SQL)
+                .setParameter(1, table)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .orElse(null);
+        if (estimate instanceof Number number && number.longValue() >= 0) {
+            return OptionalLong.of(number.longValue());
+        }
+        return OptionalLong.empty();
+    }
+
+    private String tableName(Class<?> domainType) {
+        EntityPersister persister = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(domainType);
+        return persister instanceof AbstractEntityPersister entityPersister ? entityPersister.getTableName() : "";
+    }
+}
@@ -0,0 +1,24 @@
+package org.sekailabs.jpaq.expression;
+
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+
+import lombok.Getter;
+
+@Getter
+public final class QueryCondition implements QueryExpression {
+    private final String field;
+    private final QueryFieldWrapper wrapper;
+
+    public QueryCondition(String field, QueryFieldWrapper wrapper) {
+        if (field == null || field.isEmpty()) {
+            throw new IllegalArgumentException("Condition field is required");
+        }
+        this.field = field;
+        this.wrapper = wrapper;
+    }
+
+    @Override
+    public int depth() {
+        return 1;
+    }
+}
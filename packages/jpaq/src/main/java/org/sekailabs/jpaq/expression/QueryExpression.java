@@ -0,0 +1,58 @@
+package org.sekailabs.jpaq.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+
+/**
+ * Boolean filter tree: conditions combined with AND / OR groups and NOT, e.g.
+ * {@code status = A or (priority > 5 and not owner = bob)}. Unlike the search map, a field may
+ * appear in any number of conditions.
+ */
+public sealed interface QueryExpression permits QueryCondition, QueryGroup, QueryNot {
+
+    /**
+     * Nesting depth, 1 for a single condition.
+     */
+    int depth();
+
+    static QueryExpression condition(String field, QueryOperatorEnum operator, Object value) {
+        return new QueryCondition(field, QueryFieldWrapper.builder().operator(operator).value(value).build());
+    }
+
+    static QueryExpression and(QueryExpression... expressions) {
+        return group(QueryLogicalOperatorEnum.AND, List.of(expressions));
+    }
+
+    static QueryExpression or(QueryExpression... expressions) {
+        return group(QueryLogicalOperatorEnum.OR, List.of(expressions));
+    }
+
+    static QueryExpression not(QueryExpression expression) {
+        if (expression instanceof QueryNot not) return not.getExpression();
+        return new QueryNot(expression);
+    }
+
+    /**
+     * Groups the expressions, inlining nested groups of the same operator; a single expression is
+     * returned as is.
+     */
+    static QueryExpression group(QueryLogicalOperatorEnum operator, List<QueryExpression> expressions) {
+        if (expressions.isEmpty()) {
+            throw new IllegalArgumentException("A " + operator + " group needs at least one expression");
+        }
+        if (expressions.size() == 1) return expressions.get(0);
+        List<QueryExpression> children = new ArrayList<>(expressions.size());
+        for (QueryExpression expression : expressions) {
+            if (expression instanceof QueryGroup group && group.getOperator() == operator) {
+                children.addAll(group.getChildren());
+            } else {
+                children.add(expression);
+            }
+        }
+        return new QueryGroup(operator, children);
+    }
+}
@@ -0,0 +1,29 @@
+package org.sekailabs.jpaq.expression;
+
+import java.util.List;
+
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+
+import lombok.Getter;
+
+@Getter
+public final class QueryGroup implements QueryExpression {
+    private final QueryLogicalOperatorEnum operator;
+    private final List<QueryExpression> children;
+    private final int depth;
+
+    QueryGroup(QueryLogicalOperatorEnum operator, List<QueryExpression> children) {
+        this.operator = operator;
+        this.children = List.copyOf(children);
+        int deepest = 0;
+        for (QueryExpression child : this.children) {
+            deepest = Math.max(deepest, child.depth());
+        }
+        this.depth = deepest + 1;
+    }
+
+    @Override
+    public int depth() {
+        return depth;
+    }
+}
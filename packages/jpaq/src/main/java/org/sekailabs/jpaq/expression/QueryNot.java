@@ -0,0 +1,20 @@
+package org.sekailabs.jpaq.expression;
+
+import lombok.Getter;
+
+@Getter
+public final class QueryNot implements QueryExpression {
+    private final QueryExpression expression;
+
+    QueryNot(QueryExpression expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Negated expression is required");
+        }
+        this.expression = expression;
+    }
+
+    @Override
+    public int depth() {
+        return expression.depth() + 1;
+    }
+}
@@ -0,0 +1,116 @@
+package org.sekailabs.jpaq.guard;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.sekailabs.jpaq.models.constant.QueryGuardActionEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+
+import lombok.Getter;
+
+/**
+ * Filterable fields, allowed operators and size limits of one entity.
+ */
+@Getter
+public final class EntityQueryPolicy {
+    public static final int DEFAULT_MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_IN_LIST_SIZE = 100;
+
+    private final Map<String, FieldPolicy> fields;
+    private final int maxPageSize;
+    private final int maxInListSize;
+    private final QueryGuardActionEnum action;
+
+    private EntityQueryPolicy(Builder builder) {
+        Map<String, FieldPolicy> fields = new HashMap<>(builder.fields);
+        builder.fields.forEach((name, field) -> {
+            if (name.indexOf('.') > 0) {
+                fields.putIfAbsent(flatten(name), field);
+            }
+        });
+        this.fields = Map.copyOf(fields);
+        this.maxPageSize = builder.maxPageSize;
+        this.maxInListSize = builder.maxInListSize;
+        this.action = builder.action;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Policy of a field by name; nested fields are found by their dotted path
+     * ({@code customer.region}) and by its camel case form ({@code customerRegion}).
+     */
+    public FieldPolicy getField(String name) {
+        return fields.get(name);
+    }
+
+    private static String flatten(String dotted) {
+        StringBuilder flat = new StringBuilder(dotted.length());
+        boolean upperNext = false;
+        for (int i = 0; i < dotted.length(); i++) {
+            char c = dotted.charAt(i);
+            if (c == '.') {
+                upperNext = true;
+                continue;
+            }
+            flat.append(upperNext ? Character.toUpperCase(c) : c);
+            upperNext = false;
+        }
+        return flat.toString();
+    }
+
+    @Getter
+    public static final class FieldPolicy {
+        private final String name;
+        private final Set<QueryOperatorEnum> operators;
+        private final boolean sortable;
+        private final boolean indexed;
+
+        FieldPolicy(String name, Set<QueryOperatorEnum> operators, boolean sortable, boolean indexed) {
+            this.name = name;
+            this.operators = Collections.unmodifiableSet(operators.isEmpty() ? EnumSet.noneOf(QueryOperatorEnum.class) : EnumSet.copyOf(operators));
+            this.sortable = sortable;
+            this.indexed = indexed;
+        }
+
+        public boolean allows(QueryOperatorEnum operator) {
+            return operators.contains(operator);
+        }
+    }
+
+    public static class Builder {
+        private final Map<String, FieldPolicy> fields = new HashMap<>();
+        private int maxPageSize = DEFAULT_MAX_PAGE_SIZE;
+        private int maxInListSize = DEFAULT_MAX_IN_LIST_SIZE;
+        private QueryGuardActionEnum action = QueryGuardActionEnum.REJECT;
+
+        public Builder field(String name, Set<QueryOperatorEnum> operators, boolean sortable, boolean indexed) {
+            this.fields.put(name, new FieldPolicy(name, operators, sortable, indexed));
+            return this;
+        }
+
+        public Builder maxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+            return this;
+        }
+
+        public Builder maxInListSize(int maxInListSize) {
+            this.maxInListSize = maxInListSize;
+            return this;
+        }
+
+        public Builder action(QueryGuardActionEnum action) {
+            this.action = action;
+            return this;
+        }
+
+        public EntityQueryPolicy build() {
+            return new EntityQueryPolicy(this);
+        }
+    }
+}
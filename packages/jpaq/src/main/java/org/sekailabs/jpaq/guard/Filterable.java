@@ -0,0 +1,46 @@
+package org.sekailabs.jpaq.guard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+
+/**
+ * Field of a {@link QueryPolicy} entity that clients may filter on.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Filterable {
+    /**
+     * Allowed operators; everything except {@code LIKE} and {@code SEARCH} by default.
+     */
+    QueryOperatorEnum[] operators() default {
+            QueryOperatorEnum.EQ,
+            QueryOperatorEnum.NE,
+            QueryOperatorEnum.GT,
+            QueryOperatorEnum.LT,
+            QueryOperatorEnum.GTE,
+            QueryOperatorEnum.LTE,
+            QueryOperatorEnum.STARTS_WITH,
+            QueryOperatorEnum.IN,
+            QueryOperatorEnum.NOT_IN,
+            QueryOperatorEnum.BETWEEN
+    };
+
+    boolean sortable() default true;
+
+    /**
+     * Whether the column has an index that serves prefix matches.
+     */
+    boolean indexed() default false;
+
+    /**
+     * On an association, the nested fields below it that may be filtered, e.g.
+     * {@code @Filterable(paths = {"region", "address.city"}) Customer customer} allows
+     * {@code customer.region} and {@code customer.address.city} (and {@code customerRegion}). The
+     * association itself is then not filterable.
+     */
+    String[] paths() default {};
+}
@@ -0,0 +1,187 @@
+package org.sekailabs.jpaq.guard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sekailabs.jpaq.aggregate.Aggregation;
+import org.sekailabs.jpaq.aggregate.Measure;
+import org.sekailabs.jpaq.expression.QueryCondition;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.expression.QueryGroup;
+import org.sekailabs.jpaq.expression.QueryNot;
+import org.sekailabs.jpaq.models.constant.QueryGuardActionEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Enforces the {@link EntityQueryPolicy} of an entity on client filters and pagination before any
+ * SQL is built. Inputs are never modified; rewrites produce copies.
+ */
+public final class QueryGuard {
+    private QueryGuard() {}
+
+    public static Map<String, QueryFieldWrapper> filters(Class<?> domainType, Map<String, QueryFieldWrapper> search) {
+        EntityQueryPolicy policy = QueryPolicyRegistry.get(domainType);
+        if (policy == null || search == null || search.isEmpty()) return search;
+
+        Map<String, QueryFieldWrapper> guarded = null;
+        for (Map.Entry<String, QueryFieldWrapper> entry : search.entrySet()) {
+            String field = entry.getKey();
+            QueryFieldWrapper wrapper = entry.getValue();
+            QueryFieldWrapper rewritten = filter(policy, field, wrapper, true);
+            if (rewritten != wrapper) {
+                if (guarded == null) guarded = new LinkedHashMap<>(search);
+                guarded.put(field, rewritten);
+            }
+        }
+        return guarded != null ? guarded : search;
+    }
+
+    /**
+     * Checks a bulk lookup by {@code values} of {@code field} like an {@code IN} filter: the field
+     * must allow {@code IN} and the list must fit {@code maxInListSize}.
+     */
+    public static void in(Class<?> domainType, String field, Collection<?> values) {
+        EntityQueryPolicy policy = QueryPolicyRegistry.get(domainType);
+        if (policy == null) return;
+        filter(policy, field, QueryFieldWrapper.builder().operator(QueryOperatorEnum.IN).value(values).build(), false);
+    }
+
+    /**
+     * Checks every condition of a filter expression like a search map entry, rebuilding only the
+     * branches with rewritten conditions. Negated conditions are never rewritten, since narrowing
+     * them would widen the result.
+     */
+    public static QueryExpression expression(Class<?> domainType, QueryExpression expression) {
+        EntityQueryPolicy policy = QueryPolicyRegistry.get(domainType);
+        if (policy == null || expression == null) return expression;
+        return expression(policy, expression, false);
+    }
+
+    private static QueryExpression expression(EntityQueryPolicy policy, QueryExpression expression, boolean negated) {
+        return switch (expression) {
+            case QueryCondition condition -> {
+                QueryFieldWrapper rewritten = filter(policy, condition.getField(), condition.getWrapper(), !negated);
+                yield rewritten == condition.getWrapper() ? condition : new QueryCondition(condition.getField(), rewritten);
+            }
+            case QueryGroup group -> {
+                List<QueryExpression> children = new ArrayList<>(group.getChildren().size());
+                boolean changed = false;
+                for (QueryExpression child : group.getChildren()) {
+                    QueryExpression guarded = expression(policy, child, negated);
+                    changed |= guarded != child;
+                    children.add(guarded);
+                }
+                yield changed ? QueryExpression.group(group.getOperator(), children) : group;
+            }
+            case QueryNot not -> {
+                QueryExpression guarded = expression(policy, not.getExpression(), !negated);
+                yield guarded == not.getExpression() ? not : QueryExpression.not(guarded);
+            }
+        };
+    }
+
+    private static QueryFieldWrapper filter(EntityQueryPolicy policy, String field, QueryFieldWrapper wrapper, boolean rewritable) {
+        EntityQueryPolicy.FieldPolicy fieldPolicy = policy.getField(field);
+        if (fieldPolicy == null) {
+            throw new ValidationException("Filtering on " + field + " is not allowed");
+        }
+
+        QueryOperatorEnum operator = wrapper.getOperator();
+        if (!fieldPolicy.allows(operator)) {
+            if (operator == QueryOperatorEnum.LIKE
+                    && rewritable
+                    && policy.getAction() == QueryGuardActionEnum.REWRITE
+                    && fieldPolicy.isIndexed()) {
+                return QueryFieldWrapper.builder()
+                        .operator(QueryOperatorEnum.STARTS_WITH)
+                        .value(wrapper.getValue())
+                        .build();
+            }
+            throw new ValidationException("Operator " + operator + " is not allowed on " + field);
+        }
+
+        if (wrapper.getValue() instanceof Collection<?> values
+                && (operator == QueryOperatorEnum.IN || operator == QueryOperatorEnum.NOT_IN)
+                && values.size() > policy.getMaxInListSize()) {
+            throw new ValidationException("Too many values for " + field + ", at most " + policy.getMaxInListSize() + " are allowed");
+        }
+        return wrapper;
+    }
+
+    /**
+     * Group fields and measure fields must be filterable fields of the policy.
+     */
+    public static Aggregation aggregation(Class<?> domainType, Aggregation aggregation) {
+        EntityQueryPolicy policy = QueryPolicyRegistry.get(domainType);
+        if (policy == null || aggregation == null) return aggregation;
+        for (String field : aggregation.getGroupBy()) {
+            if (policy.getField(field) == null) {
+                throw new ValidationException("Grouping by " + field + " is not allowed");
+            }
+        }
+        for (Measure measure : aggregation.getMeasures()) {
+            if (measure.getField() != null && policy.getField(measure.getField()) == null) {
+                throw new ValidationException("Aggregating " + measure.getField() + " is not allowed");
+            }
+        }
+        return aggregation;
+    }
+
+    public static Pageable pageable(Class<?> domainType, Pageable pageable) {
+        EntityQueryPolicy policy = QueryPolicyRegistry.get(domainType);
+        if (policy == null || pageable == null) return pageable;
+        boolean rewrite = policy.getAction() == QueryGuardActionEnum.REWRITE;
+
+        Sort sort = sort(policy, pageable.getSort(), rewrite);
+        if (pageable.isUnpaged()) {
+            if (!rewrite) {
+                throw new ValidationException("Unpaged queries are not allowed");
+            }
+            return PageRequest.of(0, policy.getMaxPageSize(), sort);
+        }
+
+        int size = pageable.getPageSize();
+        if (size > policy.getMaxPageSize()) {
+            if (!rewrite) {
+                throw new ValidationException("Page size " + size + " exceeds the maximum of " + policy.getMaxPageSize());
+            }
+            size = policy.getMaxPageSize();
+        }
+        if (size == pageable.getPageSize() && sort == pageable.getSort()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), size, sort);
+    }
+
+    /**
+     * Checks the sort only, for reads that are not paged such as exports.
+     */
+    public static Sort sort(Class<?> domainType, Sort sort) {
+        EntityQueryPolicy policy = QueryPolicyRegistry.get(domainType);
+        if (policy == null) return sort;
+        return sort(policy, sort, policy.getAction() == QueryGuardActionEnum.REWRITE);
+    }
+
+    private static Sort sort(EntityQueryPolicy policy, Sort sort, boolean rewrite) {
+        if (sort.isUnsorted()) return sort;
+        List<Sort.Order> allowed = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            EntityQueryPolicy.FieldPolicy fieldPolicy = policy.getField(order.getProperty());
+            if (fieldPolicy != null && fieldPolicy.isSortable()) {
+                allowed.add(order);
+            } else if (!rewrite) {
+                throw new ValidationException("Sorting on " + order.getProperty() + " is not allowed");
+            }
+        }
+        return allowed.size() == sort.stream().count() ? sort : Sort.by(allowed);
+    }
+}
@@ -0,0 +1,22 @@
+package org.sekailabs.jpaq.guard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.sekailabs.jpaq.models.constant.QueryGuardActionEnum;
+
+/**
+ * Puts an entity under a query policy: only fields annotated with {@link Filterable} can be
+ * filtered or sorted on, and page and IN-list sizes are bounded.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryPolicy {
+    int maxPageSize() default EntityQueryPolicy.DEFAULT_MAX_PAGE_SIZE;
+
+    int maxInListSize() default EntityQueryPolicy.DEFAULT_MAX_IN_LIST_SIZE;
+
+    QueryGuardActionEnum action() default QueryGuardActionEnum.REJECT;
+}
@@ -0,0 +1,55 @@
+package org.sekailabs.jpaq.guard;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+
+/**
+ * Query policies per entity: registered explicitly, or read once from {@link QueryPolicy} and
+ * {@link Filterable} annotations. Entities with neither are unrestricted.
+ */
+public final class QueryPolicyRegistry {
+    private static final Map<Class<?>, Optional<EntityQueryPolicy>> POLICIES = new ConcurrentHashMap<>();
+
+    private QueryPolicyRegistry() {}
+
+    public static void register(Class<?> domainType, EntityQueryPolicy policy) {
+        POLICIES.put(domainType, Optional.of(policy));
+    }
+
+    public static EntityQueryPolicy get(Class<?> domainType) {
+        return POLICIES.computeIfAbsent(domainType, QueryPolicyRegistry::fromAnnotations).orElse(null);
+    }
+
+    public static void clear() {
+        POLICIES.clear();
+    }
+
+    private static Optional<EntityQueryPolicy> fromAnnotations(Class<?> domainType) {
+        QueryPolicy annotation = domainType.getAnnotation(QueryPolicy.class);
+        if (annotation == null) return Optional.empty();
+
+        EntityQueryPolicy.Builder builder = EntityQueryPolicy.builder()
+                .maxPageSize(annotation.maxPageSize())
+                .maxInListSize(annotation.maxInListSize())
+                .action(annotation.action());
+        for (Class<?> type = domainType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                Filterable filterable = field.getAnnotation(Filterable.class);
+                if (filterable == null) continue;
+                Set<QueryOperatorEnum> operators = Set.of(filterable.operators());
+                if (filterable.paths().length == 0) {
+                    builder.field(field.getName(), operators, filterable.sortable(), filterable.indexed());
+                }
+                for (String path : filterable.paths()) {
+                    builder.field(field.getName() + '.' + path, operators, filterable.sortable(), filterable.indexed());
+                }
+            }
+        }
+        return Optional.of(builder.build());
+    }
+}
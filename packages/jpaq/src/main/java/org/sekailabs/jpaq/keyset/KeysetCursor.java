@@ -0,0 +1,78 @@
+package org.sekailabs.jpaq.keyset;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import jakarta.validation.ValidationException;
+import lombok.Getter;
+
+/**
+ * Opaque keyset position: the direction to read in and the sort key values of the row the
+ * cursor points at. Encoded as URL safe base64 of {@code direction;name:length:value;...}.
+ */
+@Getter
+public final class KeysetCursor {
+    public enum Direction { NEXT, PREVIOUS }
+
+    private final Direction direction;
+    private final List<String> keys;
+    private final List<String> values;
+
+    KeysetCursor(Direction direction, List<String> keys, List<String> values) {
+        this.direction = direction;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public String encode() {
+        StringBuilder builder = new StringBuilder(direction == Direction.NEXT ? "n" : "p");
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values.get(i);
+            builder.append(';').append(keys.get(i)).append(':').append(value.length()).append(':').append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("The cursor is not valid", e);
+        }
+        if (raw.isEmpty() || (raw.charAt(0) != 'n' && raw.charAt(0) != 'p')) {
+            throw new ValidationException("The cursor is not valid");
+        }
+        Direction direction = raw.charAt(0) == 'n' ? Direction.NEXT : Direction.PREVIOUS;
+        List<String> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        int position = 1;
+        try {
+            while (position < raw.length()) {
+                if (raw.charAt(position) != ';') throw new ValidationException("The cursor is not valid");
+                int nameEnd = raw.indexOf(':', position + 1);
+                int lengthEnd = raw.indexOf(':', nameEnd + 1);
+                int length = Integer.parseInt(raw, nameEnd + 1, lengthEnd, 10);
+                keys.add(raw.substring(position + 1, nameEnd));
+                values.add(raw.substring(lengthEnd + 1, lengthEnd + 1 + length));
+                position = lengthEnd + 1 + length;
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new ValidationException("The cursor is not valid", e);
+        }
+        return new KeysetCursor(direction, List.copyOf(keys), List.copyOf(values));
+    }
+
+    /**
+     * Writes a key value in the form {@link org.sekailabs.jpaq.metamodel.FieldDescriptor#convert} reads back;
+     * zoned values keep their offset only, as region ids are not part of the query value grammar.
+     */
+    static String format(Object value) {
+        if (value instanceof Enum<?> constant) return constant.name();
+        if (value instanceof ZonedDateTime dateTime) return dateTime.toOffsetDateTime().toString();
+        return value.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package org.sekailabs.jpaq.keyset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.metamodel.FieldDescriptor;
+import org.sekailabs.jpaq.models.wrapper.CursorPaginationWrapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.ValidationException;
+
+/**
+ * One keyset (seek) page request. The sort of the pageable, plus the id as a tie breaker, defines
+ * the keys; the cursor adds {@code (k1, k2, id) > (v1, v2, v3)} in its expanded, index friendly form
+ * {@code k1 > v1 or (k1 = v1 and k2 > v2) or ...}, honouring each key's direction.
+ * Sort keys must be non-null basic attributes of the entity.
+ */
+public final class KeysetQuery<T> {
+    private final Sort sort;
+    private final int size;
+    private final KeysetCursor cursor;
+    private List<FieldDescriptor> keys;
+    private List<Boolean> ascending;
+
+    private KeysetQuery(Sort sort, int size, KeysetCursor cursor) {
+        this.sort = sort;
+        this.size = size;
+        this.cursor = cursor;
+    }
+
+    public static <T> KeysetQuery<T> of(Pageable pageable, String cursor) {
+        KeysetCursor decoded = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor);
+        return new KeysetQuery<>(pageable.getSort(), pageable.getPageSize(), decoded);
+    }
+
+    public int getLimit() {
+        return size + 1;
+    }
+
+    /**
+     * Adds the seek predicate and the keyset ordering to the filter specification.
+     */
+    public Specification<T> apply(Specification<T> filter) {
+        Specification<T> keyset = (root, query, criteriaBuilder) -> {
+            resolveKeys(root);
+            List<Order> orders = new ArrayList<>(keys.size());
+            boolean reverse = isBackward();
+            for (int i = 0; i < keys.size(); i++) {
+                Path<?> path = root.get(keys.get(i).getName());
+                boolean asc = ascending.get(i) != reverse;
+                orders.add(asc ? criteriaBuilder.asc(path) : criteriaBuilder.desc(path));
+            }
+            query.orderBy(orders);
+            return cursor == null ? criteriaBuilder.conjunction() : seekPredicate(criteriaBuilder, root);
+        };
+        return filter == null ? keyset : filter.and(keyset);
+    }
+
+    public <E> CursorPaginationWrapper<List<E>> toWrapper(List<E> rows) {
+        boolean more = rows.size() > size;
+        List<E> page = more ? new ArrayList<>(rows.subList(0, size)) : new ArrayList<>(rows);
+        boolean hasNext;
+        boolean hasPrevious;
+        if (isBackward()) {
+            Collections.reverse(page);
+            hasPrevious = more;
+            hasNext = true;
+        } else {
+            hasNext = more;
+            hasPrevious = cursor != null;
+        }
+        return new CursorPaginationWrapper.Builder<List<E>>()
+                .setData(page)
+                .setSize(size)
+                .setHasNext(hasNext && !page.isEmpty())
+                .setHasPrevious(hasPrevious && !page.isEmpty())
+                .setNextCursor(hasNext && !page.isEmpty() ? encode(KeysetCursor.Direction.NEXT, page.get(page.size() - 1)) : null)
+                .setPreviousCursor(hasPrevious && !page.isEmpty() ? encode(KeysetCursor.Direction.PREVIOUS, page.get(0)) : null)
+                .build();
+    }
+
+    private boolean isBackward() {
+        return cursor != null && cursor.getDirection() == KeysetCursor.Direction.PREVIOUS;
+    }
+
+    private void resolveKeys(Root<?> root) {
+        EntityDescriptor descriptor = EntityDescriptorCache.get(root);
+        List<FieldDescriptor> resolved = new ArrayList<>();
+        List<Boolean> directions = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            resolved.add(requireKey(descriptor, order.getProperty()));
+            directions.add(order.isAscending());
+        }
+        String idField = descriptor.getIdField();
+        if (idField == null) {
+            throw new ValidationException("Keyset pagination requires an entity with a single id attribute");
+        }
+        if (resolved.stream().noneMatch(key -> key.getName().equals(idField))) {
+            resolved.add(requireKey(descriptor, idField));
+            directions.add(true);
+        }
+        this.keys = resolved;
+        this.ascending = directions;
+    }
+
+    private static FieldDescriptor requireKey(EntityDescriptor descriptor, String name) {
+        FieldDescriptor field = descriptor.getField(name);
+        if (field == null || !field.isComparable()) {
+            throw new ValidationException("Field cannot be used as a keyset sort key: " + name);
+        }
+        return field;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPredicate(CriteriaBuilder criteriaBuilder, Root<?> root) {
+        if (cursor.getKeys().size() != keys.size()) {
+            throw new ValidationException("The cursor does not match the requested sort");
+        }
+        List<Predicate> alternatives = new ArrayList<>(keys.size());
+        List<Predicate> equalities = new ArrayList<>(keys.size());
+        boolean reverse = isBackward();
+        for (int i = 0; i < keys.size(); i++) {
+            FieldDescriptor key = keys.get(i);
+            if (!key.getName().equals(cursor.getKeys().get(i))) {
+                throw new ValidationException("The cursor does not match the requested sort");
+            }
+            Path path = root.get(key.getName());
+            Comparable value = (Comparable) key.convert(cursor.getValues().get(i));
+            if (value == null) {
+                throw new ValidationException("The cursor is not valid");
+            }
+            boolean after = ascending.get(i) != reverse;
+            Predicate seek = after ? criteriaBuilder.greaterThan(path, value) : criteriaBuilder.lessThan(path, value);
+
+            List<Predicate> alternative = new ArrayList<>(equalities);
+            alternative.add(seek);
+            alternatives.add(criteriaBuilder.and(alternative.toArray(Predicate[]::new)));
+            equalities.add(criteriaBuilder.equal(path, value));
+        }
+        return criteriaBuilder.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    private String encode(KeysetCursor.Direction direction, Object row) {
+        List<String> names = new ArrayList<>(keys.size());
+        List<String> values = new ArrayList<>(keys.size());
+        for (FieldDescriptor key : keys) {
+            Object value = key.read(row);
+            if (value == null) {
+                throw new ValidationException("Keyset pagination requires non-null sort keys: " + key.getName());
+            }
+            names.add(key.getName());
+            values.add(KeysetCursor.format(value));
+        }
+        return new KeysetCursor(direction, names, values).encode();
+    }
+}
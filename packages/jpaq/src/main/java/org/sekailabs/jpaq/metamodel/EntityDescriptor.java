@@ -0,0 +1,144 @@
+package org.sekailabs.jpaq.metamodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sekailabs.jpaq.converter.ValueConverters;
+import org.springframework.data.domain.Sort;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.IdentifiableType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Filterable fields of one entity, resolved once from the JPA metamodel.
+ */
+@Getter
+public final class EntityDescriptor {
+    private static final int MAXIMUM_RESOLVED_PATHS = 1024;
+
+    private final Class<?> javaType;
+    private final Map<String, FieldDescriptor> fields;
+    private final String idField;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Attribute<?, ?>> associations;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Optional<FieldPath>> paths = new ConcurrentHashMap<>();
+
+    private EntityDescriptor(Class<?> javaType, Map<String, FieldDescriptor> fields, String idField, Map<String, Attribute<?, ?>> associations) {
+        this.javaType = javaType;
+        this.fields = fields;
+        this.idField = idField;
+        this.associations = associations;
+    }
+
+    static EntityDescriptor of(ManagedType<?> model) {
+        Map<String, FieldDescriptor> fields = new HashMap<>();
+        Map<String, Attribute<?, ?>> associations = new HashMap<>();
+        for (Attribute<?, ?> attribute : model.getAttributes()) {
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                if (target(attribute) instanceof ManagedType<?>) {
+                    associations.put(attribute.getName(), attribute);
+                }
+                continue;
+            }
+            Class<?> type = attribute.getJavaType();
+            fields.put(attribute.getName(), new FieldDescriptor(attribute.getName(), type, ValueConverters.forType(type), attribute.getJavaMember()));
+        }
+        return new EntityDescriptor(model.getJavaType(), Collections.unmodifiableMap(fields), resolveIdField(model), Map.copyOf(associations));
+    }
+
+    private static String resolveIdField(ManagedType<?> model) {
+        if (model instanceof IdentifiableType<?> identifiable && identifiable.hasSingleIdAttribute()) {
+            SingularAttribute<?, ?> id = identifiable.getId(identifiable.getIdType().getJavaType());
+            return id.getName();
+        }
+        return null;
+    }
+
+    private static Object target(Attribute<?, ?> attribute) {
+        if (attribute instanceof SingularAttribute<?, ?> singular) return singular.getType();
+        if (attribute instanceof PluralAttribute<?, ?, ?> plural) return plural.getElementType();
+        return null;
+    }
+
+    public FieldDescriptor getField(String name) {
+        return fields.get(name);
+    }
+
+    public boolean hasField(String name) {
+        return fields.containsKey(name);
+    }
+
+    /**
+     * Resolves a filter or sort key to a field, either directly or through associations: the
+     * dotted {@code customer.region} and the camel case {@code customerRegion} (from the kebab case
+     * {@code customer-region}) both resolve to {@code region} of the {@code customer} association.
+     * Returns {@code null} when the key names no basic attribute.
+     */
+    public FieldPath resolve(String key) {
+        Optional<FieldPath> cached = paths.get(key);
+        if (cached != null) return cached.orElse(null);
+        Optional<FieldPath> path = Optional.ofNullable(resolve(this, key, new ArrayList<>()));
+        // keys come from clients, so unknown ones are only memoized while there is room
+        if (paths.size() < MAXIMUM_RESOLVED_PATHS) {
+            paths.put(key, path);
+        }
+        return path.orElse(null);
+    }
+
+    /**
+     * Rewrites sort keys that name nested fields to their dotted path; other keys are kept as they are.
+     */
+    public Sort resolveSort(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean changed = false;
+        for (Sort.Order order : sort) {
+            FieldPath path = fields.containsKey(order.getProperty()) ? null : resolve(order.getProperty());
+            if (path != null && path.isNested()) {
+                orders.add(order.withProperty(path.getName()));
+                changed = true;
+            } else {
+                orders.add(order);
+            }
+        }
+        return changed ? Sort.by(orders) : sort;
+    }
+
+    private static FieldPath resolve(EntityDescriptor descriptor, String key, List<FieldPath.Association> through) {
+        FieldDescriptor field = descriptor.fields.get(key);
+        if (field != null) return new FieldPath(through, field);
+
+        int dot = key.indexOf('.');
+        if (dot > 0) {
+            return follow(descriptor, key.substring(0, dot), key.substring(dot + 1), through);
+        }
+        for (String association : descriptor.associations.keySet()) {
+            int length = association.length();
+            if (key.length() > length && key.startsWith(association) && Character.isUpperCase(key.charAt(length))) {
+                String rest = Character.toLowerCase(key.charAt(length)) + key.substring(length + 1);
+                FieldPath path = follow(descriptor, association, rest, through);
+                if (path != null) return path;
+            }
+        }
+        return null;
+    }
+
+    private static FieldPath follow(EntityDescriptor descriptor, String association, String rest, List<FieldPath.Association> through) {
+        Attribute<?, ?> attribute = descriptor.associations.get(association);
+        if (attribute == null || through.size() >= 8) return null;
+        ManagedType<?> target = (ManagedType<?>) target(attribute);
+        List<FieldPath.Association> next = new ArrayList<>(through);
+        next.add(new FieldPath.Association(attribute, target.getJavaType()));
+        return resolve(EntityDescriptorCache.get(target), rest, next);
+    }
+}
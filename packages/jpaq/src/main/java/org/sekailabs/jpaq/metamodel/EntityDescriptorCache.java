@@ -0,0 +1,57 @@
+package org.sekailabs.jpaq.metamodel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.metamodel.Bindable;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+public final class EntityDescriptorCache {
+    private static final Map<Class<?>, EntityDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+
+    private EntityDescriptorCache() {}
+
+    public static EntityDescriptor get(From<?, ?> from) {
+        return get(managedType(from.getModel()), from.getJavaType());
+    }
+
+    public static EntityDescriptor get(Metamodel metamodel, Class<?> entityType) {
+        EntityDescriptor descriptor = DESCRIPTORS.get(entityType);
+        return descriptor != null ? descriptor : get(metamodel.managedType(entityType), entityType);
+    }
+
+    public static EntityDescriptor get(ManagedType<?> model) {
+        return get(model, model.getJavaType());
+    }
+
+    /**
+     * The descriptor of {@code entityType} if one was already built, otherwise {@code null}.
+     */
+    public static EntityDescriptor peek(Class<?> entityType) {
+        return DESCRIPTORS.get(entityType);
+    }
+
+    private static EntityDescriptor get(ManagedType<?> model, Class<?> entityType) {
+        EntityDescriptor descriptor = DESCRIPTORS.get(entityType);
+        if (descriptor != null) return descriptor;
+        if (model == null) {
+            throw new IllegalArgumentException("No managed type found for " + entityType.getName());
+        }
+        return DESCRIPTORS.computeIfAbsent(entityType, key -> EntityDescriptor.of(model));
+    }
+
+    private static ManagedType<?> managedType(Bindable<?> bindable) {
+        if (bindable instanceof ManagedType<?> model) return model;
+        if (bindable instanceof SingularAttribute<?, ?> attribute && attribute.getType() instanceof ManagedType<?> model) return model;
+        if (bindable instanceof PluralAttribute<?, ?, ?> attribute && attribute.getElementType() instanceof ManagedType<?> model) return model;
+        return null;
+    }
+
+    public static void clear() {
+        DESCRIPTORS.clear();
+    }
+}
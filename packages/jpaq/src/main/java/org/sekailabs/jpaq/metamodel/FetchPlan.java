@@ -0,0 +1,93 @@
+package org.sekailabs.jpaq.metamodel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sekailabs.jpaq.models.constant.FetchModeEnum;
+import org.sekailabs.jpaq.utils.TextUtils;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
+
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.JoinType;
+import lombok.Getter;
+
+/**
+ * Associations to load together with the page entities, e.g. {@code customer} or
+ * {@code orders.lines}, to avoid one lazy load per row.
+ * <p>
+ * Fetching a collection multiplies rows, so Hibernate applies the page limit in memory; prefer
+ * {@link FetchModeEnum#GRAPH} or a batch size for collections of large results.
+ */
+@Getter
+public final class FetchPlan {
+    public static final FetchPlan NONE = new FetchPlan(FetchModeEnum.JOIN, List.of());
+
+    private final FetchModeEnum mode;
+    private final List<String> paths;
+
+    private FetchPlan(FetchModeEnum mode, List<String> paths) {
+        this.mode = mode;
+        this.paths = paths;
+    }
+
+    public static FetchPlan of(FetchModeEnum mode, String... paths) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Fetch mode is required");
+        }
+        List<String> dotted = new ArrayList<>(paths.length);
+        for (String path : paths) {
+            if (path == null || path.isBlank()) {
+                throw new IllegalArgumentException("Fetch path must not be blank");
+            }
+            dotted.add(TextUtils.kebabToCamel(path.trim()));
+        }
+        return dotted.isEmpty() ? NONE : new FetchPlan(mode, List.copyOf(dotted));
+    }
+
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    /**
+     * Adds the fetch joins of a {@link FetchModeEnum#JOIN} plan to queries that select the entity
+     * itself. Count and tuple queries built from the same specification are left alone, since a
+     * fetch join is illegal when its owner is not selected.
+     */
+    public <T> Specification<T> apply(Specification<T> specification) {
+        if (isEmpty() || mode != FetchModeEnum.JOIN) return specification;
+        return (root, query, criteriaBuilder) -> {
+            if (query != null && query.getResultType() == root.getJavaType()) {
+                for (String path : paths) {
+                    fetchPath(root, path);
+                }
+            }
+            return specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        };
+    }
+
+    /**
+     * Adds the entity graph of a {@link FetchModeEnum#GRAPH} plan to a fluent page query.
+     */
+    public <R> FluentQuery.FetchableFluentQuery<R> apply(FluentQuery.FetchableFluentQuery<R> query) {
+        if (isEmpty() || mode != FetchModeEnum.GRAPH) return query;
+        return query.project(paths);
+    }
+
+    private static void fetchPath(FetchParent<?, ?> root, String path) {
+        FetchParent<?, ?> current = root;
+        for (String attribute : path.split("\\.")) {
+            current = fetchAttribute(current, attribute);
+        }
+    }
+
+    private static Fetch<?, ?> fetchAttribute(FetchParent<?, ?> parent, String attribute) {
+        for (Fetch<?, ?> fetch : parent.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute)) {
+                return fetch;
+            }
+        }
+        return parent.fetch(attribute, JoinType.LEFT);
+    }
+}
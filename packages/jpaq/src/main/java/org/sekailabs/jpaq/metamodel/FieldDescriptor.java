@@ -0,0 +1,85 @@
+package org.sekailabs.jpaq.metamodel;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+import org.sekailabs.jpaq.converter.ValueConverter;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+@Getter
+public final class FieldDescriptor {
+    private final String name;
+    private final Class<?> javaType;
+    private final boolean comparable;
+    private final ValueConverter<?> converter;
+    @Getter(AccessLevel.NONE)
+    private final Member javaMember;
+    @Getter(AccessLevel.NONE)
+    private volatile MethodHandle getter;
+
+    FieldDescriptor(String name, Class<?> javaType, ValueConverter<?> converter, Member javaMember) {
+        this.name = name;
+        this.javaType = javaType;
+        this.comparable = javaType.isPrimitive() || Comparable.class.isAssignableFrom(javaType);
+        this.converter = converter;
+        this.javaMember = javaMember;
+    }
+
+    /**
+     * Reads the attribute from an entity instance through a cached method handle.
+     */
+    public Object read(Object entity) {
+        try {
+            return getter().invoke(entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot read " + name + " from " + entity.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Mapping annotation of the attribute's field or getter, e.g. {@code @Enumerated}.
+     */
+    public <A extends Annotation> A getAnnotation(Class<A> type) {
+        return javaMember instanceof AnnotatedElement element ? element.getAnnotation(type) : null;
+    }
+
+    private MethodHandle getter() throws IllegalAccessException {
+        MethodHandle handle = getter;
+        if (handle == null) {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(javaMember.getDeclaringClass(), MethodHandles.lookup());
+            if (javaMember instanceof Field field) {
+                handle = lookup.unreflectGetter(field);
+            } else if (javaMember instanceof Method method) {
+                handle = lookup.unreflect(method);
+            } else {
+                throw new IllegalStateException("Attribute " + name + " has no readable member");
+            }
+            handle = handle.asType(MethodType.methodType(Object.class, Object.class));
+            getter = handle;
+        }
+        return handle;
+    }
+
+    /**
+     * Converts a raw query value to the field type, or returns {@code null} when it cannot be converted.
+     */
+    public Object convert(Object value) {
+        if (value == null) return null;
+        if (javaType.isInstance(value)) return value;
+        try {
+            return converter.convert(value.toString());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.sekailabs.jpaq.metamodel;
+
+import java.util.List;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.metamodel.Attribute;
+
+import lombok.Getter;
+
+/**
+ * A basic attribute reached through zero or more associations or embeddables, e.g.
+ * {@code customer.region}.
+ */
+@Getter
+public final class FieldPath {
+    private final String name;
+    private final List<Association> associations;
+    private final FieldDescriptor field;
+
+    FieldPath(List<Association> associations, FieldDescriptor field) {
+        this.associations = List.copyOf(associations);
+        this.field = field;
+        StringBuilder dotted = new StringBuilder();
+        for (Association association : associations) {
+            dotted.append(association.getName()).append('.');
+        }
+        this.name = dotted.append(field.getName()).toString();
+    }
+
+    public boolean isNested() {
+        return !associations.isEmpty();
+    }
+
+    /**
+     * Entity or embeddable declaring the field, {@code rootType} for fields of the root itself.
+     */
+    public Class<?> getDeclaringType(Class<?> rootType) {
+        return associations.isEmpty() ? rootType : associations.get(associations.size() - 1).getJavaType();
+    }
+
+    /**
+     * Whether the path goes through a collection, so that joining it can repeat root rows.
+     */
+    public boolean isPlural() {
+        return associations.stream().anyMatch(Association::isCollection);
+    }
+
+    /**
+     * The criteria path of this field below {@code root}. Associations are left joined, reusing a
+     * join (or a to-one fetch) that already exists on the same attribute, so every association is
+     * joined once per query no matter how many filters and orders refer to it.
+     */
+    public Path<?> toPath(From<?, ?> root) {
+        Path<?> current = root;
+        for (Association association : associations) {
+            if (association.isEmbedded()) {
+                current = current.get(association.getName());
+            } else if (current instanceof From<?, ?> from) {
+                current = join(from, association);
+            } else {
+                throw new IllegalStateException("Cannot join " + association.getName() + " below an embeddable");
+            }
+        }
+        return current.get(field.getName());
+    }
+
+    private static Join<?, ?> join(From<?, ?> from, Association association) {
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(association.getName()) && join.getJoinType() != JoinType.RIGHT) {
+                return join;
+            }
+        }
+        if (!association.isCollection()) {
+            for (var fetch : from.getFetches()) {
+                if (fetch.getAttribute().getName().equals(association.getName()) && fetch instanceof Join<?, ?> join) {
+                    return join;
+                }
+            }
+        }
+        return from.join(association.getName(), JoinType.LEFT);
+    }
+
+    @Getter
+    public static final class Association {
+        private final String name;
+        private final Class<?> javaType;
+        private final boolean collection;
+        private final boolean embedded;
+
+        Association(Attribute<?, ?> attribute, Class<?> javaType) {
+            this.name = attribute.getName();
+            this.javaType = javaType;
+            this.collection = attribute.isCollection();
+            this.embedded = attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.sekailabs.jpaq.metrics;
+
+/**
+ * Receiver of jpaq execution measurements. The shape of a query is its sorted field and operator
+ * list without values (see {@link org.sekailabs.jpaq.plan.QueryKeys#shape}).
+ * <p>
+ * Callers check {@link #isEnabled()} before taking any timestamps, so {@link #NOOP} costs one
+ * volatile read per query.
+ */
+public interface JpaqMetrics {
+    JpaqMetrics NOOP = new JpaqMetrics() {};
+
+    default boolean isEnabled() {
+        return false;
+    }
+
+    default void recordParse(long nanos, boolean cached) {}
+
+    default void recordPredicateBuild(Class<?> domainType, String shape, long nanos) {}
+
+    default void recordFetch(Class<?> domainType, String shape, long nanos, int rows) {}
+
+    default void recordCount(Class<?> domainType, String shape, long nanos) {}
+
+    /**
+     * A filter that was ignored instead of applied; {@code reason} is one of
+     * {@code unknown_field}, {@code coercion}, {@code not_comparable}.
+     */
+    default void recordDroppedFilter(Class<?> domainType, String field, String reason) {}
+}
@@ -0,0 +1,94 @@
+package org.sekailabs.jpaq.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes jpaq measurements to a Micrometer registry:
+ * {@code jpaq.query.parse}, {@code jpaq.query.predicate}, {@code jpaq.query.fetch},
+ * {@code jpaq.query.count} (timers), {@code jpaq.query.rows} (summary) and
+ * {@code jpaq.query.filters.dropped} (counter), tagged with {@code entity} and {@code shape}.
+ * <p>
+ * Shapes come from client input, so only the first {@code maximumShapes} distinct shapes get their
+ * own tag value; the rest are reported as {@code other}.
+ */
+public class MicrometerJpaqMetrics implements JpaqMetrics {
+    public static final int DEFAULT_MAXIMUM_SHAPES = 200;
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final int maximumShapes;
+    private final Set<String> shapes = ConcurrentHashMap.newKeySet();
+
+    public MicrometerJpaqMetrics(MeterRegistry registry) {
+        this(registry, DEFAULT_MAXIMUM_SHAPES);
+    }
+
+    public MicrometerJpaqMetrics(MeterRegistry registry, int maximumShapes) {
+        this.registry = registry;
+        this.maximumShapes = maximumShapes;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordParse(long nanos, boolean cached) {
+        Timer.builder("jpaq.query.parse")
+                .tag("cache", cached ? "hit" : "miss")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPredicateBuild(Class<?> domainType, String shape, long nanos) {
+        timer("jpaq.query.predicate", domainType, shape).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordFetch(Class<?> domainType, String shape, long nanos, int rows) {
+        timer("jpaq.query.fetch", domainType, shape).record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("jpaq.query.rows")
+                .tag("entity", domainType.getSimpleName())
+                .tag("shape", shapeTag(shape))
+                .register(registry)
+                .record(rows);
+    }
+
+    @Override
+    public void recordCount(Class<?> domainType, String shape, long nanos) {
+        timer("jpaq.query.count", domainType, shape).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordDroppedFilter(Class<?> domainType, String field, String reason) {
+        Counter.builder("jpaq.query.filters.dropped")
+                .tag("entity", domainType.getSimpleName())
+                .tag("field", reason.equals("unknown_field") ? OTHER : field)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    private Timer timer(String name, Class<?> domainType, String shape) {
+        return Timer.builder(name)
+                .tag("entity", domainType.getSimpleName())
+                .tag("shape", shapeTag(shape))
+                .register(registry);
+    }
+
+    private String shapeTag(String shape) {
+        if (shapes.contains(shape)) return shape;
+        if (shapes.size() >= maximumShapes) return OTHER;
+        shapes.add(shape);
+        return shape;
+    }
+}
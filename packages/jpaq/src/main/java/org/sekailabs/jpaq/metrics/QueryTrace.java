@@ -0,0 +1,111 @@
+package org.sekailabs.jpaq.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.plan.QueryKeys;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Times the fetch and count of one paged query for {@link JpaqMetrics} and the slow query log.
+ * When neither is enabled {@link #start} returns a shared instance that hands the fetcher and
+ * counter back unchanged.
+ */
+@Slf4j
+public class QueryTrace {
+    private static final QueryTrace DISABLED = new QueryTrace(null, null, null, null, null, null, 0);
+
+    private final JpaqMetrics metrics;
+    private final Duration slowQueryThreshold;
+    private final Class<?> domainType;
+    private final Map<String, QueryFieldWrapper> search;
+    private final QueryExpression where;
+    private final Pageable pageable;
+    private final long startedAt;
+    private final String shape;
+    private volatile long fetchNanos = -1;
+    private volatile long countNanos = -1;
+
+    private QueryTrace(
+            JpaqMetrics metrics,
+            Duration slowQueryThreshold,
+            Class<?> domainType,
+            Map<String, QueryFieldWrapper> search,
+            QueryExpression where,
+            Pageable pageable,
+            long startedAt
+    ) {
+        this.metrics = metrics;
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.domainType = domainType;
+        this.search = search;
+        this.where = where;
+        this.pageable = pageable;
+        this.startedAt = startedAt;
+        this.shape = metrics != null && metrics.isEnabled() ? QueryKeys.shape(search, where) : null;
+    }
+
+    public static QueryTrace start(Class<?> domainType, Map<String, QueryFieldWrapper> search, Pageable pageable) {
+        return start(domainType, search, null, pageable);
+    }
+
+    public static QueryTrace start(Class<?> domainType, Map<String, QueryFieldWrapper> search, QueryExpression where, Pageable pageable) {
+        JpaqMetrics metrics = JpaqContext.getMetrics();
+        Duration slowQueryThreshold = JpaqContext.getSlowQueryThreshold();
+        if (!metrics.isEnabled() && slowQueryThreshold == null) {
+            return DISABLED;
+        }
+        return new QueryTrace(metrics, slowQueryThreshold, domainType, search, where, pageable, System.nanoTime());
+    }
+
+    public <T> Function<Pageable, Slice<T>> fetcher(Function<Pageable, Slice<T>> fetcher) {
+        if (this == DISABLED) return fetcher;
+        return page -> {
+            long start = System.nanoTime();
+            Slice<T> slice = fetcher.apply(page);
+            fetchNanos = System.nanoTime() - start;
+            if (shape != null) {
+                metrics.recordFetch(domainType, shape, fetchNanos, slice.getNumberOfElements());
+            }
+            return slice;
+        };
+    }
+
+    public LongSupplier counter(LongSupplier counter) {
+        if (this == DISABLED) return counter;
+        return () -> {
+            long start = System.nanoTime();
+            long count = counter.getAsLong();
+            countNanos = System.nanoTime() - start;
+            if (shape != null) {
+                metrics.recordCount(domainType, shape, countNanos);
+            }
+            return count;
+        };
+    }
+
+    public void finish() {
+        if (this == DISABLED || slowQueryThreshold == null) return;
+        long elapsed = System.nanoTime() - startedAt;
+        if (elapsed >= slowQueryThreshold.toNanos()) {
+            log.warn("Slow jpaq query on {} took {} ms (fetch {} ms, count {} ms): {}",
+                    domainType.getSimpleName(),
+                    millis(elapsed),
+                    millis(fetchNanos),
+                    millis(countNanos),
+                    QueryKeys.canonical(search, where, pageable));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "-" : String.valueOf(nanos / 1_000_000);
+    }
+}
@@ -0,0 +1,41 @@
+package org.sekailabs.jpaq.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.sekailabs.jpaq.cache.ResultCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes {@link ResultCache#stats()} as {@code jpaq.result.cache.*} meters.
+ */
+public class ResultCacheMetrics implements MeterBinder {
+    private final ResultCache resultCache;
+
+    public ResultCacheMetrics(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jpaq.result.cache.requests", resultCache, cache -> cache.stats().getHits())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("jpaq.result.cache.requests", resultCache, cache -> cache.stats().getMisses())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("jpaq.result.cache.invalidations", resultCache, cache -> cache.stats().getInvalidations())
+                .register(registry);
+        Gauge.builder("jpaq.result.cache.hit.ratio", resultCache, cache -> cache.stats().hitRatio())
+                .register(registry);
+        FunctionTimer.builder("jpaq.result.cache.load", resultCache,
+                        cache -> cache.stats().getLoads(),
+                        cache -> cache.stats().getTotalLoadTimeNanos(),
+                        TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+}
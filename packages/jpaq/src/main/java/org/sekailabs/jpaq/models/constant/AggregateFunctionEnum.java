@@ -0,0 +1,10 @@
+package org.sekailabs.jpaq.models.constant;
+
+public enum AggregateFunctionEnum {
+    /** Rows of the group, or non-null values of a field. */
+    COUNT,
+    SUM,
+    AVG,
+    MIN,
+    MAX
+}
@@ -0,0 +1,12 @@
+package org.sekailabs.jpaq.models.constant;
+
+public enum CountStrategyEnum {
+    /** {@code count(*)} with the page predicates, run next to the page fetch. */
+    EXACT,
+    /** No count; the result only knows whether a next page exists. */
+    SKIP,
+    /** Database planner estimate when the configured estimator has one, exact count otherwise. */
+    ESTIMATED,
+    /** Exact count memoized per entity and normalized query for the count cache TTL. */
+    CACHED
+}
@@ -0,0 +1,8 @@
+package org.sekailabs.jpaq.models.constant;
+
+public enum FetchModeEnum {
+    /** {@code left join fetch} in the page query only; counts and projections stay join free. */
+    JOIN,
+    /** Entity graph hint on the page query, leaving the criteria (and the count) untouched. */
+    GRAPH
+}
@@ -0,0 +1,12 @@
+package org.sekailabs.jpaq.models.constant;
+
+public enum QueryGuardActionEnum {
+    /** Every policy violation fails the query with a {@code ValidationException}. */
+    REJECT,
+    /**
+     * Violations with a safe rewrite are rewritten: a disallowed {@code LIKE} on an indexed field
+     * becomes a prefix match, oversized pages are capped and non-sortable orders are dropped.
+     * Anything else is still rejected.
+     */
+    REWRITE
+}
@@ -0,0 +1,6 @@
+package org.sekailabs.jpaq.models.constant;
+
+public enum QueryLogicalOperatorEnum {
+    AND,
+    OR
+}
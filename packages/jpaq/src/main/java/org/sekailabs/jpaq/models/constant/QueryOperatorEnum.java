@@ -8,7 +8,9 @@ public enum QueryOperatorEnum {
     GTE,
     LTE,
     LIKE,
+    STARTS_WITH,
     IN,
     NOT_IN,
-    BETWEEN
+    BETWEEN,
+    SEARCH
 }
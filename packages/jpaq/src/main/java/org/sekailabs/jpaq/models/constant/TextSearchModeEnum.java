@@ -0,0 +1,10 @@
+package org.sekailabs.jpaq.models.constant;
+
+public enum TextSearchModeEnum {
+    /** Case insensitive {@code lower(x) like '%term%'} per term; portable, but scans the table. */
+    LIKE,
+    /** PostgreSQL {@code to_tsvector(config, x) @@ plainto_tsquery(config, text)}, ranked by {@code ts_rank}. */
+    FULL_TEXT,
+    /** PostgreSQL {@code pg_trgm} word similarity ({@code text <% x}), ranked by {@code word_similarity}. */
+    TRIGRAM
+}
@@ -0,0 +1,14 @@
+package org.sekailabs.jpaq.models.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CursorPaginationObject {
+    private int size;
+    private boolean hasNext;
+    private boolean hasPrevious;
+    private String nextCursor;
+    private String previousCursor;
+}
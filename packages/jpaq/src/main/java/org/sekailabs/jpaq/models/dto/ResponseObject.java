@@ -1,6 +1,8 @@
 package org.sekailabs.jpaq.models.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
+import org.sekailabs.jpaq.models.wrapper.CursorPaginationWrapper;
 import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
 
 import java.sql.Timestamp;
@@ -14,6 +16,8 @@ public class ResponseObject<T> {
     private final String code;
     private final boolean success;
     private final PaginationObject pagination;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final CursorPaginationObject cursor;
     private final Timestamp requestTime;
     private ResponseObject(Builder<T> builder) {
         this.content = builder.content;
@@ -21,6 +25,7 @@ public class ResponseObject<T> {
         this.code = builder.code;
         this.success = builder.success;
         this.pagination = builder.pagination;
+        this.cursor = builder.cursor;
         this.requestTime = builder.requestTime;
     }
     public static class Builder<T> {
@@ -29,6 +34,7 @@ public class ResponseObject<T> {
         private String code;
         private boolean success;
         private PaginationObject pagination;
+        private CursorPaginationObject cursor;
         private Timestamp requestTime;
 
         public Builder<T> content(T content) {
@@ -66,6 +72,25 @@ public class ResponseObject<T> {
             }
             return this;
         }
+        public Builder<T> unwrapCursorPaginationWrapper(CursorPaginationWrapper<? extends List<?>> wrapper) {
+            if (wrapper != null && wrapper.getData() != null) {
+                try {
+                    @SuppressWarnings("unchecked")
+                    T data = (T) wrapper.getData();
+                    this.content = data;
+                } catch (ClassCastException e) {
+                    throw new IllegalArgumentException("Invalid type for content. Expected a type compatible with T.", e);
+                }
+                this.cursor = wrapper.exportPaginationInfo();
+            }else {
+                throw new IllegalArgumentException("Invalid type: wrapper data is not a List.");
+            }
+            return this;
+        }
+        public Builder<T> cursor(CursorPaginationObject cursor) {
+            this.cursor = cursor;
+            return this;
+        }
         public Builder<T> pagination(PaginationObject pagination) {
             this.pagination = pagination;
             return this;
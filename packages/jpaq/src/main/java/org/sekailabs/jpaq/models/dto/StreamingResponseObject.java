@@ -0,0 +1,141 @@
+package org.sekailabs.jpaq.models.dto;
+
+import lombok.Getter;
+import org.sekailabs.jpaq.models.wrapper.CursorPaginationWrapper;
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * {@link ResponseObject} whose content is read row by row while it is written, e.g. from
+ * {@code streamAny}, so the rows are never held as one list. The pagination is resolved after the
+ * last row, from the number of rows written unless it was given up front. Written by
+ * {@code StreamingResponseWriter}; the rows can be consumed only once.
+ */
+@Getter
+public class StreamingResponseObject<E> {
+    private final Iterator<? extends E> rows;
+    private final AutoCloseable resource;
+    private final List<String> messages;
+    private final String code;
+    private final boolean success;
+    private final LongFunction<PaginationObject> pagination;
+    private final CursorPaginationObject cursor;
+    private final Timestamp requestTime;
+
+    private StreamingResponseObject(Builder<E> builder) {
+        this.rows = builder.rows;
+        this.resource = builder.resource;
+        this.messages = builder.messages;
+        this.code = builder.code;
+        this.success = builder.success;
+        this.pagination = builder.pagination;
+        this.cursor = builder.cursor;
+        this.requestTime = builder.requestTime;
+    }
+
+    /**
+     * Pagination of a response with {@code rows} rows: the one given to the builder, none for
+     * cursor responses, or else a single page holding every row.
+     */
+    public PaginationObject pagination(long rows) {
+        if (pagination != null) return pagination.apply(rows);
+        if (cursor != null) return null;
+        int count = (int) Math.min(rows, Integer.MAX_VALUE);
+        return PaginationObject.builder()
+                .page(0)
+                .size(count)
+                .totalPages(count == 0 ? 0 : 1)
+                .totalElements(count)
+                .hasNext(false)
+                .build();
+    }
+
+    public static class Builder<E> {
+        private Iterator<? extends E> rows;
+        private AutoCloseable resource;
+        private List<String> messages;
+        private String code;
+        private boolean success;
+        private LongFunction<PaginationObject> pagination;
+        private CursorPaginationObject cursor;
+        private Timestamp requestTime;
+
+        /**
+         * Rows of a stream, which is closed once the response is written.
+         */
+        public Builder<E> rows(Stream<? extends E> rows) {
+            this.rows = rows.iterator();
+            this.resource = rows;
+            return this;
+        }
+        public Builder<E> rows(Iterator<? extends E> rows) {
+            this.rows = rows;
+            this.resource = null;
+            return this;
+        }
+        public Builder<E> messages(List<String> messages) {
+            this.messages = messages;
+            return this;
+        }
+        public Builder<E> messages(String... messages) {
+            this.messages = Arrays.asList(messages);
+            return this;
+        }
+        public Builder<E> code(String code) {
+            this.code = code;
+            return this;
+        }
+        public Builder<E> success(boolean success) {
+            this.success = success;
+            return this;
+        }
+        public Builder<E> unwrapPaginationWrapper(PaginationWrapper<? extends List<? extends E>> wrapper) {
+            if (wrapper == null || wrapper.getData() == null) {
+                throw new IllegalArgumentException("Invalid type: wrapper data is not a List.");
+            }
+            PaginationObject info = wrapper.exportPaginationInfo();
+            this.rows = wrapper.getData().iterator();
+            this.resource = null;
+            this.pagination = written -> info;
+            return this;
+        }
+        public Builder<E> unwrapCursorPaginationWrapper(CursorPaginationWrapper<? extends List<? extends E>> wrapper) {
+            if (wrapper == null || wrapper.getData() == null) {
+                throw new IllegalArgumentException("Invalid type: wrapper data is not a List.");
+            }
+            this.rows = wrapper.getData().iterator();
+            this.resource = null;
+            this.cursor = wrapper.exportPaginationInfo();
+            return this;
+        }
+        public Builder<E> pagination(PaginationObject pagination) {
+            this.pagination = written -> pagination;
+            return this;
+        }
+        /**
+         * Pagination built from the number of rows written, e.g. to report whether a capped
+         * stream was cut short.
+         */
+        public Builder<E> pagination(LongFunction<PaginationObject> pagination) {
+            this.pagination = pagination;
+            return this;
+        }
+        public Builder<E> cursor(CursorPaginationObject cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+        public StreamingResponseObject<E> build() {
+            if (rows == null) {
+                throw new IllegalArgumentException("Streaming response has no rows");
+            }
+            requestTime = new Timestamp(System.currentTimeMillis());
+            return new StreamingResponseObject<E>(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.sekailabs.jpaq.models.wrapper;
+
+import lombok.Getter;
+
+import org.sekailabs.jpaq.models.dto.CursorPaginationObject;
+
+import java.util.List;
+
+@Getter
+public class CursorPaginationWrapper <T extends List<?>>{
+    private final T data;
+    private final int size;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    public CursorPaginationWrapper(T data, int size, boolean hasNext, boolean hasPrevious, String nextCursor, String previousCursor) {
+        this.data = data;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    private CursorPaginationWrapper(Builder<T> builder) {
+        this(builder.data, builder.size, builder.hasNext, builder.hasPrevious, builder.nextCursor, builder.previousCursor);
+    }
+
+    public CursorPaginationObject exportPaginationInfo () {
+        return CursorPaginationObject.builder()
+                .size(size)
+                .hasNext(hasNext)
+                .hasPrevious(hasPrevious)
+                .nextCursor(nextCursor)
+                .previousCursor(previousCursor)
+                .build();
+    }
+
+    public static class Builder<T extends List<?>> {
+        private T data;
+        private int size;
+        private boolean hasNext;
+        private boolean hasPrevious;
+        private String nextCursor;
+        private String previousCursor;
+        public Builder<T> setData(T data) {
+            this.data = data;
+            return this;
+        }
+        public Builder<T> setSize(int size) {
+            this.size = size;
+            return this;
+        }
+        public Builder<T> setHasNext(boolean hasNext) {
+            this.hasNext = hasNext;
+            return this;
+        }
+        public Builder<T> setHasPrevious(boolean hasPrevious) {
+            this.hasPrevious = hasPrevious;
+            return this;
+        }
+        public Builder<T> setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+            return this;
+        }
+        public Builder<T> setPreviousCursor(String previousCursor) {
+            this.previousCursor = previousCursor;
+            return this;
+        }
+        public CursorPaginationWrapper<T> build() {
+            return new CursorPaginationWrapper<T>(this);
+        }
+    }
+}
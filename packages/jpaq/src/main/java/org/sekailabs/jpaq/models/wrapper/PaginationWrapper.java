@@ -4,6 +4,7 @@ import lombok.Getter;
 
 import org.sekailabs.jpaq.models.dto.PaginationObject;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -14,17 +15,31 @@ public class PaginationWrapper <T extends List<?>>{
     private final int size;
     private final int totalPages;
     private final int totalElements;
+    private final boolean hasNext;
+    private final boolean estimated;
 
     public PaginationWrapper(T data, int page, int size, int totalPages, int totalElements) {
+        this(data, page, size, totalPages, totalElements, page + 1 < totalPages, false);
+    }
+
+    /**
+     * @param totalPages    {@code -1} when the total was not counted
+     * @param totalElements {@code -1} when the total was not counted
+     * @param estimated     whether the totals come from a planner estimate
+     */
+    public PaginationWrapper(T data, int page, int size, int totalPages, int totalElements, boolean hasNext, boolean estimated) {
         this.data = data;
         this.page = page;
         this.size = size;
         this.totalElements = totalElements;
         this.totalPages = totalPages;
+        this.hasNext = hasNext;
+        this.estimated = estimated;
     }
 
     private PaginationWrapper(Builder<T> builder) {
-        this(builder.data, builder.page, builder.size, builder.totalPages, builder.totalElements);
+        this(builder.data, builder.page, builder.size, builder.totalPages, builder.totalElements,
+                builder.hasNext != null ? builder.hasNext : builder.page + 1 < builder.totalPages, builder.estimated);
     }
 
     public PaginationObject exportPaginationInfo () {
@@ -33,6 +48,8 @@ public class PaginationWrapper <T extends List<?>>{
                 .size(size)
                 .totalPages(totalPages)
                 .totalElements(totalElements)
+                .hasNext(hasNext)
+                .estimated(estimated)
                 .build();
     }
 
@@ -42,6 +59,8 @@ public class PaginationWrapper <T extends List<?>>{
         private int size;
         private int totalPages;
         private int totalElements;
+        private Boolean hasNext;
+        private boolean estimated;
         public Builder<T> setData(T data) {
             this.data = data;
             return this;
@@ -62,11 +81,28 @@ public class PaginationWrapper <T extends List<?>>{
             this.totalElements = totalElements;
             return this;
         }
+        public Builder<T> setHasNext(boolean hasNext) {
+            this.hasNext = hasNext;
+            return this;
+        }
+        public Builder<T> setEstimated(boolean estimated) {
+            this.estimated = estimated;
+            return this;
+        }
         public Builder<T> setPaginationInfo (Page<?> page) {
             this.page = page.getNumber();
             this.size = page.getSize();
             this.totalElements = (int) page.getTotalElements();
             this.totalPages = page.getTotalPages();
+            this.hasNext = page.hasNext();
+            return this;
+        }
+        public Builder<T> setPaginationInfo (Slice<?> slice) {
+            this.page = slice.getNumber();
+            this.size = slice.getSize();
+            this.totalElements = -1;
+            this.totalPages = -1;
+            this.hasNext = slice.hasNext();
             return this;
         }
         public PaginationWrapper<T> build() {
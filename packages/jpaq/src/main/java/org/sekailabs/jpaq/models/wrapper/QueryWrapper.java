@@ -1,13 +1,19 @@
 package org.sekailabs.jpaq.models.wrapper;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.aggregate.Aggregation;
+import org.sekailabs.jpaq.aggregate.Measure;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.metamodel.FetchPlan;
+import org.sekailabs.jpaq.models.constant.AggregateFunctionEnum;
+import org.sekailabs.jpaq.models.constant.FetchModeEnum;
+import org.sekailabs.jpaq.plan.ExpressionParser;
+import org.sekailabs.jpaq.plan.QueryPlan;
+import org.sekailabs.jpaq.plan.QueryPlanCache;
 import org.sekailabs.jpaq.utils.TextUtils;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,13 +25,22 @@ import jakarta.validation.ValidationException;
 public class QueryWrapper {
     private final Map<String, QueryFieldWrapper> search;
     private Pageable pageable;
+    private final QueryExpression where;
+    private final FetchPlan fetchPlan;
+    private final Aggregation aggregation;
     public QueryWrapper() {
         this.search = new HashMap<>();
+        this.where = null;
+        this.fetchPlan = FetchPlan.NONE;
+        this.aggregation = null;
     }
 
-    private QueryWrapper(Map<String, QueryFieldWrapper> search, Pageable pageable) {
+    private QueryWrapper(Map<String, QueryFieldWrapper> search, QueryExpression where, Pageable pageable, FetchPlan fetchPlan, Aggregation aggregation) {
         this.search = search;
+        this.where = where;
         this.pageable = pageable;
+        this.fetchPlan = fetchPlan;
+        this.aggregation = aggregation;
     }
 
     public Map<String, QueryFieldWrapper> search() {
@@ -36,68 +51,93 @@ public class QueryWrapper {
         return this.search.get(field);
     }
 
+    /**
+     * Boolean filter expression ANDed with the search map, or {@code null}.
+     */
+    public QueryExpression where() {
+        return this.where;
+    }
+
     public Pageable pagination () {
         return this.pageable;
     }
+
+    public FetchPlan fetchPlan() {
+        return this.fetchPlan;
+    }
+
+    /**
+     * Group fields and measures for {@code aggregateAny}, or {@code null}.
+     */
+    public Aggregation aggregation() {
+        return this.aggregation;
+    }
     public static class QueryWrapperBuilder {
         private final Map<String, QueryFieldWrapper> search;
         private Pageable pageable;
+        private boolean strict;
+        private final List<QueryPlan> plans = new ArrayList<>();
+        private QueryExpression where;
+        private FetchPlan fetchPlan = FetchPlan.NONE;
+        private Aggregation aggregation;
         public QueryWrapperBuilder() {
             this.search = new HashMap<>();
         }
         public QueryWrapperBuilder search(String queryString) {
+            return search(queryString, QueryPlanCache.getDefault());
+        }
+
+        public QueryWrapperBuilder search(String queryString, QueryPlanCache planCache) {
             if (queryString == null || queryString.isEmpty()) return this;
             try {
-                String decodedQuery = URLDecoder.decode(queryString, StandardCharsets.UTF_8);
-                Map<String, String> queryParams = Arrays.stream(decodedQuery.split("&"))
-                        .map(pair -> pair.split("="))
-                        .filter(parts -> parts.length == 2)
-                        .collect(Collectors.toMap(parts -> parts[0], parts -> parts[1]));
-
-                queryParams.forEach((key, value) -> {
-                    String camelKey = TextUtils.kebabToCamel(key);
-                    QueryOperatorEnum type = QueryOperatorEnum.EQ;
-                    Object queryValue = value;
-                    if (value.startsWith("~")) {
-                        type = QueryOperatorEnum.LIKE;
-                        queryValue = value.substring(1);
-                    } else if (value.startsWith(">=")) {
-                        type = QueryOperatorEnum.GTE;
-                        queryValue = value.substring(2);
-                    } else if (value.startsWith("<=")) {
-                        type = QueryOperatorEnum.LTE;
-                        queryValue = value.substring(2);
-                    } else if (value.startsWith(">")) {
-                        type = QueryOperatorEnum.GT;
-                        queryValue = value.substring(1);
-                    } else if (value.startsWith("<")) {
-                        type = QueryOperatorEnum.LT;
-                        queryValue = value.substring(1);
-                    } else if (value.startsWith("!")) {
-                        type = QueryOperatorEnum.NE;
-                        queryValue = value.substring(1);
-                    } else if (value.contains(",")) {
-                        type = QueryOperatorEnum.IN;
-                        queryValue = Arrays.asList(value.split(","));
-                    } else if (value.contains("..")) {
-                        type = QueryOperatorEnum.BETWEEN;
-                        String[] range = value.split("\\.\\.");
-                        if (range.length == 2) {
-                            queryValue = Arrays.asList(range[0], range[1]);
-                        }
-                    }
-                    this.search.put(camelKey, QueryFieldWrapper.builder()
-                                    .operator(type)
-                                    .value(queryValue)
-                            .build());
-                });
-
+                QueryPlan plan = planCache.get(queryString);
+                search(plan);
+            } catch (ValidationException e) {
+                throw e;
             } catch (Exception e) {
                 throw new ValidationException("The query is not valid", e);
             }
             return this;
         }
 
+        public QueryWrapperBuilder search(QueryPlan plan) {
+            this.plans.add(plan);
+            plan.applyTo(this.search);
+            if (plan.getExpression() != null) {
+                where(plan.getExpression());
+            }
+            if (plan.getAggregation() != null) {
+                aggregate(plan.getAggregation());
+            }
+            return this;
+        }
+
+        /**
+         * Adds a boolean filter expression; several expressions are ANDed.
+         */
+        public QueryWrapperBuilder where(QueryExpression expression) {
+            this.where = this.where == null ? expression : QueryExpression.and(this.where, expression);
+            return this;
+        }
+
+        /**
+         * Adds a boolean filter expression in the {@code q} parameter syntax, e.g.
+         * {@code status=A|(quantity=>5;!name=~test)}.
+         */
+        public QueryWrapperBuilder where(String expression) {
+            if (expression == null || expression.isBlank()) return this;
+            return where(ExpressionParser.parse(expression));
+        }
+
+        /**
+         * Rejects query strings that repeat a parameter instead of keeping the last value. Checked in
+         * {@link #build()}, so it may be set before or after {@code search}.
+         */
+        public QueryWrapperBuilder strict(boolean strict) {
+            this.strict = strict;
+            return this;
+        }
+
         public QueryWrapperBuilder wrapSort(Pageable ipPageable) {
             int page = ipPageable.getPageNumber();
             int pageSize = ipPageable.getPageSize();
@@ -124,11 +164,42 @@ public class QueryWrapper {
             return this;
         }
 
+        /**
+         * Associations (dotted or kebab case paths) to load with the page entities.
+         */
+        public QueryWrapperBuilder fetch(FetchModeEnum mode, String... paths) {
+            this.fetchPlan = FetchPlan.of(mode, paths);
+            return this;
+        }
+
+        public QueryWrapperBuilder fetch(String... paths) {
+            return fetch(FetchModeEnum.JOIN, paths);
+        }
+
+        /**
+         * Adds group fields and measures for {@code aggregateAny}.
+         */
+        public QueryWrapperBuilder aggregate(Aggregation aggregation) {
+            this.aggregation = this.aggregation == null ? aggregation : this.aggregation.and(aggregation);
+            return this;
+        }
+
+        public QueryWrapperBuilder groupBy(String... fields) {
+            return aggregate(Aggregation.parse(List.of(fields), null));
+        }
+
+        public QueryWrapperBuilder measure(AggregateFunctionEnum function, String field) {
+            return aggregate(Aggregation.of(List.of(), List.of(Measure.of(function, field))));
+        }
+
         public QueryWrapper build() {
+            if (this.strict) {
+                this.plans.forEach(QueryPlan::requireUniqueKeys);
+            }
             if (this.pageable == null) {
                 this.pageable = PageRequest.of(0, 10);
             }
-            return new QueryWrapper(search, pageable);
+            return new QueryWrapper(search, where, pageable, fetchPlan, aggregation);
         }
     }
     public static QueryWrapperBuilder builder() {
@@ -0,0 +1,146 @@
+package org.sekailabs.jpaq.nativesql;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.BasicEntityIdentifierMapping;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.sql.Template;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Table and column layout of an entity that can be read with plain SQL: one table, no inheritance,
+ * {@code @SQLRestriction} or soft delete, and only single column basic attributes. Values are bound
+ * and read through Hibernate's own JDBC mappings, so converters and enum mappings behave exactly as
+ * they do in HQL.
+ */
+@Getter
+final class NativeEntityMapping {
+    private static final int MAXIMUM_CACHED_SHAPES = 512;
+
+    private final AbstractEntityPersister persister;
+    private final String tableName;
+    private final Map<String, Column> columns;
+    private final Column[] selected;
+    private final String selectList;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, NativeSql> statements = new ConcurrentHashMap<>();
+
+    private NativeEntityMapping(AbstractEntityPersister persister, Map<String, Column> columns, Column[] selected) {
+        this.persister = persister;
+        this.tableName = persister.getTableName();
+        this.columns = columns;
+        this.selected = selected;
+        StringBuilder select = new StringBuilder();
+        for (Column column : selected) {
+            if (select.length() > 0) select.append(", ");
+            select.append("t.").append(column.getExpression());
+        }
+        this.selectList = select.toString();
+    }
+
+    /**
+     * Mapping of {@code persister}, or {@code null} when the entity needs more than plain SQL.
+     */
+    static NativeEntityMapping of(EntityPersister persister) {
+        if (!(persister instanceof AbstractEntityPersister entity)
+                || entity.getSuperMappingType() != null
+                || entity.hasSubclasses()
+                || entity.hasWhereRestrictions()
+                || entity.getSoftDeleteMapping() != null
+                || entity.getTableNames().length != 1
+                || !(entity.getIdentifierMapping() instanceof BasicEntityIdentifierMapping id)) {
+            return null;
+        }
+        String table = entity.getTableName();
+        Column idColumn = Column.of(id, table, -1);
+        if (idColumn == null) return null;
+
+        int attributes = entity.getNumberOfAttributeMappings();
+        Column[] selected = new Column[attributes + 1];
+        Map<String, Column> columns = new HashMap<>();
+        selected[0] = idColumn;
+        columns.put(id.getAttributeName(), idColumn);
+        for (int i = 0; i < attributes; i++) {
+            AttributeMapping attribute = entity.getAttributeMapping(i);
+            if (!(attribute instanceof BasicValuedModelPart basic)) return null;
+            Column column = Column.of(basic, table, attribute.getStateArrayPosition());
+            if (column == null) return null;
+            selected[i + 1] = column;
+            columns.put(attribute.getAttributeName(), column);
+        }
+        return new NativeEntityMapping(entity, Map.copyOf(columns), selected);
+    }
+
+    Column column(String attribute) {
+        return columns.get(attribute);
+    }
+
+    NativeSql statement(String shape) {
+        return statements.get(shape);
+    }
+
+    void cache(String shape, NativeSql sql) {
+        // shapes come from clients, only a bounded number of them is kept
+        if (statements.size() < MAXIMUM_CACHED_SHAPES) {
+            statements.putIfAbsent(shape, sql);
+        }
+    }
+
+    /**
+     * Builds a detached entity from the current row, laid out as {@link #getSelectList()}; the
+     * session must be stateless, there is no persistence context to take the instance from.
+     */
+    Object read(ResultSet resultSet, SharedSessionContractImplementor session) throws SQLException {
+        Object id = selected[0].read(resultSet, 1, session);
+        Object[] values = new Object[selected.length - 1];
+        for (int i = 1; i < selected.length; i++) {
+            values[selected[i].statePosition] = selected[i].read(resultSet, i + 1, session);
+        }
+        Object entity = persister.instantiate(id, session);
+        persister.setValues(entity, values);
+        return entity;
+    }
+
+    @Getter
+    static final class Column {
+        private final String expression;
+        private final JdbcMapping jdbcMapping;
+        @Getter(AccessLevel.NONE)
+        private final int statePosition;
+
+        private Column(String expression, JdbcMapping jdbcMapping, int statePosition) {
+            this.expression = expression;
+            this.jdbcMapping = jdbcMapping;
+            this.statePosition = statePosition;
+        }
+
+        private static Column of(BasicValuedModelPart part, String table, int statePosition) {
+            if (part.isFormula() || !table.equals(part.getContainingTableExpression())) return null;
+            // plain columns carry the column itself as read template, anything else is a @ColumnTransformer
+            String read = part.getCustomReadExpression();
+            if (read != null && !read.equals(Template.TEMPLATE + "." + part.getSelectionExpression())) return null;
+            return new Column(part.getSelectionExpression(), part.getJdbcMapping(), statePosition);
+        }
+
+        Object read(ResultSet resultSet, int index, SharedSessionContractImplementor session) throws SQLException {
+            return jdbcMapping.convertToDomainValue(jdbcMapping.getJdbcValueExtractor().extract(resultSet, index, session));
+        }
+
+        @SuppressWarnings("unchecked")
+        void bind(PreparedStatement statement, int index, Object value, SharedSessionContractImplementor session) throws SQLException {
+            jdbcMapping.getJdbcValueBinder().bind(statement, jdbcMapping.convertToRelationalValue(value), index, session);
+        }
+    }
+}
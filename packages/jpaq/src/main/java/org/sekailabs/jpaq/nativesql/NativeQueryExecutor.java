@@ -0,0 +1,318 @@
+package org.sekailabs.jpaq.nativesql;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.dialect.pagination.LimitHandler;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.query.spi.Limit;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.count.PageCounter;
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.metamodel.FieldDescriptor;
+import org.sekailabs.jpaq.models.constant.CountStrategyEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.predicate.InListPredicate;
+import org.sekailabs.jpaq.utils.TextUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Fast path for simple filters that skips the Criteria, HQL and SQL AST pipeline: the search map is
+ * compiled straight to parameterized SQL against the entity's table, with the SQL text cached per
+ * query shape (fields, operators, IN list sizes and sort) and rows read by a precomputed mapper.
+ * <p>
+ * Everything outside the plain cases, e.g. nested paths, values that would be dropped, large IN
+ * lists or filtered entities, makes {@link #page} return {@code null} so the caller takes the
+ * Criteria path, which yields the same rows.
+ * <p>
+ * Rows are built as detached entities in a stateless session, so the fast path only runs where the
+ * Criteria path would hand out detached entities too: outside a transaction and without an entity
+ * manager bound to the thread (open entity manager in view). There the Criteria path returns the
+ * managed instances of the persistence context instead.
+ */
+public final class NativeQueryExecutor {
+    private static final char LIKE_ESCAPE = '!';
+    private static final Map<Class<?>, Optional<NativeEntityMapping>> MAPPINGS = new ConcurrentHashMap<>();
+
+    private NativeQueryExecutor() {}
+
+    /**
+     * One page of {@code domainType} read with plain SQL, or {@code null} when the query is not
+     * simple enough. Filters and pageable are expected to be guarded already.
+     */
+    public static <T> PaginationWrapper<List<T>> page(
+            Class<T> domainType,
+            Map<String, QueryFieldWrapper> search,
+            Pageable pageable,
+            CountStrategyEnum countStrategy
+    ) {
+        EntityManager entityManager = JpaqContext.getEntityManager();
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory())) {
+            return null;
+        }
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        NativeEntityMapping mapping = mapping(sessionFactory, domainType);
+        if (mapping == null || filtered(sessionFactory)) return null;
+
+        EntityDescriptor descriptor = EntityDescriptorCache.get(entityManager.getMetamodel(), domainType);
+        Map<String, QueryFieldWrapper> filters = search == null ? Map.of() : search;
+        Pageable paging = pageable == null ? Pageable.unpaged() : pageable;
+        CompiledQuery query = compile(mapping, descriptor, filters, paging);
+        if (query == null) return null;
+        return PageCounter.page(
+                countStrategy,
+                domainType,
+                search,
+                paging,
+                page -> withSession(sessionFactory, session -> query.<T>slice(session, page)),
+                () -> withSession(sessionFactory, query::count)
+        );
+    }
+
+    public static void clear() {
+        MAPPINGS.clear();
+    }
+
+    private static NativeEntityMapping mapping(SessionFactoryImplementor sessionFactory, Class<?> domainType) {
+        return MAPPINGS.computeIfAbsent(domainType, type -> Optional.ofNullable(
+                NativeEntityMapping.of(sessionFactory.getMappingMetamodel().getEntityDescriptor(type))
+        )).orElse(null);
+    }
+
+    /**
+     * Whether a Hibernate filter could restrict the entity in a new session.
+     */
+    private static boolean filtered(SessionFactoryImplementor sessionFactory) {
+        for (String name : sessionFactory.getDefinedFilterNames()) {
+            if (sessionFactory.getFilterDefinition(name).isAutoEnabled()) return true;
+        }
+        return false;
+    }
+
+    private static CompiledQuery compile(NativeEntityMapping mapping, EntityDescriptor descriptor, Map<String, QueryFieldWrapper> search, Pageable pageable) {
+        StringBuilder shape = new StringBuilder();
+        List<Clause> clauses = new ArrayList<>(search.size());
+        List<NativeEntityMapping.Column> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        // sorted so that the same filters in any order share one statement
+        for (Map.Entry<String, QueryFieldWrapper> entry : new TreeMap<>(search).entrySet()) {
+            String field = entry.getKey();
+            QueryOperatorEnum operator = entry.getValue().getOperator();
+            Object value = entry.getValue().getValue();
+            NativeEntityMapping.Column column = mapping.column(field);
+            FieldDescriptor fieldDescriptor = descriptor.getField(field);
+            if (column == null || fieldDescriptor == null || value == null || operator == null) return null;
+
+            int arity = 1;
+            switch (operator) {
+                case EQ, NE, GT, GTE, LT, LTE -> {
+                    boolean ordered = operator != QueryOperatorEnum.EQ && operator != QueryOperatorEnum.NE;
+                    Object converted = fieldDescriptor.convert(value);
+                    if (converted == null || ordered && !fieldDescriptor.isComparable()) return null;
+                    values.add(converted);
+                }
+                case LIKE, STARTS_WITH -> {
+                    if (fieldDescriptor.getJavaType() != String.class) return null;
+                    values.add(operator == QueryOperatorEnum.LIKE
+                            ? "%" + value + "%"
+                            : TextUtils.escapeLike(value.toString(), LIKE_ESCAPE) + "%");
+                }
+                case IN, NOT_IN -> {
+                    Collection<?> collection = value instanceof Collection<?> items ? items : List.of(value);
+                    List<Object> coerced = InListPredicate.coerce(fieldDescriptor, collection);
+                    int chunkSize = JpaqContext.getInListChunkSize();
+                    if (coerced.isEmpty() || coerced.size() > chunkSize || coerced.size() > JpaqContext.getInListArrayThreshold()) {
+                        return null;
+                    }
+                    List<Object> padded = InListPredicate.pad(coerced, chunkSize);
+                    arity = padded.size();
+                    values.addAll(padded);
+                }
+                case BETWEEN -> {
+                    if (!(value instanceof List<?> range) || range.size() != 2 || !fieldDescriptor.isComparable()) return null;
+                    Object lower = fieldDescriptor.convert(range.get(0));
+                    Object upper = fieldDescriptor.convert(range.get(1));
+                    if (lower == null || upper == null) return null;
+                    values.add(lower);
+                    values.add(upper);
+                    arity = 2;
+                }
+                default -> {
+                    return null;
+                }
+            }
+            for (int i = 0; i < arity; i++) {
+                columns.add(column);
+            }
+            clauses.add(new Clause(column, operator, arity));
+            shape.append(field).append(':').append(operator).append(':').append(arity).append('&');
+        }
+
+        Sort sort = pageable.getSort();
+        List<NativeEntityMapping.Column> orderColumns = new ArrayList<>();
+        shape.append('|');
+        for (Sort.Order order : sort) {
+            NativeEntityMapping.Column column = mapping.column(order.getProperty());
+            if (column == null || order.isIgnoreCase() || order.getNullHandling() != Sort.NullHandling.NATIVE) return null;
+            orderColumns.add(column);
+            shape.append(order.getProperty()).append(order.isAscending() ? '+' : '-');
+        }
+
+        String key = shape.toString();
+        NativeSql sql = mapping.statement(key);
+        if (sql == null) {
+            sql = build(mapping, clauses, sort, orderColumns);
+            mapping.cache(key, sql);
+        }
+        return new CompiledQuery(mapping, sql, columns, values);
+    }
+
+    private static NativeSql build(NativeEntityMapping mapping, List<Clause> clauses, Sort sort, List<NativeEntityMapping.Column> orderColumns) {
+        StringBuilder from = new StringBuilder(" from ").append(mapping.getTableName()).append(" t");
+        for (int i = 0; i < clauses.size(); i++) {
+            Clause clause = clauses.get(i);
+            from.append(i == 0 ? " where " : " and ").append("t.").append(clause.column.getExpression());
+            switch (clause.operator) {
+                case EQ -> from.append(" = ?");
+                case NE -> from.append(" <> ?");
+                case GT -> from.append(" > ?");
+                case GTE -> from.append(" >= ?");
+                case LT -> from.append(" < ?");
+                case LTE -> from.append(" <= ?");
+                case LIKE -> from.append(" like ?");
+                case STARTS_WITH -> from.append(" like ? escape '").append(LIKE_ESCAPE).append('\'');
+                case IN, NOT_IN -> {
+                    from.append(clause.operator == QueryOperatorEnum.IN ? " in (" : " not in (");
+                    for (int p = 0; p < clause.arity; p++) {
+                        from.append(p == 0 ? "?" : ",?");
+                    }
+                    from.append(')');
+                }
+                case BETWEEN -> from.append(" between ? and ?");
+                default -> throw new IllegalStateException("Unsupported operator " + clause.operator);
+            }
+        }
+
+        StringBuilder select = new StringBuilder("select ").append(mapping.getSelectList()).append(from);
+        int index = 0;
+        for (Sort.Order order : sort) {
+            select.append(index == 0 ? " order by " : ", ")
+                    .append("t.").append(orderColumns.get(index++).getExpression())
+                    .append(order.isAscending() ? " asc" : " desc");
+        }
+        return new NativeSql(select.toString(), "select count(*)" + from);
+    }
+
+    /**
+     * Runs {@code work} in a short stateless session.
+     */
+    private static <R> R withSession(SessionFactoryImplementor sessionFactory, Function<SharedSessionContractImplementor, R> work) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return work.apply((SharedSessionContractImplementor) session);
+        }
+    }
+
+    private static final class Clause {
+        private final NativeEntityMapping.Column column;
+        private final QueryOperatorEnum operator;
+        private final int arity;
+
+        Clause(NativeEntityMapping.Column column, QueryOperatorEnum operator, int arity) {
+            this.column = column;
+            this.operator = operator;
+            this.arity = arity;
+        }
+    }
+
+    private static final class CompiledQuery {
+        private final NativeEntityMapping mapping;
+        private final NativeSql sql;
+        private final List<NativeEntityMapping.Column> columns;
+        private final List<Object> values;
+
+        CompiledQuery(NativeEntityMapping mapping, NativeSql sql, List<NativeEntityMapping.Column> columns, List<Object> values) {
+            this.mapping = mapping;
+            this.sql = sql;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> Slice<T> slice(SharedSessionContractImplementor session, Pageable pageable) {
+            // one extra row tells whether there is a next page, as the Criteria slice does
+            Limit limit = pageable.isPaged() ? new Limit((int) pageable.getOffset(), pageable.getPageSize() + 1) : null;
+            List<T> rows = new ArrayList<>();
+            execute(session, sql.getSelect(), limit, resultSet -> {
+                while (resultSet.next()) {
+                    rows.add((T) mapping.read(resultSet, session));
+                }
+                return null;
+            });
+            boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+            List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+
+        long count(SharedSessionContractImplementor session) {
+            return execute(session, sql.getCount(), null, resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L);
+        }
+
+        private <R> R execute(SharedSessionContractImplementor session, String baseSql, Limit limit, ResultSetReader<R> reader) {
+            LimitHandler limitHandler = session.getJdbcServices().getDialect().getLimitHandler();
+            String sql = limit == null ? baseSql : limitHandler.processSql(baseSql, limit);
+            JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+            PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareQueryStatement(sql, false, null);
+            try {
+                int index = 1;
+                if (limit != null) {
+                    index += limitHandler.bindLimitParametersAtStartOfQuery(limit, statement, index);
+                }
+                for (int i = 0; i < values.size(); i++) {
+                    columns.get(i).bind(statement, index++, values.get(i), session);
+                }
+                if (limit != null) {
+                    limitHandler.bindLimitParametersAtEndOfQuery(limit, statement, index);
+                    limitHandler.setMaxRows(limit, statement);
+                }
+                ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement, sql);
+                try {
+                    return reader.read(resultSet);
+                } finally {
+                    jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(resultSet, statement);
+                }
+            } catch (SQLException e) {
+                throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Could not execute jpaq native query", sql);
+            } finally {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+                jdbcCoordinator.afterStatementExecution();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultSetReader<R> {
+        R read(ResultSet resultSet) throws SQLException;
+    }
+}
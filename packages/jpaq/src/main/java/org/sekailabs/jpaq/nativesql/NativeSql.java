@@ -0,0 +1,18 @@
+package org.sekailabs.jpaq.nativesql;
+
+import lombok.Getter;
+
+/**
+ * SQL text of one query shape: the row select (without limit, which the dialect adds per execution)
+ * and the matching count.
+ */
+@Getter
+final class NativeSql {
+    private final String select;
+    private final String count;
+
+    NativeSql(String select, String count) {
+        this.select = select;
+        this.count = count;
+    }
+}
@@ -0,0 +1,156 @@
+package org.sekailabs.jpaq.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.expression.QueryCondition;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+import org.sekailabs.jpaq.utils.TextUtils;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Single pass, recursive descent parser for boolean filter expressions, the value of the
+ * {@code q} query parameter: {@code status=A|(priority=>5;!owner=bob)}.
+ * <p>
+ * {@code ;} is AND, {@code |} is OR and binds weaker, {@code !} negates the condition or group that
+ * follows and parentheses group. Each condition uses the query string syntax for its value, which
+ * ends at an unescaped {@code ;}, {@code |} or {@code )}; a backslash escapes the next character.
+ * Groups and negations nested deeper than {@link JpaqContext#getMaxExpressionDepth()} are rejected,
+ * which also bounds the recursion.
+ */
+public final class ExpressionParser {
+    private final CharSequence text;
+    private final int length;
+    private final int maxDepth;
+    private int position;
+
+    private ExpressionParser(CharSequence text, int maxDepth) {
+        this.text = text;
+        this.length = text.length();
+        this.maxDepth = maxDepth;
+    }
+
+    public static QueryExpression parse(CharSequence text) {
+        return parse(text, JpaqContext.getMaxExpressionDepth());
+    }
+
+    public static QueryExpression parse(CharSequence text, int maxDepth) {
+        ExpressionParser parser = new ExpressionParser(text, maxDepth);
+        QueryExpression expression = parser.or(0);
+        parser.skipWhitespace();
+        if (parser.position != parser.length) {
+            throw parser.error("Unexpected '" + text.charAt(parser.position) + "'");
+        }
+        return expression;
+    }
+
+    private QueryExpression or(int depth) {
+        QueryExpression first = and(depth);
+        if (!next('|')) return first;
+        List<QueryExpression> terms = new ArrayList<>();
+        terms.add(first);
+        do {
+            terms.add(and(depth));
+        } while (next('|'));
+        return QueryExpression.group(QueryLogicalOperatorEnum.OR, terms);
+    }
+
+    private QueryExpression and(int depth) {
+        QueryExpression first = unary(depth);
+        if (!next(';')) return first;
+        List<QueryExpression> terms = new ArrayList<>();
+        terms.add(first);
+        do {
+            terms.add(unary(depth));
+        } while (next(';'));
+        return QueryExpression.group(QueryLogicalOperatorEnum.AND, terms);
+    }
+
+    private QueryExpression unary(int depth) {
+        skipWhitespace();
+        if (position == length) {
+            throw error("Missing condition");
+        }
+        char c = text.charAt(position);
+        if (c == '!' || c == '(') {
+            if (depth >= maxDepth) {
+                throw new ValidationException("Filter expression is nested deeper than " + maxDepth + " levels");
+            }
+            position++;
+            if (c == '!') {
+                return QueryExpression.not(unary(depth + 1));
+            }
+            QueryExpression group = or(depth + 1);
+            if (!next(')')) {
+                throw error("Missing ')'");
+            }
+            return group;
+        }
+        return condition();
+    }
+
+    private QueryExpression condition() {
+        int keyStart = position;
+        while (position < length && !isDelimiter(text.charAt(position)) && text.charAt(position) != '=') {
+            position++;
+        }
+        if (position == length || text.charAt(position) != '=') {
+            throw error("Missing '=' in condition");
+        }
+        String field = TextUtils.kebabToCamel(text.subSequence(keyStart, position).toString().trim());
+        if (field.isEmpty()) {
+            throw error("Missing field name");
+        }
+        position++;
+
+        StringBuilder unescaped = null;
+        int valueStart = position;
+        while (position < length) {
+            char c = text.charAt(position);
+            if (c == '\\' && position + 1 < length) {
+                if (unescaped == null) unescaped = new StringBuilder().append(text, valueStart, position);
+                unescaped.append(text.charAt(position + 1));
+                position += 2;
+                continue;
+            }
+            if (isDelimiter(c)) break;
+            if (unescaped != null) unescaped.append(c);
+            position++;
+        }
+        CharSequence value = unescaped != null ? unescaped : text.subSequence(valueStart, position);
+        int valueEnd = value.length();
+        while (valueEnd > 0 && Character.isWhitespace(value.charAt(valueEnd - 1))) {
+            valueEnd--;
+        }
+        if (valueEnd == 0) {
+            throw error("Missing value for " + field);
+        }
+        return new QueryCondition(field, QueryStringParser.parseValue(value, 0, valueEnd));
+    }
+
+    private boolean next(char token) {
+        skipWhitespace();
+        if (position < length && text.charAt(position) == token) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < length && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ';' || c == '|' || c == ')';
+    }
+
+    private ValidationException error(String message) {
+        return new ValidationException(message + " at position " + position + " of the filter expression");
+    }
+}
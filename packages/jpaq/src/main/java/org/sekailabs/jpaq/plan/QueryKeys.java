@@ -0,0 +1,126 @@
+package org.sekailabs.jpaq.plan;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.sekailabs.jpaq.expression.QueryCondition;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.expression.QueryGroup;
+import org.sekailabs.jpaq.expression.QueryNot;
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Canonical, order independent string forms of a search map, filter expression and pagination,
+ * used as cache keys.
+ */
+public final class QueryKeys {
+    private QueryKeys() {}
+
+    public static String canonical(Map<String, QueryFieldWrapper> search) {
+        if (search == null || search.isEmpty()) return "";
+        StringBuilder key = new StringBuilder();
+        new TreeMap<>(search).forEach((field, wrapper) -> {
+            if (key.length() > 0) key.append('&');
+            key.append(field).append('=').append(wrapper.getOperator()).append(':');
+            appendValue(key, wrapper.getValue());
+        });
+        return key.toString();
+    }
+
+    /**
+     * Field and operator list without values, e.g. {@code quantity:GTE&status:EQ}.
+     */
+    public static String shape(Map<String, QueryFieldWrapper> search) {
+        if (search == null || search.isEmpty()) return "";
+        StringBuilder shape = new StringBuilder();
+        new TreeMap<>(search).forEach((field, wrapper) -> {
+            if (shape.length() > 0) shape.append('&');
+            shape.append(field).append(':').append(wrapper.getOperator());
+        });
+        return shape.toString();
+    }
+
+    /**
+     * Search map key followed by the expression, e.g. {@code status=EQ:A&q=(quantity=GT:5|!name=EQ:x)}.
+     */
+    public static String canonical(Map<String, QueryFieldWrapper> search, QueryExpression where) {
+        if (where == null) return canonical(search);
+        StringBuilder key = new StringBuilder(canonical(search));
+        if (key.length() > 0) key.append('&');
+        appendExpression(key.append("q="), where, true);
+        return key.toString();
+    }
+
+    public static String shape(Map<String, QueryFieldWrapper> search, QueryExpression where) {
+        if (where == null) return shape(search);
+        StringBuilder shape = new StringBuilder(shape(search));
+        if (shape.length() > 0) shape.append('&');
+        appendExpression(shape.append("q="), where, false);
+        return shape.toString();
+    }
+
+    public static String canonical(Map<String, QueryFieldWrapper> search, Pageable pageable) {
+        return canonical(search, null, pageable);
+    }
+
+    public static String canonical(Map<String, QueryFieldWrapper> search, QueryExpression where, Pageable pageable) {
+        StringBuilder key = new StringBuilder(canonical(search, where));
+        if (pageable == null || pageable.isUnpaged()) {
+            return key.append("|unpaged").toString();
+        }
+        key.append('|').append(pageable.getPageNumber()).append('|').append(pageable.getPageSize());
+        for (Sort.Order order : pageable.getSort()) {
+            key.append('|').append(order.getProperty()).append(order.isAscending() ? "+" : "-");
+        }
+        return key.toString();
+    }
+
+    private static void appendExpression(StringBuilder key, QueryExpression expression, boolean values) {
+        switch (expression) {
+            case QueryCondition condition -> {
+                QueryFieldWrapper wrapper = condition.getWrapper();
+                key.append(condition.getField()).append(values ? '=' : ':').append(wrapper.getOperator());
+                if (values) {
+                    appendValue(key.append(':'), wrapper.getValue());
+                }
+            }
+            case QueryGroup group -> {
+                char separator = group.getOperator() == QueryLogicalOperatorEnum.AND ? ';' : '|';
+                key.append('(');
+                for (int i = 0; i < group.getChildren().size(); i++) {
+                    if (i > 0) key.append(separator);
+                    appendExpression(key, group.getChildren().get(i), values);
+                }
+                key.append(')');
+            }
+            case QueryNot not -> appendExpression(key.append('!'), not.getExpression(), values);
+        }
+    }
+
+    private static void appendValue(StringBuilder key, Object value) {
+        if (value instanceof Collection<?> values) {
+            key.append('[');
+            boolean first = true;
+            for (Object item : values) {
+                if (!first) key.append(',');
+                escape(key, String.valueOf(item));
+                first = false;
+            }
+            key.append(']');
+        } else {
+            escape(key, String.valueOf(value));
+        }
+    }
+
+    private static void escape(StringBuilder key, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '&' || c == ',' || c == '[' || c == ']' || c == '|' || c == ';' || c == '(' || c == ')' || c == '\\') key.append('\\');
+            key.append(c);
+        }
+    }
+}
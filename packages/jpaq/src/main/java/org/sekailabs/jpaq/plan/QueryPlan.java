@@ -0,0 +1,128 @@
+package org.sekailabs.jpaq.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sekailabs.jpaq.aggregate.Aggregation;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+
+import jakarta.validation.ValidationException;
+import lombok.Getter;
+
+/**
+ * Immutable, reusable result of parsing a query string: every field is already
+ * resolved to its camel case name, operator and value, the {@code q} parameters
+ * to one boolean expression, and {@code group-by} and {@code measures} to an aggregation.
+ * <p>
+ * Values stay the raw strings of the query: a plan is cached by query string alone and the
+ * same string may be run against any entity, so the typed value is only known per entity.
+ * It is converted at predicate build time by {@link org.sekailabs.jpaq.metamodel.FieldDescriptor#convert},
+ * whose converter is resolved once per entity field.
+ */
+@Getter
+public final class QueryPlan {
+    public static final QueryPlan EMPTY = new QueryPlan("", Collections.emptyMap(), null, null, null);
+
+    private final String query;
+    private final Map<String, Field> fields;
+    private final QueryExpression expression;
+    private final Aggregation aggregation;
+    private final String duplicateKey;
+
+    private QueryPlan(String query, Map<String, Field> fields, QueryExpression expression, Aggregation aggregation, String duplicateKey) {
+        this.query = query;
+        this.fields = fields;
+        this.expression = expression;
+        this.aggregation = aggregation;
+        this.duplicateKey = duplicateKey;
+    }
+
+    public static QueryPlan compile(String queryString) {
+        if (queryString == null || queryString.isEmpty()) return EMPTY;
+        Map<String, Field> fields = new LinkedHashMap<>();
+        List<QueryExpression> expressions = new ArrayList<>(1);
+        String[] duplicateKey = new String[1];
+        Map<String, List<String>> aggregationParameters = new LinkedHashMap<>(2);
+        QueryStringParser.parse(queryString, false, (name, wrapper) -> {
+            if (name.equals(QueryStringParser.GROUP_BY_KEY) || name.equals(QueryStringParser.MEASURES_KEY)) {
+                boolean first = aggregationParameters.put(name, values(name, wrapper)) == null;
+                if (!first && duplicateKey[0] == null) {
+                    duplicateKey[0] = name;
+                }
+                return first;
+            }
+            Field previous = fields.put(name, new Field(name, wrapper.getOperator(), wrapper.getValue()));
+            if (previous != null && duplicateKey[0] == null) {
+                duplicateKey[0] = name;
+            }
+            return previous == null;
+        }, expressions::add);
+        QueryExpression expression = expressions.isEmpty() ? null : QueryExpression.group(QueryLogicalOperatorEnum.AND, expressions);
+        Aggregation aggregation = aggregationParameters.isEmpty() ? null : Aggregation.parse(
+                aggregationParameters.get(QueryStringParser.GROUP_BY_KEY),
+                aggregationParameters.get(QueryStringParser.MEASURES_KEY)
+        );
+        return new QueryPlan(queryString, Collections.unmodifiableMap(fields), expression, aggregation, duplicateKey[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> values(String name, QueryFieldWrapper wrapper) {
+        return switch (wrapper.getOperator()) {
+            case EQ -> List.of((String) wrapper.getValue());
+            case IN -> (List<String>) wrapper.getValue();
+            default -> throw new ValidationException("Invalid " + name + " parameter");
+        };
+    }
+
+    /**
+     * Name of the first parameter that appeared more than once, or {@code null}.
+     * Lenient plans keep the last occurrence; strict callers reject the plan.
+     */
+    public String getDuplicateKey() {
+        return duplicateKey;
+    }
+
+    public QueryPlan requireUniqueKeys() {
+        if (duplicateKey != null) {
+            throw new ValidationException("Duplicate query parameter: " + duplicateKey);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty() && expression == null && aggregation == null;
+    }
+
+    /**
+     * Copies the plan into a mutable search map, so callers can never modify the cached plan.
+     */
+    public void applyTo(Map<String, QueryFieldWrapper> search) {
+        fields.forEach((name, field) -> search.put(name, field.toWrapper()));
+    }
+
+    @Getter
+    public static final class Field {
+        private final String name;
+        private final QueryOperatorEnum operator;
+        private final Object value;
+
+        Field(String name, QueryOperatorEnum operator, Object value) {
+            this.name = name;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public QueryFieldWrapper toWrapper() {
+            return QueryFieldWrapper.builder()
+                    .operator(operator)
+                    .value(value)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.sekailabs.jpaq.plan;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.metrics.JpaqMetrics;
+
+/**
+ * Bounded LRU cache of compiled {@link QueryPlan}s keyed by the normalized query string.
+ */
+public class QueryPlanCache {
+    public static final int DEFAULT_MAXIMUM_SIZE = 512;
+    public static final int DEFAULT_MAXIMUM_QUERY_LENGTH = 2048;
+
+    private static volatile QueryPlanCache defaultCache = builder().build();
+
+    private final int maximumSize;
+    private final int maximumQueryLength;
+    private final LinkedHashMap<String, QueryPlan> plans;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private QueryPlanCache(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.maximumQueryLength = builder.maximumQueryLength;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+                if (size() > QueryPlanCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static QueryPlanCache getDefault() {
+        return defaultCache;
+    }
+
+    public static void setDefault(QueryPlanCache cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException("Default query plan cache must not be null");
+        }
+        defaultCache = cache;
+    }
+
+    public QueryPlan get(String queryString) {
+        JpaqMetrics metrics = JpaqContext.getMetrics();
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        String key = normalize(queryString);
+        if (key.isEmpty()) return QueryPlan.EMPTY;
+        if (maximumSize <= 0 || key.length() > maximumQueryLength) {
+            misses.increment();
+            return compile(key, metrics, start);
+        }
+
+        QueryPlan plan;
+        lock.lock();
+        try {
+            plan = plans.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (plan != null) {
+            hits.increment();
+            if (metrics.isEnabled()) {
+                metrics.recordParse(System.nanoTime() - start, true);
+            }
+            return plan;
+        }
+
+        misses.increment();
+        plan = compile(key, metrics, start);
+        lock.lock();
+        try {
+            QueryPlan existing = plans.putIfAbsent(key, plan);
+            return existing != null ? existing : plan;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static QueryPlan compile(String key, JpaqMetrics metrics, long start) {
+        QueryPlan plan = QueryPlan.compile(key);
+        if (metrics.isEnabled()) {
+            metrics.recordParse(System.nanoTime() - start, false);
+        }
+        return plan;
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            plans.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return plans.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public QueryPlanCacheStats stats() {
+        return QueryPlanCacheStats.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .size(size())
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    static String normalize(String queryString) {
+        if (queryString == null) return "";
+        int start = 0;
+        int end = queryString.length();
+        while (start < end && Character.isWhitespace(queryString.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(queryString.charAt(end - 1))) end--;
+        if (start < end && queryString.charAt(start) == '?') start++;
+        while (end > start && queryString.charAt(end - 1) == '&') end--;
+        return start == 0 && end == queryString.length() ? queryString : queryString.substring(start, end);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+        private int maximumQueryLength = DEFAULT_MAXIMUM_QUERY_LENGTH;
+
+        public Builder maximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder maximumQueryLength(int maximumQueryLength) {
+            this.maximumQueryLength = maximumQueryLength;
+            return this;
+        }
+
+        public QueryPlanCache build() {
+            return new QueryPlanCache(this);
+        }
+    }
+}
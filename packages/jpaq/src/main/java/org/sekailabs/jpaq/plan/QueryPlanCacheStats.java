@@ -0,0 +1,19 @@
+package org.sekailabs.jpaq.plan;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class QueryPlanCacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private int maximumSize;
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0d : (double) hits / total;
+    }
+}
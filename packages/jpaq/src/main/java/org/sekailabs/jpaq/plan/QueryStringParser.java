@@ -0,0 +1,193 @@
+package org.sekailabs.jpaq.plan;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.utils.TextUtils;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Single pass, index based parser for the query string grammar
+ * ({@code key=value&key=~like&key=@text search&key=>=1&key=a,b&key=1..9}).
+ * Percent escapes are only decoded for the slices that contain them.
+ */
+public final class QueryStringParser {
+    /**
+     * Parameter holding a boolean filter expression, see {@link ExpressionParser}.
+     */
+    public static final String EXPRESSION_KEY = "q";
+    /**
+     * Parameters holding the group fields and measures of an aggregate query
+     * ({@code group-by=status&measures=count,sum(price)}), see {@code Aggregation}.
+     */
+    public static final String GROUP_BY_KEY = "groupBy";
+    public static final String MEASURES_KEY = "measures";
+
+    private QueryStringParser() {}
+
+    @FunctionalInterface
+    public interface FieldSink {
+        /**
+         * @return {@code false} when the field was already emitted
+         */
+        boolean accept(String field, QueryFieldWrapper wrapper);
+    }
+
+    public static void parse(CharSequence query, boolean strict, FieldSink sink) {
+        parse(query, strict, sink, null);
+    }
+
+    /**
+     * Like {@link #parse(CharSequence, boolean, FieldSink)}, handing the {@value #EXPRESSION_KEY}
+     * parameters to {@code expressions} as parsed boolean expressions instead of treating them as fields.
+     */
+    public static void parse(CharSequence query, boolean strict, FieldSink sink, Consumer<QueryExpression> expressions) {
+        int length = query.length();
+        int pairStart = 0;
+        while (pairStart < length) {
+            int pairEnd = indexOf(query, '&', pairStart, length);
+            parsePair(query, pairStart, pairEnd, strict, sink, expressions);
+            pairStart = pairEnd + 1;
+        }
+    }
+
+    private static void parsePair(CharSequence query, int start, int end, boolean strict, FieldSink sink, Consumer<QueryExpression> expressions) {
+        int eq = indexOf(query, '=', start, end);
+        if (eq == end || eq == start || eq + 1 == end) {
+            return;
+        }
+
+        String field;
+        if (needsDecoding(query, start, eq)) {
+            String key = decode(query, start, eq);
+            field = TextUtils.kebabToCamel(key, 0, key.length());
+        } else {
+            field = TextUtils.kebabToCamel(query, start, eq);
+        }
+        if (field.isEmpty()) return;
+
+        CharSequence value = query;
+        int valueStart = eq + 1;
+        int valueEnd = end;
+        if (needsDecoding(query, valueStart, valueEnd)) {
+            value = decode(query, valueStart, valueEnd);
+            valueStart = 0;
+            valueEnd = value.length();
+            if (valueStart == valueEnd) return;
+        }
+
+        if (expressions != null && field.equals(EXPRESSION_KEY)) {
+            expressions.accept(ExpressionParser.parse(value.subSequence(valueStart, valueEnd)));
+            return;
+        }
+
+        if (!sink.accept(field, parseValue(value, valueStart, valueEnd)) && strict) {
+            throw new ValidationException("Duplicate query parameter: " + field);
+        }
+    }
+
+    static QueryFieldWrapper parseValue(CharSequence value, int start, int end) {
+        char first = value.charAt(start);
+        char second = start + 1 < end ? value.charAt(start + 1) : 0;
+        switch (first) {
+            case '~':
+                return wrapper(QueryOperatorEnum.LIKE, slice(value, start + 1, end));
+            case '@':
+                return wrapper(QueryOperatorEnum.SEARCH, slice(value, start + 1, end));
+            case '>':
+                return second == '='
+                        ? wrapper(QueryOperatorEnum.GTE, slice(value, start + 2, end))
+                        : wrapper(QueryOperatorEnum.GT, slice(value, start + 1, end));
+            case '<':
+                return second == '='
+                        ? wrapper(QueryOperatorEnum.LTE, slice(value, start + 2, end))
+                        : wrapper(QueryOperatorEnum.LT, slice(value, start + 1, end));
+            case '!':
+                return wrapper(QueryOperatorEnum.NE, slice(value, start + 1, end));
+            default:
+                break;
+        }
+
+        int comma = indexOf(value, ',', start, end);
+        if (comma != end) {
+            return wrapper(QueryOperatorEnum.IN, splitList(value, start, end));
+        }
+
+        int range = indexOf(value, "..", start, end);
+        if (range != end) {
+            int upper = range + 2;
+            if (upper < end && indexOf(value, "..", upper, end) == end) {
+                return wrapper(QueryOperatorEnum.BETWEEN, List.of(slice(value, start, range), slice(value, upper, end)));
+            }
+            return wrapper(QueryOperatorEnum.BETWEEN, slice(value, start, end));
+        }
+        return wrapper(QueryOperatorEnum.EQ, slice(value, start, end));
+    }
+
+    private static List<String> splitList(CharSequence value, int start, int end) {
+        int count = 1;
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == ',') count++;
+        }
+        String[] items = new String[count];
+        int itemStart = start;
+        for (int i = 0; i < count; i++) {
+            int itemEnd = indexOf(value, ',', itemStart, end);
+            items[i] = slice(value, itemStart, itemEnd);
+            itemStart = itemEnd + 1;
+        }
+        while (count > 0 && items[count - 1].isEmpty()) {
+            count--;
+        }
+        return count == items.length ? List.of(items) : List.of(Arrays.copyOf(items, count));
+    }
+
+    private static QueryFieldWrapper wrapper(QueryOperatorEnum operator, Object value) {
+        return QueryFieldWrapper.builder()
+                .operator(operator)
+                .value(value)
+                .build();
+    }
+
+    private static String slice(CharSequence value, int start, int end) {
+        return value.subSequence(start, end).toString();
+    }
+
+    private static boolean needsDecoding(CharSequence query, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = query.charAt(i);
+            if (c == '%' || c == '+') return true;
+        }
+        return false;
+    }
+
+    private static String decode(CharSequence query, int start, int end) {
+        return URLDecoder.decode(query.subSequence(start, end).toString(), StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return end;
+    }
+
+    private static int indexOf(CharSequence text, String token, int start, int end) {
+        int last = end - token.length();
+        outer:
+        for (int i = start; i <= last; i++) {
+            for (int j = 0; j < token.length(); j++) {
+                if (text.charAt(i + j) != token.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,168 @@
+package org.sekailabs.jpaq.predicate;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.dialect.CockroachDialect;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.sqm.NodeBuilder;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.FieldDescriptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ClassUtils;
+
+import jakarta.persistence.Convert;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * {@code IN} predicates that keep the number of distinct statements and bind parameters bounded.
+ * <ul>
+ *     <li>values are coerced to the field type and deduplicated;</li>
+ *     <li>short lists are padded to the next power of two by repeating the last value, so lists of
+ *     similar length share one statement plan;</li>
+ *     <li>lists above {@link JpaqContext#getInListArrayThreshold()} are bound as one array parameter,
+ *     {@code x = any(?)}, on dialects that support it (PostgreSQL, CockroachDB, H2) through
+ *     {@link JpaqFunctionContributor#EQ_ANY}, converted to the stored representation first;</li>
+ *     <li>elsewhere they are split into {@code x in (...) or x in (...)} groups of at most
+ *     {@link JpaqContext#getInListChunkSize()} values.</li>
+ * </ul>
+ */
+public final class InListPredicate {
+    private InListPredicate() {}
+
+    /**
+     * Coerces {@code values} to the field type, dropping the ones that cannot be converted and
+     * duplicates.
+     */
+    public static List<Object> coerce(FieldDescriptor field, Collection<?> values) {
+        Set<Object> coerced = new LinkedHashSet<>(values.size() * 2);
+        for (Object value : values) {
+            Object converted = field.convert(value);
+            if (converted != null) coerced.add(converted);
+        }
+        return new ArrayList<>(coerced);
+    }
+
+    public static Predicate in(CriteriaBuilder cb, Path<?> path, FieldDescriptor field, List<Object> values) {
+        Object array = values.size() > JpaqContext.getInListArrayThreshold() && supportsArrays(cb) ? array(field, values) : null;
+        if (array != null) {
+            // value() always binds, a literal array would be inlined into the SQL
+            Expression<?> parameter = ((HibernateCriteriaBuilder) cb).value(array);
+            return cb.isTrue(cb.function(JpaqFunctionContributor.EQ_ANY, Boolean.class, path, parameter));
+        }
+
+        int chunkSize = JpaqContext.getInListChunkSize();
+        if (values.size() <= chunkSize) {
+            return path.in(pad(values, chunkSize));
+        }
+        List<List<Object>> chunks = chunks(values, chunkSize);
+        Predicate[] predicates = new Predicate[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            predicates[i] = path.in(pad(chunks.get(i), chunkSize));
+        }
+        return cb.or(predicates);
+    }
+
+    /**
+     * The values as an array of what the column stores, since an array parameter bypasses the
+     * attribute's mapping: enums become their names ({@code @Enumerated(STRING)}) or ordinals.
+     * {@code null} for attributes with a {@code @Convert}er, whose lists are bound value by value.
+     */
+    private static Object array(FieldDescriptor field, List<Object> values) {
+        if (field.getAnnotation(Convert.class) != null) return null;
+        Class<?> javaType = field.getJavaType();
+        if (javaType.isEnum()) {
+            boolean named = isNamed(field);
+            Object[] array = named ? new String[values.size()] : new Integer[values.size()];
+            for (int i = 0; i < values.size(); i++) {
+                Enum<?> value = (Enum<?>) values.get(i);
+                array[i] = named ? value.name() : value.ordinal();
+            }
+            return array;
+        }
+        Object array = Array.newInstance(ClassUtils.resolvePrimitiveIfNecessary(javaType), values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Array.set(array, i, values.get(i));
+        }
+        return array;
+    }
+
+    private static boolean isNamed(FieldDescriptor field) {
+        Enumerated enumerated = field.getAnnotation(Enumerated.class);
+        return enumerated != null && enumerated.value() == EnumType.STRING;
+    }
+
+    /**
+     * Whether the dialect behind {@code cb} can bind a whole list as one array parameter.
+     */
+    public static boolean supportsArrays(CriteriaBuilder cb) {
+        if (!(cb instanceof NodeBuilder nodeBuilder)) return false;
+        if (nodeBuilder.getQueryEngine().getSqmFunctionRegistry().findFunctionDescriptor(JpaqFunctionContributor.EQ_ANY) == null) {
+            return false;
+        }
+        Dialect dialect = nodeBuilder.getSessionFactory().getJdbcServices().getDialect();
+        return dialect instanceof PostgreSQLDialect || dialect instanceof CockroachDialect || dialect instanceof H2Dialect;
+    }
+
+    public static <V> List<List<V>> chunks(List<V> values, int chunkSize) {
+        List<List<V>> chunks = new ArrayList<>((values.size() + chunkSize - 1) / chunkSize);
+        for (int start = 0; start < values.size(); start += chunkSize) {
+            chunks.add(values.subList(start, Math.min(values.size(), start + chunkSize)));
+        }
+        return chunks;
+    }
+
+    public static List<Object> pad(List<Object> values, int limit) {
+        int size = values.size();
+        if (size <= 1) return values;
+        int padded = Math.min(Integer.highestOneBit(size - 1) << 1, limit);
+        if (padded <= size) return values;
+        List<Object> result = new ArrayList<>(padded);
+        result.addAll(values);
+        Object last = values.get(size - 1);
+        while (result.size() < padded) {
+            result.add(last);
+        }
+        return result;
+    }
+
+    /**
+     * In-memory order equivalent to {@code sort}, for merging results that were read in chunks.
+     * {@code @Enumerated(STRING)} fields compare by name, as the column does.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Comparator<T> comparator(EntityDescriptor descriptor, Sort sort) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            FieldDescriptor field = descriptor.getField(order.getProperty());
+            if (field == null || !field.isComparable()) {
+                throw new IllegalArgumentException("Cannot sort on " + order.getProperty());
+            }
+            boolean byName = field.getJavaType().isEnum() && isNamed(field);
+            Comparator<T> next = Comparator.comparing(
+                    entity -> {
+                        Object value = field.read(entity);
+                        return (Comparable) (byName && value != null ? ((Enum<?>) value).name() : value);
+                    },
+                    Comparator.nullsLast(Comparator.naturalOrder())
+            );
+            if (order.isDescending()) next = next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+}
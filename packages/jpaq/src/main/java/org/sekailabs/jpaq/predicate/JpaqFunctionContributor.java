@@ -0,0 +1,46 @@
+package org.sekailabs.jpaq.predicate;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * SQL functions used by jpaq predicates, registered with Hibernate through
+ * {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class JpaqFunctionContributor implements FunctionContributor {
+    /** {@code jpaq_eq_any(x, array)} renders {@code x = any(array)}. */
+    public static final String EQ_ANY = "jpaq_eq_any";
+    /** {@code jpaq_fts_match(config, x, text)} renders {@code to_tsvector(config, x) @@ plainto_tsquery(config, text)}. */
+    public static final String FTS_MATCH = "jpaq_fts_match";
+    /** {@code jpaq_fts_rank(config, x, text)} renders {@code ts_rank} of the same match. */
+    public static final String FTS_RANK = "jpaq_fts_rank";
+    /** {@code jpaq_trgm_match(x, text)} renders the {@code pg_trgm} word similarity match {@code text <% x}. */
+    public static final String TRGM_MATCH = "jpaq_trgm_match";
+    /** {@code jpaq_trgm_rank(x, text)} renders {@code word_similarity(text, x)}. */
+    public static final String TRGM_RANK = "jpaq_trgm_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        BasicType<Boolean> booleanType = contributions.getTypeConfiguration()
+                .getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = contributions.getTypeConfiguration()
+                .getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.DOUBLE);
+        register(contributions, EQ_ANY, "(?1 = any(?2))", 2, booleanType);
+        register(contributions, FTS_MATCH, "(to_tsvector(?1, ?2) @@ plainto_tsquery(?1, ?3))", 3, booleanType);
+        register(contributions, FTS_RANK, "ts_rank(to_tsvector(?1, ?2), plainto_tsquery(?1, ?3))", 3, doubleType);
+        register(contributions, TRGM_MATCH, "(?2 <% ?1)", 2, booleanType);
+        register(contributions, TRGM_RANK, "word_similarity(?2, ?1)", 2, doubleType);
+    }
+
+    private static void register(FunctionContributions contributions, String name, String pattern, int arguments, BasicType<?> type) {
+        contributions.getFunctionRegistry()
+                .patternDescriptorBuilder(name, pattern)
+                .setExactArgumentCount(arguments)
+                .setInvariantType(type)
+                .register();
+    }
+}
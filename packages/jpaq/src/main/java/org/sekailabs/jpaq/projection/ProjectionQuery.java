@@ -0,0 +1,155 @@
+package org.sekailabs.jpaq.projection;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.validation.ValidationException;
+
+/**
+ * Page of a multiselect over a handful of attributes instead of whole entities: records are built
+ * with a constructor expression, interfaces and field lists are read from tuples. No entity is
+ * instantiated, so there is no hydration, dirty checking snapshot or association proxy.
+ */
+public final class ProjectionQuery<T, D> {
+    private static final ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private final Class<T> domainType;
+    private final Class<D> resultType;
+    private final List<String> fields;
+    private final Function<Map<String, Object>, D> mapper;
+
+    private ProjectionQuery(Class<T> domainType, Class<D> resultType, List<String> fields, Function<Map<String, Object>, D> mapper) {
+        this.domainType = domainType;
+        this.resultType = resultType;
+        this.fields = fields;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Projection onto a record (by component name and order) or an interface (by getter name).
+     */
+    public static <T, D> ProjectionQuery<T, D> of(Class<T> domainType, Class<D> projection) {
+        if (projection.isRecord()) {
+            List<String> fields = new ArrayList<>();
+            for (RecordComponent component : projection.getRecordComponents()) {
+                fields.add(component.getName());
+            }
+            return new ProjectionQuery<>(domainType, projection, List.copyOf(fields), null);
+        }
+        if (projection.isInterface()) {
+            List<String> fields = PROJECTION_FACTORY.getProjectionInformation(projection).getInputProperties()
+                    .stream()
+                    .map(property -> property.getName())
+                    .toList();
+            return new ProjectionQuery<>(domainType, projection, fields,
+                    values -> PROJECTION_FACTORY.createProjection(projection, values));
+        }
+        throw new IllegalArgumentException("Projection type must be a record or an interface: " + projection.getName());
+    }
+
+    /**
+     * Projection onto an explicit list of attributes, returned as ordered maps.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> ProjectionQuery<T, Map<String, Object>> of(Class<T> domainType, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one projected field is required");
+        }
+        return new ProjectionQuery<>(domainType, (Class) Map.class, List.copyOf(fields), Function.identity());
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public Slice<D> fetch(EntityManager entityManager, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        List<D> content = mapper == null
+                ? fetchConstructed(entityManager, criteriaBuilder, spec, pageable)
+                : fetchTuples(entityManager, criteriaBuilder, spec, pageable);
+
+        boolean hasNext = pageable.isPaged() && content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private List<D> fetchConstructed(EntityManager entityManager, CriteriaBuilder criteriaBuilder, Specification<T> spec, Pageable pageable) {
+        CriteriaQuery<D> criteriaQuery = criteriaBuilder.createQuery(resultType);
+        Root<T> root = criteriaQuery.from(domainType);
+        criteriaQuery.select(criteriaBuilder.construct(resultType, selections(root)));
+        return page(entityManager.createQuery(restrict(criteriaQuery, root, criteriaBuilder, spec, pageable)), pageable).getResultList();
+    }
+
+    private List<D> fetchTuples(EntityManager entityManager, CriteriaBuilder criteriaBuilder, Specification<T> spec, Pageable pageable) {
+        CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+        Root<T> root = criteriaQuery.from(domainType);
+        criteriaQuery.multiselect(selections(root));
+        List<Tuple> tuples = page(entityManager.createQuery(restrict(criteriaQuery, root, criteriaBuilder, spec, pageable)), pageable).getResultList();
+
+        List<D> content = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(fields.get(i), tuple.get(i));
+            }
+            content.add(mapper.apply(values));
+        }
+        return content;
+    }
+
+    private Selection<?>[] selections(Root<T> root) {
+        EntityDescriptor descriptor = EntityDescriptorCache.get(root);
+        Selection<?>[] selections = new Selection<?>[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i);
+            if (!descriptor.hasField(field)) {
+                throw new ValidationException("Unknown projected field: " + field);
+            }
+            selections[i] = root.get(field).alias(field);
+        }
+        return selections;
+    }
+
+    private <R> CriteriaQuery<R> restrict(CriteriaQuery<R> criteriaQuery, Root<T> root, CriteriaBuilder criteriaBuilder, Specification<T> spec, Pageable pageable) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, criteriaQuery, criteriaBuilder);
+        if (predicate != null) {
+            criteriaQuery.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            criteriaQuery.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+        return criteriaQuery;
+    }
+
+    private static <R> TypedQuery<R> page(TypedQuery<R> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize() + 1);
+        }
+        return query;
+    }
+}
@@ -1,43 +1,131 @@
 package org.sekailabs.jpaq.repositories;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.validation.ValidationException;
+import org.hibernate.jpa.HibernateHints;
+import org.sekailabs.jpaq.aggregate.AggregateQuery;
+import org.sekailabs.jpaq.aggregate.AggregateRow;
+import org.sekailabs.jpaq.aggregate.Aggregation;
+import org.sekailabs.jpaq.async.AsyncQuery;
+import org.sekailabs.jpaq.batch.BatchQuery;
+import org.sekailabs.jpaq.bulk.BulkMutation;
+import org.sekailabs.jpaq.cache.CachedPage;
+import org.sekailabs.jpaq.cache.ResultCache;
+import org.sekailabs.jpaq.cache.ResultCacheInvalidator;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.count.PageCounter;
+import org.sekailabs.jpaq.guard.QueryGuard;
+import org.sekailabs.jpaq.keyset.KeysetQuery;
+import org.sekailabs.jpaq.expression.QueryCondition;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.expression.QueryGroup;
+import org.sekailabs.jpaq.expression.QueryNot;
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.metamodel.FetchPlan;
+import org.sekailabs.jpaq.metamodel.FieldDescriptor;
+import org.sekailabs.jpaq.metamodel.FieldPath;
+import org.sekailabs.jpaq.metrics.JpaqMetrics;
+import org.sekailabs.jpaq.models.constant.CountStrategyEnum;
+import org.sekailabs.jpaq.models.constant.FetchModeEnum;
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.CursorPaginationWrapper;
 import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
 import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
 import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.sekailabs.jpaq.nativesql.NativeQueryExecutor;
+import org.sekailabs.jpaq.plan.QueryKeys;
+import org.sekailabs.jpaq.predicate.InListPredicate;
+import org.sekailabs.jpaq.projection.ProjectionQuery;
+import org.sekailabs.jpaq.search.TextSearchRegistry;
+import org.sekailabs.jpaq.utils.RepositoryUtils;
+import org.sekailabs.jpaq.utils.TextUtils;
 import org.springframework.cglib.core.internal.Function;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.Serializable;
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @NoRepositoryBean
 public interface BaseRepository <T, ID extends Serializable> extends JpaRepository<T, ID>, JpaSpecificationExecutor<T> {
+    /**
+     * Filter specification of the query wrapper: its search map and filter expression, plus the
+     * fetch joins of its {@link FetchPlan} (which only apply to queries selecting the entity).
+     */
     default Specification<T> queryAnySpecification(QueryWrapper queryWrapper) {
-        return queryAnySpecification(queryWrapper.search());
+        return queryWrapper.fetchPlan().apply(queryAnySpecification(queryWrapper.search(), queryWrapper.where()));
     }
+
     default Specification<T> queryAnySpecification(Map<String, QueryFieldWrapper> queryWrapper) {
+        return queryAnySpecification(queryWrapper, null);
+    }
+
+    /**
+     * Builds the filter specification after enforcing the entity's query policy, if it has one
+     * (see {@link QueryGuard}); policy violations throw a {@code ValidationException} right here.
+     * The search map entries and the expression are ANDed into a single predicate.
+     */
+    default Specification<T> queryAnySpecification(Map<String, QueryFieldWrapper> queryWrapper, QueryExpression where) {
+        Map<String, QueryFieldWrapper> filters = QueryGuard.filters(domainType(), queryWrapper);
+        QueryExpression expression = QueryGuard.expression(domainType(), where);
         return (root, query, criteriaBuilder) -> {
-            if (queryWrapper == null || queryWrapper.isEmpty()) {
+            boolean hasFilters = filters != null && !filters.isEmpty();
+            if (!hasFilters && expression == null) {
                 return criteriaBuilder.conjunction();
             }
 
-            Predicate[] defaultPredicates = createDefaultPredicate(criteriaBuilder, root, queryWrapper);
-            return criteriaBuilder.and(defaultPredicates);
+            JpaqMetrics metrics = JpaqContext.getMetrics();
+            long start = metrics.isEnabled() ? System.nanoTime() : 0;
+            Predicate predicate;
+            if (expression == null) {
+                predicate = criteriaBuilder.and(createDefaultPredicate(criteriaBuilder, root, query, filters));
+            } else if (!hasFilters) {
+                predicate = createExpressionPredicate(criteriaBuilder, root, query, expression);
+            } else {
+                predicate = criteriaBuilder.and(
+                        criteriaBuilder.and(createDefaultPredicate(criteriaBuilder, root, query, filters)),
+                        createExpressionPredicate(criteriaBuilder, root, query, expression)
+                );
+            }
+            if (hasFilters) {
+                orderByRelevance(criteriaBuilder, root, query, filters);
+            }
+            if (metrics.isEnabled()) {
+                metrics.recordPredicateBuild(root.getJavaType(), QueryKeys.shape(filters, expression), System.nanoTime() - start);
+            }
+            return predicate;
         };
     }
     default Predicate[] createDefaultPredicate(
@@ -45,101 +133,266 @@ public interface BaseRepository <T, ID extends Serializable> extends JpaReposito
             Root<?> root,
             Map<String, QueryFieldWrapper> queryWrapper
     ) {
+        return createDefaultPredicate(criteriaBuilder, root, null, queryWrapper);
+    }
+
+    /**
+     * Keys may name nested fields ({@code customer.region} or {@code customerRegion}); their
+     * associations are joined once and shared by all predicates. When a key goes through a
+     * collection and {@code query} is given, the query is made distinct.
+     */
+    default Predicate[] createDefaultPredicate(
+            CriteriaBuilder criteriaBuilder,
+            Root<?> root,
+            CriteriaQuery<?> query,
+            Map<String, QueryFieldWrapper> queryWrapper
+    ) {
+        EntityDescriptor descriptor = EntityDescriptorCache.get(root);
         return queryWrapper.entrySet().stream().map(entry -> {
-            String field = entry.getKey();
+            Predicate predicate = buildFieldPredicate(criteriaBuilder, root, query, descriptor, entry.getKey(), entry.getValue(), false);
+            return predicate != null ? predicate : criteriaBuilder.conjunction();
+        }).toArray(Predicate[]::new);
+    }
+
+    /**
+     * Orders entity queries by the summed relevance of their {@code SEARCH} filters, best first and
+     * then by id. A sorted pageable replaces this order, and so does a distinct query, which cannot
+     * order by an expression it does not select.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void orderByRelevance(CriteriaBuilder cb, Root<?> root, CriteriaQuery<?> query, Map<String, QueryFieldWrapper> filters) {
+        if (query == null || query.isDistinct() || query.getResultType() != root.getJavaType() || !query.getOrderList().isEmpty()) {
+            return;
+        }
+        EntityDescriptor descriptor = EntityDescriptorCache.get(root);
+        Expression relevance = null;
+        for (Map.Entry<String, QueryFieldWrapper> entry : filters.entrySet()) {
             QueryFieldWrapper wrapper = entry.getValue();
-            Object value = wrapper.getValue();
-
-            return switch (wrapper.getOperator()) {
-                case EQ -> buildComparisonPredicate(criteriaBuilder, root, field, value, ComparisonOperator.EQ);
-                case NE -> criteriaBuilder.notEqual(root.get(field), value);
-                case LIKE -> criteriaBuilder.like(root.get(field), "%" + value.toString() + "%");
-
-                case GT -> buildComparisonPredicate(criteriaBuilder, root, field, value, ComparisonOperator.GT);
-                case GTE -> buildComparisonPredicate(criteriaBuilder, root, field, value, ComparisonOperator.GTE);
-                case LT -> buildComparisonPredicate(criteriaBuilder, root, field, value, ComparisonOperator.LT);
-                case LTE -> buildComparisonPredicate(criteriaBuilder, root, field, value, ComparisonOperator.LTE);
-
-                case IN -> {
-                    if (value instanceof Collection<?> collection) {
-                        if ("id".equals(field)) {
-                            yield root.get(field).in(collection.stream().map(val -> Long.parseLong(val.toString())).toList());
-                        } else {
-                            yield root.get(field).in(collection.stream().map(Object::toString).toList());
-                        }
-                    }
-                    yield criteriaBuilder.conjunction();
-                }
+            if (wrapper.getOperator() != QueryOperatorEnum.SEARCH || wrapper.getValue() == null || wrapper.getValue().toString().isBlank()) {
+                continue;
+            }
+            FieldPath fieldPath = descriptor.resolve(entry.getKey());
+            if (fieldPath == null || fieldPath.getField().getJavaType() != String.class) continue;
+            Expression<? extends Number> rank = TextSearchRegistry.get(fieldPath.getDeclaringType(root.getJavaType()), fieldPath.getField().getName())
+                    .rank(cb, asString(fieldPath.toPath(root)), wrapper.getValue().toString());
+            if (rank != null) {
+                relevance = relevance == null ? rank : cb.sum(relevance, rank);
+            }
+        }
+        if (relevance == null) return;
+        List<Order> orders = new ArrayList<>(2);
+        orders.add(cb.desc(relevance));
+        if (descriptor.getIdField() != null) {
+            orders.add(cb.asc(root.get(descriptor.getIdField())));
+        }
+        query.orderBy(orders);
+    }
+
+    /**
+     * Compiles a filter expression into one predicate. Conditions that are dropped (unknown field,
+     * value that does not convert) are left out of their group rather than replaced by {@code true},
+     * so they neither widen an OR nor invert under a NOT.
+     * <p>
+     * A NOT over conditions on associations becomes {@code not exists} on the same entity by id,
+     * since negating the joined rows would match an item with any tag other than {@code a} rather
+     * than one without tag {@code a}, and nothing where the left join found no row.
+     */
+    default Predicate createExpressionPredicate(
+            CriteriaBuilder criteriaBuilder,
+            Root<?> root,
+            CriteriaQuery<?> query,
+            QueryExpression expression
+    ) {
+        Predicate predicate = buildExpressionPredicate(criteriaBuilder, root, query, EntityDescriptorCache.get(root), expression, false);
+        return predicate != null ? predicate : criteriaBuilder.conjunction();
+    }
 
-                case BETWEEN -> {
-                    if (value instanceof List<?> range && range.size() == 2) {
-                        if ("id".equals(field)) {
-                            yield criteriaBuilder.between(
-                                    root.get(field).as(Long.class),
-                                    Long.parseLong(range.get(0).toString()),
-                                    Long.parseLong(range.get(1).toString())
-                            );
-                        } else {
-                            yield criteriaBuilder.between(
-                                    root.get(field),
-                                    range.get(0).toString(),
-                                    range.get(1).toString()
-                            );
-                        }
-                    }
-                    yield criteriaBuilder.conjunction();
+    private Predicate buildExpressionPredicate(
+            CriteriaBuilder cb,
+            Root<?> root,
+            AbstractQuery<?> query,
+            EntityDescriptor descriptor,
+            QueryExpression expression,
+            boolean strict
+    ) {
+        return switch (expression) {
+            case QueryCondition condition -> buildFieldPredicate(cb, root, query, descriptor, condition.getField(), condition.getWrapper(), strict);
+            case QueryNot not when query != null && descriptor.getIdField() != null && joinsAssociation(descriptor, not.getExpression()) -> {
+                Subquery<Integer> matching = query.subquery(Integer.class);
+                Root<?> correlated = matching.from(root.getJavaType());
+                Predicate negated = buildExpressionPredicate(cb, correlated, matching, descriptor, not.getExpression(), strict);
+                if (negated == null) yield null;
+                matching.select(cb.literal(1))
+                        .where(cb.equal(correlated.get(descriptor.getIdField()), root.get(descriptor.getIdField())), negated);
+                yield cb.not(cb.exists(matching));
+            }
+            case QueryNot not -> {
+                Predicate negated = buildExpressionPredicate(cb, root, query, descriptor, not.getExpression(), strict);
+                yield negated == null ? null : cb.not(negated);
+            }
+            case QueryGroup group -> {
+                List<Predicate> predicates = new ArrayList<>(group.getChildren().size());
+                for (QueryExpression child : group.getChildren()) {
+                    Predicate predicate = buildExpressionPredicate(cb, root, query, descriptor, child, strict);
+                    if (predicate != null) predicates.add(predicate);
                 }
+                if (predicates.isEmpty()) yield null;
+                if (predicates.size() == 1) yield predicates.get(0);
+                Predicate[] array = predicates.toArray(Predicate[]::new);
+                yield group.getOperator() == QueryLogicalOperatorEnum.AND ? cb.and(array) : cb.or(array);
+            }
+        };
+    }
 
-                default -> criteriaBuilder.conjunction();
-            };
-        }).toArray(Predicate[]::new);
+    private static boolean joinsAssociation(EntityDescriptor descriptor, QueryExpression expression) {
+        return switch (expression) {
+            case QueryCondition condition -> {
+                if (descriptor.getField(condition.getField()) != null) yield false;
+                FieldPath fieldPath = descriptor.resolve(condition.getField());
+                yield fieldPath != null && fieldPath.getAssociations().stream().anyMatch(association -> !association.isEmbedded());
+            }
+            case QueryNot not -> joinsAssociation(descriptor, not.getExpression());
+            case QueryGroup group -> group.getChildren().stream().anyMatch(child -> joinsAssociation(descriptor, child));
+        };
     }
 
-    private Predicate buildComparisonPredicate(
-            CriteriaBuilder cb,
+    /**
+     * Predicate of one field condition, or {@code null} when the condition is dropped; in
+     * {@code strict} mode a dropped condition throws instead.
+     */
+    private Predicate buildFieldPredicate(
+            CriteriaBuilder criteriaBuilder,
             Root<?> root,
+            AbstractQuery<?> query,
+            EntityDescriptor descriptor,
             String field,
-            Object value,
-            ComparisonOperator op
+            QueryFieldWrapper wrapper,
+            boolean strict
     ) {
-        Path<?> path = root.get(field);
-        Class<?> fieldType = path.getJavaType();
-
-        try {
-            if (fieldType.equals(Boolean.class)) {
-                return op.build(cb, root.get(field), Boolean.parseBoolean(value.toString()));
-            } else if (fieldType.equals(Integer.class)) {
-                return op.build(cb, root.get(field), Integer.parseInt(value.toString()));
-            } else if (fieldType.equals(Long.class)) {
-                return op.build(cb, root.get(field), Long.parseLong(value.toString()));
-            } else if (fieldType.equals(Float.class)) {
-                return op.build(cb, root.get(field), Float.parseFloat(value.toString()));
-            } else if (fieldType.equals(Double.class)) {
-                return op.build(cb, root.get(field), Double.parseDouble(value.toString()));
-            } else if (fieldType.equals(BigDecimal.class)) {
-                return op.build(cb, root.get(field), new BigDecimal(value.toString()));
-            } else if (fieldType.equals(LocalDate.class)) {
-                return op.build(cb, root.get(field), LocalDate.parse(value.toString(), DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-            } else if (fieldType.equals(LocalDateTime.class)) {
-                String dateStr = value.toString();
-                DateTimeFormatter formatter;
-                if (dateStr.contains(".")) {
-                    int len = dateStr.substring(dateStr.indexOf('.') + 1).length();
-                    formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss" + (len == 3 ? ".SSS" : len == 6 ? ".SSSSSS" : ""));
-                } else {
-                    formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        Class<?> domainType = descriptor.getJavaType();
+        Class<?> declaringType = domainType;
+        Object value = wrapper.getValue();
+        FieldDescriptor fieldDescriptor = descriptor.getField(field);
+        Path<?> path;
+        if (fieldDescriptor != null) {
+            path = root.get(field);
+        } else {
+            FieldPath fieldPath = descriptor.resolve(field);
+            if (fieldPath == null) {
+                return dropped(domainType, field, "unknown_field", strict);
+            }
+            // an exists subquery needs no distinct
+            if (fieldPath.isPlural() && query instanceof CriteriaQuery<?> criteriaQuery) {
+                criteriaQuery.distinct(true);
+            }
+            fieldDescriptor = fieldPath.getField();
+            declaringType = fieldPath.getDeclaringType(domainType);
+            path = fieldPath.toPath(root);
+        }
+        if (value == null) {
+            return strict ? dropped(domainType, field, "no_value", true) : null;
+        }
+
+        return switch (wrapper.getOperator()) {
+            case EQ -> buildComparisonPredicate(criteriaBuilder, domainType, path, fieldDescriptor, value, ComparisonOperator.EQ, strict);
+            case NE -> {
+                Object converted = fieldDescriptor.convert(value);
+                if (converted == null) {
+                    yield dropped(domainType, field, "coercion", strict);
                 }
-                return op.build(cb, root.get(field), LocalDateTime.parse(dateStr, formatter));
-            } else if (fieldType.equals(Instant.class)) {
-                return op.build(cb, root.get(field), Instant.parse(value.toString()));
-            } else {
-                return op.build(cb, root.get(field), value.toString());
+                yield criteriaBuilder.notEqual(path, converted);
+            }
+            case LIKE -> criteriaBuilder.like(asString(path), "%" + value.toString() + "%");
+            case STARTS_WITH -> criteriaBuilder.like(asString(path), TextUtils.escapeLike(value.toString(), '\\') + "%", '\\');
+
+            case GT -> buildComparisonPredicate(criteriaBuilder, domainType, path, fieldDescriptor, value, ComparisonOperator.GT, strict);
+            case GTE -> buildComparisonPredicate(criteriaBuilder, domainType, path, fieldDescriptor, value, ComparisonOperator.GTE, strict);
+            case LT -> buildComparisonPredicate(criteriaBuilder, domainType, path, fieldDescriptor, value, ComparisonOperator.LT, strict);
+            case LTE -> buildComparisonPredicate(criteriaBuilder, domainType, path, fieldDescriptor, value, ComparisonOperator.LTE, strict);
+
+            case IN, NOT_IN -> {
+                Collection<?> collection = value instanceof Collection<?> values ? values : List.of(value);
+                List<Object> coerced = InListPredicate.coerce(fieldDescriptor, collection);
+                if (coerced.isEmpty()) {
+                    yield dropped(domainType, field, "coercion", strict);
+                }
+                for (Object item : strict ? collection : List.of()) {
+                    if (fieldDescriptor.convert(item) == null) yield dropped(domainType, field, "coercion", true);
+                }
+                Predicate in = InListPredicate.in(criteriaBuilder, path, fieldDescriptor, coerced);
+                yield wrapper.getOperator() == QueryOperatorEnum.IN ? in : criteriaBuilder.not(in);
+            }
+
+            case SEARCH -> {
+                String text = value.toString();
+                if (text.isBlank()) yield strict ? dropped(domainType, field, "no_value", true) : null;
+                if (fieldDescriptor.getJavaType() != String.class) {
+                    yield dropped(domainType, field, "not_text", strict);
+                }
+                yield TextSearchRegistry.get(declaringType, fieldDescriptor.getName()).predicate(criteriaBuilder, asString(path), text);
             }
-        } catch (Exception e) {
-            return cb.conjunction();
+
+            case BETWEEN -> {
+                if (value instanceof List<?> range && range.size() == 2) {
+                    yield buildBetweenPredicate(criteriaBuilder, domainType, path, fieldDescriptor, range.get(0), range.get(1), strict);
+                }
+                yield strict ? dropped(domainType, field, "coercion", true) : null;
+            }
+
+            default -> strict ? dropped(domainType, field, "operator", true) : null;
+        };
+    }
+
+    /**
+     * Records a dropped condition and returns {@code null}, or throws when {@code strict}: a filter
+     * that decides which rows are changed must not silently match more of them.
+     */
+    private static Predicate dropped(Class<?> domainType, String field, String reason, boolean strict) {
+        JpaqContext.getMetrics().recordDroppedFilter(domainType, field, reason);
+        if (strict) {
+            throw new ValidationException("Invalid filter on " + field + " (" + reason.replace('_', ' ') + ")");
         }
+        return null;
     }
 
+    @SuppressWarnings("unchecked")
+    private static Path<String> asString(Path<?> path) {
+        return (Path<String>) path;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate buildComparisonPredicate(
+            CriteriaBuilder cb,
+            Class<?> domainType,
+            Path<?> path,
+            FieldDescriptor field,
+            Object value,
+            ComparisonOperator op,
+            boolean strict
+    ) {
+        if (op != ComparisonOperator.EQ && !field.isComparable()) {
+            return dropped(domainType, field.getName(), "not_comparable", strict);
+        }
+        Object converted = field.convert(value);
+        if (converted == null) {
+            return dropped(domainType, field.getName(), "coercion", strict);
+        }
+        return op.build(cb, (Path) path, (Comparable) converted);
+    }
+
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate buildBetweenPredicate(CriteriaBuilder cb, Class<?> domainType, Path<?> path, FieldDescriptor field, Object lower, Object upper, boolean strict) {
+        if (!field.isComparable()) {
+            return dropped(domainType, field.getName(), "not_comparable", strict);
+        }
+        Object from = field.convert(lower);
+        Object to = field.convert(upper);
+        if (from == null || to == null) {
+            return dropped(domainType, field.getName(), "coercion", strict);
+        }
+        return cb.between((Path) path, (Comparable) from, (Comparable) to);
+    }
 
     enum ComparisonOperator {
         EQ {
@@ -175,12 +428,456 @@ public interface BaseRepository <T, ID extends Serializable> extends JpaReposito
     }
     default Page<T> queryAny(QueryWrapper queryWrapper, Pageable pageable) {
         Specification<T> spec = queryAnySpecification(queryWrapper);
-        return findAll(spec, pageable);
+        FetchPlan fetchPlan = queryWrapper.fetchPlan();
+        if (fetchPlan.getMode() == FetchModeEnum.GRAPH && !fetchPlan.isEmpty()) {
+            Pageable guarded = guardedPageable(pageable);
+            return findBy(spec, query -> fetchPlan.apply(query).page(guarded));
+        }
+        return findAll(spec, guardedPageable(pageable));
     }
 
     default Page<T> queryAny(Map<String, QueryFieldWrapper> queryWrapper, Pageable pageable) {
         Specification<T> spec = queryAnySpecification(queryWrapper);
-        return findAll(spec, pageable);
+        return findAll(spec, guardedPageable(pageable));
+    }
+
+    /**
+     * Keyset (seek) pagination: reads the page after or before {@code cursor} using the sort of the
+     * query wrapper's pageable, ignoring its page number. No count query is issued. A {@code null}
+     * cursor reads the first page.
+     */
+    default CursorPaginationWrapper<List<T>> queryAnyKeyset(QueryWrapper queryWrapper, String cursor) {
+        KeysetQuery<T> keysetQuery = KeysetQuery.of(guardedPageable(queryWrapper.pagination()), cursor);
+        Specification<T> spec = keysetQuery.apply(queryAnySpecification(queryWrapper));
+        FetchPlan fetchPlan = queryWrapper.fetchPlan();
+        List<T> rows = findBy(spec, query -> fetchPlan.apply(query).limit(keysetQuery.getLimit()).all());
+        return keysetQuery.toWrapper(rows);
+    }
+
+    default PaginationWrapper<List<T>> queryAny(QueryWrapper queryWrapper, CountStrategyEnum countStrategy) {
+        return pageAny(queryWrapper.search(), queryWrapper.where(), queryAnySpecification(queryWrapper), queryWrapper.pagination(), countStrategy, queryWrapper.fetchPlan());
+    }
+
+    /**
+     * Reads one page and attaches totals according to {@code countStrategy}: an exact count that
+     * overlaps the page fetch, no count at all (slice semantics, totals {@code -1}), a planner
+     * estimate, or an exact count cached per normalized query.
+     */
+    default PaginationWrapper<List<T>> queryAny(Map<String, QueryFieldWrapper> queryWrapper, Pageable pageable, CountStrategyEnum countStrategy) {
+        return pageAny(queryWrapper, null, queryAnySpecification(queryWrapper), pageable, countStrategy, FetchPlan.NONE);
+    }
+
+    private PaginationWrapper<List<T>> pageAny(
+            Map<String, QueryFieldWrapper> search,
+            QueryExpression where,
+            Specification<T> spec,
+            Pageable pageable,
+            CountStrategyEnum countStrategy,
+            FetchPlan fetchPlan
+    ) {
+        if (JpaqContext.isNativeFastPath() && where == null && fetchPlan.isEmpty()) {
+            PaginationWrapper<List<T>> page = NativeQueryExecutor.page(domainType(), QueryGuard.filters(domainType(), search), guardedPageable(pageable), countStrategy);
+            if (page != null) return page;
+        }
+        return PageCounter.page(
+                countStrategy,
+                domainType(),
+                search,
+                where,
+                guardedPageable(pageable),
+                page -> findBy(spec, query -> fetchPlan.apply(query).slice(page)),
+                () -> count(spec)
+        );
+    }
+
+    default CompletableFuture<PaginationWrapper<List<T>>> queryAnyAsync(QueryWrapper queryWrapper) {
+        return queryAnyAsync(queryWrapper, CountStrategyEnum.EXACT, null);
+    }
+
+    /**
+     * {@link #queryAny(QueryWrapper, CountStrategyEnum)} on a virtual thread in its own read-only
+     * transaction (see {@link AsyncQuery}). Cancelling the future or exceeding {@code timeout}
+     * ({@code null} for none) cancels the running statement.
+     */
+    default CompletableFuture<PaginationWrapper<List<T>>> queryAnyAsync(QueryWrapper queryWrapper, CountStrategyEnum countStrategy, Duration timeout) {
+        return AsyncQuery.submit(() -> queryAny(queryWrapper, countStrategy), timeout);
+    }
+
+    default <D> CompletableFuture<PaginationWrapper<List<D>>> queryAnyProjectionAsync(
+            QueryWrapper queryWrapper,
+            Class<D> projection,
+            CountStrategyEnum countStrategy,
+            Duration timeout
+    ) {
+        return AsyncQuery.submit(() -> queryAnyProjection(queryWrapper, projection, countStrategy), timeout);
+    }
+
+    default PaginationWrapper<List<T>> queryAnyCached(QueryWrapper queryWrapper) {
+        return queryAnyCached(queryWrapper, CountStrategyEnum.EXACT);
+    }
+
+    /**
+     * {@link #queryAny(QueryWrapper, CountStrategyEnum)} through the {@link ResultCache} configured in
+     * {@link JpaqContext}, keyed by the canonical search, pagination and count strategy. Runs uncached
+     * when no result cache is configured or the entity has no single id.
+     * <p>
+     * The cache keeps the ids of the page and its totals ({@link CachedPage}); a hit reads the rows
+     * again by id with the fetch plan, in the cached order, so entities are never shared between
+     * persistence contexts. A row that was deleted meanwhile makes the hit run the query afresh.
+     */
+    default PaginationWrapper<List<T>> queryAnyCached(QueryWrapper queryWrapper, CountStrategyEnum countStrategy) {
+        ResultCache resultCache = JpaqContext.getResultCache();
+        String idField = resultCache == null ? null
+                : EntityDescriptorCache.get(JpaqContext.getEntityManager().getMetamodel(), domainType()).getIdField();
+        if (idField == null) {
+            return queryAny(queryWrapper, countStrategy);
+        }
+        String key = QueryKeys.canonical(queryWrapper.search(), queryWrapper.where(), queryWrapper.pagination()) + '|' + countStrategy
+                + '|' + queryWrapper.fetchPlan().getMode() + queryWrapper.fetchPlan().getPaths();
+        PersistenceUnitUtil util = JpaqContext.getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil();
+        List<PaginationWrapper<List<T>>> loaded = new ArrayList<>(1);
+        CachedPage cached = resultCache.get(domainType(), key, () -> {
+            PaginationWrapper<List<T>> page = queryAny(queryWrapper, countStrategy);
+            loaded.add(page);
+            return CachedPage.of(page, util::getIdentifier);
+        });
+        if (!loaded.isEmpty()) {
+            return loaded.get(0);
+        }
+        if (cached.ids().isEmpty()) {
+            return cached.toWrapper(new ArrayList<>());
+        }
+
+        FetchPlan fetchPlan = queryWrapper.fetchPlan();
+        Specification<T> byId = (root, query, criteriaBuilder) -> root.get(idField).in(cached.ids());
+        List<T> found = findBy(fetchPlan.apply(byId), query -> fetchPlan.apply(query).all());
+        Map<Object, T> byIdentifier = new HashMap<>(found.size() * 2);
+        for (T row : found) {
+            byIdentifier.put(util.getIdentifier(row), row);
+        }
+        List<T> rows = new ArrayList<>(cached.ids().size());
+        for (Serializable id : cached.ids()) {
+            T row = byIdentifier.get(id);
+            if (row == null) {
+                return queryAny(queryWrapper, countStrategy);
+            }
+            rows.add(row);
+        }
+        return cached.toWrapper(rows);
+    }
+
+    /**
+     * Drops the cached results and counts of this entity, e.g. after changes made outside JPA.
+     */
+    default void evictQueryCache() {
+        ResultCacheInvalidator.evict(domainType());
+    }
+
+    default Stream<T> streamAny(QueryWrapper queryWrapper) {
+        return streamAny(queryWrapper, JpaqContext.getStreamFetchSize());
+    }
+
+    /**
+     * Streams every row matching the query wrapper's filters in its sort order (page number and size
+     * are ignored) through a server side cursor. Rows are read-only and detached as they are handed
+     * out, so the persistence context does not grow with the result.
+     * <p>
+     * Must run inside a transaction, and the stream must be closed, e.g. with try-with-resources.
+     */
+    default Stream<T> streamAny(QueryWrapper queryWrapper, int fetchSize) {
+        EntityManager entityManager = JpaqContext.getEntityManager();
+        Class<T> domainType = domainType();
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = criteriaBuilder.createQuery(domainType);
+        Root<T> root = criteriaQuery.from(domainType);
+        Predicate predicate = queryAnySpecification(queryWrapper).toPredicate(root, criteriaQuery, criteriaBuilder);
+        if (predicate != null) {
+            criteriaQuery.where(predicate);
+        }
+        Pageable pageable = queryWrapper.pagination();
+        Sort sort = pageable == null ? Sort.unsorted() : QueryGuard.sort(domainType, resolveSort(pageable.getSort()));
+        if (sort.isSorted()) {
+            criteriaQuery.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return entityManager.createQuery(criteriaQuery)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    /**
+     * Hands the rows of {@link #streamAny(QueryWrapper)} to {@code consumer} in lists of at most
+     * {@code batchSize}; only one batch is held in memory at a time.
+     */
+    default void streamAny(QueryWrapper queryWrapper, int batchSize, Consumer<List<T>> consumer) {
+        try (Stream<T> rows = streamAny(queryWrapper, Math.max(batchSize, JpaqContext.getStreamFetchSize()))) {
+            List<T> batch = new ArrayList<>(batchSize);
+            rows.forEachOrdered(row -> {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    consumer.accept(List.copyOf(batch));
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                consumer.accept(List.copyOf(batch));
+            }
+        }
+    }
+
+    /**
+     * Reads every row whose {@code field} is one of {@code values} and that matches the query
+     * wrapper's filters, in its sort order; page number and size are ignored. Meant for bulk lookups
+     * by thousands of keys: the list is bound as one array parameter where the dialect allows it,
+     * otherwise it is read in chunks of {@link JpaqContext#getInListChunkSize()} and merged.
+     * The lookup is checked by the entity's {@link QueryGuard} policy like an {@code IN} filter.
+     */
+    default List<T> queryAnyIn(QueryWrapper queryWrapper, String field, Collection<?> values) {
+        Class<T> domainType = domainType();
+        QueryGuard.in(domainType, field, values);
+        EntityManager entityManager = JpaqContext.getEntityManager();
+        EntityDescriptor descriptor = EntityDescriptorCache.get(entityManager.getMetamodel(), domainType);
+        FieldDescriptor fieldDescriptor = descriptor.getField(field);
+        if (fieldDescriptor == null) {
+            throw new IllegalArgumentException("Unknown field " + field + " on " + domainType.getSimpleName());
+        }
+        List<Object> keys = InListPredicate.coerce(fieldDescriptor, values);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        Specification<T> filters = queryAnySpecification(queryWrapper);
+        Pageable pageable = queryWrapper.pagination();
+        Sort sort = pageable == null ? Sort.unsorted() : QueryGuard.sort(domainType, resolveSort(pageable.getSort()));
+        List<List<Object>> chunks = InListPredicate.supportsArrays(entityManager.getCriteriaBuilder())
+                ? List.of(keys)
+                : InListPredicate.chunks(keys, JpaqContext.getInListChunkSize());
+
+        List<T> rows = new ArrayList<>();
+        for (List<Object> chunk : chunks) {
+            Specification<T> in = (root, query, criteriaBuilder) -> InListPredicate.in(criteriaBuilder, root.get(field), fieldDescriptor, chunk);
+            rows.addAll(findAll(filters.and(in), sort));
+        }
+        if (chunks.size() > 1 && sort.isSorted()) {
+            rows.sort(InListPredicate.comparator(descriptor, sort));
+        }
+        return rows;
+    }
+
+    /**
+     * Runs several named queries against this entity in one go: one merged count statement plus
+     * parallel page fetches, all bounded by {@code deadline}. Results keep the order of {@code queries}.
+     */
+    default Map<String, PaginationWrapper<List<T>>> queryAnyBatch(Map<String, QueryWrapper> queries, Duration deadline) {
+        BatchQuery<T> batch = new BatchQuery<>(domainType());
+        queries.forEach((name, queryWrapper) -> batch.add(
+                name,
+                queryAnySpecification(queryWrapper),
+                guardedPageable(queryWrapper.pagination())
+        ));
+        return batch.execute(
+                JpaqContext.getEntityManager(),
+                (spec, pageable) -> findBy(spec, query -> query.slice(pageable)),
+                deadline
+        );
+    }
+
+    default <D> PaginationWrapper<List<D>> queryAnyProjection(QueryWrapper queryWrapper, Class<D> projection) {
+        return queryAnyProjection(queryWrapper, projection, CountStrategyEnum.EXACT);
+    }
+
+    /**
+     * Reads one page of a record or interface projection with the jpaq filters and sort, selecting
+     * only the projected attributes instead of hydrating entities.
+     */
+    default <D> PaginationWrapper<List<D>> queryAnyProjection(QueryWrapper queryWrapper, Class<D> projection, CountStrategyEnum countStrategy) {
+        return projectAny(queryWrapper, ProjectionQuery.of(domainType(), projection), countStrategy);
+    }
+
+    default PaginationWrapper<List<Map<String, Object>>> queryAnyProjection(QueryWrapper queryWrapper, List<String> fields) {
+        return queryAnyProjection(queryWrapper, fields, CountStrategyEnum.EXACT);
+    }
+
+    default PaginationWrapper<List<Map<String, Object>>> queryAnyProjection(QueryWrapper queryWrapper, List<String> fields, CountStrategyEnum countStrategy) {
+        return projectAny(queryWrapper, ProjectionQuery.of(domainType(), fields), countStrategy);
+    }
+
+    private <D> PaginationWrapper<List<D>> projectAny(QueryWrapper queryWrapper, ProjectionQuery<T, D> projection, CountStrategyEnum countStrategy) {
+        Specification<T> spec = queryAnySpecification(queryWrapper);
+        EntityManager entityManager = JpaqContext.getEntityManager();
+        return PageCounter.page(
+                countStrategy,
+                domainType(),
+                queryWrapper.search(),
+                queryWrapper.where(),
+                guardedPageable(queryWrapper.pagination()),
+                page -> projection.fetch(entityManager, spec, page),
+                () -> count(spec)
+        );
+    }
+
+    default PaginationWrapper<List<AggregateRow>> aggregateAny(QueryWrapper queryWrapper) {
+        return aggregateAny(queryWrapper, queryWrapper.aggregation());
+    }
+
+    /**
+     * Groups the rows matching the query wrapper's filters and computes the measures in the
+     * database (see {@link AggregateQuery}), returning one compact row per group. The page applies
+     * to the groups and its sort may name group fields and measures; totals are not counted.
+     */
+    default PaginationWrapper<List<AggregateRow>> aggregateAny(QueryWrapper queryWrapper, Aggregation aggregation) {
+        if (aggregation == null) {
+            throw new ValidationException("The query has no group-by fields or measures");
+        }
+        AggregateQuery<T> aggregateQuery = AggregateQuery.of(domainType(), QueryGuard.aggregation(domainType(), aggregation));
+        Specification<T> spec = queryAnySpecification(queryWrapper.search(), queryWrapper.where());
+        EntityManager entityManager = JpaqContext.getEntityManager();
+        return PageCounter.page(
+                CountStrategyEnum.SKIP,
+                domainType(),
+                queryWrapper.search(),
+                queryWrapper.where(),
+                aggregatePageable(queryWrapper.pagination()),
+                page -> aggregateQuery.fetch(entityManager, spec, page),
+                () -> -1L
+        );
+    }
+
+    /**
+     * Applies the page size limits of the query policy; the sort names aggregate columns rather
+     * than fields, so {@link AggregateQuery} checks it.
+     */
+    private Pageable aggregatePageable(Pageable pageable) {
+        if (pageable == null) {
+            return QueryGuard.pageable(domainType(), Pageable.unpaged());
+        }
+        Pageable guarded = QueryGuard.pageable(domainType(), pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged());
+        return guarded.isPaged()
+                ? PageRequest.of(guarded.getPageNumber(), guarded.getPageSize(), pageable.getSort())
+                : Pageable.unpaged(pageable.getSort());
+    }
+
+    default long updateAny(QueryWrapper queryWrapper, Map<String, ?> values) {
+        return updateAny(queryWrapper, values, 0);
+    }
+
+    /**
+     * Sets {@code values} (basic attributes by name) on every row matching the query wrapper's
+     * filters with set based updates (see {@link BulkMutation}), in primary key ranges of at most
+     * {@code chunkSize} rows when it is positive, and returns the number of updated rows. Pagination
+     * is ignored. Entity listeners do not run; the cached results of the entity are evicted.
+     * <p>
+     * Unlike queries, the filters fail closed: an unknown field or a value that does not convert
+     * throws a {@code ValidationException} instead of being dropped, and so do filters that are
+     * empty altogether. Use {@link #updateAll(Map, int)} to change every row.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    default long updateAny(QueryWrapper queryWrapper, Map<String, ?> values, int chunkSize) {
+        return mutateAny(mutationSpecification(queryWrapper), BulkMutation.update(domainType(), values), chunkSize);
+    }
+
+    /**
+     * Sets {@code values} on every row of the entity, like {@link #updateAny(QueryWrapper, Map, int)}
+     * without a filter.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    default long updateAll(Map<String, ?> values, int chunkSize) {
+        return mutateAny(null, BulkMutation.update(domainType(), values), chunkSize);
+    }
+
+    default long deleteAny(QueryWrapper queryWrapper) {
+        return deleteAny(queryWrapper, 0);
+    }
+
+    /**
+     * Deletes every row matching the query wrapper's filters like {@link #updateAny(QueryWrapper, Map, int)},
+     * and returns the number of deleted rows. Cascades and orphan removal do not apply.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    default long deleteAny(QueryWrapper queryWrapper, int chunkSize) {
+        return mutateAny(mutationSpecification(queryWrapper), BulkMutation.delete(domainType()), chunkSize);
+    }
+
+    /**
+     * Deletes every row of the entity with set based deletes, like {@link #deleteAny(QueryWrapper, int)}
+     * without a filter; unlike {@link #deleteAll()} no entity is loaded.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    default long deleteAll(int chunkSize) {
+        return mutateAny(null, BulkMutation.delete(domainType()), chunkSize);
+    }
+
+    /**
+     * The query wrapper's filters for a bulk update or delete: guarded like a query, but every
+     * condition must compile and at least one must be given.
+     */
+    private Specification<T> mutationSpecification(QueryWrapper queryWrapper) {
+        Map<String, QueryFieldWrapper> filters = QueryGuard.filters(domainType(), queryWrapper.search());
+        QueryExpression expression = QueryGuard.expression(domainType(), queryWrapper.where());
+        boolean hasFilters = filters != null && !filters.isEmpty();
+        if (!hasFilters && expression == null) {
+            throw new ValidationException("A bulk update or delete needs a filter; use updateAll or deleteAll to change every row");
+        }
+        return (root, query, criteriaBuilder) -> {
+            EntityDescriptor descriptor = EntityDescriptorCache.get(root);
+            List<Predicate> predicates = new ArrayList<>();
+            if (hasFilters) {
+                filters.forEach((field, wrapper) -> predicates.add(buildFieldPredicate(criteriaBuilder, root, query, descriptor, field, wrapper, true)));
+            }
+            if (expression != null) {
+                predicates.add(buildExpressionPredicate(criteriaBuilder, root, query, descriptor, expression, true));
+            }
+            return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Unchunked mutations run in the caller's transaction, or in one of their own; chunked ones
+     * give every chunk its own transaction when there is none. A {@code null} specification
+     * changes every row.
+     */
+    private long mutateAny(Specification<T> spec, BulkMutation<T> mutation, int chunkSize) {
+        EntityManager entityManager = JpaqContext.getEntityManager();
+        if (chunkSize > 0) {
+            return mutation.execute(entityManager, spec, chunkSize);
+        }
+        PlatformTransactionManager transactionManager = JpaqContext.getTransactionManager();
+        if (transactionManager == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return mutation.execute(entityManager, spec);
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> mutation.execute(entityManager, spec));
+    }
+
+    /**
+     * Resolves nested sort keys ({@code customerRegion} to {@code customer.region}) and applies the
+     * entity's query policy.
+     */
+    private Pageable guardedPageable(Pageable pageable) {
+        if (pageable == null || pageable.getSort().isUnsorted()) {
+            return QueryGuard.pageable(domainType(), pageable);
+        }
+        Sort sort = resolveSort(pageable.getSort());
+        Pageable resolved = sort == pageable.getSort() || pageable.isUnpaged()
+                ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        return QueryGuard.pageable(domainType(), resolved);
+    }
+
+    private Sort resolveSort(Sort sort) {
+        if (sort.isUnsorted()) return sort;
+        EntityDescriptor descriptor = EntityDescriptorCache.peek(domainType());
+        if (descriptor == null && JpaqContext.hasEntityManager()) {
+            descriptor = EntityDescriptorCache.get(JpaqContext.getEntityManager().getMetamodel(), domainType());
+        }
+        return descriptor == null ? sort : descriptor.resolveSort(sort);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<T> domainType() {
+        return (Class<T>) RepositoryUtils.resolveDomainType(getClass(), BaseRepository.class);
     }
 
     default Page<T> query(Map<String, QueryFieldWrapper> param, Pageable pageable, org.springframework.cglib.core.internal.Function<Map<String, QueryFieldWrapper>, Specification<T>> query) {
@@ -0,0 +1,42 @@
+package org.sekailabs.jpaq.search;
+
+import java.util.Locale;
+
+import org.sekailabs.jpaq.utils.TextUtils;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Portable fallback: every whitespace separated term has to occur in the lower cased value, so
+ * {@code red shoe} matches {@code Shoes, red}. Works on any database (H2 included) but cannot use
+ * a B-tree index; ranks prefix matches first.
+ */
+public class LikeSearchStrategy implements TextSearchStrategy {
+    public static final LikeSearchStrategy INSTANCE = new LikeSearchStrategy();
+
+    @Override
+    public Predicate predicate(CriteriaBuilder cb, Path<String> path, String text) {
+        String[] terms = terms(text);
+        Expression<String> lower = cb.lower(path);
+        Predicate[] predicates = new Predicate[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            predicates[i] = cb.like(lower, "%" + TextUtils.escapeLike(terms[i], '\\') + "%", '\\');
+        }
+        return cb.and(predicates);
+    }
+
+    @Override
+    public Expression<? extends Number> rank(CriteriaBuilder cb, Path<String> path, String text) {
+        String[] terms = terms(text);
+        return cb.<Integer>selectCase()
+                .when(cb.like(cb.lower(path), TextUtils.escapeLike(terms[0], '\\') + "%", '\\'), 1)
+                .otherwise(0);
+    }
+
+    private static String[] terms(String text) {
+        return text.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    }
+}
@@ -0,0 +1,177 @@
+package org.sekailabs.jpaq.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * In-process trigram index for small lookup tables. Matching and scoring happen in memory; the
+ * query only receives the ids of the best matches ({@code id in (...)}) and ranks them with a
+ * {@code case} over those ids. The application fills the index with {@link #put} and keeps it
+ * current with {@link #put} and {@link #remove}.
+ * <p>
+ * A document scores the share of the search text's trigrams it contains, so typos and partial
+ * words still match.
+ */
+public class NGramSearchStrategy implements TextSearchStrategy {
+    private final String idAttribute;
+    private final double minimumScore;
+    private final int maximumMatches;
+    private final Map<Object, Set<String>> documents = new HashMap<>();
+    private final Map<String, Set<Object>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param idAttribute    identifier attribute of the entity that owns the searched field
+     * @param minimumScore   share of the search trigrams a document needs, from 0 to 1
+     * @param maximumMatches most ids handed to the query, best scores first
+     */
+    public NGramSearchStrategy(String idAttribute, double minimumScore, int maximumMatches) {
+        if (minimumScore <= 0 || minimumScore > 1) {
+            throw new IllegalArgumentException("Minimum score must be in (0, 1]");
+        }
+        if (maximumMatches <= 0) {
+            throw new IllegalArgumentException("Maximum matches must be positive");
+        }
+        this.idAttribute = idAttribute;
+        this.minimumScore = minimumScore;
+        this.maximumMatches = maximumMatches;
+    }
+
+    public NGramSearchStrategy(String idAttribute) {
+        this(idAttribute, 0.5, 256);
+    }
+
+    public void put(Object id, String text) {
+        Set<String> grams = grams(text);
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            documents.put(id, grams);
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Object id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the documents matching {@code text} with their score, best first.
+     */
+    public Map<Object, Double> search(String text) {
+        Set<String> grams = grams(text);
+        if (grams.isEmpty()) return Map.of();
+        Map<Object, Integer> hits = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String gram : grams) {
+                Set<Object> ids = postings.get(gram);
+                if (ids == null) continue;
+                for (Object id : ids) {
+                    hits.merge(id, 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Object, Integer>> matches = new ArrayList<>();
+        for (Map.Entry<Object, Integer> hit : hits.entrySet()) {
+            if (hit.getValue() >= minimumScore * grams.size()) matches.add(hit);
+        }
+        matches.sort(Map.Entry.<Object, Integer>comparingByValue().reversed());
+        Map<Object, Double> scores = new LinkedHashMap<>();
+        for (int i = 0; i < matches.size() && i < maximumMatches; i++) {
+            scores.put(matches.get(i).getKey(), matches.get(i).getValue() / (double) grams.size());
+        }
+        return scores;
+    }
+
+    @Override
+    public Predicate predicate(CriteriaBuilder cb, Path<String> path, String text) {
+        Map<Object, Double> matches = search(text);
+        if (matches.isEmpty()) return cb.disjunction();
+        return id(path).in(matches.keySet());
+    }
+
+    @Override
+    public Expression<? extends Number> rank(CriteriaBuilder cb, Path<String> path, String text) {
+        Map<Object, Double> matches = search(text);
+        if (matches.isEmpty()) return null;
+        CriteriaBuilder.SimpleCase<Object, Double> rank = cb.selectCase(id(path));
+        matches.forEach(rank::when);
+        return rank.otherwise(0d);
+    }
+
+    private Path<Object> id(Path<String> path) {
+        return path.getParentPath().get(idAttribute);
+    }
+
+    private void unindex(Object id) {
+        Set<String> previous = documents.remove(id);
+        if (previous == null) return;
+        for (String gram : previous) {
+            Set<Object> ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Trigrams of every word, padded like {@code pg_trgm} so that word starts weigh more.
+     */
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        if (text == null) return grams;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,44 @@
+package org.sekailabs.jpaq.search;
+
+import java.util.regex.Pattern;
+
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.sekailabs.jpaq.predicate.JpaqFunctionContributor;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * PostgreSQL full text search, {@code to_tsvector(config, x) @@ plainto_tsquery(config, text)},
+ * ranked by {@code ts_rank}. The configuration is rendered inline so that an expression index
+ * like {@code create index on item using gin (to_tsvector('english', name))} matches the query.
+ */
+public class PostgresFullTextSearchStrategy implements TextSearchStrategy {
+    private static final Pattern CONFIG_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+
+    private final String config;
+
+    public PostgresFullTextSearchStrategy(String config) {
+        if (config == null || !CONFIG_NAME.matcher(config).matches()) {
+            throw new IllegalArgumentException("Invalid text search configuration: " + config);
+        }
+        this.config = config;
+    }
+
+    @Override
+    public Predicate predicate(CriteriaBuilder cb, Path<String> path, String text) {
+        return cb.isTrue(cb.function(JpaqFunctionContributor.FTS_MATCH, Boolean.class, cb.literal(config), path, value(cb, text)));
+    }
+
+    @Override
+    public Expression<? extends Number> rank(CriteriaBuilder cb, Path<String> path, String text) {
+        return cb.function(JpaqFunctionContributor.FTS_RANK, Double.class, cb.literal(config), path, value(cb, text));
+    }
+
+    static Expression<String> value(CriteriaBuilder cb, String text) {
+        // value() always binds, a literal would be inlined into the SQL
+        return ((HibernateCriteriaBuilder) cb).value(text);
+    }
+}
@@ -0,0 +1,27 @@
+package org.sekailabs.jpaq.search;
+
+import org.sekailabs.jpaq.predicate.JpaqFunctionContributor;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * PostgreSQL {@code pg_trgm} fuzzy match, {@code text <% x}, ranked by {@code word_similarity}.
+ * Tolerates typos and is served by {@code create index on item using gin (name gin_trgm_ops)};
+ * the threshold is the server's {@code pg_trgm.word_similarity_threshold}.
+ */
+public class PostgresTrigramSearchStrategy implements TextSearchStrategy {
+    public static final PostgresTrigramSearchStrategy INSTANCE = new PostgresTrigramSearchStrategy();
+
+    @Override
+    public Predicate predicate(CriteriaBuilder cb, Path<String> path, String text) {
+        return cb.isTrue(cb.function(JpaqFunctionContributor.TRGM_MATCH, Boolean.class, path, PostgresFullTextSearchStrategy.value(cb, text)));
+    }
+
+    @Override
+    public Expression<? extends Number> rank(CriteriaBuilder cb, Path<String> path, String text) {
+        return cb.function(JpaqFunctionContributor.TRGM_RANK, Double.class, path, PostgresFullTextSearchStrategy.value(cb, text));
+    }
+}
@@ -0,0 +1,23 @@
+package org.sekailabs.jpaq.search;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.sekailabs.jpaq.models.constant.TextSearchModeEnum;
+
+/**
+ * Chooses the {@code SEARCH} strategy of a string field; fields without it use
+ * {@link TextSearchRegistry#getDefaultMode()}.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Searchable {
+    TextSearchModeEnum mode();
+
+    /**
+     * Text search configuration of {@link TextSearchModeEnum#FULL_TEXT}, e.g. {@code english}.
+     */
+    String config() default "simple";
+}
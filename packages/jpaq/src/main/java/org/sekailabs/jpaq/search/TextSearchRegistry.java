@@ -0,0 +1,69 @@
+package org.sekailabs.jpaq.search;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sekailabs.jpaq.models.constant.TextSearchModeEnum;
+
+/**
+ * {@code SEARCH} strategy per entity field: registered explicitly (e.g. an
+ * {@link NGramSearchStrategy}), chosen with {@link Searchable}, or the default mode.
+ */
+public final class TextSearchRegistry {
+    private static final Map<Class<?>, Map<String, TextSearchStrategy>> STRATEGIES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, Optional<TextSearchStrategy>>> ANNOTATED = new ConcurrentHashMap<>();
+    private static volatile TextSearchModeEnum defaultMode = TextSearchModeEnum.LIKE;
+
+    private TextSearchRegistry() {}
+
+    /**
+     * Uses {@code strategy} for {@code field} of {@code domainType}; nested fields are registered
+     * on the entity that declares them.
+     */
+    public static void register(Class<?> domainType, String field, TextSearchStrategy strategy) {
+        STRATEGIES.computeIfAbsent(domainType, type -> new ConcurrentHashMap<>()).put(field, strategy);
+    }
+
+    public static TextSearchStrategy get(Class<?> domainType, String field) {
+        Map<String, TextSearchStrategy> registered = STRATEGIES.get(domainType);
+        TextSearchStrategy strategy = registered == null ? null : registered.get(field);
+        if (strategy != null) return strategy;
+        return ANNOTATED.computeIfAbsent(domainType, type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(field, name -> Optional.ofNullable(fromAnnotation(domainType, name)))
+                .orElseGet(() -> of(defaultMode, "simple"));
+    }
+
+    public static TextSearchModeEnum getDefaultMode() {
+        return defaultMode;
+    }
+
+    public static void setDefaultMode(TextSearchModeEnum defaultMode) {
+        TextSearchRegistry.defaultMode = defaultMode == null ? TextSearchModeEnum.LIKE : defaultMode;
+    }
+
+    public static void clear() {
+        STRATEGIES.clear();
+        ANNOTATED.clear();
+    }
+
+    public static TextSearchStrategy of(TextSearchModeEnum mode, String config) {
+        return switch (mode) {
+            case LIKE -> LikeSearchStrategy.INSTANCE;
+            case FULL_TEXT -> new PostgresFullTextSearchStrategy(config);
+            case TRIGRAM -> PostgresTrigramSearchStrategy.INSTANCE;
+        };
+    }
+
+    private static TextSearchStrategy fromAnnotation(Class<?> domainType, String field) {
+        for (Class<?> type = domainType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field declared : type.getDeclaredFields()) {
+                if (!declared.getName().equals(field)) continue;
+                Searchable searchable = declared.getAnnotation(Searchable.class);
+                return searchable == null ? null : of(searchable.mode(), searchable.config());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package org.sekailabs.jpaq.search;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * How the {@code SEARCH} operator matches text on a field. The strategy of each field is looked up
+ * in {@link TextSearchRegistry}.
+ */
+public interface TextSearchStrategy {
+    /**
+     * Predicate matching {@code text} against the string attribute at {@code path}.
+     */
+    Predicate predicate(CriteriaBuilder cb, Path<String> path, String text);
+
+    /**
+     * Relevance of a row for {@code text}, higher is better, or {@code null} when the strategy
+     * cannot rank its matches.
+     */
+    default Expression<? extends Number> rank(CriteriaBuilder cb, Path<String> path, String text) {
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package org.sekailabs.jpaq.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.ResolvableType;
+
+public class RepositoryUtils {
+    private static final Map<Class<?>, Class<?>> DOMAIN_TYPES = new ConcurrentHashMap<>();
+
+    private RepositoryUtils (){}
+
+    /**
+     * Resolves the entity type argument of {@code repositoryInterface} as implemented by
+     * {@code repositoryClass}, typically the Spring Data proxy class.
+     */
+    public static Class<?> resolveDomainType(Class<?> repositoryClass, Class<?> repositoryInterface) {
+        return DOMAIN_TYPES.computeIfAbsent(repositoryClass, type -> {
+            Class<?> domainType = ResolvableType.forClass(type).as(repositoryInterface).resolveGeneric(0);
+            if (domainType == null) {
+                throw new IllegalStateException("Cannot resolve the entity type of " + type.getName());
+            }
+            return domainType;
+        });
+    }
+}
@@ -21,15 +21,24 @@ public class TextUtils {
         if (kebabCaseString == null || kebabCaseString.isEmpty()) {
             return kebabCaseString;
         }
-
-        String[] parts = kebabCaseString.split("-");
-        StringBuilder camelCaseString = new StringBuilder(parts[0]);
-
-        for (int i = 1; i < parts.length; i++) {
-            camelCaseString.append(parts[i].substring(0, 1).toUpperCase());
-            camelCaseString.append(parts[i].substring(1));
+        if (kebabCaseString.indexOf('-') < 0) {
+            return kebabCaseString;
         }
+        return kebabToCamel(kebabCaseString, 0, kebabCaseString.length());
+    }
 
+    public static String kebabToCamel(CharSequence text, int start, int end) {
+        StringBuilder camelCaseString = new StringBuilder(end - start);
+        boolean upperNext = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '-') {
+                upperNext = true;
+                continue;
+            }
+            camelCaseString.append(upperNext ? Character.toUpperCase(c) : c);
+            upperNext = false;
+        }
         return camelCaseString.toString();
     }
 
@@ -51,4 +60,22 @@ public class TextUtils {
 
         return kebabCaseString.toString();
     }
+
+    /**
+     * Escapes the {@code LIKE} wildcards {@code %} and {@code _} (and the escape character itself).
+     */
+    public static String escapeLike(String text, char escape) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == escape) {
+                if (escaped == null) {
+                    escaped = new StringBuilder(text.length() + 8).append(text, 0, i);
+                }
+                escaped.append(escape);
+            }
+            if (escaped != null) escaped.append(c);
+        }
+        return escaped == null ? text : escaped.toString();
+    }
 }
@@ -0,0 +1,17 @@
+package org.sekailabs.jpaq.utils;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtils {
+    private TransactionUtils (){}
+
+    /**
+     * Whether a query may run on another thread (and connection) than the caller's without changing
+     * its result: true outside transactions and inside read-only ones, false when the caller's
+     * transaction may hold uncommitted writes.
+     */
+    public static boolean canQueryOffThread() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,45 @@
+package org.sekailabs.jpaq.web;
+
+import java.io.IOException;
+
+import org.sekailabs.jpaq.models.dto.StreamingResponseObject;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Lets controllers return a {@link StreamingResponseObject} directly. The body is written on the
+ * request thread after the handler returned, so rows from a {@code streamAny} cursor need an open
+ * persistence context and transaction at that point (open session in view); otherwise return
+ * {@link StreamingResponseWriter#body} instead.
+ */
+public class StreamingResponseObjectHttpMessageConverter extends AbstractHttpMessageConverter<StreamingResponseObject<?>> {
+    private final StreamingResponseWriter writer;
+
+    public StreamingResponseObjectHttpMessageConverter(StreamingResponseWriter writer) {
+        super(MediaType.APPLICATION_JSON);
+        this.writer = writer;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamingResponseObject.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamingResponseObject<?> readInternal(Class<? extends StreamingResponseObject<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Streaming responses cannot be read", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(StreamingResponseObject<?> response, HttpOutputMessage outputMessage) throws IOException {
+        writer.write(response, outputMessage.getBody());
+    }
+}
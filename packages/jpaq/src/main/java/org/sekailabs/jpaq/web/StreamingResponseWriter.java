@@ -0,0 +1,124 @@
+package org.sekailabs.jpaq.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.models.dto.StreamingResponseObject;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes a {@link StreamingResponseObject} as the {@code ResponseObject} JSON envelope, serializing
+ * one row at a time straight into the output: the envelope fields first, then the {@code content}
+ * array, then {@code pagination} and {@code cursor}, which are only known after the last row.
+ * The output is flushed every {@code flushInterval} rows so the client receives the first rows
+ * while the rest are still read.
+ * <p>
+ * A failure after the first flush cannot change the response status any more; the exception
+ * propagates and the client sees a truncated document.
+ */
+public class StreamingResponseWriter {
+    public static final int DEFAULT_FLUSH_INTERVAL = 256;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final int flushInterval;
+
+    public StreamingResponseWriter(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public StreamingResponseWriter(ObjectMapper objectMapper, int flushInterval) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.objectMapper = objectMapper;
+        // flushing is paced by the row count, not by every value
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Writes {@code response} and closes its rows; {@code output} is left open.
+     *
+     * @return the number of rows written
+     */
+    public long write(StreamingResponseObject<?> response, OutputStream output) throws IOException {
+        try (AutoCloseable ignored = response.getResource();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName("messages");
+            objectWriter.writeValue(generator, response.getMessages());
+            generator.writeStringField("code", response.getCode());
+            generator.writeBooleanField("success", response.isSuccess());
+            generator.writeFieldName("requestTime");
+            objectWriter.writeValue(generator, response.getRequestTime());
+
+            generator.writeArrayFieldStart("content");
+            long rows = 0;
+            Iterator<?> iterator = response.getRows();
+            while (iterator.hasNext()) {
+                objectWriter.writeValue(generator, iterator.next());
+                if (++rows % flushInterval == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeFieldName("pagination");
+            objectWriter.writeValue(generator, response.pagination(rows));
+            if (response.getCursor() != null) {
+                generator.writeFieldName("cursor");
+                objectWriter.writeValue(generator, response.getCursor());
+            }
+            generator.writeEndObject();
+            generator.flush();
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not close the streamed rows", e);
+        }
+    }
+
+    /**
+     * Response body for a {@code streamAny} cursor, which needs its transaction on the thread that
+     * writes the body rather than in the controller: {@code response} is called and written inside
+     * a read-only transaction of {@link JpaqContext#getTransactionManager()}, or without one when
+     * none is configured.
+     */
+    public StreamingResponseBody body(Supplier<? extends StreamingResponseObject<?>> response) {
+        return output -> {
+            PlatformTransactionManager transactionManager = JpaqContext.getTransactionManager();
+            if (transactionManager == null) {
+                write(response.get(), output);
+                return;
+            }
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            try {
+                template.executeWithoutResult(status -> {
+                    try {
+                        write(response.get(), output);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
@@ -0,0 +1,215 @@
+package org.sekailabs.jpaq.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.fixture.Customer;
+import org.sekailabs.jpaq.fixture.H2Database;
+import org.sekailabs.jpaq.fixture.Memo;
+import org.sekailabs.jpaq.fixture.MemoRepository;
+import org.sekailabs.jpaq.fixture.Product;
+import org.sekailabs.jpaq.fixture.ProductRepository;
+import org.sekailabs.jpaq.fixture.Tag;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ValidationException;
+
+/**
+ * Bulk updates and deletes on H2: the filters fail closed, filters through associations are
+ * rebuilt as {@code id in (subquery)}, versions advance and only matched managed rows are detached.
+ */
+class BulkMutationTest {
+    private static final int PRODUCTS = 20;
+
+    private static H2Database database;
+    private static ProductRepository products;
+    private static MemoRepository memos;
+
+    @BeforeAll
+    static void setUp() {
+        database = H2Database.start("bulk", Customer.class, Tag.class, Product.class, Memo.class);
+        products = database.repository(ProductRepository.class);
+        memos = database.repository(MemoRepository.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Products 1..20: customer EU for i % 3 == 1, US for i % 3 == 2, none otherwise; tag red for odd
+     * ids, blue for multiples of 4; status by i % 3; quantity i.
+     */
+    @BeforeEach
+    void resetData() {
+        database.inSession(session -> {
+            session.createNativeMutationQuery("delete from Product_Tag").executeUpdate();
+            session.createMutationQuery("delete from Product").executeUpdate();
+            session.createMutationQuery("delete from Tag").executeUpdate();
+            session.createMutationQuery("delete from Customer").executeUpdate();
+            session.createMutationQuery("delete from Memo").executeUpdate();
+            Customer eu = new Customer(1L, "Anna", "EU");
+            Customer us = new Customer(2L, "Bob", "US");
+            Tag red = new Tag(1L, "red");
+            Tag blue = new Tag(2L, "blue");
+            List.of(eu, us, red, blue).forEach(session::persist);
+            for (long i = 1; i <= PRODUCTS; i++) {
+                Product product = new Product(i, "product " + i, Product.Status.values()[(int) (i % 3)], (int) i,
+                        i % 3 == 1 ? eu : i % 3 == 2 ? us : null);
+                if (i % 2 == 1) product.getTags().add(red);
+                if (i % 4 == 0) product.getTags().add(blue);
+                session.persist(product);
+            }
+            session.persist(new Memo(1L, "memo"));
+        });
+    }
+
+    @Test
+    void rejectsMissingFilter() {
+        assertThrows(ValidationException.class, () -> products.deleteAny(QueryWrapper.builder().build()));
+        assertThrows(ValidationException.class, () -> products.updateAny(QueryWrapper.builder().build(), Map.of("name", "x")));
+        assertEquals(PRODUCTS, products.count());
+    }
+
+    @Test
+    void rejectsFiltersThatWouldBeDropped() {
+        for (String query : List.of("colour=red", "quantity=abc", "quantity=1,abc", "quantity=>x", "customer.nickname=x")) {
+            assertThrows(ValidationException.class, () -> products.deleteAny(search(query)), query);
+        }
+        assertThrows(ValidationException.class, () -> products.deleteAny(QueryWrapper.builder().where("colour=red|quantity=1").build()));
+        assertEquals(PRODUCTS, products.count());
+    }
+
+    @Test
+    void rejectsInvalidValues() {
+        assertThrows(ValidationException.class, () -> products.updateAny(search("quantity=1"), Map.of("colour", "red")));
+        assertThrows(ValidationException.class, () -> products.updateAny(search("quantity=1"), Map.of("quantity", "many")));
+        assertThrows(ValidationException.class, () -> products.updateAny(search("quantity=1"), Map.of("id", 99)));
+    }
+
+    @Test
+    void updatesMatchingRowsAndAdvancesVersion() {
+        long updated = products.updateAny(search("status=ACTIVE"), Map.of("name", "renamed", "quantity", "0"));
+
+        List<Product> all = products.findAll();
+        assertEquals(count(p -> p.getStatus() == Product.Status.ACTIVE), updated);
+        for (Product product : all) {
+            boolean matched = product.getStatus() == Product.Status.ACTIVE;
+            assertEquals(matched ? "renamed" : "product " + product.getId(), product.getName());
+            assertEquals(matched ? 1L : 0L, product.getVersion());
+        }
+    }
+
+    @Test
+    void advancesTimestampVersion() {
+        LocalDateTime before = memos.findById(1L).orElseThrow().getVersion();
+        assertEquals(1, memos.updateAny(search("title=memo"), Map.of("title", "changed")));
+
+        Memo memo = memos.findById(1L).orElseThrow();
+        assertEquals("changed", memo.getTitle());
+        assertTrue(memo.getVersion().isAfter(before), () -> before + " not before " + memo.getVersion());
+    }
+
+    @Test
+    void changesRowsInChunks() {
+        assertEquals(count(p -> p.getQuantity() > 5), products.updateAny(search("quantity=>5"), Map.of("name", "chunked"), 4));
+        assertEquals(PRODUCTS - 5, products.findAll().stream().filter(p -> p.getName().equals("chunked")).count());
+
+        assertEquals(PRODUCTS, products.deleteAll(3));
+        assertEquals(0, products.count());
+    }
+
+    @Test
+    void updatesEveryRow() {
+        assertEquals(PRODUCTS, products.updateAll(Map.of("quantity", 7), 0));
+        assertTrue(products.findAll().stream().allMatch(p -> p.getQuantity() == 7 && p.getVersion() == 1L));
+    }
+
+    @Test
+    void filtersThroughToOneAssociation() {
+        long expected = count(p -> p.getCustomer() != null && p.getCustomer().getRegion().equals("EU"));
+        assertEquals(expected, products.deleteAny(search("customer-region=EU")));
+        assertEquals(PRODUCTS - expected, products.count());
+        assertTrue(products.findAll().stream().noneMatch(p -> p.getCustomer() != null && p.getCustomer().getId() == 1L));
+    }
+
+    @Test
+    void filtersThroughCollection() {
+        List<Long> expected = ids(p -> hasTag(p, "red"));
+        assertEquals(expected.size(), products.updateAny(search("tags.label=red"), Map.of("name", "red one")));
+        assertEquals(expected, ids(p -> p.getName().equals("red one")));
+    }
+
+    @Test
+    void deletesWithNegatedCollectionFilter() {
+        List<Long> expected = ids(p -> hasTag(p, "red"));
+        long notRed = PRODUCTS - expected.size();
+
+        assertEquals(notRed, products.deleteAny(QueryWrapper.builder().where("!tags.label=red").build()));
+        assertEquals(expected, products.findAll().stream().map(Product::getId).sorted().toList());
+    }
+
+    @Test
+    void deletesWithNegatedToOneFilterInChunks() {
+        List<Long> expected = ids(p -> p.getCustomer() != null && p.getCustomer().getRegion().equals("EU"));
+
+        // rows without a customer are not in the EU either
+        assertEquals(PRODUCTS - expected.size(), products.deleteAny(QueryWrapper.builder().where("!customer.region=EU").build(), 5));
+        assertEquals(expected, products.findAll().stream().map(Product::getId).sorted().toList());
+    }
+
+    @Test
+    void detachesOnlyMatchedManagedRows() {
+        database.transaction().executeWithoutResult(status -> {
+            EntityManager entityManager = database.entityManager();
+            Product matched = entityManager.find(Product.class, 1L);
+            Product other = entityManager.find(Product.class, 2L);
+            other.setName("pending change");
+
+            products.updateAny(search("id=1"), Map.of("name", "bulk"));
+
+            assertFalse(entityManager.contains(matched));
+            assertTrue(entityManager.contains(other));
+            assertEquals("bulk", entityManager.find(Product.class, 1L).getName());
+        });
+        assertEquals("pending change", products.findById(2L).orElseThrow().getName());
+        assertEquals("bulk", products.findById(1L).orElseThrow().getName());
+    }
+
+    private static QueryWrapper search(String query) {
+        return QueryWrapper.builder().search(query).build();
+    }
+
+    private static boolean hasTag(Product product, String label) {
+        return product.getTags().stream().anyMatch(tag -> tag.getLabel().equals(label));
+    }
+
+    private static long count(Predicate<Product> matches) {
+        return ids(matches).size();
+    }
+
+    /**
+     * Ids of the products matching {@code matches}, read in one session with their associations.
+     */
+    private static List<Long> ids(Predicate<Product> matches) {
+        return database.transaction().execute(status -> LongStream.rangeClosed(1, PRODUCTS)
+                .mapToObj(id -> database.entityManager().find(Product.class, id))
+                .filter(p -> p != null && matches.test(p))
+                .map(Product::getId)
+                .toList());
+    }
+}
@@ -0,0 +1,25 @@
+package org.sekailabs.jpaq.fixture;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class Customer {
+    @Id
+    private Long id;
+    private String name;
+    private String region;
+
+    public Customer(Long id, String name, String region) {
+        this.id = id;
+        this.name = name;
+        this.region = region;
+    }
+}
@@ -0,0 +1,79 @@
+package org.sekailabs.jpaq.fixture;
+
+import java.util.function.Consumer;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-memory H2 database with the given entities, wired into {@link JpaqContext} the way the auto
+ * configuration does it: a shared entity manager and a JPA transaction manager.
+ */
+public final class H2Database implements AutoCloseable {
+    private final SessionFactory sessionFactory;
+    private final EntityManager entityManager;
+    private final JpaTransactionManager transactionManager;
+    private final JpaRepositoryFactory repositoryFactory;
+
+    private H2Database(String name, Class<?>... entities) {
+        Configuration configuration = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        for (Class<?> entity : entities) {
+            configuration.addAnnotatedClass(entity);
+        }
+        this.sessionFactory = configuration.buildSessionFactory();
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        this.transactionManager = new JpaTransactionManager(sessionFactory);
+        this.repositoryFactory = new JpaRepositoryFactory(entityManager);
+        JpaqContext.setEntityManager(entityManager);
+        JpaqContext.setTransactionManager(transactionManager);
+    }
+
+    public static H2Database start(String name, Class<?>... entities) {
+        return new H2Database(name, entities);
+    }
+
+    public <R extends Repository<?, ?>> R repository(Class<R> repositoryType) {
+        return repositoryFactory.getRepository(repositoryType);
+    }
+
+    public SessionFactory sessionFactory() {
+        return sessionFactory;
+    }
+
+    /**
+     * The shared entity manager, bound to the current transaction.
+     */
+    public EntityManager entityManager() {
+        return entityManager;
+    }
+
+    public TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs {@code work} in a session of its own, committed at the end.
+     */
+    public void inSession(Consumer<Session> work) {
+        sessionFactory.inTransaction(work);
+    }
+
+    @Override
+    public void close() {
+        JpaqContext.setEntityManager(null);
+        JpaqContext.setTransactionManager(null);
+        sessionFactory.close();
+    }
+}
@@ -0,0 +1,31 @@
+package org.sekailabs.jpaq.fixture;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An entity with a timestamp {@code @Version}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class Memo {
+    @Id
+    private Long id;
+    private String title;
+    @Version
+    private LocalDateTime version;
+
+    public Memo(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+}
@@ -0,0 +1,46 @@
+package org.sekailabs.jpaq.fixture;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToMany;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class Product {
+    public enum Status { DRAFT, ACTIVE, RETIRED }
+
+    @Id
+    private Long id;
+    private String name;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    private Integer quantity;
+    @ManyToOne
+    private Customer customer;
+    @ManyToMany
+    private Set<Tag> tags = new HashSet<>();
+    @Version
+    private Long version;
+
+    public Product(Long id, String name, Status status, Integer quantity, Customer customer, Tag... tags) {
+        this.id = id;
+        this.name = name;
+        this.status = status;
+        this.quantity = quantity;
+        this.customer = customer;
+        this.tags.addAll(Set.of(tags));
+    }
+}
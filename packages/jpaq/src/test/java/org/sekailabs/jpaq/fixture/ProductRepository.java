@@ -0,0 +1,6 @@
+package org.sekailabs.jpaq.fixture;
+
+import org.sekailabs.jpaq.repositories.BaseRepository;
+
+public interface ProductRepository extends BaseRepository<Product, Long> {
+}
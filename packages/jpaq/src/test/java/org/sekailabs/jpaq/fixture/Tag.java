@@ -0,0 +1,23 @@
+package org.sekailabs.jpaq.fixture;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class Tag {
+    @Id
+    private Long id;
+    private String label;
+
+    public Tag(Long id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+}
@@ -0,0 +1,169 @@
+package org.sekailabs.jpaq.guard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.expression.QueryCondition;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.expression.QueryGroup;
+import org.sekailabs.jpaq.expression.QueryNot;
+import org.sekailabs.jpaq.models.constant.QueryGuardActionEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.plan.ExpressionParser;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Policies read from annotations or registered, enforced in REJECT and REWRITE mode.
+ */
+class QueryGuardTest {
+
+    @QueryPolicy(maxPageSize = 20, maxInListSize = 3)
+    static class Strict {
+        @Filterable(indexed = true)
+        String name;
+        @Filterable(sortable = false)
+        Integer quantity;
+        @Filterable(paths = {"region", "address.city"})
+        Object customer;
+        String secret;
+    }
+
+    @QueryPolicy(maxPageSize = 20, action = QueryGuardActionEnum.REWRITE)
+    static class Lenient {
+        @Filterable(indexed = true)
+        String name;
+        @Filterable
+        String title;
+        @Filterable(sortable = false)
+        Integer quantity;
+    }
+
+    static class Unrestricted {
+        String name;
+    }
+
+    @AfterEach
+    void clearPolicies() {
+        QueryPolicyRegistry.clear();
+    }
+
+    @Test
+    void leavesEntitiesWithoutPolicyAlone() {
+        Map<String, QueryFieldWrapper> search = search("anything", QueryOperatorEnum.LIKE, "x");
+        Pageable pageable = PageRequest.of(0, 5000, Sort.by("anything"));
+
+        assertNull(QueryPolicyRegistry.get(Unrestricted.class));
+        assertSame(search, QueryGuard.filters(Unrestricted.class, search));
+        assertSame(pageable, QueryGuard.pageable(Unrestricted.class, pageable));
+    }
+
+    @Test
+    void rejectsUndeclaredFieldsAndOperators() {
+        assertThrows(ValidationException.class, () -> QueryGuard.filters(Strict.class, search("secret", QueryOperatorEnum.EQ, "x")));
+        assertThrows(ValidationException.class, () -> QueryGuard.filters(Strict.class, search("name", QueryOperatorEnum.LIKE, "x")));
+        assertThrows(ValidationException.class, () -> QueryGuard.expression(Strict.class, ExpressionParser.parse("name=lamp|secret=x")));
+
+        Map<String, QueryFieldWrapper> allowed = search("name", QueryOperatorEnum.STARTS_WITH, "x");
+        assertSame(allowed, QueryGuard.filters(Strict.class, allowed));
+    }
+
+    @Test
+    void boundsInLists() {
+        assertThrows(ValidationException.class, () -> QueryGuard.filters(Strict.class, search("quantity", QueryOperatorEnum.IN, List.of("1", "2", "3", "4"))));
+        assertThrows(ValidationException.class, () -> QueryGuard.in(Strict.class, "quantity", List.of(1, 2, 3, 4)));
+        QueryGuard.in(Strict.class, "quantity", List.of(1, 2, 3));
+    }
+
+    @Test
+    void rejectsOversizedPagesAndNonSortableOrders() {
+        assertThrows(ValidationException.class, () -> QueryGuard.pageable(Strict.class, PageRequest.of(0, 21)));
+        assertThrows(ValidationException.class, () -> QueryGuard.pageable(Strict.class, Pageable.unpaged()));
+        assertThrows(ValidationException.class, () -> QueryGuard.pageable(Strict.class, PageRequest.of(0, 10, Sort.by("quantity"))));
+        assertThrows(ValidationException.class, () -> QueryGuard.sort(Strict.class, Sort.by("secret")));
+
+        Pageable pageable = PageRequest.of(1, 20, Sort.by("name"));
+        assertSame(pageable, QueryGuard.pageable(Strict.class, pageable));
+    }
+
+    @Test
+    void rewritesLikeOnIndexedFieldsToPrefixMatches() {
+        Map<String, QueryFieldWrapper> search = search("name", QueryOperatorEnum.LIKE, "lamp");
+
+        Map<String, QueryFieldWrapper> guarded = QueryGuard.filters(Lenient.class, search);
+
+        assertEquals(QueryOperatorEnum.STARTS_WITH, guarded.get("name").getOperator());
+        assertEquals("lamp", guarded.get("name").getValue());
+        assertEquals(QueryOperatorEnum.LIKE, search.get("name").getOperator());
+        assertThrows(ValidationException.class, () -> QueryGuard.filters(Lenient.class, search("title", QueryOperatorEnum.LIKE, "x")));
+    }
+
+    @Test
+    void neverRewritesNegatedLike() {
+        QueryExpression expression = ExpressionParser.parse("title=x;name=~lamp");
+        QueryExpression guarded = QueryGuard.expression(Lenient.class, expression);
+        assertEquals("name", condition(guarded, 1).getField());
+        assertEquals(QueryOperatorEnum.STARTS_WITH, condition(guarded, 1).getWrapper().getOperator());
+
+        assertThrows(ValidationException.class, () -> QueryGuard.expression(Lenient.class, ExpressionParser.parse("!(title=x;name=~lamp)")));
+        QueryNot negated = (QueryNot) QueryGuard.expression(Lenient.class, ExpressionParser.parse("!title=x"));
+        assertEquals(QueryOperatorEnum.EQ, ((QueryCondition) negated.getExpression()).getWrapper().getOperator());
+    }
+
+    @Test
+    void capsPagesAndDropsNonSortableOrders() {
+        Pageable guarded = QueryGuard.pageable(Lenient.class, PageRequest.of(2, 500, Sort.by("quantity", "name", "secret")));
+
+        assertEquals(2, guarded.getPageNumber());
+        assertEquals(20, guarded.getPageSize());
+        assertEquals(Sort.by("name"), guarded.getSort());
+        assertEquals(PageRequest.of(0, 20, Sort.by("name")), QueryGuard.pageable(Lenient.class, Pageable.unpaged(Sort.by("name"))));
+        assertEquals(Sort.unsorted(), QueryGuard.sort(Lenient.class, Sort.by("quantity")));
+    }
+
+    @Test
+    void allowsOnlyDeclaredNestedPaths() {
+        for (String field : List.of("customer.region", "customerRegion", "customer.address.city", "customerAddressCity")) {
+            QueryGuard.filters(Strict.class, search(field, QueryOperatorEnum.EQ, "x"));
+        }
+        for (String field : List.of("customer", "customer.name", "customerName", "customer.address")) {
+            assertThrows(ValidationException.class, () -> QueryGuard.filters(Strict.class, search(field, QueryOperatorEnum.EQ, "x")), field);
+        }
+        assertEquals(Sort.by("customer.region"), QueryGuard.sort(Strict.class, Sort.by("customer.region")));
+    }
+
+    @Test
+    void registeredPoliciesReplaceAnnotations() {
+        QueryPolicyRegistry.register(Unrestricted.class, EntityQueryPolicy.builder()
+                .field("name", EnumSet.of(QueryOperatorEnum.EQ), false, false)
+                .maxPageSize(5)
+                .build());
+
+        QueryGuard.filters(Unrestricted.class, search("name", QueryOperatorEnum.EQ, "x"));
+        assertThrows(ValidationException.class, () -> QueryGuard.filters(Unrestricted.class, search("name", QueryOperatorEnum.NE, "x")));
+        assertThrows(ValidationException.class, () -> QueryGuard.pageable(Unrestricted.class, PageRequest.of(0, 6)));
+    }
+
+    private static Map<String, QueryFieldWrapper> search(String field, QueryOperatorEnum operator, Object value) {
+        Map<String, QueryFieldWrapper> search = new LinkedHashMap<>();
+        search.put(field, QueryFieldWrapper.builder().operator(operator).value(value).build());
+        return search;
+    }
+
+    private static QueryCondition condition(QueryExpression expression, int index) {
+        return (QueryCondition) ((QueryGroup) expression).getChildren().get(index);
+    }
+}
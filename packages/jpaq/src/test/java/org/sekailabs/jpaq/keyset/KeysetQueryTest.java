@@ -0,0 +1,163 @@
+package org.sekailabs.jpaq.keyset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.fixture.Customer;
+import org.sekailabs.jpaq.fixture.H2Database;
+import org.sekailabs.jpaq.fixture.Memo;
+import org.sekailabs.jpaq.fixture.MemoRepository;
+import org.sekailabs.jpaq.fixture.Product;
+import org.sekailabs.jpaq.fixture.ProductRepository;
+import org.sekailabs.jpaq.fixture.Tag;
+import org.sekailabs.jpaq.models.wrapper.CursorPaginationWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Keyset pages on H2: cursors survive the encode/decode round trip, key values are read back
+ * through the field converters, and walking forward and back visits every row exactly once.
+ */
+class KeysetQueryTest {
+    private static final int PRODUCTS = 23;
+    private static final int MEMOS = 7;
+
+    private static H2Database database;
+    private static ProductRepository products;
+    private static MemoRepository memos;
+
+    /**
+     * Products 1..23 with status by i % 3 and quantity i % 5, so both sort keys repeat and the id
+     * breaks ties; memos 1..7 get timestamp versions.
+     */
+    @BeforeAll
+    static void setUp() {
+        database = H2Database.start("keyset", Customer.class, Tag.class, Product.class, Memo.class);
+        products = database.repository(ProductRepository.class);
+        memos = database.repository(MemoRepository.class);
+        database.inSession(session -> {
+            for (long i = 1; i <= PRODUCTS; i++) {
+                session.persist(new Product(i, "product " + i, Product.Status.values()[(int) (i % 3)], (int) (i % 5), null));
+            }
+            for (long i = 1; i <= MEMOS; i++) {
+                session.persist(new Memo(i, "memo " + i));
+            }
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(KeysetCursor.Direction.PREVIOUS,
+                List.of("name", "id"), List.of("a;b:c:1", ""));
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(KeysetCursor.Direction.PREVIOUS, decoded.getDirection());
+        assertEquals(cursor.getKeys(), decoded.getKeys());
+        assertEquals(cursor.getValues(), decoded.getValues());
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : List.of("not base64!", "eA", encode("n;id"), encode("n;id:9:1"), encode("n;id:x:1"))) {
+            assertThrows(ValidationException.class, () -> KeysetCursor.decode(cursor), cursor);
+        }
+    }
+
+    @Test
+    void seeksForwardAndBackOverRepeatedKeys() {
+        Sort sort = Sort.by(Sort.Order.desc("status"), Sort.Order.asc("quantity"));
+        List<Long> expected = products.findAll().stream()
+                .sorted(Comparator.comparing((Product p) -> p.getStatus().name()).reversed()
+                        .thenComparing(Product::getQuantity)
+                        .thenComparing(Product::getId))
+                .map(Product::getId)
+                .toList();
+
+        List<List<Long>> pages = walk(sort, 4, Product::getId, (wrapper, cursor) -> products.queryAnyKeyset(wrapper, cursor));
+
+        assertEquals(expected, pages.stream().flatMap(List::stream).toList());
+        assertEquals(6, pages.size());
+    }
+
+    @Test
+    void seeksOnTemporalKeys() {
+        Sort sort = Sort.by(Sort.Order.desc("version"));
+        List<Long> expected = memos.findAll().stream()
+                .sorted(Comparator.comparing(Memo::getVersion).reversed().thenComparing(Memo::getId))
+                .map(Memo::getId)
+                .toList();
+
+        List<List<Long>> pages = walk(sort, 3, Memo::getId, (wrapper, cursor) -> memos.queryAnyKeyset(wrapper, cursor));
+
+        assertEquals(expected, pages.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void rejectsCursorsThatDoNotFitTheSort() {
+        QueryWrapper byQuantity = QueryWrapper.builder().pageable(PageRequest.of(0, 5, Sort.by("quantity"))).build();
+
+        assertThrows(ValidationException.class,
+                () -> products.queryAnyKeyset(byQuantity, new KeysetCursor(KeysetCursor.Direction.NEXT, List.of("name", "id"), List.of("a", "1")).encode()));
+        assertThrows(ValidationException.class,
+                () -> products.queryAnyKeyset(byQuantity, new KeysetCursor(KeysetCursor.Direction.NEXT, List.of("quantity", "id"), List.of("many", "1")).encode()));
+    }
+
+    @FunctionalInterface
+    private interface PageReader<T> {
+        CursorPaginationWrapper<List<T>> read(QueryWrapper wrapper, String cursor);
+    }
+
+    /**
+     * Reads every page forward, then walks back from the last page and checks each previous page
+     * matches the one seen on the way forward.
+     */
+    private static <T> List<List<Long>> walk(Sort sort, int size, Function<T, Long> id, PageReader<T> reader) {
+        QueryWrapper wrapper = QueryWrapper.builder().pageable(PageRequest.of(0, size, sort)).build();
+        List<List<Long>> pages = new ArrayList<>();
+        List<CursorPaginationWrapper<List<T>>> results = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPaginationWrapper<List<T>> page = reader.read(wrapper, cursor);
+            assertEquals(cursor != null, page.isHasPrevious());
+            pages.add(page.getData().stream().map(id).toList());
+            results.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertFalse(results.get(results.size() - 1).isHasNext());
+
+        for (int i = results.size() - 1; i > 0; i--) {
+            CursorPaginationWrapper<List<T>> previous = reader.read(wrapper, results.get(i).getPreviousCursor());
+            assertEquals(pages.get(i - 1), previous.getData().stream().map(id).toList());
+            assertTrue(previous.isHasNext());
+            assertEquals(i > 1, previous.isHasPrevious());
+        }
+        assertNull(results.get(0).getPreviousCursor());
+        return pages;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
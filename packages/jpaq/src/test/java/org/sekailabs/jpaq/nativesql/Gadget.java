@@ -0,0 +1,42 @@
+package org.sekailabs.jpaq.nativesql;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+public class Gadget {
+    public enum Kind { BOOK, GAME, TOOL }
+
+    @Id
+    private Long id;
+    private String code;
+    private Boolean active;
+    @Enumerated(EnumType.STRING)
+    private Kind kind;
+    private Double weight;
+    private BigDecimal price;
+    private LocalDate released;
+    private LocalDateTime updatedAt;
+    private String note;
+    @Version
+    private Long version;
+
+    /**
+     * Every column, to compare rows read by different paths.
+     */
+    String row() {
+        return id + "|" + code + "|" + active + "|" + kind + "|" + weight + "|" + price + "|" + released + "|" + updatedAt + "|" + note + "|" + version;
+    }
+}
@@ -0,0 +1,6 @@
+package org.sekailabs.jpaq.nativesql;
+
+import org.sekailabs.jpaq.repositories.BaseRepository;
+
+public interface GadgetRepository extends BaseRepository<Gadget, Long> {
+}
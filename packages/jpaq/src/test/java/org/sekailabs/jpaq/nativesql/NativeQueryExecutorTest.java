@@ -0,0 +1,178 @@
+package org.sekailabs.jpaq.nativesql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.models.constant.CountStrategyEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.PaginationWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Differential test of the native fast path against the Criteria path on H2: random filter, sort
+ * and page combinations must return the same rows and totals either way.
+ */
+class NativeQueryExecutorTest {
+    private static final int ROWS = 500;
+    private static final String[] SORTABLE = {"id", "code", "kind", "weight", "price", "released", "note", "active"};
+
+    private static SessionFactory sessionFactory;
+    private static EntityManager entityManager;
+    private static GadgetRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Gadget.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:native;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            for (int i = 1; i <= ROWS; i++) {
+                Gadget gadget = new Gadget();
+                gadget.setId((long) i);
+                gadget.setCode((i % 11 == 0 ? "x_%" : "c") + i);
+                gadget.setActive(i % 5 == 0 ? null : i % 2 == 0);
+                gadget.setKind(Gadget.Kind.values()[i % 3]);
+                gadget.setWeight(i % 9 == 0 ? null : i * 0.25);
+                gadget.setPrice(new BigDecimal(i % 17 + ".25"));
+                gadget.setReleased(LocalDate.of(2024, 1, 1).plusDays(i % 40));
+                gadget.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i * 7L));
+                gadget.setNote(i % 4 == 0 ? null : "n" + i % 6);
+                session.persist(gadget);
+            }
+        });
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        JpaqContext.setEntityManager(entityManager);
+        repository = new JpaRepositoryFactory(entityManager).getRepository(GadgetRepository.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        JpaqContext.setEntityManager(null);
+        sessionFactory.close();
+    }
+
+    @AfterEach
+    void disableFastPath() {
+        JpaqContext.setNativeFastPath(false);
+    }
+
+    @Test
+    void returnsTheSameRowsAsCriteria() {
+        Random random = new Random(42);
+        for (int n = 0; n < 500; n++) {
+            Map<String, QueryFieldWrapper> search = randomSearch(random);
+            Pageable pageable = randomPageable(random);
+            CountStrategyEnum countStrategy = random.nextBoolean() ? CountStrategyEnum.EXACT : CountStrategyEnum.SKIP;
+
+            JpaqContext.setNativeFastPath(false);
+            String criteria = describe(repository.queryAny(search, pageable, countStrategy));
+            JpaqContext.setNativeFastPath(true);
+            String fast = describe(repository.queryAny(search, pageable, countStrategy));
+            assertEquals(criteria, fast, () -> "Query " + search + " " + pageable);
+        }
+    }
+
+    @Test
+    void returnsManagedInstancesInsideTransactions() {
+        JpaqContext.setNativeFastPath(true);
+        Map<String, QueryFieldWrapper> search = Map.of("code", condition(QueryOperatorEnum.EQ, "c1"));
+        new TransactionTemplate(new JpaTransactionManager(sessionFactory)).executeWithoutResult(status -> {
+            Gadget managed = entityManager.find(Gadget.class, 1L);
+            managed.setNote("pending");
+            PaginationWrapper<List<Gadget>> page = repository.queryAny(search, PageRequest.of(0, 5), CountStrategyEnum.EXACT);
+            assertEquals(1, page.getData().size());
+            assertSame(managed, page.getData().get(0));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void readsUnflushedChangesInsideTransactions() {
+        JpaqContext.setNativeFastPath(true);
+        Map<String, QueryFieldWrapper> search = Map.of("code", condition(QueryOperatorEnum.EQ, "fresh"));
+        new TransactionTemplate(new JpaTransactionManager(sessionFactory)).executeWithoutResult(status -> {
+            Gadget gadget = new Gadget();
+            gadget.setId(ROWS + 1L);
+            gadget.setCode("fresh");
+            entityManager.persist(gadget);
+            PaginationWrapper<List<Gadget>> page = repository.queryAny(search, PageRequest.of(0, 5), CountStrategyEnum.EXACT);
+            assertEquals(1, page.getTotalElements());
+            assertSame(gadget, page.getData().get(0));
+            status.setRollbackOnly();
+        });
+    }
+
+    private static Map<String, QueryFieldWrapper> randomSearch(Random random) {
+        Map<String, QueryFieldWrapper> search = new HashMap<>();
+        for (int j = random.nextInt(4); j > 0; j--) {
+            switch (random.nextInt(12)) {
+                case 0 -> search.put("kind", condition(QueryOperatorEnum.EQ, Gadget.Kind.values()[random.nextInt(3)].name()));
+                case 1 -> search.put("active", condition(random.nextBoolean() ? QueryOperatorEnum.EQ : QueryOperatorEnum.NE, String.valueOf(random.nextBoolean())));
+                case 2 -> search.put("weight", condition(QueryOperatorEnum.values()[2 + random.nextInt(4)], String.valueOf(random.nextInt(130))));
+                case 3 -> search.put("price", condition(QueryOperatorEnum.BETWEEN, List.of(random.nextInt(8) + ".00", 8 + random.nextInt(10) + ".5")));
+                case 4 -> search.put("released", condition(QueryOperatorEnum.GTE, "2024-01-" + (10 + random.nextInt(20))));
+                case 5 -> search.put("updatedAt", condition(QueryOperatorEnum.LT, LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(random.nextInt(3500)).toString()));
+                case 6 -> search.put("code", condition(QueryOperatorEnum.LIKE, String.valueOf(random.nextInt(50))));
+                case 7 -> search.put("code", condition(QueryOperatorEnum.STARTS_WITH, random.nextBoolean() ? "x_%" : "c1"));
+                case 8 -> {
+                    List<Object> ids = new ArrayList<>();
+                    for (int m = random.nextInt(6); m >= 0; m--) {
+                        ids.add(String.valueOf(random.nextInt(600)));
+                    }
+                    search.put("id", condition(random.nextBoolean() ? QueryOperatorEnum.IN : QueryOperatorEnum.NOT_IN, ids));
+                }
+                case 9 -> search.put("note", condition(random.nextBoolean() ? QueryOperatorEnum.IN : QueryOperatorEnum.NOT_IN, List.of("n1", "n3", "n" + random.nextInt(6))));
+                case 10 -> search.put("note", condition(QueryOperatorEnum.NE, "n2"));
+                default -> search.put("weight", condition(QueryOperatorEnum.GT, "abc"));
+            }
+        }
+        return search;
+    }
+
+    private static Pageable randomPageable(Random random) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (random.nextBoolean()) {
+            String property = SORTABLE[random.nextInt(SORTABLE.length)];
+            orders.add(random.nextBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property));
+        }
+        orders.add(random.nextBoolean() ? Sort.Order.asc("id") : Sort.Order.desc("id"));
+        return PageRequest.of(random.nextInt(4), 1 + random.nextInt(40), Sort.by(orders));
+    }
+
+    private static QueryFieldWrapper condition(QueryOperatorEnum operator, Object value) {
+        return QueryFieldWrapper.builder().operator(operator).value(value).build();
+    }
+
+    private static String describe(PaginationWrapper<List<Gadget>> page) {
+        return page.getData().stream().map(Gadget::row).toList()
+                + " total=" + page.getTotalElements() + " pages=" + page.getTotalPages() + " next=" + page.isHasNext();
+    }
+}
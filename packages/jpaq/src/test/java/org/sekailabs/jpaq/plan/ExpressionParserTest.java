@@ -0,0 +1,121 @@
+package org.sekailabs.jpaq.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.expression.QueryCondition;
+import org.sekailabs.jpaq.expression.QueryExpression;
+import org.sekailabs.jpaq.expression.QueryGroup;
+import org.sekailabs.jpaq.expression.QueryNot;
+import org.sekailabs.jpaq.models.constant.QueryLogicalOperatorEnum;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Filter expression grammar: precedence, negation, grouping, escapes, the depth cap and errors.
+ */
+class ExpressionParserTest {
+    private static final int DEFAULT_DEPTH = JpaqContext.getMaxExpressionDepth();
+
+    @AfterEach
+    void restoreDepth() {
+        JpaqContext.setMaxExpressionDepth(DEFAULT_DEPTH);
+    }
+
+    @Test
+    void andBindsTighterThanOr() {
+        QueryGroup or = group(ExpressionParser.parse("a=1;b=2|c=3;d=4"), QueryLogicalOperatorEnum.OR);
+
+        assertEquals(2, or.getChildren().size());
+        assertEquals(List.of("a", "b"), fields(group(or.getChildren().get(0), QueryLogicalOperatorEnum.AND)));
+        assertEquals(List.of("c", "d"), fields(group(or.getChildren().get(1), QueryLogicalOperatorEnum.AND)));
+    }
+
+    @Test
+    void parenthesesOverridePrecedence() {
+        QueryGroup and = group(ExpressionParser.parse("a=1;(b=2|c=3)"), QueryLogicalOperatorEnum.AND);
+
+        assertEquals("a", ((QueryCondition) and.getChildren().get(0)).getField());
+        assertEquals(List.of("b", "c"), fields(group(and.getChildren().get(1), QueryLogicalOperatorEnum.OR)));
+        assertEquals(List.of("a", "b", "c"), fields(group(ExpressionParser.parse("(a=1|b=2)|c=3"), QueryLogicalOperatorEnum.OR)));
+    }
+
+    @Test
+    void negatesTheFollowingConditionOrGroup() {
+        QueryGroup and = group(ExpressionParser.parse("!a=1;b=2"), QueryLogicalOperatorEnum.AND);
+        assertEquals("a", ((QueryCondition) ((QueryNot) and.getChildren().get(0)).getExpression()).getField());
+
+        QueryNot not = assertInstanceOf(QueryNot.class, ExpressionParser.parse(" ! ( a=1 | b=2 ) "));
+        assertEquals(List.of("a", "b"), fields(group(not.getExpression(), QueryLogicalOperatorEnum.OR)));
+
+        assertInstanceOf(QueryCondition.class, ExpressionParser.parse("!!a=1"));
+    }
+
+    @Test
+    void parsesValuesWithTheQueryStringOperators() {
+        QueryGroup and = group(ExpressionParser.parse("quantity=>=5;name=~a\\;b\\|c\\);status=!DRAFT;customer-region=EU,US"), QueryLogicalOperatorEnum.AND);
+
+        assertCondition(and.getChildren().get(0), "quantity", QueryOperatorEnum.GTE, "5");
+        assertCondition(and.getChildren().get(1), "name", QueryOperatorEnum.LIKE, "a;b|c)");
+        assertCondition(and.getChildren().get(2), "status", QueryOperatorEnum.NE, "DRAFT");
+        assertCondition(and.getChildren().get(3), "customerRegion", QueryOperatorEnum.IN, List.of("EU", "US"));
+    }
+
+    @Test
+    void capsNestingDepth() {
+        ExpressionParser.parse("((a=1))", 2);
+        assertDepthRejected(() -> ExpressionParser.parse("(((a=1)))", 2), 2);
+        assertDepthRejected(() -> ExpressionParser.parse("!(!a=1)", 2), 2);
+
+        JpaqContext.setMaxExpressionDepth(3);
+        ExpressionParser.parse("!(!a=1)");
+        assertDepthRejected(() -> ExpressionParser.parse("((((a=1))))"), 3);
+        assertDepthRejected(() -> ExpressionParser.parse("(".repeat(100_000)), 3);
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertError("", "Missing condition at position 0");
+        assertError("a=1;", "Missing condition at position 4");
+        assertError("(a=1", "Missing ')' at position 4");
+        assertError("a", "Missing '=' in condition at position 1");
+        assertError("a;b=1", "Missing '=' in condition at position 1");
+        assertError("=1", "Missing field name at position 0");
+        assertError("a= ;b=1", "Missing value for a at position 3");
+        assertError("a=1)", "Unexpected ')' at position 3");
+    }
+
+    private static void assertDepthRejected(Runnable parse, int depth) {
+        ValidationException error = assertThrows(ValidationException.class, parse::run);
+        assertEquals("Filter expression is nested deeper than " + depth + " levels", error.getMessage());
+    }
+
+    private static void assertError(String expression, String message) {
+        ValidationException error = assertThrows(ValidationException.class, () -> ExpressionParser.parse(expression), expression);
+        assertEquals(message + " of the filter expression", error.getMessage(), expression);
+    }
+
+    private static void assertCondition(QueryExpression expression, String field, QueryOperatorEnum operator, Object value) {
+        QueryCondition condition = assertInstanceOf(QueryCondition.class, expression);
+        assertEquals(field, condition.getField());
+        assertEquals(operator, condition.getWrapper().getOperator());
+        assertEquals(value, condition.getWrapper().getValue());
+    }
+
+    private static QueryGroup group(QueryExpression expression, QueryLogicalOperatorEnum operator) {
+        QueryGroup group = assertInstanceOf(QueryGroup.class, expression);
+        assertEquals(operator, group.getOperator());
+        return group;
+    }
+
+    private static List<String> fields(QueryGroup group) {
+        return group.getChildren().stream().map(child -> ((QueryCondition) child).getField()).toList();
+    }
+}
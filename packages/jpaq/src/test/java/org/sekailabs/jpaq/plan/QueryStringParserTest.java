@@ -0,0 +1,105 @@
+package org.sekailabs.jpaq.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.models.constant.QueryOperatorEnum;
+import org.sekailabs.jpaq.models.wrapper.QueryFieldWrapper;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+
+import jakarta.validation.ValidationException;
+
+/**
+ * Query string grammar: operators, percent decoding per slice, duplicate keys and strict mode.
+ */
+class QueryStringParserTest {
+
+    @Test
+    void splitsAtTheFirstEqualsSign() {
+        Map<String, QueryFieldWrapper> fields = parse("quantity=>=5&price=<=9&created=>2024&rank=<3");
+
+        assertField(fields, "quantity", QueryOperatorEnum.GTE, "5");
+        assertField(fields, "price", QueryOperatorEnum.LTE, "9");
+        assertField(fields, "created", QueryOperatorEnum.GT, "2024");
+        assertField(fields, "rank", QueryOperatorEnum.LT, "3");
+    }
+
+    @Test
+    void parsesEveryOperator() {
+        Map<String, QueryFieldWrapper> fields = parse("name=~lamp&body=@red lamp&status=!DRAFT&region=EU,US,&quantity=1..9&since=2024..&id=7");
+
+        assertField(fields, "name", QueryOperatorEnum.LIKE, "lamp");
+        assertField(fields, "body", QueryOperatorEnum.SEARCH, "red lamp");
+        assertField(fields, "status", QueryOperatorEnum.NE, "DRAFT");
+        assertField(fields, "region", QueryOperatorEnum.IN, List.of("EU", "US"));
+        assertField(fields, "quantity", QueryOperatorEnum.BETWEEN, List.of("1", "9"));
+        assertField(fields, "since", QueryOperatorEnum.BETWEEN, "2024..");
+        assertField(fields, "id", QueryOperatorEnum.EQ, "7");
+    }
+
+    @Test
+    void convertsKebabKeysAndSkipsEmptyPairs() {
+        Map<String, QueryFieldWrapper> fields = parse("&customer-region=EU&=x&empty=&flag&tags.label=red&");
+
+        assertEquals(List.of("customerRegion", "tags.label"), List.copyOf(fields.keySet()));
+    }
+
+    @Test
+    void decodesOnlyTheSlicesThatNeedIt() {
+        Map<String, QueryFieldWrapper> fields = parse("customer%2Dregion=EU&name=~caf%C3%A9&title=red+lamp&note=a%26b");
+
+        assertField(fields, "customerRegion", QueryOperatorEnum.EQ, "EU");
+        assertField(fields, "name", QueryOperatorEnum.LIKE, "café");
+        assertField(fields, "title", QueryOperatorEnum.EQ, "red lamp");
+        assertField(fields, "note", QueryOperatorEnum.EQ, "a&b");
+        assertEquals(4, fields.size());
+    }
+
+    @Test
+    void duplicatesKeepTheLastValue() {
+        QueryPlan plan = QueryPlan.compile("status=DRAFT&name=lamp&status=ACTIVE");
+        Map<String, QueryFieldWrapper> search = new LinkedHashMap<>();
+        plan.applyTo(search);
+
+        assertField(search, "status", QueryOperatorEnum.EQ, "ACTIVE");
+        assertEquals("status", plan.getDuplicateKey());
+        assertNull(QueryPlan.compile("status=DRAFT&name=lamp").getDuplicateKey());
+    }
+
+    @Test
+    void strictRejectsDuplicates() {
+        Set<String> seen = new HashSet<>();
+        ValidationException error = assertThrows(ValidationException.class,
+                () -> QueryStringParser.parse("a=1&b=2&a=3", true, (field, wrapper) -> seen.add(field)));
+        assertEquals("Duplicate query parameter: a", error.getMessage());
+    }
+
+    @Test
+    void strictIsIndependentOfBuilderOrder() {
+        String query = "status=DRAFT&status=ACTIVE";
+
+        assertThrows(ValidationException.class, () -> QueryWrapper.builder().strict(true).search(query).build());
+        assertThrows(ValidationException.class, () -> QueryWrapper.builder().search(query).strict(true).build());
+        assertEquals("ACTIVE", QueryWrapper.builder().search(query).build().searchByField("status").getValue());
+    }
+
+    private static Map<String, QueryFieldWrapper> parse(String query) {
+        Map<String, QueryFieldWrapper> fields = new LinkedHashMap<>();
+        QueryStringParser.parse(query, false, (field, wrapper) -> fields.put(field, wrapper) == null);
+        return fields;
+    }
+
+    private static void assertField(Map<String, QueryFieldWrapper> fields, String name, QueryOperatorEnum operator, Object value) {
+        QueryFieldWrapper field = fields.get(name);
+        assertEquals(operator, field.getOperator(), name);
+        assertEquals(value, field.getValue(), name);
+    }
+}
@@ -0,0 +1,152 @@
+package org.sekailabs.jpaq.predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.config.JpaqContext;
+import org.sekailabs.jpaq.fixture.Customer;
+import org.sekailabs.jpaq.fixture.H2Database;
+import org.sekailabs.jpaq.fixture.Memo;
+import org.sekailabs.jpaq.fixture.Product;
+import org.sekailabs.jpaq.fixture.ProductRepository;
+import org.sekailabs.jpaq.fixture.Tag;
+import org.sekailabs.jpaq.metamodel.EntityDescriptor;
+import org.sekailabs.jpaq.metamodel.EntityDescriptorCache;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * {@code queryAnyIn} on H2 through the array parameter, including an {@code @Enumerated(STRING)}
+ * field whose names must be bound instead of ordinals, and through padded, chunked IN lists.
+ */
+class InListPredicateTest {
+    private static final int PRODUCTS = 40;
+    private static final int DEFAULT_THRESHOLD = JpaqContext.getInListArrayThreshold();
+    private static final int DEFAULT_CHUNK_SIZE = JpaqContext.getInListChunkSize();
+
+    private static H2Database database;
+    private static ProductRepository products;
+
+    /**
+     * Products 1..40 with status by i % 3 and quantity i % 7.
+     */
+    @BeforeAll
+    static void setUp() {
+        database = H2Database.start("inlist", Customer.class, Tag.class, Product.class, Memo.class);
+        products = database.repository(ProductRepository.class);
+        database.inSession(session -> {
+            for (long i = 1; i <= PRODUCTS; i++) {
+                session.persist(new Product(i, "product " + i, status(i), (int) (i % 7), null));
+            }
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @AfterEach
+    void restoreLimits() {
+        JpaqContext.setInListArrayThreshold(DEFAULT_THRESHOLD);
+        JpaqContext.setInListChunkSize(DEFAULT_CHUNK_SIZE);
+    }
+
+    @Test
+    void bindsLongListsAsOneArray() {
+        assertTrue(InListPredicate.supportsArrays(database.entityManager().getCriteriaBuilder()));
+        List<Long> keys = new ArrayList<>(LongStream.rangeClosed(1, DEFAULT_THRESHOLD + 100).boxed().toList());
+        keys.removeIf(id -> id % 2 == 0);
+        keys.addAll(List.of(1L, 3L, 5L));
+
+        List<Product> found = products.queryAnyIn(sorted(Sort.by("id")), "id", keys);
+
+        assertEquals(expected(i -> i % 2 == 1), ids(found));
+    }
+
+    @Test
+    void bindsEnumNamesAboveTheThreshold() {
+        JpaqContext.setInListArrayThreshold(1);
+
+        List<Product> found = products.queryAnyIn(sorted(Sort.by("id")), "status", List.of("RETIRED", "active", "bogus", "ACTIVE"));
+
+        assertEquals(expected(i -> status(i) != Product.Status.DRAFT), ids(found));
+    }
+
+    @Test
+    void appliesFiltersWithTheArray() {
+        JpaqContext.setInListArrayThreshold(1);
+        QueryWrapper wrapper = QueryWrapper.builder()
+                .search("quantity=>=3")
+                .pageable(PageRequest.of(3, 2, Sort.by(Sort.Order.desc("id"))))
+                .build();
+
+        List<Product> found = products.queryAnyIn(wrapper, "status", List.of(Product.Status.DRAFT));
+
+        assertEquals(expected(i -> status(i) == Product.Status.DRAFT && i % 7 >= 3).reversed(), ids(found));
+    }
+
+    @Test
+    void splitsShortListsIntoPaddedChunks() {
+        JpaqContext.setInListArrayThreshold(1000);
+        JpaqContext.setInListChunkSize(4);
+        List<Long> keys = List.of(3L, 1L, 4L, 15L, 9L, 26L, 5L, 35L, 99L, 7L);
+
+        List<Product> found = products.queryAnyIn(sorted(Sort.by("id")), "id", keys);
+
+        assertEquals(keys.stream().filter(id -> id <= PRODUCTS).sorted().toList(), ids(found));
+    }
+
+    @Test
+    void padsToThePowerOfTwoBelowTheLimit() {
+        List<Object> three = List.of(1, 2, 3);
+        assertEquals(List.of(1, 2, 3, 3), InListPredicate.pad(three, 64));
+        assertEquals(List.of(1, 2, 3, 4, 5, 5, 5, 5), InListPredicate.pad(List.of(1, 2, 3, 4, 5), 64));
+        assertEquals(List.of(1, 2, 3, 4, 5, 5), InListPredicate.pad(List.of(1, 2, 3, 4, 5), 6));
+        assertSame(three, InListPredicate.pad(three, 3));
+        assertEquals(List.of(List.of(1, 2), List.of(3)), InListPredicate.chunks(List.of(1, 2, 3), 2));
+    }
+
+    @Test
+    void comparatorMatchesTheDatabaseOrder() {
+        EntityDescriptor descriptor = EntityDescriptorCache.get(database.entityManager().getMetamodel(), Product.class);
+        Sort sort = Sort.by(Sort.Order.desc("status"), Sort.Order.asc("quantity"), Sort.Order.asc("id"));
+        List<Product> all = products.findAll();
+        Comparator<Product> comparator = InListPredicate.comparator(descriptor, sort);
+
+        List<Product> merged = Stream.concat(all.stream().filter(p -> p.getId() % 2 == 0), all.stream().filter(p -> p.getId() % 2 == 1))
+                .sorted(comparator)
+                .toList();
+
+        assertEquals(ids(products.findAll(sort)), ids(merged));
+    }
+
+    private static Product.Status status(long id) {
+        return Product.Status.values()[(int) (id % 3)];
+    }
+
+    private static QueryWrapper sorted(Sort sort) {
+        return QueryWrapper.builder().pageable(PageRequest.of(0, 10, sort)).build();
+    }
+
+    private static List<Long> expected(Predicate<Long> matching) {
+        return LongStream.rangeClosed(1, PRODUCTS).boxed().filter(matching).toList();
+    }
+
+    private static List<Long> ids(List<Product> found) {
+        return found.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package org.sekailabs.jpaq.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.jpaq.fixture.Customer;
+import org.sekailabs.jpaq.fixture.H2Database;
+import org.sekailabs.jpaq.fixture.Memo;
+import org.sekailabs.jpaq.fixture.Product;
+import org.sekailabs.jpaq.fixture.ProductRepository;
+import org.sekailabs.jpaq.fixture.Tag;
+import org.sekailabs.jpaq.models.wrapper.QueryWrapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Filter expressions over a to-many association on H2: a NOT must exclude every product with a
+ * matching tag, not keep the products that also have some other tag as a plain join would.
+ */
+class QueryAnyExpressionTest {
+    private static final int PRODUCTS = 20;
+
+    private static H2Database database;
+    private static ProductRepository products;
+
+    /**
+     * Products 1..20: tag red for odd ids, blue for multiples of 4 or 5, so 5 and 15 carry both
+     * and 2, 6, 14 and 18 none; customer EU for odd ids.
+     */
+    @BeforeAll
+    static void setUp() {
+        database = H2Database.start("expression", Customer.class, Tag.class, Product.class, Memo.class);
+        products = database.repository(ProductRepository.class);
+        database.inSession(session -> {
+            Customer eu = new Customer(1L, "Anna", "EU");
+            Tag red = new Tag(1L, "red");
+            Tag blue = new Tag(2L, "blue");
+            List.of(eu, red, blue).forEach(session::persist);
+            for (long i = 1; i <= PRODUCTS; i++) {
+                Product product = new Product(i, "product " + i, Product.Status.ACTIVE, (int) i, i % 2 == 1 ? eu : null);
+                if (i % 2 == 1) product.getTags().add(red);
+                if (i % 4 == 0 || i % 5 == 0) product.getTags().add(blue);
+                session.persist(product);
+            }
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void notOverCollectionExcludesEveryMatchingRow() {
+        List<Long> naiveJoin = ids(i -> i % 4 == 0 || i % 5 == 0);
+
+        List<Long> found = query("!tags.label=red");
+
+        assertEquals(ids(i -> i % 2 == 0), found);
+        assertNotEquals(naiveJoin, found);
+    }
+
+    @Test
+    void notOverCollectionInsideGroups() {
+        assertEquals(ids(i -> i % 2 == 0 && i % 4 != 0 && i % 5 != 0), query("!(tags.label=red|tags.label=blue)"));
+        assertEquals(ids(i -> i % 2 == 0 || i == 15), query("!tags.label=red|quantity=15"));
+        assertEquals(ids(i -> i % 2 == 1 && i != 5 && i != 15), query("customer.region=EU;!tags.label=blue"));
+    }
+
+    private static List<Long> query(String expression) {
+        QueryWrapper wrapper = QueryWrapper.builder().where(expression).build();
+        return products.queryAny(wrapper, PageRequest.of(0, 100, Sort.by("id"))).map(Product::getId).getContent();
+    }
+
+    private static List<Long> ids(Predicate<Long> matching) {
+        return LongStream.rangeClosed(1, PRODUCTS).boxed().filter(matching).toList();
+    }
+}
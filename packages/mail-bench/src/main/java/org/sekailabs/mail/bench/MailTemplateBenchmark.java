@@ -0,0 +1,113 @@
+package org.sekailabs.mail.bench;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sekailabs.mail.model.BaseMailModel;
+import org.sekailabs.mail.template.MailTemplate;
+import org.sekailabs.mail.template.MailTemplateRenderer;
+
+/**
+ * Mails rendered per millisecond from a newsletter sized template: one mail through the cached
+ * plan, a bulk of {@link #BULK} mails in parallel, and the template parsed again for every mail.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailTemplateBenchmark {
+    private static final int BULK = 1000;
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{\\s*([^}]+?)\\s*}}");
+
+    private final MailTemplate template = MailTemplate.builder()
+            .id("newsletter")
+            .subject("{{firstName}}, your {{month}} digest")
+            .text("Hello {{firstName}} {{lastName}},\n\n" + "Here is what happened in {{month}}.\n".repeat(40)
+                    + "Unsubscribe: {{unsubscribeUrl}}\n")
+            .html("<html><body><p>Hello {{firstName}} {{lastName}},</p>"
+                    + "<p>Here is what happened in <b>{{month}}</b>.</p>".repeat(40)
+                    + "<a href=\"{{unsubscribeUrl}}\">Unsubscribe</a></body></html>")
+            .version(1L)
+            .build();
+    private MailTemplateRenderer renderer;
+    private BaseMailModel mail;
+    private List<BaseMailModel> bulk;
+
+    @Setup
+    public void setup() {
+        renderer = MailTemplateRenderer.builder()
+                .source(id -> template)
+                .reloadInterval(Duration.ofDays(1))
+                .build();
+        mail = mail(0);
+        bulk = new ArrayList<>(BULK);
+        for (int i = 0; i < BULK; i++) {
+            bulk.add(mail(i));
+        }
+    }
+
+    @Benchmark
+    public BaseMailModel render() {
+        return renderer.render(mail);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK)
+    public List<BaseMailModel> renderAll() {
+        return renderer.renderAll(bulk);
+    }
+
+    /**
+     * Without a cached plan: the template is scanned for variables again for every mail.
+     */
+    @Benchmark
+    public BaseMailModel parseEveryTime() {
+        Map<String, String> variables = mail.getVariables();
+        return BaseMailModel.builder()
+                .to(mail.getTo())
+                .subject(replace(template.getSubject(), variables))
+                .text(replace(template.getText(), variables))
+                .html(replace(template.getHtml(), variables))
+                .build();
+    }
+
+    private static String replace(String source, Map<String, String> variables) {
+        Matcher matcher = VARIABLE.matcher(source);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(out, Matcher.quoteReplacement(variables.get(matcher.group(1))));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private static BaseMailModel mail(int i) {
+        return BaseMailModel.builder()
+                .to(List.of("reader" + i + "@example.com"))
+                .templateId("newsletter")
+                .variables(Map.of(
+                        "firstName", "Reader" + i,
+                        "lastName", "O'Neil & Sons",
+                        "month", "March",
+                        "unsubscribeUrl", "https://example.com/unsubscribe?u=" + i))
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package org.sekailabs.mail.dispatch;
+
+import lombok.Getter;
+
+/**
+ * A mail that could not be delivered: the server rejected it permanently ({@code 5xx}), or it
+ * still failed after the last retry.
+ */
+@Getter
+public class MailDeliveryException extends RuntimeException {
+    private final int attempts;
+    private final boolean permanent;
+
+    public MailDeliveryException(String message, Throwable cause, int attempts, boolean permanent) {
+        super(message, cause);
+        this.attempts = attempts;
+        this.permanent = permanent;
+    }
+}
@@ -0,0 +1,501 @@
+package org.sekailabs.mail.dispatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.sekailabs.mail.model.BaseMailModel;
+import org.sekailabs.mail.template.MailTemplateRenderer;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Asynchronous SMTP sender: callers {@link #submit(BaseMailModel) submit} mails to a bounded queue
+ * and get a future, while worker threads drain the queue in batches over a
+ * {@link SmtpConnectionPool pool} of reused connections.
+ * <ul>
+ *     <li>A full queue blocks {@code submit} for up to {@code enqueueTimeout} and then rejects the
+ *     mail, so producers slow down to the rate the server accepts instead of piling up memory.</li>
+ *     <li>Each worker takes up to {@code batchSize} queued mails and sends them back to back on one
+ *     connection; the SMTP handshake is paid once per connection, not per mail.</li>
+ *     <li>Transient failures (connection errors, {@code 4xx} replies) are retried up to
+ *     {@code maxAttempts} times with exponential backoff and jitter; {@code 5xx} replies and
+ *     malformed addresses fail the mail at once with a {@link MailDeliveryException}.</li>
+ * </ul>
+ * Counters are available through {@link #stats()}.
+ */
+public class MailDispatcher implements AutoCloseable {
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final Session session;
+    private final MailTemplateRenderer renderer;
+    private final SmtpConnectionPool pool;
+    private final BlockingQueue<Envelope> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration enqueueTimeout;
+    private final ExecutorService retries;
+    private final List<Thread> workers;
+    private final Set<Envelope> backingOff = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sendTimeNanos = new LongAdder();
+    private final LongAdder deliveryTimeNanos = new LongAdder();
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    private MailDispatcher(Builder builder) {
+        if (builder.host == null) {
+            throw new IllegalArgumentException("SMTP host is required");
+        }
+        this.session = Session.getInstance(builder.sessionProperties());
+        this.renderer = builder.renderer;
+        this.pool = new SmtpConnectionPool(session, builder.host, builder.port, builder.username, builder.password,
+                builder.maxConnections, builder.maxMessagesPerConnection, builder.maxIdle);
+        this.queue = new LinkedBlockingQueue<>(builder.queueCapacity);
+        this.batchSize = builder.batchSize;
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.enqueueTimeout = builder.enqueueTimeout;
+        this.retries = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mail-retry-", 0).factory());
+        ThreadFactory threadFactory = builder.threadFactory != null ? builder.threadFactory : defaultThreadFactory();
+        this.workers = new ArrayList<>(builder.maxConnections);
+        for (int i = 0; i < builder.maxConnections; i++) {
+            workers.add(threadFactory.newThread(this::work));
+        }
+        workers.forEach(Thread::start);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Queues {@code mail} for delivery. The future completes once the server accepted the mail, or
+     * exceptionally with a {@link MailDeliveryException}. Blocks while the queue is full, up to the
+     * enqueue timeout, then throws {@link RejectedExecutionException}; invalid mails throw
+     * {@link IllegalArgumentException} right away. Templated mails are rendered here when the
+     * dispatcher has a renderer.
+     */
+    public CompletableFuture<Void> submit(BaseMailModel mail) {
+        if (!accepting) {
+            throw new RejectedExecutionException("Mail dispatcher is closed");
+        }
+        Envelope envelope = new Envelope(MimeMessages.of(session, renderer == null ? mail : renderer.render(mail)));
+        inFlight.incrementAndGet();
+        boolean queued;
+        try {
+            queued = queue.offer(envelope, enqueueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Mail queue is full");
+        }
+        submitted.increment();
+        return envelope.future;
+    }
+
+    public MailDispatcherStats stats() {
+        return MailDispatcherStats.builder()
+                .submitted(submitted.sum())
+                .rejected(rejected.sum())
+                .sent(sent.sum())
+                .failed(failed.sum())
+                .retried(retried.sum())
+                .batches(batches.sum())
+                .totalSendTimeNanos(sendTimeNanos.sum())
+                .totalDeliveryTimeNanos(deliveryTimeNanos.sum())
+                .connectionsOpened(pool.getOpened())
+                .connectionsClosed(pool.getClosed())
+                .queued(queue.size())
+                .inFlight(inFlight.get())
+                .build();
+    }
+
+    /**
+     * Stops accepting mails and waits up to {@code timeout} for the queued ones, retries included,
+     * to be delivered; whatever is left then fails with a {@link MailDeliveryException}.
+     */
+    public void close(Duration timeout) {
+        accepting = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                // a worker finishes the batch it is sending, then sees running and stops
+                worker.join(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 2 * POLL_NANOS)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        retries.shutdownNow();
+        Envelope envelope;
+        while ((envelope = queue.poll()) != null) {
+            fail(envelope, new MailDeliveryException("Mail dispatcher closed before delivery", null, envelope.attempts, false));
+        }
+        for (Envelope waiting : backingOff) {
+            if (backingOff.remove(waiting)) {
+                fail(waiting, new MailDeliveryException("Mail dispatcher closed before delivery", null, waiting.attempts, false));
+            }
+        }
+        pool.close();
+    }
+
+    @Override
+    public void close() {
+        close(Duration.ofSeconds(30));
+    }
+
+    private void work() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Envelope first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                if (!running) return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Envelope> batch) {
+        batches.increment();
+        SmtpConnectionPool.Connection connection = null;
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Envelope envelope = batch.get(i);
+                if (envelope.future.isDone()) {
+                    // cancelled by the caller while queued
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                if (connection == null) {
+                    try {
+                        connection = pool.borrow();
+                    } catch (MessagingException | RuntimeException | InterruptedException e) {
+                        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                        // no connection for now: the rest of the batch is retried as a whole,
+                        // and the failed connect counts as an attempt of each mail
+                        for (int j = i; j < batch.size(); j++) {
+                            batch.get(j).attempts++;
+                            failed(batch.get(j), e);
+                        }
+                        return;
+                    }
+                }
+                envelope.attempts++;
+                long start = System.nanoTime();
+                try {
+                    connection.send(envelope.message);
+                    long end = System.nanoTime();
+                    sendTimeNanos.add(end - start);
+                    deliveryTimeNanos.add(end - envelope.submittedAt);
+                    sent.increment();
+                    inFlight.decrementAndGet();
+                    envelope.future.complete(null);
+                    if (pool.exhausted(connection)) {
+                        // the server's cap on mails per session applies within a batch too
+                        pool.release(connection, false);
+                        connection = null;
+                    }
+                } catch (MessagingException | RuntimeException e) {
+                    // a rejected mail leaves the session usable, anything else may have broken it
+                    if (!(e instanceof SendFailedException)) {
+                        pool.release(connection, true);
+                        connection = null;
+                    }
+                    failed(envelope, e);
+                }
+            }
+        } finally {
+            if (connection != null) {
+                pool.release(connection, false);
+            }
+        }
+    }
+
+    private void failed(Envelope envelope, Exception error) {
+        boolean permanent = isPermanent(error);
+        if (permanent || envelope.attempts >= maxAttempts || !running) {
+            fail(envelope, new MailDeliveryException(
+                    permanent ? "Mail rejected: " + error.getMessage() : "Mail not delivered after " + envelope.attempts + " attempts: " + error.getMessage(),
+                    error, envelope.attempts, permanent));
+            return;
+        }
+        retried.increment();
+        backingOff.add(envelope);
+        CompletableFuture.delayedExecutor(backoffNanos(envelope.attempts), TimeUnit.NANOSECONDS, retries).execute(() -> requeue(envelope));
+    }
+
+    private void requeue(Envelope envelope) {
+        // close() fails the mails still backing off
+        if (!backingOff.remove(envelope)) return;
+        try {
+            // retries bypass the enqueue timeout: the mail was already accepted
+            queue.put(envelope);
+        } catch (InterruptedException e) {
+            fail(envelope, new MailDeliveryException("Mail dispatcher closed before delivery", e, envelope.attempts, false));
+        }
+    }
+
+    private void fail(Envelope envelope, MailDeliveryException error) {
+        failed.increment();
+        inFlight.decrementAndGet();
+        envelope.future.completeExceptionally(error);
+    }
+
+    /**
+     * {@code initialBackoff * 2^(attempts - 1)}, capped at {@code maxBackoff}, with full jitter over
+     * its upper half so retries of one outage do not arrive together.
+     */
+    private long backoffNanos(int attempts) {
+        long base = initialBackoff.toNanos() << Math.min(attempts - 1, 30);
+        long capped = base <= 0 ? maxBackoff.toNanos() : Math.min(base, maxBackoff.toNanos());
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    /**
+     * Virtual threads where blocking inside {@code synchronized} no longer pins the carrier thread
+     * (JDK 24 and later). The SMTP transport does its socket I/O in synchronized methods, so before
+     * that every network wait of a virtual worker would hold one of the few carriers shared by all
+     * virtual threads of the process; platform threads are used there, one per connection.
+     */
+    private static ThreadFactory defaultThreadFactory() {
+        if (Runtime.version().feature() >= 24) {
+            return Thread.ofVirtual().name("mail-dispatcher-", 0).factory();
+        }
+        return Thread.ofPlatform().name("mail-dispatcher-", 0).daemon().factory();
+    }
+
+    /**
+     * Whether retrying cannot help: the server answered with a {@code 5xx} reply, or an address or
+     * message was rejected without any reply code.
+     */
+    static boolean isPermanent(Throwable error) {
+        boolean rejected = false;
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SMTPSendFailedException send) return send.getReturnCode() >= 500;
+            if (cause instanceof SMTPAddressFailedException address) {
+                if (address.getReturnCode() < 500) return false;
+                rejected = true;
+            }
+        }
+        return rejected;
+    }
+
+    private static final class Envelope {
+        private final MimeMessage message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final long submittedAt = System.nanoTime();
+        private int attempts;
+
+        private Envelope(MimeMessage message) {
+            this.message = message;
+        }
+    }
+
+    public static class Builder {
+        private String host;
+        private int port = 25;
+        private String username;
+        private String password;
+        private boolean startTls;
+        private boolean ssl;
+        private final Properties properties = new Properties();
+        private int queueCapacity = 10_000;
+        private Duration enqueueTimeout = Duration.ofSeconds(10);
+        private int maxConnections = 4;
+        private int maxMessagesPerConnection = 100;
+        private Duration maxIdle = Duration.ofSeconds(30);
+        private int batchSize = 50;
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private Duration maxBackoff = Duration.ofMinutes(1);
+        private Duration timeout = Duration.ofSeconds(30);
+        private ThreadFactory threadFactory;
+        private MailTemplateRenderer renderer;
+
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Credentials for {@code AUTH}; without them the connection is not authenticated.
+         */
+        public Builder credentials(String username, String password) {
+            this.username = username;
+            this.password = password;
+            return this;
+        }
+
+        public Builder startTls(boolean startTls) {
+            this.startTls = startTls;
+            return this;
+        }
+
+        public Builder ssl(boolean ssl) {
+            this.ssl = ssl;
+            return this;
+        }
+
+        /**
+         * Extra {@code mail.smtp.*} session property; overrides the defaults set by the builder.
+         */
+        public Builder property(String key, String value) {
+            this.properties.setProperty(key, value);
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive");
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * How long {@code submit} waits for room in a full queue; {@link Duration#ZERO} rejects at once.
+         */
+        public Builder enqueueTimeout(Duration enqueueTimeout) {
+            this.enqueueTimeout = enqueueTimeout;
+            return this;
+        }
+
+        /**
+         * Size of the connection pool, which is also the number of workers.
+         */
+        public Builder maxConnections(int maxConnections) {
+            if (maxConnections <= 0) throw new IllegalArgumentException("Maximum connections must be positive");
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder maxMessagesPerConnection(int maxMessagesPerConnection) {
+            if (maxMessagesPerConnection <= 0) throw new IllegalArgumentException("Maximum messages per connection must be positive");
+            this.maxMessagesPerConnection = maxMessagesPerConnection;
+            return this;
+        }
+
+        public Builder maxIdle(Duration maxIdle) {
+            this.maxIdle = maxIdle;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Attempts per mail, the first one included.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) throw new IllegalArgumentException("Maximum attempts must be positive");
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder backoff(Duration initialBackoff, Duration maxBackoff) {
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Connect, read and write timeout of the SMTP socket.
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Factory of the worker threads, one per connection; by default virtual threads on runtimes
+         * where they do not pin carriers in the SMTP transport, platform threads otherwise.
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Renders templated mails on submit; for large batches rendering them beforehand with
+         * {@link MailTemplateRenderer#renderAll(java.util.List)} uses all cores instead.
+         */
+        public Builder renderer(MailTemplateRenderer renderer) {
+            this.renderer = renderer;
+            return this;
+        }
+
+        public MailDispatcher build() {
+            return new MailDispatcher(this);
+        }
+
+        private Properties sessionProperties() {
+            Properties session = new Properties();
+            String protocol = ssl ? "smtps" : "smtp";
+            String millis = Long.toString(timeout.toMillis());
+            session.setProperty("mail.transport.protocol", protocol);
+            session.setProperty("mail." + protocol + ".connectiontimeout", millis);
+            session.setProperty("mail." + protocol + ".timeout", millis);
+            session.setProperty("mail." + protocol + ".writetimeout", millis);
+            session.setProperty("mail." + protocol + ".auth", Boolean.toString(username != null));
+            session.setProperty("mail." + protocol + ".starttls.enable", Boolean.toString(startTls));
+            session.setProperty("mail." + protocol + ".starttls.required", Boolean.toString(startTls));
+            // closing a pooled connection should not wait for the reply to QUIT
+            session.setProperty("mail." + protocol + ".quitwait", "false");
+            session.putAll(properties);
+            return session;
+        }
+    }
+}
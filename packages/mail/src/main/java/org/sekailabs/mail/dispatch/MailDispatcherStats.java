@@ -0,0 +1,35 @@
+package org.sekailabs.mail.dispatch;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MailDispatcherStats {
+    private long submitted;
+    private long rejected;
+    private long sent;
+    private long failed;
+    private long retried;
+    private long batches;
+    private long totalSendTimeNanos;
+    private long totalDeliveryTimeNanos;
+    private long connectionsOpened;
+    private long connectionsClosed;
+    private int queued;
+    private int inFlight;
+
+    /**
+     * Average time of one SMTP transaction ({@code MAIL FROM} to the end of {@code DATA}).
+     */
+    public double averageSendTimeNanos() {
+        return sent == 0 ? 0d : (double) totalSendTimeNanos / sent;
+    }
+
+    /**
+     * Average time from submission to successful delivery, queueing and retries included.
+     */
+    public double averageDeliveryTimeNanos() {
+        return sent == 0 ? 0d : (double) totalDeliveryTimeNanos / sent;
+    }
+}
@@ -0,0 +1,89 @@
+package org.sekailabs.mail.dispatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.sekailabs.mail.model.BaseMailModel;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+
+/**
+ * Turns a {@link BaseMailModel} into a ready to send {@link MimeMessage}.
+ */
+public final class MimeMessages {
+    private static final String CHARSET = StandardCharsets.UTF_8.name();
+
+    private MimeMessages() {}
+
+    /**
+     * Builds the message and computes its headers ({@link MimeMessage#saveChanges()}), so it can be
+     * handed to a connected transport as it is. Invalid addresses, mails without any recipient and
+     * templated mails that were not rendered throw {@link IllegalArgumentException}.
+     */
+    public static MimeMessage of(Session session, BaseMailModel mail) {
+        if (mail.getTemplateId() != null) {
+            throw new IllegalArgumentException("Mail template " + mail.getTemplateId() + " is not rendered");
+        }
+        if (isEmpty(mail.getTo()) && isEmpty(mail.getCc()) && isEmpty(mail.getBcc())) {
+            throw new IllegalArgumentException("A mail needs at least one recipient");
+        }
+        try {
+            MimeMessage message = new MimeMessage(session);
+            if (mail.getFrom() != null) {
+                message.setFrom(new InternetAddress(mail.getFrom(), true));
+            } else {
+                message.setFrom();
+            }
+            if (mail.getReplyTo() != null) {
+                message.setReplyTo(InternetAddress.parse(mail.getReplyTo(), true));
+            }
+            addRecipients(message, Message.RecipientType.TO, mail.getTo());
+            addRecipients(message, Message.RecipientType.CC, mail.getCc());
+            addRecipients(message, Message.RecipientType.BCC, mail.getBcc());
+            message.setSubject(mail.getSubject(), CHARSET);
+
+            if (mail.getText() != null && mail.getHtml() != null) {
+                MimeMultipart alternative = new MimeMultipart("alternative");
+                MimeBodyPart text = new MimeBodyPart();
+                text.setText(mail.getText(), CHARSET, "plain");
+                alternative.addBodyPart(text);
+                MimeBodyPart html = new MimeBodyPart();
+                html.setText(mail.getHtml(), CHARSET, "html");
+                alternative.addBodyPart(html);
+                message.setContent(alternative);
+            } else if (mail.getHtml() != null) {
+                message.setText(mail.getHtml(), CHARSET, "html");
+            } else {
+                message.setText(mail.getText() == null ? "" : mail.getText(), CHARSET, "plain");
+            }
+
+            if (mail.getHeaders() != null) {
+                for (Map.Entry<String, String> header : mail.getHeaders().entrySet()) {
+                    message.setHeader(header.getKey(), header.getValue());
+                }
+            }
+            message.saveChanges();
+            return message;
+        } catch (MessagingException e) {
+            throw new IllegalArgumentException("Invalid mail: " + e.getMessage(), e);
+        }
+    }
+
+    private static void addRecipients(MimeMessage message, Message.RecipientType type, List<String> addresses) throws MessagingException {
+        if (isEmpty(addresses)) return;
+        for (String address : addresses) {
+            message.addRecipients(type, InternetAddress.parse(address, true));
+        }
+    }
+
+    private static boolean isEmpty(List<String> addresses) {
+        return addresses == null || addresses.isEmpty();
+    }
+}
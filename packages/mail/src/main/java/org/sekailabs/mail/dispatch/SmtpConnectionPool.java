@@ -0,0 +1,150 @@
+package org.sekailabs.mail.dispatch;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Bounded pool of authenticated SMTP connections, so the TCP, TLS and {@code AUTH} handshakes are
+ * paid once per connection instead of once per mail.
+ * <p>
+ * Idle connections are handed out most recently used first, which keeps a few connections hot and
+ * lets the rest reach {@code maxIdle} and be closed. A connection idle for more than a second is
+ * checked with {@code NOOP} before reuse, and one that has sent {@code maxMessagesPerConnection}
+ * mails is closed and replaced, since many servers cap the mails per session.
+ */
+final class SmtpConnectionPool implements AutoCloseable {
+    private static final long VALIDATE_AFTER_IDLE_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+    private final Semaphore permits;
+    private final BlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private volatile boolean shutdown;
+
+    SmtpConnectionPool(Session session, String host, int port, String username, String password, int maxConnections, int maxMessagesPerConnection, Duration maxIdle) {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.permits = new Semaphore(maxConnections);
+    }
+
+    /**
+     * An open connection for the caller's exclusive use; blocks while all connections are in use.
+     * Must be given back with {@link #release(Connection, boolean)}.
+     */
+    Connection borrow() throws MessagingException, InterruptedException {
+        if (shutdown) throw new IllegalStateException("Connection pool is closed");
+        permits.acquire();
+        try {
+            Connection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                long idleNanos = System.nanoTime() - connection.lastUsed;
+                if (idleNanos < VALIDATE_AFTER_IDLE_NANOS) return connection;
+                if (idleNanos < maxIdleNanos && connection.transport.isConnected()) return connection;
+                close(connection);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection; a {@code broken} one (after an I/O failure) is closed.
+     */
+    void release(Connection connection, boolean broken) {
+        try {
+            if (broken || shutdown || exhausted(connection)) {
+                close(connection);
+            } else {
+                connection.lastUsed = System.nanoTime();
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+        // a connection released after close() raced with it
+        if (shutdown) closeIdle();
+    }
+
+    /**
+     * Whether the connection has sent its {@code maxMessagesPerConnection} mails and should be
+     * released before the next one.
+     */
+    boolean exhausted(Connection connection) {
+        return connection.sent >= maxMessagesPerConnection;
+    }
+
+    long getOpened() {
+        return opened.sum();
+    }
+
+    long getClosed() {
+        return closed.sum();
+    }
+
+    @Override
+    public void close() {
+        shutdown = true;
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    private Connection open() throws MessagingException {
+        Transport transport = session.getTransport();
+        transport.connect(host, port, username, password);
+        opened.increment();
+        return new Connection(transport);
+    }
+
+    private void close(Connection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException ignored) {
+            // the connection is dropped either way
+        } finally {
+            closed.increment();
+        }
+    }
+
+    static final class Connection {
+        private final Transport transport;
+        private int sent;
+        private long lastUsed = System.nanoTime();
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+
+        void send(MimeMessage message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+            sent++;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.sekailabs.mail.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.sekailabs.mail.dispatch.MailDispatcher;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes {@link MailDispatcher#stats()} as {@code mail.dispatch.*} meters.
+ */
+public class MailDispatcherMetrics implements MeterBinder {
+    private final MailDispatcher dispatcher;
+
+    public MailDispatcherMetrics(MailDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("mail.dispatch.mails", dispatcher, d -> d.stats().getSent())
+                .tag("result", "sent")
+                .register(registry);
+        FunctionCounter.builder("mail.dispatch.mails", dispatcher, d -> d.stats().getFailed())
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("mail.dispatch.mails", dispatcher, d -> d.stats().getRejected())
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("mail.dispatch.retries", dispatcher, d -> d.stats().getRetried())
+                .register(registry);
+        FunctionCounter.builder("mail.dispatch.batches", dispatcher, d -> d.stats().getBatches())
+                .register(registry);
+        FunctionCounter.builder("mail.dispatch.connections.opened", dispatcher, d -> d.stats().getConnectionsOpened())
+                .register(registry);
+        Gauge.builder("mail.dispatch.queued", dispatcher, d -> d.stats().getQueued())
+                .register(registry);
+        Gauge.builder("mail.dispatch.in.flight", dispatcher, d -> d.stats().getInFlight())
+                .register(registry);
+        FunctionTimer.builder("mail.dispatch.send", dispatcher,
+                        d -> d.stats().getSent(),
+                        d -> d.stats().getTotalSendTimeNanos(),
+                        TimeUnit.NANOSECONDS)
+                .register(registry);
+        FunctionTimer.builder("mail.dispatch.delivery", dispatcher,
+                        d -> d.stats().getSent(),
+                        d -> d.stats().getTotalDeliveryTimeNanos(),
+                        TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+}
@@ -1,14 +1,41 @@
 package org.sekailabs.mail.model;
 
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * One outgoing mail. Addresses use the RFC 822 form ({@code "Name <user@example.com>"} or just the
+ * address); when both {@code text} and {@code html} are set the mail is sent as
+ * {@code multipart/alternative}.
+ * <p>
+ * {@code idempotencyKey} identifies the mail across retries of the code that produces it: the
+ * outbox accepts one mail per key (see {@link org.sekailabs.mail.outbox.MailOutbox}).
+ * <p>
+ * A mail with a {@code templateId} gets its subject and bodies from that template, filled in with
+ * {@code variables} (see {@link org.sekailabs.mail.template.MailTemplateRenderer}).
+ */
 @Builder
 @NoArgsConstructor
+@AllArgsConstructor
 @Getter
 @Setter
 public class BaseMailModel {
-    
+    private String from;
+    private String replyTo;
+    private List<String> to;
+    private List<String> cc;
+    private List<String> bcc;
+    private String subject;
+    private String text;
+    private String html;
+    private Map<String, String> headers;
+    private String idempotencyKey;
+    private String templateId;
+    private Map<String, String> variables;
 }
@@ -0,0 +1,156 @@
+package org.sekailabs.mail.outbox;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sekailabs.mail.model.BaseMailModel;
+
+/**
+ * Compact binary form of a {@link BaseMailModel} for the outbox journal: a format version, then
+ * every field in declaration order. Strings are a length (-1 for {@code null}) and UTF-8 bytes;
+ * lists and maps are a size (-1 for {@code null}) and their elements. Version 1 records, written
+ * before the template fields existed, are still read.
+ */
+final class MailCodec {
+    private static final byte VERSION = 2;
+
+    private MailCodec() {}
+
+    static byte[] encode(BaseMailModel mail) {
+        Writer writer = new Writer();
+        writer.put(VERSION);
+        writer.string(mail.getFrom());
+        writer.string(mail.getReplyTo());
+        writer.strings(mail.getTo());
+        writer.strings(mail.getCc());
+        writer.strings(mail.getBcc());
+        writer.string(mail.getSubject());
+        writer.string(mail.getText());
+        writer.string(mail.getHtml());
+        writer.map(mail.getHeaders());
+        writer.string(mail.getIdempotencyKey());
+        writer.string(mail.getTemplateId());
+        writer.map(mail.getVariables());
+        return writer.toByteArray();
+    }
+
+    static BaseMailModel decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalStateException("Unsupported outbox mail format " + version);
+        }
+        BaseMailModel.BaseMailModelBuilder mail = BaseMailModel.builder()
+                .from(string(buffer))
+                .replyTo(string(buffer))
+                .to(strings(buffer))
+                .cc(strings(buffer))
+                .bcc(strings(buffer))
+                .subject(string(buffer))
+                .text(string(buffer))
+                .html(string(buffer))
+                .headers(map(buffer))
+                .idempotencyKey(string(buffer));
+        if (version >= 2) {
+            mail.templateId(string(buffer)).variables(map(buffer));
+        }
+        return mail.build();
+    }
+
+    static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static List<String> strings(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) return null;
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(string(buffer));
+        }
+        return values;
+    }
+
+    private static Map<String, String> map(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) return null;
+        Map<String, String> values = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            values.put(string(buffer), string(buffer));
+        }
+        return values;
+    }
+
+    /**
+     * Growable heap buffer; the journal copies the result into its mapped segment.
+     */
+    static final class Writer {
+        private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+        Writer put(byte value) {
+            ensure(1).put(value);
+            return this;
+        }
+
+        Writer putLong(long value) {
+            ensure(Long.BYTES).putLong(value);
+            return this;
+        }
+
+        Writer bytes(byte[] value) {
+            ensure(value.length).put(value);
+            return this;
+        }
+
+        Writer string(String value) {
+            if (value == null) {
+                ensure(Integer.BYTES).putInt(-1);
+                return this;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+            return this;
+        }
+
+        private void strings(List<String> values) {
+            if (values == null) {
+                ensure(Integer.BYTES).putInt(-1);
+                return;
+            }
+            ensure(Integer.BYTES).putInt(values.size());
+            values.forEach(this::string);
+        }
+
+        private void map(Map<String, String> values) {
+            if (values == null) {
+                ensure(Integer.BYTES).putInt(-1);
+                return;
+            }
+            ensure(Integer.BYTES).putInt(values.size());
+            values.forEach((key, value) -> string(key).string(value));
+        }
+
+        byte[] toByteArray() {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.get(0, bytes);
+            return bytes;
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package org.sekailabs.mail.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.sekailabs.mail.model.BaseMailModel;
+
+/**
+ * Durable queue of outgoing mails in an append-only journal of memory mapped segment files, so
+ * that accepted mails survive a restart of the process.
+ * <ul>
+ *     <li>{@link #enqueue(BaseMailModel)} returns once the mail is on disk. Concurrent callers share
+ *     one {@code msync} (group commit), so throughput does not stop at one disk flush per mail.</li>
+ *     <li>{@link #claim(int, Duration)} leases pending mails to one consumer; a lease that is neither
+ *     {@link #complete(Collection) completed} nor {@link #release(Collection) released} in time
+ *     expires and the mails are handed out again.</li>
+ *     <li>A mail with an {@code idempotencyKey} is accepted once while it is pending and for
+ *     {@code dedupWindow} after its delivery; enqueueing it again returns the id of the first one.</li>
+ *     <li>Old segments whose records are mostly completed are compacted: the records still needed
+ *     are copied to the newest segment and the file is deleted. Its disk space is reclaimed once
+ *     the garbage collector releases the memory mapping, which may be some time later.</li>
+ * </ul>
+ * On open the journal is replayed; a record torn by a crash is detected by its checksum and
+ * dropped. Delivery is at least once: a mail sent just before a crash, but not yet completed, is
+ * sent again after the restart.
+ */
+public class MailOutbox implements AutoCloseable {
+    private static final byte ENQUEUE = 1;
+    private static final byte COMPLETE = 2;
+    private static final byte KEY = 3;
+    /** type, id and timestamp */
+    private static final int RECORD_PREFIX = 1 + 2 * Long.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long dedupWindowMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private final TreeMap<Long, OutboxSegment> segments = new TreeMap<>();
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private final Map<String, Long> pendingKeys = new HashMap<>();
+    /** keys of delivered mails in completion order, kept for the dedup window */
+    private final LinkedHashMap<String, Delivered> deliveredKeys = new LinkedHashMap<>();
+    private final Deque<Pending> ready = new ArrayDeque<>();
+    private final PriorityQueue<Lease> leases = new PriorityQueue<>();
+    private OutboxSegment active;
+    private long nextId = 1;
+    private int leased;
+    private boolean compacting;
+    private volatile boolean closed;
+    private long enqueued;
+    private long duplicates;
+    private long completed;
+    private long compacted;
+    private long syncs;
+
+    private MailOutbox(Builder builder) {
+        if (builder.directory == null) {
+            throw new IllegalArgumentException("Outbox directory is required");
+        }
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.dedupWindowMillis = builder.dedupWindow.toMillis();
+        open();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Stores {@code mail} and returns its id once it is on disk; a mail whose idempotency key is
+     * already known is not stored again, the id of the known one is returned instead.
+     */
+    public long enqueue(BaseMailModel mail) {
+        return enqueueAll(List.of(mail)).get(0);
+    }
+
+    /**
+     * Stores all {@code mails} with a single disk flush and returns their ids in order.
+     */
+    public List<Long> enqueueAll(List<BaseMailModel> mails) {
+        List<byte[]> bodies = new ArrayList<>(mails.size());
+        for (BaseMailModel mail : mails) {
+            if (mail == null) throw new IllegalArgumentException("Mail is required");
+            // encoding happens before taking the lock, the id is patched in when it is known
+            bodies.add(new MailCodec.Writer()
+                    .put(ENQUEUE)
+                    .putLong(0L)
+                    .putLong(System.currentTimeMillis())
+                    .string(mail.getIdempotencyKey())
+                    .bytes(MailCodec.encode(mail))
+                    .toByteArray());
+        }
+        List<Long> ids = new ArrayList<>(mails.size());
+        OutboxSegment written = null;
+        int end = 0;
+        lock.lock();
+        try {
+            ensureOpen();
+            expireDeliveredKeys(System.currentTimeMillis());
+            for (int i = 0; i < bodies.size(); i++) {
+                String key = mails.get(i).getIdempotencyKey();
+                Long known = key == null ? null : known(key);
+                if (known != null) {
+                    duplicates++;
+                    ids.add(known);
+                    continue;
+                }
+                long id = nextId++;
+                byte[] body = bodies.get(i);
+                ByteBuffer.wrap(body).putLong(1, id);
+                int offset = append(body);
+                Pending entry = new Pending(id, key, active, offset);
+                active.live++;
+                pending.put(id, entry);
+                if (key != null) pendingKeys.put(key, id);
+                ready.addLast(entry);
+                enqueued++;
+                ids.add(id);
+                written = active;
+                end = active.getPosition();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (written != null) {
+            sync(written, end);
+        }
+        return ids;
+    }
+
+    /**
+     * Leases up to {@code max} pending mails for {@code lease}, oldest first. Mails whose lease
+     * expired are handed out again. A mail that cannot be decoded is leased as well, as an entry
+     * with an {@link OutboxEntry#getError() error}, so that the consumer can complete it.
+     */
+    public List<OutboxEntry> claim(int max, Duration lease) {
+        List<OutboxEntry> claimed = new ArrayList<>();
+        List<byte[]> bodies = new ArrayList<>();
+        List<Pending> entries = new ArrayList<>();
+        lock.lock();
+        try {
+            ensureOpen();
+            long now = System.nanoTime();
+            Lease expired;
+            while ((expired = leases.peek()) != null && expired.until - now <= 0) {
+                leases.poll();
+                Pending entry = expired.entry;
+                if (entry.leased && entry.leaseUntil == expired.until && pending.get(entry.id) == entry) {
+                    entry.leased = false;
+                    leased--;
+                    ready.addLast(entry);
+                }
+            }
+            long until = now + lease.toNanos();
+            Pending entry;
+            while (entries.size() < max && (entry = ready.pollFirst()) != null) {
+                // released, completed or re-enqueued entries leave stale references behind
+                if (entry.leased || pending.get(entry.id) != entry) continue;
+                entry.leased = true;
+                entry.leaseUntil = until;
+                leased++;
+                leases.add(new Lease(entry, until));
+                entries.add(entry);
+                bodies.add(entry.segment.read(entry.offset));
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            long id = entries.get(i).id;
+            try {
+                ByteBuffer body = ByteBuffer.wrap(bodies.get(i));
+                body.position(RECORD_PREFIX);
+                MailCodec.string(body);
+                claimed.add(new OutboxEntry(id, MailCodec.decode(body.slice())));
+            } catch (RuntimeException e) {
+                // a record this version cannot read must not hold up the ones behind it
+                claimed.add(new OutboxEntry(id, null, e));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Removes delivered (or permanently failed) mails; their idempotency keys stay known for the
+     * dedup window. Unknown ids are ignored.
+     */
+    public void complete(Collection<Long> ids) {
+        OutboxSegment written = null;
+        int end = 0;
+        lock.lock();
+        try {
+            ensureOpen();
+            long now = System.currentTimeMillis();
+            for (Long id : ids) {
+                Pending entry = pending.remove(id);
+                if (entry == null) continue;
+                if (entry.leased) leased--;
+                entry.segment.live--;
+                // the key is repeated: the enqueue record may be compacted away before this one
+                append(new MailCodec.Writer().put(COMPLETE).putLong(id).putLong(now).string(entry.key).toByteArray());
+                if (entry.key != null) {
+                    pendingKeys.remove(entry.key);
+                    remember(entry.key, new Delivered(id, now, active));
+                }
+                completed++;
+                written = active;
+                end = active.getPosition();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (written != null) {
+            sync(written, end);
+        }
+    }
+
+    /**
+     * Gives leased mails back before their lease expires, e.g. when the consumer cannot take them
+     * now; they are the next ones claimed.
+     */
+    public void release(Collection<Long> ids) {
+        lock.lock();
+        try {
+            List<Long> reversed = new ArrayList<>(ids);
+            for (int i = reversed.size() - 1; i >= 0; i--) {
+                Pending entry = pending.get(reversed.get(i));
+                if (entry == null || !entry.leased) continue;
+                entry.leased = false;
+                leased--;
+                ready.addFirst(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public OutboxStats stats() {
+        lock.lock();
+        try {
+            long bytes = 0;
+            for (OutboxSegment segment : segments.values()) {
+                bytes += segment.getPosition();
+            }
+            return OutboxStats.builder()
+                    .pending(pending.size())
+                    .leased(leased)
+                    .deliveredKeys(deliveredKeys.size())
+                    .enqueued(enqueued)
+                    .duplicates(duplicates)
+                    .completed(completed)
+                    .syncs(syncs)
+                    .segments(segments.size())
+                    .compactedSegments(compacted)
+                    .journalBytes(bytes)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            forceLock.lock();
+            try {
+                for (OutboxSegment segment : segments.values()) {
+                    segment.force(segment.forced, segment.getPosition());
+                    segment.close();
+                }
+            } finally {
+                forceLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(file -> {
+                    long sequence = OutboxSegment.sequence(file);
+                    if (sequence >= 0) segments.put(sequence, OutboxSegment.open(directory, sequence, segmentSize));
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open mail outbox in " + directory, e);
+        }
+        for (OutboxSegment segment : segments.values()) {
+            segment.recover((offset, body) -> replay(segment, offset, body), crc);
+        }
+        expireDeliveredKeys(System.currentTimeMillis());
+        ready.addAll(pending.values());
+        if (segments.isEmpty()) {
+            segments.put(1L, OutboxSegment.open(directory, 1L, segmentSize));
+        }
+        active = segments.lastEntry().getValue();
+    }
+
+    private void replay(OutboxSegment segment, int offset, ByteBuffer body) {
+        byte type = body.get();
+        long id = body.getLong();
+        long timestamp = body.getLong();
+        nextId = Math.max(nextId, id + 1);
+        switch (type) {
+            case ENQUEUE -> {
+                // a compaction interrupted by a crash leaves the record in two segments
+                Pending previous = pending.remove(id);
+                if (previous != null) previous.segment.live--;
+                String key = MailCodec.string(body);
+                pending.put(id, new Pending(id, key, segment, offset));
+                segment.live++;
+                if (key != null) pendingKeys.put(key, id);
+            }
+            case COMPLETE -> {
+                Pending entry = pending.remove(id);
+                if (entry != null) entry.segment.live--;
+                String key = MailCodec.string(body);
+                if (key != null) {
+                    pendingKeys.remove(key);
+                    remember(key, new Delivered(id, timestamp, segment));
+                }
+            }
+            case KEY -> remember(MailCodec.string(body), new Delivered(id, timestamp, segment));
+            default -> throw new IllegalStateException("Unknown outbox record type " + type + " in segment " + segment.getSequence());
+        }
+    }
+
+    private Long known(String key) {
+        Long id = pendingKeys.get(key);
+        if (id != null) return id;
+        Delivered delivered = deliveredKeys.get(key);
+        return delivered == null ? null : delivered.id;
+    }
+
+    private void remember(String key, Delivered delivered) {
+        Delivered previous = deliveredKeys.put(key, delivered);
+        if (previous != null) previous.segment.live--;
+        delivered.segment.live++;
+    }
+
+    private void expireDeliveredKeys(long now) {
+        Iterator<Delivered> iterator = deliveredKeys.values().iterator();
+        while (iterator.hasNext()) {
+            Delivered delivered = iterator.next();
+            if (delivered.completedAt + dedupWindowMillis > now) return;
+            delivered.segment.live--;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Appends a record to the active segment, rolling over to a new one when it is full.
+     */
+    private int append(byte[] body) {
+        if (OutboxSegment.HEADER + body.length > segmentSize) {
+            throw new IllegalArgumentException("Mail of " + body.length + " bytes does not fit in an outbox segment of " + segmentSize + " bytes");
+        }
+        if (!active.hasRoom(body.length)) {
+            roll();
+        }
+        return active.append(body, crc);
+    }
+
+    private void roll() {
+        OutboxSegment previous = active;
+        // whatever a later segment refers to must be on disk first
+        forceLock.lock();
+        try {
+            previous.force(previous.forced, previous.getPosition());
+            previous.forced = previous.getPosition();
+        } finally {
+            forceLock.unlock();
+        }
+        long sequence = previous.getSequence() + 1;
+        active = OutboxSegment.open(directory, sequence, segmentSize);
+        segments.put(sequence, active);
+        if (!compacting) {
+            compact();
+        }
+    }
+
+    /**
+     * Deletes the oldest segments while at most half of their records are still needed, after
+     * copying those to the active segment. Only the oldest segment may go: a completion refers to
+     * an enqueue in the same or an older segment, so it is never replayed without it.
+     */
+    private void compact() {
+        compacting = true;
+        try {
+            expireDeliveredKeys(System.currentTimeMillis());
+            while (segments.size() > 1) {
+                OutboxSegment oldest = segments.firstEntry().getValue();
+                if (oldest == active || oldest.live * 2 > oldest.records) return;
+                for (Pending entry : pending.values()) {
+                    if (entry.segment != oldest) continue;
+                    entry.offset = append(oldest.read(entry.offset));
+                    entry.segment = active;
+                    active.live++;
+                }
+                for (Map.Entry<String, Delivered> key : deliveredKeys.entrySet()) {
+                    Delivered delivered = key.getValue();
+                    if (delivered.segment != oldest) continue;
+                    append(new MailCodec.Writer().put(KEY).putLong(delivered.id).putLong(delivered.completedAt)
+                            .string(key.getKey()).toByteArray());
+                    delivered.segment = active;
+                    active.live++;
+                }
+                forceLock.lock();
+                try {
+                    active.force(active.forced, active.getPosition());
+                    active.forced = active.getPosition();
+                } finally {
+                    forceLock.unlock();
+                }
+                segments.pollFirstEntry();
+                oldest.delete();
+                compacted++;
+            }
+        } finally {
+            compacting = false;
+        }
+    }
+
+    /**
+     * Makes {@code segment} durable up to {@code end}. A thread that finds its range already
+     * flushed by another one returns at once; otherwise it flushes everything appended so far,
+     * on behalf of the threads still waiting for the lock.
+     */
+    private void sync(OutboxSegment segment, int end) {
+        forceLock.lock();
+        try {
+            if (segment.forced >= end) return;
+            if (closed) return;
+            // appends go on meanwhile, the lock order is lock before forceLock
+            int to = segment.getPosition();
+            segment.force(segment.forced, to);
+            segment.forced = to;
+            syncs++;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Mail outbox is closed");
+        }
+    }
+
+    private static final class Pending {
+        private final long id;
+        private final String key;
+        private OutboxSegment segment;
+        private int offset;
+        private boolean leased;
+        private long leaseUntil;
+
+        private Pending(long id, String key, OutboxSegment segment, int offset) {
+            this.id = id;
+            this.key = key;
+            this.segment = segment;
+            this.offset = offset;
+        }
+    }
+
+    private static final class Delivered {
+        private final long id;
+        private final long completedAt;
+        private OutboxSegment segment;
+
+        private Delivered(long id, long completedAt, OutboxSegment segment) {
+            this.id = id;
+            this.completedAt = completedAt;
+            this.segment = segment;
+        }
+    }
+
+    private record Lease(Pending entry, long until) implements Comparable<Lease> {
+        @Override
+        public int compareTo(Lease other) {
+            return Long.compare(until - other.until, 0L);
+        }
+    }
+
+    public static class Builder {
+        private Path directory;
+        private int segmentSize = 16 * 1024 * 1024;
+        private Duration dedupWindow = Duration.ofHours(24);
+
+        /**
+         * Directory of the journal segments; created if missing. One outbox per directory.
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Size of one segment file, which bounds the size of one encoded mail.
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 4096) throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * How long the idempotency key of a delivered mail is remembered.
+         */
+        public Builder dedupWindow(Duration dedupWindow) {
+            this.dedupWindow = dedupWindow;
+            return this;
+        }
+
+        public MailOutbox build() {
+            return new MailOutbox(this);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.sekailabs.mail.outbox;
+
+import org.sekailabs.mail.model.BaseMailModel;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A mail claimed from the {@link MailOutbox}, with the id to complete or release it by. A record
+ * that cannot be decoded is claimed with its {@code error} and no mail.
+ */
+@Getter
+@AllArgsConstructor
+public class OutboxEntry {
+    private final long id;
+    private final BaseMailModel mail;
+    private final RuntimeException error;
+
+    public OutboxEntry(long id, BaseMailModel mail) {
+        this(id, mail, null);
+    }
+}
@@ -0,0 +1,222 @@
+package org.sekailabs.mail.outbox;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.sekailabs.mail.dispatch.MailDeliveryException;
+import org.sekailabs.mail.dispatch.MailDispatcher;
+
+/**
+ * Moves mails from a {@link MailOutbox} to a {@link MailDispatcher}: a background thread claims
+ * batches, submits them, and completes the delivered ones in one journal write per round.
+ * <ul>
+ *     <li>A mail the server rejected for good (or an invalid or undecodable one) is completed as
+ *     well and passed to the {@code onRejected} callback, so it does not come back forever.</li>
+ *     <li>A mail that still failed after the dispatcher's retries stays leased; it is claimed again
+ *     when the lease expires.</li>
+ *     <li>When the dispatcher queue is full the rest of the batch is released and the relay waits.</li>
+ * </ul>
+ * The lease must outlast the dispatcher's own retries, or a mail still being retried is claimed
+ * and sent a second time. The relay stops when the outbox is closed; other failures of a round
+ * are logged and the round is tried again after the poll interval.
+ */
+public class OutboxRelay implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(OutboxRelay.class.getName());
+
+    private final MailOutbox outbox;
+    private final MailDispatcher dispatcher;
+    private final int batchSize;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final BiConsumer<OutboxEntry, Throwable> onRejected;
+    private final Queue<Long> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private OutboxRelay(Builder builder) {
+        if (builder.outbox == null || builder.dispatcher == null) {
+            throw new IllegalArgumentException("Outbox and dispatcher are required");
+        }
+        this.outbox = builder.outbox;
+        this.dispatcher = builder.dispatcher;
+        this.batchSize = builder.batchSize;
+        this.lease = builder.lease;
+        this.pollInterval = builder.pollInterval;
+        this.onRejected = builder.onRejected;
+        this.thread = Thread.ofVirtual().name("mail-outbox-relay").start(this::relay);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Stops claiming, waits up to {@code timeout} for the submitted mails to finish and records
+     * their completion. Mails finishing later stay in the outbox and are sent again on the next
+     * start. Neither the outbox nor the dispatcher is closed.
+     */
+    public void close(Duration timeout) {
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            thread.join(timeout);
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public void close() {
+        close(Duration.ofSeconds(30));
+    }
+
+    private void relay() {
+        while (running) {
+            try {
+                flush();
+                List<OutboxEntry> batch = outbox.claim(batchSize, lease);
+                if (batch.isEmpty() || !submit(batch)) {
+                    TimeUnit.NANOSECONDS.sleep(pollInterval.toNanos());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // the outbox was closed under the relay
+                if (outbox.isClosed()) return;
+                LOGGER.log(System.Logger.Level.WARNING, "Mail outbox relay round failed, retrying", e);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pollInterval.toNanos());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Submits the batch; false when the dispatcher is saturated and the relay should back off.
+     */
+    private boolean submit(List<OutboxEntry> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEntry entry = batch.get(i);
+            if (entry.getError() != null) {
+                rejected(entry, entry.getError());
+                continue;
+            }
+            try {
+                inFlight.incrementAndGet();
+                dispatcher.submit(entry.getMail()).whenComplete((ignored, error) -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause == null) {
+                        completed.add(entry.getId());
+                    } else if (cause instanceof MailDeliveryException delivery && delivery.isPermanent()) {
+                        rejected(entry, delivery);
+                    }
+                    inFlight.decrementAndGet();
+                });
+            } catch (IllegalArgumentException e) {
+                inFlight.decrementAndGet();
+                rejected(entry, e);
+            } catch (RejectedExecutionException | UncheckedIOException e) {
+                // a full dispatcher, or a template source that cannot be read right now
+                inFlight.decrementAndGet();
+                List<Long> rest = new ArrayList<>(batch.size() - i);
+                for (int j = i; j < batch.size(); j++) {
+                    rest.add(batch.get(j).getId());
+                }
+                outbox.release(rest);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rejected(OutboxEntry entry, Throwable error) {
+        completed.add(entry.getId());
+        try {
+            onRejected.accept(entry, error);
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Mail outbox rejection callback failed for mail " + entry.getId(), e);
+        }
+    }
+
+    private void flush() {
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = completed.poll()) != null) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            outbox.complete(ids);
+        }
+    }
+
+    public static class Builder {
+        private MailOutbox outbox;
+        private MailDispatcher dispatcher;
+        private int batchSize = 500;
+        private Duration lease = Duration.ofMinutes(10);
+        private Duration pollInterval = Duration.ofMillis(100);
+        private BiConsumer<OutboxEntry, Throwable> onRejected = (entry, error) -> {};
+
+        public Builder outbox(MailOutbox outbox) {
+            this.outbox = outbox;
+            return this;
+        }
+
+        public Builder dispatcher(MailDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * How long a claimed mail may take before it is claimed again; longer than the dispatcher's
+         * worst case of queueing plus all retries.
+         */
+        public Builder lease(Duration lease) {
+            this.lease = lease;
+            return this;
+        }
+
+        /**
+         * Pause between rounds when the outbox is empty or the dispatcher is full.
+         */
+        public Builder pollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        /**
+         * Called with the mails that are dropped from the outbox because they can never be sent;
+         * an entry without mail could not be decoded. What the callback throws is logged.
+         */
+        public Builder onRejected(BiConsumer<OutboxEntry, Throwable> onRejected) {
+            this.onRejected = onRejected;
+            return this;
+        }
+
+        public OutboxRelay build() {
+            return new OutboxRelay(this);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.sekailabs.mail.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory mapped journal file of fixed size. Records are {@code [length][crc32c][body]} and
+ * follow each other from offset 0; the first zero length, or the first record whose checksum does
+ * not match (a write torn by a crash), ends the segment.
+ * <p>
+ * The JDK offers no supported way to unmap a file: {@link #close()} closes the channel and drops
+ * the buffer, and the mapping, with its address space and on some platforms the lock on the file,
+ * is released once the garbage collector reclaims the buffer. The disk space of a deleted segment
+ * is therefore freed at that point, not when {@link #delete()} returns.
+ */
+final class OutboxSegment {
+    static final int HEADER = 2 * Integer.BYTES;
+    private static final String PREFIX = "outbox-";
+    private static final String SUFFIX = ".log";
+
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    /** {@code null} once closed, so the mapping can be reclaimed; read by flushing threads */
+    private volatile MappedByteBuffer buffer;
+    /** written under the outbox lock, read by flushing threads without it */
+    private volatile int position;
+    /** records written to this segment, and how many of them are still needed */
+    int records;
+    int live;
+    /** end of the range known to be on disk; guarded by the outbox force lock */
+    int forced;
+
+    private OutboxSegment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static OutboxSegment open(Path directory, long sequence, int size) {
+        Path path = directory.resolve(String.format("%s%016d%s", PREFIX, sequence, SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long length = Math.max(channel.size(), size);
+            return new OutboxSegment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open outbox segment " + path, e);
+        }
+    }
+
+    /**
+     * Sequence number of a segment file name, or -1 for other files.
+     */
+    static long sequence(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return -1;
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    boolean hasRoom(int bodyLength) {
+        return position + HEADER + bodyLength <= buffer.capacity();
+    }
+
+    /**
+     * Writes one record at the end and returns its offset; durable after {@link #force(int, int)}.
+     */
+    int append(byte[] body, CRC32C crc) {
+        int offset = position;
+        crc.reset();
+        crc.update(body);
+        buffer.put(offset + HEADER, body);
+        buffer.putInt(offset + Integer.BYTES, (int) crc.getValue());
+        // the length goes last, so a record is never visible before its body
+        buffer.putInt(offset, body.length);
+        position = offset + HEADER + body.length;
+        records++;
+        return offset;
+    }
+
+    byte[] read(int offset) {
+        byte[] body = new byte[buffer.getInt(offset)];
+        buffer.get(offset + HEADER, body);
+        return body;
+    }
+
+    /**
+     * Flushes {@code [from, to)} to disk; a no-op once the segment is closed, since a segment is
+     * only closed after its records were copied and forced elsewhere, or on shutdown after a flush.
+     */
+    void force(int from, int to) {
+        MappedByteBuffer mapped = buffer;
+        if (mapped != null && to > from) {
+            mapped.force(from, to - from);
+        }
+    }
+
+    /**
+     * Replays the intact records and positions the segment after the last one, clearing whatever a
+     * torn write left behind it so that later appends cannot be mistaken for it.
+     */
+    void recover(RecordVisitor visitor, CRC32C crc) {
+        int offset = 0;
+        int capacity = buffer.capacity();
+        while (offset + HEADER <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER + length > capacity) break;
+            byte[] body = new byte[length];
+            buffer.get(offset + HEADER, body);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES)) break;
+            visitor.accept(offset, ByteBuffer.wrap(body));
+            records++;
+            offset += HEADER + length;
+        }
+        position = offset;
+        forced = offset;
+        if (offset + Integer.BYTES <= capacity && buffer.getInt(offset) != 0) {
+            for (int i = offset; i < capacity; i += Long.BYTES) {
+                if (i + Long.BYTES <= capacity) buffer.putLong(i, 0L); else buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+    }
+
+    void close() {
+        buffer = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close outbox segment " + path, e);
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete outbox segment " + path, e);
+        }
+    }
+
+    interface RecordVisitor {
+        void accept(int offset, ByteBuffer body);
+    }
+}
@@ -0,0 +1,19 @@
+package org.sekailabs.mail.outbox;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class OutboxStats {
+    private int pending;
+    private int leased;
+    private int deliveredKeys;
+    private long enqueued;
+    private long duplicates;
+    private long completed;
+    private long syncs;
+    private int segments;
+    private long compactedSegments;
+    private long journalBytes;
+}
@@ -0,0 +1,64 @@
+package org.sekailabs.mail.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Templates stored as files of one directory: {@code <id>.subject}, {@code <id>.txt} and
+ * {@code <id>.html}, UTF-8, any of them optional. The version is the latest modification time.
+ */
+public class DirectoryTemplateSource implements MailTemplateSource {
+    private static final String[] EXTENSIONS = {".subject", ".txt", ".html"};
+
+    private final Path directory;
+
+    public DirectoryTemplateSource(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public MailTemplate load(String id) {
+        String[] parts = new String[EXTENSIONS.length];
+        boolean found = false;
+        for (int i = 0; i < EXTENSIONS.length; i++) {
+            Path file = file(id, EXTENSIONS[i]);
+            try {
+                parts[i] = Files.readString(file, StandardCharsets.UTF_8);
+                found = true;
+            } catch (NoSuchFileException e) {
+                // this part is optional
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read mail template " + file, e);
+            }
+        }
+        if (!found) return null;
+        return new MailTemplate(id, parts[0] == null ? null : parts[0].strip(), parts[1], parts[2], version(id));
+    }
+
+    @Override
+    public long version(String id) {
+        long version = -1L;
+        for (String extension : EXTENSIONS) {
+            try {
+                version = Math.max(version, Files.getLastModifiedTime(file(id, extension)).toMillis());
+            } catch (NoSuchFileException e) {
+                // this part is optional
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read mail template " + id, e);
+            }
+        }
+        return version;
+    }
+
+    private Path file(String id, String extension) {
+        Path file = directory.resolve(id + extension).normalize();
+        if (!file.startsWith(directory.normalize())) {
+            throw new IllegalArgumentException("Invalid mail template id " + id);
+        }
+        return file;
+    }
+}
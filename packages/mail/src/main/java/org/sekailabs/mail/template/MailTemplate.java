@@ -0,0 +1,24 @@
+package org.sekailabs.mail.template;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Source of a mail template as loaded from a {@link MailTemplateSource}. {@code subject},
+ * {@code text} and {@code html} may each be {@code null}; {@code version} changes whenever the
+ * source does (a modification time or a counter).
+ * <p>
+ * Variables are written {@code {{name}}}; in {@code html} their value is HTML escaped, which
+ * {@code {{{name}}}} skips.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class MailTemplate {
+    private final String id;
+    private final String subject;
+    private final String text;
+    private final String html;
+    private final long version;
+}
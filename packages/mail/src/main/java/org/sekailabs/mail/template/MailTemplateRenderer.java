@@ -0,0 +1,246 @@
+package org.sekailabs.mail.template;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import org.sekailabs.mail.model.BaseMailModel;
+
+/**
+ * Fills in templated mails ({@link BaseMailModel#getTemplateId()} set) from a
+ * {@link MailTemplateSource}.
+ * <ul>
+ *     <li>Each template is parsed once into an immutable render plan and cached, up to
+ *     {@code maxTemplates}; beyond that the least recently used one is evicted.</li>
+ *     <li>Every {@code reloadInterval} the source is asked for the version of a cached template,
+ *     and a changed template is parsed again, so edits apply without a restart.</li>
+ *     <li>{@link #renderAll(List)} renders on all cores of a fork-join pool; each thread renders
+ *     into its own reused buffer.</li>
+ * </ul>
+ * A template part (subject, text, html) replaces the same part of the mail; parts the template
+ * does not have are taken from the mail as they are.
+ */
+public class MailTemplateRenderer {
+    private static final int INITIAL_BUFFER = 1024;
+    /** larger buffers are dropped after use instead of being kept by the thread */
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final long TOUCH_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MailTemplateSource source;
+    private final int maxTemplates;
+    private final long reloadIntervalNanos;
+    private final ForkJoinPool pool;
+    private final Map<String, Compiled> cache = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER));
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rendered = new LongAdder();
+
+    private MailTemplateRenderer(Builder builder) {
+        if (builder.source == null) {
+            throw new IllegalArgumentException("Mail template source is required");
+        }
+        this.source = builder.source;
+        this.maxTemplates = builder.maxTemplates;
+        this.reloadIntervalNanos = builder.reloadInterval.toNanos();
+        this.pool = builder.pool != null ? builder.pool : ForkJoinPool.commonPool();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The mail with its template applied, or {@code mail} itself when it has no template. Unknown
+     * templates and missing variables throw {@link IllegalArgumentException}.
+     */
+    public BaseMailModel render(BaseMailModel mail) {
+        String templateId = mail.getTemplateId();
+        if (templateId == null) return mail;
+        Compiled template = template(templateId);
+        Map<String, String> variables = mail.getVariables();
+        BaseMailModel result = BaseMailModel.builder()
+                .from(mail.getFrom())
+                .replyTo(mail.getReplyTo())
+                .to(mail.getTo())
+                .cc(mail.getCc())
+                .bcc(mail.getBcc())
+                .subject(template.subject == null ? mail.getSubject() : render(templateId, template.subject, variables))
+                .text(template.text == null ? mail.getText() : render(templateId, template.text, variables))
+                .html(template.html == null ? mail.getHtml() : render(templateId, template.html, variables))
+                .headers(mail.getHeaders())
+                .idempotencyKey(mail.getIdempotencyKey())
+                .build();
+        rendered.increment();
+        return result;
+    }
+
+    /**
+     * Renders all {@code mails} in parallel, keeping their order; the first invalid mail fails the
+     * whole call with {@link IllegalArgumentException}.
+     */
+    public List<BaseMailModel> renderAll(List<BaseMailModel> mails) {
+        BaseMailModel[] result = new BaseMailModel[mails.size()];
+        // a parallel stream started inside a pool runs on that pool
+        pool.submit(() -> IntStream.range(0, result.length).parallel().forEach(i -> result[i] = render(mails.get(i)))).join();
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Drops the cached plan of a template, e.g. when its source changed and should apply at once.
+     */
+    public void invalidate(String templateId) {
+        cache.remove(templateId);
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    public MailTemplateStats stats() {
+        return MailTemplateStats.builder()
+                .cached(cache.size())
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .reloads(reloads.sum())
+                .evictions(evictions.sum())
+                .rendered(rendered.sum())
+                .build();
+    }
+
+    private Compiled template(String templateId) {
+        long now = System.nanoTime();
+        Compiled cached = cache.get(templateId);
+        if (cached == null) {
+            misses.increment();
+            cached = cache.computeIfAbsent(templateId, id -> compile(id, now));
+            evictIfFull();
+            return cached;
+        }
+        hits.increment();
+        if (now - cached.lastUsed > TOUCH_NANOS) {
+            // a coarse access time is enough for eviction and saves a write per render
+            cached.lastUsed = now;
+        }
+        if (now - cached.checkedAt >= reloadIntervalNanos) {
+            cached.checkedAt = now;
+            if (source.version(templateId) != cached.version) {
+                Compiled reloaded;
+                try {
+                    reloaded = compile(templateId, now);
+                } catch (RuntimeException e) {
+                    // a deleted or broken template is not served from the cache either
+                    cache.remove(templateId, cached);
+                    throw e;
+                }
+                cache.replace(templateId, cached, reloaded);
+                reloads.increment();
+                return reloaded;
+            }
+        }
+        return cached;
+    }
+
+    private Compiled compile(String templateId, long now) {
+        MailTemplate template = source.load(templateId);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown mail template " + templateId);
+        }
+        return new Compiled(
+                template.getSubject() == null ? null : TemplatePlan.compile(templateId, template.getSubject(), false),
+                template.getText() == null ? null : TemplatePlan.compile(templateId, template.getText(), false),
+                template.getHtml() == null ? null : TemplatePlan.compile(templateId, template.getHtml(), true),
+                template.getVersion(), now);
+    }
+
+    private void evictIfFull() {
+        while (cache.size() > maxTemplates) {
+            Map.Entry<String, Compiled> oldest = null;
+            for (Map.Entry<String, Compiled> entry : cache.entrySet()) {
+                if (oldest == null || entry.getValue().lastUsed - oldest.getValue().lastUsed < 0) {
+                    oldest = entry;
+                }
+            }
+            if (oldest != null && cache.remove(oldest.getKey(), oldest.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private String render(String templateId, TemplatePlan plan, Map<String, String> variables) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(plan.literalLength());
+        plan.render(templateId, variables, buffer);
+        String value = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return value;
+    }
+
+    private static final class Compiled {
+        private final TemplatePlan subject;
+        private final TemplatePlan text;
+        private final TemplatePlan html;
+        private final long version;
+        private volatile long checkedAt;
+        private volatile long lastUsed;
+
+        private Compiled(TemplatePlan subject, TemplatePlan text, TemplatePlan html, long version, long now) {
+            this.subject = subject;
+            this.text = text;
+            this.html = html;
+            this.version = version;
+            this.checkedAt = now;
+            this.lastUsed = now;
+        }
+    }
+
+    public static class Builder {
+        private MailTemplateSource source;
+        private int maxTemplates = 256;
+        private Duration reloadInterval = Duration.ofSeconds(10);
+        private ForkJoinPool pool;
+
+        public Builder source(MailTemplateSource source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder maxTemplates(int maxTemplates) {
+            if (maxTemplates <= 0) throw new IllegalArgumentException("Maximum templates must be positive");
+            this.maxTemplates = maxTemplates;
+            return this;
+        }
+
+        /**
+         * How often a cached template is checked for changes; {@link Duration#ZERO} checks on
+         * every render.
+         */
+        public Builder reloadInterval(Duration reloadInterval) {
+            this.reloadInterval = reloadInterval;
+            return this;
+        }
+
+        /**
+         * Pool of {@link #renderAll(List)}; the common pool by default.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public MailTemplateRenderer build() {
+            return new MailTemplateRenderer(this);
+        }
+    }
+}
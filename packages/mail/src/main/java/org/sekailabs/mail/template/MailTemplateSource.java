@@ -0,0 +1,21 @@
+package org.sekailabs.mail.template;
+
+/**
+ * Where templates come from: files, a database, a CMS.
+ */
+public interface MailTemplateSource {
+    /**
+     * The template with this id, or {@code null} when there is none.
+     */
+    MailTemplate load(String id);
+
+    /**
+     * Current version of the template, checked periodically to reload changed templates without
+     * reading them. The default loads the template; sources that can tell the version more cheaply
+     * should override it.
+     */
+    default long version(String id) {
+        MailTemplate template = load(id);
+        return template == null ? -1L : template.getVersion();
+    }
+}
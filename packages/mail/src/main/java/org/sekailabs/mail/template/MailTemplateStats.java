@@ -0,0 +1,15 @@
+package org.sekailabs.mail.template;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MailTemplateStats {
+    private int cached;
+    private long hits;
+    private long misses;
+    private long reloads;
+    private long evictions;
+    private long rendered;
+}
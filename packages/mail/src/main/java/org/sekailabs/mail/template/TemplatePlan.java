@@ -0,0 +1,107 @@
+package org.sekailabs.mail.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into alternating literals and variables; rendering is a walk over these
+ * arrays that appends to a caller supplied buffer. Immutable, shared by all rendering threads.
+ */
+final class TemplatePlan {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;
+    private final String[] names;
+    private final boolean[] escaped;
+    private final int literalLength;
+
+    private TemplatePlan(String[] literals, String[] names, boolean[] escaped) {
+        this.literals = literals;
+        this.names = names;
+        this.escaped = escaped;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses {@code source}; variables are HTML escaped when {@code html} is set, except the ones
+     * written with triple braces.
+     */
+    static TemplatePlan compile(String templateId, String source, boolean html) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Boolean> escaped = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            boolean raw = source.startsWith("{", open + OPEN.length());
+            int start = open + OPEN.length() + (raw ? 1 : 0);
+            int close = source.indexOf(raw ? "}" + CLOSE : CLOSE, start);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed variable in mail template " + templateId + " at offset " + open);
+            }
+            String name = source.substring(start, close).strip();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty variable in mail template " + templateId + " at offset " + open);
+            }
+            literals.add(source.substring(from, open));
+            names.add(name);
+            escaped.add(html && !raw);
+            from = close + CLOSE.length() + (raw ? 1 : 0);
+        }
+        literals.add(source.substring(from));
+        boolean[] flags = new boolean[escaped.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = escaped.get(i);
+        }
+        return new TemplatePlan(literals.toArray(String[]::new), names.toArray(String[]::new), flags);
+    }
+
+    /**
+     * Length of the output without variables, a lower bound to presize buffers with.
+     */
+    int literalLength() {
+        return literalLength;
+    }
+
+    void render(String templateId, Map<String, String> variables, StringBuilder out) {
+        out.append(literals[0]);
+        for (int i = 0; i < names.length; i++) {
+            String value = variables == null ? null : variables.get(names[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing variable " + names[i] + " of mail template " + templateId);
+            }
+            if (escaped[i]) {
+                escapeHtml(value, out);
+            } else {
+                out.append(value);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    private static void escapeHtml(String value, StringBuilder out) {
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity = switch (value.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                // copy the clean run in one go
+                out.append(value, from, i).append(entity);
+                from = i + 1;
+            }
+        }
+        out.append(value, from, value.length());
+    }
+}
@@ -0,0 +1,185 @@
+package org.sekailabs.mail.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sekailabs.mail.model.BaseMailModel;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+class MailDispatcherTest {
+    private GreenMail greenMail;
+
+    @BeforeEach
+    void startServer() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        greenMail.stop();
+    }
+
+    @Test
+    void reusesPooledConnections() throws Exception {
+        try (MailDispatcher dispatcher = greenMailDispatcher().maxConnections(2).maxMessagesPerConnection(1000).batchSize(20).build()) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                futures.add(dispatcher.submit(mail("user" + i % 10 + "@example.com")));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            MailDispatcherStats stats = dispatcher.stats();
+            assertEquals(300, greenMail.getReceivedMessages().length);
+            assertEquals(300, stats.getSent());
+            assertTrue(stats.getConnectionsOpened() <= 2, () -> "opened " + stats.getConnectionsOpened());
+        }
+    }
+
+    @Test
+    void replacesConnectionsAfterMaxMessages() throws Exception {
+        // batches larger than the cap switch connections in the middle
+        try (MailDispatcher dispatcher = greenMailDispatcher().maxConnections(1).maxMessagesPerConnection(10).batchSize(50).build()) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(dispatcher.submit(mail("user@example.com")));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            assertEquals(5, dispatcher.stats().getConnectionsOpened());
+            assertEquals(50, greenMail.getReceivedMessages().length);
+        }
+    }
+
+    @Test
+    void drainsQueuedMailsOnClose() throws Exception {
+        MailDispatcher dispatcher = greenMailDispatcher().maxConnections(2).batchSize(10).build();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(dispatcher.submit(mail("user@example.com")));
+        }
+        dispatcher.close(Duration.ofSeconds(30));
+
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone() && !future.isCompletedExceptionally());
+        }
+        assertEquals(200, greenMail.getReceivedMessages().length);
+        assertEquals(0, dispatcher.stats().getInFlight());
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.submit(mail("user@example.com")));
+    }
+
+    @Test
+    void retriesTransientReplies() throws Exception {
+        try (ScriptedSmtpServer server = new ScriptedSmtpServer();
+             MailDispatcher dispatcher = scriptedDispatcher(server).build()) {
+            server.reply("flaky@example.com", "451 try again later", "421 busy");
+            dispatcher.submit(mail("flaky@example.com")).get(10, TimeUnit.SECONDS);
+
+            MailDispatcherStats stats = dispatcher.stats();
+            assertEquals(List.of("flaky@example.com"), server.accepted());
+            assertEquals(2, stats.getRetried());
+            assertEquals(1, stats.getSent());
+        }
+    }
+
+    @Test
+    void backsOffBetweenRetries() throws Exception {
+        try (ScriptedSmtpServer server = new ScriptedSmtpServer();
+             MailDispatcher dispatcher = scriptedDispatcher(server).backoff(Duration.ofMillis(200), Duration.ofSeconds(1)).build()) {
+            server.reply("flaky@example.com", "451 try again later", "451 try again later");
+            long start = System.nanoTime();
+            dispatcher.submit(mail("flaky@example.com")).get(10, TimeUnit.SECONDS);
+
+            // half of 200ms, then half of 400ms at least, given the jitter
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300));
+        }
+    }
+
+    @Test
+    void failsAfterMaxAttempts() throws Exception {
+        try (ScriptedSmtpServer server = new ScriptedSmtpServer();
+             MailDispatcher dispatcher = scriptedDispatcher(server).maxAttempts(3).build()) {
+            server.reply("down@example.com", "451 a", "451 b", "451 c", "451 d");
+            ExecutionException error = assertThrows(ExecutionException.class,
+                    () -> dispatcher.submit(mail("down@example.com")).get(10, TimeUnit.SECONDS));
+
+            MailDeliveryException delivery = assertInstanceOf(MailDeliveryException.class, error.getCause());
+            assertFalse(delivery.isPermanent());
+            assertEquals(3, delivery.getAttempts());
+            assertTrue(server.accepted().isEmpty());
+        }
+    }
+
+    @Test
+    void rejectsPermanentRepliesWithoutRetry() throws Exception {
+        try (ScriptedSmtpServer server = new ScriptedSmtpServer();
+             MailDispatcher dispatcher = scriptedDispatcher(server).build()) {
+            server.reply("gone@example.com", "550 no such user");
+            CompletableFuture<Void> rejected = dispatcher.submit(mail("gone@example.com"));
+            CompletableFuture<Void> delivered = dispatcher.submit(mail("ok@example.com"));
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+            delivered.get(10, TimeUnit.SECONDS);
+            MailDeliveryException delivery = assertInstanceOf(MailDeliveryException.class, error.getCause());
+            assertTrue(delivery.isPermanent());
+            assertEquals(1, delivery.getAttempts());
+            assertEquals(0, dispatcher.stats().getRetried());
+            assertEquals(List.of("ok@example.com"), server.accepted());
+        }
+    }
+
+    @Test
+    void failsMailsStillBackingOffOnClose() throws Exception {
+        try (ScriptedSmtpServer server = new ScriptedSmtpServer()) {
+            MailDispatcher dispatcher = scriptedDispatcher(server).backoff(Duration.ofMinutes(1), Duration.ofMinutes(1)).build();
+            server.reply("flaky@example.com", "451 try again later");
+            CompletableFuture<Void> future = dispatcher.submit(mail("flaky@example.com"));
+            while (dispatcher.stats().getRetried() == 0) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            dispatcher.close(Duration.ofMillis(100));
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+            MailDeliveryException delivery = assertInstanceOf(MailDeliveryException.class, error.getCause());
+            assertFalse(delivery.isPermanent());
+            assertEquals(0, dispatcher.stats().getInFlight());
+        }
+    }
+
+    private MailDispatcher.Builder greenMailDispatcher() {
+        return MailDispatcher.builder().host("localhost").port(greenMail.getSmtp().getPort());
+    }
+
+    private static MailDispatcher.Builder scriptedDispatcher(ScriptedSmtpServer server) {
+        return MailDispatcher.builder()
+                .host("localhost")
+                .port(server.port())
+                .maxConnections(1)
+                .backoff(Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    private static BaseMailModel mail(String to) {
+        return BaseMailModel.builder()
+                .from("noreply@example.com")
+                .to(List.of(to))
+                .subject("Hello")
+                .text("Hello there")
+                .build();
+    }
+}
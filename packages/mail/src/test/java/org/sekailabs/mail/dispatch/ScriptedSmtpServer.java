@@ -0,0 +1,118 @@
+package org.sekailabs.mail.dispatch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server for reply codes a real test server does not produce: a recipient can be
+ * given a scripted reply for its next {@code RCPT TO} commands, everything else is accepted.
+ */
+final class ScriptedSmtpServer implements AutoCloseable {
+    private final ServerSocket server;
+    private final Map<String, List<String>> replies = new ConcurrentHashMap<>();
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    ScriptedSmtpServer() throws IOException {
+        this.server = new ServerSocket(0);
+        Thread.ofPlatform().daemon().start(this::accept);
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Answers the next {@code RCPT TO} of {@code recipient} with {@code replies}, one per command.
+     */
+    void reply(String recipient, String... replies) {
+        this.replies.put(recipient, new CopyOnWriteArrayList<>(replies));
+    }
+
+    /**
+     * Recipients of the mails that were accepted, in order.
+     */
+    List<String> accepted() {
+        return accepted;
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().start(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.US_ASCII)) {
+            reply(out, "220 scripted");
+            List<String> recipients = new CopyOnWriteArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 scripted");
+                } else if (command.startsWith("MAIL")) {
+                    recipients.clear();
+                    reply(out, "250 ok");
+                } else if (command.startsWith("RCPT")) {
+                    String recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                    List<String> scripted = replies.get(recipient);
+                    if (scripted != null && !scripted.isEmpty()) {
+                        reply(out, scripted.remove(0));
+                    } else {
+                        recipients.add(recipient);
+                        reply(out, "250 ok");
+                    }
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 go ahead");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // the message itself is not checked
+                    }
+                    accepted.addAll(recipients);
+                    reply(out, "250 queued");
+                } else if (command.startsWith("RSET") || command.startsWith("NOOP")) {
+                    reply(out, "250 ok");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 bye");
+                    return;
+                } else {
+                    reply(out, "500 unknown command");
+                }
+            }
+        } catch (IOException e) {
+            // the client went away
+        }
+    }
+
+    private static void reply(PrintWriter out, String reply) {
+        out.print(reply + "\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,77 @@
+package org.sekailabs.mail.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.sekailabs.mail.model.BaseMailModel;
+
+class MailCodecTest {
+    @Test
+    void roundTripsEveryField() {
+        BaseMailModel mail = BaseMailModel.builder()
+                .from("Sender <noreply@example.com>")
+                .replyTo("support@example.com")
+                .to(List.of("a@example.com", "b@example.com"))
+                .cc(List.of())
+                .subject("Grüße")
+                .text("text")
+                .html("<p>html</p>")
+                .headers(Map.of("X-Campaign", "spring"))
+                .idempotencyKey("order-1")
+                .templateId("welcome")
+                .variables(Map.of("name", "Ann"))
+                .build();
+
+        BaseMailModel decoded = MailCodec.decode(ByteBuffer.wrap(MailCodec.encode(mail)));
+
+        assertEquals(mail.getFrom(), decoded.getFrom());
+        assertEquals(mail.getReplyTo(), decoded.getReplyTo());
+        assertEquals(mail.getTo(), decoded.getTo());
+        assertEquals(List.of(), decoded.getCc());
+        assertNull(decoded.getBcc());
+        assertEquals("Grüße", decoded.getSubject());
+        assertEquals(mail.getText(), decoded.getText());
+        assertEquals(mail.getHtml(), decoded.getHtml());
+        assertEquals(mail.getHeaders(), decoded.getHeaders());
+        assertEquals("order-1", decoded.getIdempotencyKey());
+        assertEquals("welcome", decoded.getTemplateId());
+        assertEquals(Map.of("name", "Ann"), decoded.getVariables());
+    }
+
+    @Test
+    void readsFormatOneRecords() {
+        BaseMailModel mail = BaseMailModel.builder()
+                .from("noreply@example.com")
+                .to(List.of("a@example.com"))
+                .subject("Hello")
+                .idempotencyKey("order-1")
+                .build();
+        // format 1 ends after the idempotency key, before the template id and variables
+        byte[] current = MailCodec.encode(mail);
+        byte[] formatOne = Arrays.copyOf(current, current.length - 2 * Integer.BYTES);
+        formatOne[0] = 1;
+
+        BaseMailModel decoded = MailCodec.decode(ByteBuffer.wrap(formatOne));
+
+        assertEquals(List.of("a@example.com"), decoded.getTo());
+        assertEquals("Hello", decoded.getSubject());
+        assertEquals("order-1", decoded.getIdempotencyKey());
+        assertNull(decoded.getTemplateId());
+        assertNull(decoded.getVariables());
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        byte[] record = MailCodec.encode(BaseMailModel.builder().subject("Hello").build());
+        record[0] = 3;
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> MailCodec.decode(ByteBuffer.wrap(record)));
+        assertEquals("Unsupported outbox mail format 3", error.getMessage());
+    }
+}
@@ -0,0 +1,201 @@
+package org.sekailabs.mail.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sekailabs.mail.model.BaseMailModel;
+
+class MailOutboxTest {
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysPendingMailsOnOpen() {
+        long first;
+        long third;
+        try (MailOutbox outbox = outbox()) {
+            first = outbox.enqueue(mail("first", null));
+            long second = outbox.enqueue(mail("second", null));
+            third = outbox.enqueue(mail("third", null));
+            outbox.complete(List.of(second));
+        }
+        try (MailOutbox outbox = outbox()) {
+            assertEquals(2, outbox.stats().getPending());
+            List<OutboxEntry> claimed = outbox.claim(10, LEASE);
+            assertEquals(List.of(first, third), ids(claimed));
+            assertEquals("first", claimed.get(0).getMail().getSubject());
+            assertEquals(List.of("reader@example.com"), claimed.get(0).getMail().getTo());
+            assertEquals(third + 1, outbox.enqueue(mail("fourth", null)));
+        }
+    }
+
+    @Test
+    void dropsRecordTornByCrash() throws IOException {
+        long first;
+        try (MailOutbox outbox = outbox()) {
+            first = outbox.enqueue(mail("first", null));
+            outbox.enqueue(mail("second", null));
+        }
+        try (FileChannel channel = FileChannel.open(segment(1), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            // one byte of the second record's body, so its checksum no longer matches
+            channel.write(ByteBuffer.wrap(new byte[] {42}), 2L * OutboxSegment.HEADER + length.getInt(0) + 20);
+        }
+        long next;
+        try (MailOutbox outbox = outbox()) {
+            assertEquals(List.of(first), ids(outbox.claim(10, LEASE)));
+            next = outbox.enqueue(mail("third", null));
+        }
+        // the torn bytes were cleared, the record appended in their place is intact
+        try (MailOutbox outbox = outbox()) {
+            assertEquals(List.of(first, next), ids(outbox.claim(10, LEASE)));
+        }
+    }
+
+    @Test
+    void compactsSegmentsOfCompletedMails() {
+        List<Long> kept = new ArrayList<>();
+        try (MailOutbox outbox = outbox()) {
+            for (int i = 0; i < 200; i++) {
+                long id = outbox.enqueue(mail("mail " + i + " " + "x".repeat(200), null));
+                if (i % 50 == 0) {
+                    kept.add(id);
+                } else {
+                    outbox.complete(List.of(id));
+                }
+            }
+            OutboxStats stats = outbox.stats();
+            assertTrue(stats.getCompactedSegments() > 0);
+            assertTrue(stats.getSegments() < 4, () -> "segments " + stats.getSegments());
+        }
+        try (MailOutbox outbox = outbox()) {
+            List<OutboxEntry> claimed = outbox.claim(10, LEASE);
+            assertEquals(kept, ids(claimed));
+            assertTrue(claimed.get(0).getMail().getSubject().startsWith("mail 0 "));
+        }
+    }
+
+    @Test
+    void handsOutExpiredLeasesAgain() throws InterruptedException {
+        try (MailOutbox outbox = outbox()) {
+            long first = outbox.enqueue(mail("first", null));
+            long second = outbox.enqueue(mail("second", null));
+            assertEquals(List.of(first, second), ids(outbox.claim(10, Duration.ofMillis(50))));
+            assertTrue(outbox.claim(10, LEASE).isEmpty());
+            assertEquals(2, outbox.stats().getLeased());
+
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(List.of(first, second), ids(outbox.claim(10, LEASE)));
+            outbox.release(List.of(second));
+            assertEquals(List.of(second), ids(outbox.claim(10, LEASE)));
+        }
+    }
+
+    @Test
+    void acceptsIdempotencyKeyOnce() {
+        long id;
+        try (MailOutbox outbox = outbox()) {
+            id = outbox.enqueue(mail("first", "order-1"));
+            assertEquals(id, outbox.enqueue(mail("again", "order-1")));
+            outbox.complete(List.of(id));
+            assertEquals(id, outbox.enqueue(mail("after delivery", "order-1")));
+            assertEquals(2, outbox.stats().getDuplicates());
+            assertEquals(0, outbox.stats().getPending());
+        }
+        try (MailOutbox outbox = outbox()) {
+            assertEquals(id, outbox.enqueue(mail("after restart", "order-1")));
+        }
+    }
+
+    @Test
+    void forgetsKeysAfterDedupWindow() throws InterruptedException {
+        try (MailOutbox outbox = MailOutbox.builder().directory(directory).segmentSize(4096).dedupWindow(Duration.ofMillis(50)).build()) {
+            long id = outbox.enqueue(mail("first", "order-1"));
+            outbox.complete(List.of(id));
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertNotEquals(id, outbox.enqueue(mail("later", "order-1")));
+        }
+    }
+
+    @Test
+    void claimsUndecodableRecordWithError() {
+        writeUndecodable(directory, 1L);
+        try (MailOutbox outbox = outbox()) {
+            long good = outbox.enqueue(mail("good", null));
+            List<OutboxEntry> claimed = outbox.claim(10, LEASE);
+
+            assertEquals(List.of(1L, good), ids(claimed));
+            assertNull(claimed.get(0).getMail());
+            assertInstanceOf(IllegalStateException.class, claimed.get(0).getError());
+            assertEquals("good", claimed.get(1).getMail().getSubject());
+            assertNull(claimed.get(1).getError());
+        }
+    }
+
+    @Test
+    void rejectsUseAfterClose() {
+        MailOutbox outbox = outbox();
+        outbox.close();
+        assertTrue(outbox.isClosed());
+        assertThrows(IllegalStateException.class, () -> outbox.claim(1, LEASE));
+    }
+
+    /**
+     * Writes an enqueue record whose mail is in a format this version cannot read.
+     */
+    static void writeUndecodable(Path directory, long id) {
+        OutboxSegment segment = OutboxSegment.open(directory, 1L, 4096);
+        byte[] body = new MailCodec.Writer()
+                .put((byte) 1)
+                .putLong(id)
+                .putLong(System.currentTimeMillis())
+                .string(null)
+                .bytes(new byte[] {99})
+                .toByteArray();
+        segment.append(body, new CRC32C());
+        segment.force(0, segment.getPosition());
+        segment.close();
+    }
+
+    static BaseMailModel mail(String subject, String idempotencyKey) {
+        return BaseMailModel.builder()
+                .from("noreply@example.com")
+                .to(List.of("reader@example.com"))
+                .subject(subject)
+                .text("Hello")
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+
+    private MailOutbox outbox() {
+        return MailOutbox.builder().directory(directory).segmentSize(4096).build();
+    }
+
+    private Path segment(long sequence) {
+        return directory.resolve(String.format("outbox-%016d.log", sequence));
+    }
+
+    private static List<Long> ids(List<OutboxEntry> entries) {
+        return entries.stream().map(OutboxEntry::getId).toList();
+    }
+}
@@ -0,0 +1,115 @@
+package org.sekailabs.mail.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sekailabs.mail.dispatch.MailDispatcher;
+import org.sekailabs.mail.model.BaseMailModel;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+class OutboxRelayTest {
+    @TempDir
+    Path directory;
+    private GreenMail greenMail;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void start() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        dispatcher = MailDispatcher.builder()
+                .host("localhost")
+                .port(greenMail.getSmtp().getPort())
+                .maxConnections(1)
+                .build();
+    }
+
+    @AfterEach
+    void stop() {
+        dispatcher.close(Duration.ofSeconds(5));
+        greenMail.stop();
+    }
+
+    @Test
+    void deliversAndCompletesMails() throws InterruptedException {
+        try (MailOutbox outbox = outbox(); OutboxRelay relay = relay(outbox, (entry, error) -> {})) {
+            outbox.enqueueAll(List.of(MailOutboxTest.mail("first", null), MailOutboxTest.mail("second", null)));
+            await(() -> outbox.stats().getPending() == 0);
+            assertEquals(2, greenMail.getReceivedMessages().length);
+        }
+    }
+
+    @Test
+    void rejectsInvalidMails() throws InterruptedException {
+        Map<Long, Throwable> rejected = new ConcurrentHashMap<>();
+        try (MailOutbox outbox = outbox(); OutboxRelay relay = relay(outbox, (entry, error) -> rejected.put(entry.getId(), error))) {
+            // no recipient: the dispatcher refuses the mail at once
+            long invalid = outbox.enqueue(BaseMailModel.builder().subject("invalid").text("Hello").build());
+            await(() -> outbox.stats().getPending() == 0);
+            assertInstanceOf(IllegalArgumentException.class, rejected.get(invalid));
+        }
+    }
+
+    @Test
+    void rejectsUndecodableRecords() throws InterruptedException {
+        MailOutboxTest.writeUndecodable(directory, 1L);
+        Map<Long, OutboxEntry> rejected = new ConcurrentHashMap<>();
+        try (MailOutbox outbox = outbox(); OutboxRelay relay = relay(outbox, (entry, error) -> rejected.put(entry.getId(), entry))) {
+            outbox.enqueue(MailOutboxTest.mail("good", null));
+            await(() -> outbox.stats().getPending() == 0);
+            assertNull(rejected.get(1L).getMail());
+            assertEquals(1, rejected.size());
+            assertEquals(1, greenMail.getReceivedMessages().length);
+        }
+    }
+
+    @Test
+    void survivesFailingRejectionCallback() throws InterruptedException {
+        MailOutboxTest.writeUndecodable(directory, 1L);
+        try (MailOutbox outbox = outbox(); OutboxRelay relay = relay(outbox, (entry, error) -> {
+            throw new IllegalStateException("callback failed");
+        })) {
+            await(() -> outbox.stats().getPending() == 0);
+            outbox.enqueue(MailOutboxTest.mail("after", null));
+            await(() -> greenMail.getReceivedMessages().length == 1);
+            await(() -> outbox.stats().getPending() == 0);
+        }
+    }
+
+    private MailOutbox outbox() {
+        return MailOutbox.builder().directory(directory).segmentSize(4096).build();
+    }
+
+    private OutboxRelay relay(MailOutbox outbox, BiConsumer<OutboxEntry, Throwable> onRejected) {
+        return OutboxRelay.builder()
+                .outbox(outbox)
+                .dispatcher(dispatcher)
+                .pollInterval(Duration.ofMillis(10))
+                .onRejected(onRejected)
+                .build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.sekailabs.mail.template;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.sekailabs.mail.model.BaseMailModel;
+
+class MailTemplateRendererTest {
+    private final Map<String, MailTemplate> templates = new ConcurrentHashMap<>();
+
+    @Test
+    void appliesTemplateParts() {
+        put("welcome", "Welcome {{name}}", null, "<p>Hi {{name}}</p>", 1L);
+        MailTemplateRenderer renderer = renderer(Duration.ofMinutes(1), 10);
+
+        BaseMailModel mail = renderer.render(BaseMailModel.builder()
+                .from("noreply@example.com")
+                .to(List.of("reader@example.com"))
+                .text("plain text of the mail")
+                .templateId("welcome")
+                .variables(Map.of("name", "Ann & Bob"))
+                .idempotencyKey("welcome-1")
+                .build());
+
+        assertEquals("Welcome Ann & Bob", mail.getSubject());
+        assertEquals("plain text of the mail", mail.getText());
+        assertEquals("<p>Hi Ann &amp; Bob</p>", mail.getHtml());
+        assertEquals(List.of("reader@example.com"), mail.getTo());
+        assertEquals("welcome-1", mail.getIdempotencyKey());
+    }
+
+    @Test
+    void leavesMailsWithoutTemplateAlone() {
+        BaseMailModel mail = BaseMailModel.builder().subject("plain").build();
+        assertSame(mail, renderer(Duration.ofMinutes(1), 10).render(mail));
+    }
+
+    @Test
+    void rejectsUnknownTemplates() {
+        MailTemplateRenderer renderer = renderer(Duration.ofMinutes(1), 10);
+        assertThrows(IllegalArgumentException.class, () -> renderer.render(mail("missing", "Ann")));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTemplate() throws InterruptedException {
+        put("a", "A {{name}}", null, null, 1L);
+        put("b", "B {{name}}", null, null, 1L);
+        put("c", "C {{name}}", null, null, 1L);
+        MailTemplateRenderer renderer = renderer(Duration.ofMinutes(1), 2);
+
+        renderer.render(mail("a", "Ann"));
+        TimeUnit.MILLISECONDS.sleep(5);
+        renderer.render(mail("b", "Ann"));
+        TimeUnit.MILLISECONDS.sleep(5);
+        // a is now used more recently than b
+        renderer.render(mail("a", "Ann"));
+        TimeUnit.MILLISECONDS.sleep(5);
+        renderer.render(mail("c", "Ann"));
+
+        MailTemplateStats stats = renderer.stats();
+        assertEquals(2, stats.getCached());
+        assertEquals(1, stats.getEvictions());
+        renderer.render(mail("a", "Ann"));
+        assertEquals(3, renderer.stats().getMisses());
+        renderer.render(mail("b", "Ann"));
+        assertEquals(4, renderer.stats().getMisses());
+    }
+
+    @Test
+    void reloadsTemplateWhenVersionChanges() {
+        put("welcome", "Hello {{name}}", null, null, 1L);
+        MailTemplateRenderer renderer = renderer(Duration.ZERO, 10);
+        assertEquals("Hello Ann", renderer.render(mail("welcome", "Ann")).getSubject());
+
+        // same version: the cached plan is kept
+        put("welcome", "Hi {{name}}", null, null, 1L);
+        assertEquals("Hello Ann", renderer.render(mail("welcome", "Ann")).getSubject());
+
+        put("welcome", "Hi {{name}}", null, null, 2L);
+        assertEquals("Hi Ann", renderer.render(mail("welcome", "Ann")).getSubject());
+        assertEquals(1, renderer.stats().getReloads());
+    }
+
+    @Test
+    void waitsForReloadInterval() {
+        put("welcome", "Hello {{name}}", null, null, 1L);
+        MailTemplateRenderer renderer = renderer(Duration.ofMinutes(1), 10);
+        renderer.render(mail("welcome", "Ann"));
+        put("welcome", "Hi {{name}}", null, null, 2L);
+        assertEquals("Hello Ann", renderer.render(mail("welcome", "Ann")).getSubject());
+
+        renderer.invalidate("welcome");
+        assertEquals("Hi Ann", renderer.render(mail("welcome", "Ann")).getSubject());
+    }
+
+    @Test
+    void dropsDeletedTemplate() {
+        put("welcome", "Hello {{name}}", null, null, 1L);
+        MailTemplateRenderer renderer = renderer(Duration.ZERO, 10);
+        renderer.render(mail("welcome", "Ann"));
+        templates.remove("welcome");
+
+        assertThrows(IllegalArgumentException.class, () -> renderer.render(mail("welcome", "Ann")));
+        assertEquals(0, renderer.stats().getCached());
+    }
+
+    @Test
+    void rendersAllInOrder() {
+        put("welcome", "Hello {{name}}", "Dear {{name}}", null, 1L);
+        List<BaseMailModel> mails = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            mails.add(mail("welcome", "reader " + i));
+        }
+        List<BaseMailModel> rendered = renderer(Duration.ofMinutes(1), 10).renderAll(mails);
+
+        assertEquals(500, rendered.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("Hello reader " + i, rendered.get(i).getSubject());
+            assertEquals("Dear reader " + i, rendered.get(i).getText());
+        }
+    }
+
+    private void put(String id, String subject, String text, String html, long version) {
+        templates.put(id, MailTemplate.builder().id(id).subject(subject).text(text).html(html).version(version).build());
+    }
+
+    private MailTemplateRenderer renderer(Duration reloadInterval, int maxTemplates) {
+        return MailTemplateRenderer.builder()
+                .source(templates::get)
+                .reloadInterval(reloadInterval)
+                .maxTemplates(maxTemplates)
+                .build();
+    }
+
+    private static BaseMailModel mail(String templateId, String name) {
+        return BaseMailModel.builder()
+                .to(List.of("reader@example.com"))
+                .templateId(templateId)
+                .variables(Map.of("name", name))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package org.sekailabs.mail.template;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TemplatePlanTest {
+    private static final Map<String, String> VARIABLES = Map.of(
+            "name", "O'Neil & <Sons>",
+            "quote", "\"hi\"");
+
+    @Test
+    void fillsInVariables() {
+        assertEquals("Hello O'Neil & <Sons>, bye", render("Hello {{name}}, bye", false));
+        assertEquals("O'Neil & <Sons>", render("{{ name }}", false));
+        assertEquals("no variables", render("no variables", false));
+        assertEquals("", render("", false));
+    }
+
+    @Test
+    void escapesVariablesInHtml() {
+        assertEquals("<p>O&#39;Neil &amp; &lt;Sons&gt; said &quot;hi&quot;</p>", render("<p>{{name}} said {{quote}}</p>", true));
+    }
+
+    @Test
+    void keepsTripleBraceVariablesRaw() {
+        assertEquals("<p>O'Neil & <Sons> / O&#39;Neil &amp; &lt;Sons&gt;</p>", render("<p>{{{name}}} / {{name}}</p>", true));
+        assertEquals("O'Neil & <Sons>", render("{{{ name }}}", true));
+    }
+
+    @Test
+    void rejectsUnclosedVariables() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> TemplatePlan.compile("welcome", "Hi {{name", false));
+        assertEquals("Unclosed variable in mail template welcome at offset 3", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> TemplatePlan.compile("welcome", "Hi {{{name}}", true));
+    }
+
+    @Test
+    void rejectsEmptyVariables() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> TemplatePlan.compile("welcome", "Hi {{ }}", false));
+        assertEquals("Empty variable in mail template welcome at offset 3", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> TemplatePlan.compile("welcome", "{{{}}}", true));
+    }
+
+    @Test
+    void rejectsMissingVariables() {
+        TemplatePlan plan = TemplatePlan.compile("welcome", "Hi {{first}}", false);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> plan.render("welcome", Map.of(), new StringBuilder()));
+        assertEquals("Missing variable first of mail template welcome", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> plan.render("welcome", null, new StringBuilder()));
+    }
+
+    @Test
+    void countsLiteralLength() {
+        assertEquals(9, TemplatePlan.compile("welcome", "Hi {{name}}, bye!", false).literalLength());
+    }
+
+    private static String render(String source, boolean html) {
+        StringBuilder out = new StringBuilder();
+        TemplatePlan.compile("test", source, html).render("test", VARIABLES, out);
+        return out.toString();
+    }
+}